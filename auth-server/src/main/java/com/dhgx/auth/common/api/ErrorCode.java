@@ -8,7 +8,8 @@ public enum ErrorCode {
     FORBIDDEN(100200, 403, "暂无访问权限，请联系管理员"),
     INVALID_ARGUMENT(100300, 400, "请求参数有误，请检查后重试"),
     NOT_FOUND(100404, 404, "资源不存在或已被删除"),
-    INTERNAL_ERROR(100500, 500, "系统开小差了，请稍后再试");
+    INTERNAL_ERROR(100500, 500, "系统开小差了，请稍后再试"),
+    SERVICE_BUSY(100503, 503, "系统繁忙，请稍后再试");
 
     private final int code;
     private final int httpStatus;
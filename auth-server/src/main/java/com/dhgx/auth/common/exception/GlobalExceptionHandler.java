@@ -2,6 +2,7 @@ package com.dhgx.auth.common.exception;
 
 import com.dhgx.auth.common.api.ApiResponse;
 import com.dhgx.auth.common.api.ErrorCode;
+import com.dhgx.common.security.PasswordHashRejectedException;
 import cn.dev33.satoken.exception.NotLoginException;
 import cn.dev33.satoken.exception.NotPermissionException;
 import cn.dev33.satoken.exception.NotRoleException;
@@ -9,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.BindException;
@@ -109,6 +111,16 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.failure(ErrorCode.INVALID_ARGUMENT, message));
     }
 
+    /**
+     * 处理密码哈希线程池繁忙，返回可重试的繁忙响应。
+     */
+    @ExceptionHandler(PasswordHashRejectedException.class)
+    public ResponseEntity<ApiResponse<Void>> handlePasswordHashRejected(PasswordHashRejectedException ex) {
+        return ResponseEntity.status(ErrorCode.SERVICE_BUSY.getHttpStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.failure(ErrorCode.SERVICE_BUSY, ErrorCode.SERVICE_BUSY.getMessage()));
+    }
+
     /**
      * 兜底处理未知异常。
      */
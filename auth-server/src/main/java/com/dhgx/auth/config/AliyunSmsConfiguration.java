@@ -2,15 +2,21 @@ package com.dhgx.auth.config;
 
 import com.aliyun.dysmsapi20170525.Client;
 import com.aliyun.teaopenapi.models.Config;
+import com.dhgx.auth.sms.AliyunSmsProvider;
+import com.dhgx.auth.sms.SmsDispatcher;
+import com.dhgx.auth.sms.SmsProvider;
+import com.dhgx.auth.sms.StubSmsProvider;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 /**
  * AliyunSmsConfiguration。
  * <p>
- * 提供阿里云短信客户端 Bean。
-    * </p>
-     */
+ * 提供阿里云短信客户端、短信服务商（{@code auth.sms.provider}）与异步发送队列 Bean。
+ * </p>
+ */
 @Configuration
 public class AliyunSmsConfiguration {
 
@@ -30,4 +36,28 @@ public class AliyunSmsConfiguration {
                 .setEndpoint(sms.getEndpoint());
         return new Client(config);
     }
+
+    /**
+     * 按 {@code auth.sms.provider} 选择短信服务商，默认 stub 仅记录日志不实际下发。
+     *
+     * @param smsClient      阿里云短信客户端
+     * @param authProperties 认证配置
+     * @return 短信服务商
+     */
+    @Bean
+    public SmsProvider smsProvider(Client smsClient, AuthProperties authProperties) {
+        if ("aliyun".equalsIgnoreCase(authProperties.getSms().getProvider())) {
+            return new AliyunSmsProvider(smsClient, authProperties);
+        }
+        return new StubSmsProvider();
+    }
+
+    /**
+     * 构建短信异步发送队列。
+     */
+    @Bean
+    public SmsDispatcher smsDispatcher(StringRedisTemplate stringRedisTemplate, SmsProvider smsProvider,
+                                       AuthProperties authProperties, MeterRegistry meterRegistry) {
+        return new SmsDispatcher(stringRedisTemplate, smsProvider, authProperties, meterRegistry);
+    }
 }
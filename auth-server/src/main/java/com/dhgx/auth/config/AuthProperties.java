@@ -1,6 +1,7 @@
 package com.dhgx.auth.config;
 
 import com.dhgx.common.security.PasswordEncryptProperties;
+import com.dhgx.common.security.PasswordHashProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -22,6 +23,22 @@ public class AuthProperties {
     private PasswordResetProperties passwordReset = new PasswordResetProperties();
     /** 密码传输加密配置。 */
     private PasswordEncryptProperties passwordEncrypt = new PasswordEncryptProperties();
+    /** 密码哈希线程池配置。 */
+    private PasswordHashProperties passwordHash = new PasswordHashProperties();
+    /** 密码编码器参数。 */
+    private PasswordEncoderProperties passwordEncoder = new PasswordEncoderProperties();
+    /** 登录后异步升级密码哈希的配置。 */
+    private PasswordRehashProperties passwordRehash = new PasswordRehashProperties();
+    /** 签名访问令牌配置。 */
+    private AccessTokenProperties accessToken = new AccessTokenProperties();
+    /** 批量会话查询单次允许的最大凭证数。 */
+    private int sessionBatchMaxTokens = 200;
+    /** 批量踢出单次允许的最大用户数。 */
+    private int kickBatchMaxUsers = 500;
+    /** Token 版本号本地缓存配置。 */
+    private TokenVersionCacheProperties tokenVersionCache = new TokenVersionCacheProperties();
+    /** 用户目录（账号布隆过滤器与状态缓存）配置。 */
+    private UserDirectoryProperties userDirectory = new UserDirectoryProperties();
 
     /**
      * 获取内部 Token。
@@ -85,6 +102,86 @@ public class AuthProperties {
         this.passwordEncrypt = passwordEncrypt;
     }
 
+    /** 获取密码哈希线程池配置。 */
+    public PasswordHashProperties getPasswordHash() {
+        return passwordHash;
+    }
+
+    /** 设置密码哈希线程池配置。 */
+    public void setPasswordHash(PasswordHashProperties passwordHash) {
+        this.passwordHash = passwordHash;
+    }
+
+    /** 获取密码编码器参数。 */
+    public PasswordEncoderProperties getPasswordEncoder() {
+        return passwordEncoder;
+    }
+
+    /** 设置密码编码器参数。 */
+    public void setPasswordEncoder(PasswordEncoderProperties passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /** 获取异步升级密码哈希的配置。 */
+    public PasswordRehashProperties getPasswordRehash() {
+        return passwordRehash;
+    }
+
+    /** 设置异步升级密码哈希的配置。 */
+    public void setPasswordRehash(PasswordRehashProperties passwordRehash) {
+        this.passwordRehash = passwordRehash;
+    }
+
+    /** 获取用户目录配置。 */
+    public UserDirectoryProperties getUserDirectory() {
+        return userDirectory;
+    }
+
+    /** 设置用户目录配置。 */
+    public void setUserDirectory(UserDirectoryProperties userDirectory) {
+        this.userDirectory = userDirectory;
+    }
+
+    /** 获取签名访问令牌配置。 */
+    public AccessTokenProperties getAccessToken() {
+        return accessToken;
+    }
+
+    /** 设置签名访问令牌配置。 */
+    public void setAccessToken(AccessTokenProperties accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    /** 获取批量会话查询的最大凭证数。 */
+    public int getSessionBatchMaxTokens() {
+        return sessionBatchMaxTokens;
+    }
+
+    /** 设置批量会话查询的最大凭证数。 */
+    public void setSessionBatchMaxTokens(int sessionBatchMaxTokens) {
+        this.sessionBatchMaxTokens = sessionBatchMaxTokens;
+    }
+
+    /** 获取批量踢出的最大用户数。 */
+    public int getKickBatchMaxUsers() {
+        return kickBatchMaxUsers;
+    }
+
+    /** 设置批量踢出的最大用户数。 */
+    public void setKickBatchMaxUsers(int kickBatchMaxUsers) {
+        this.kickBatchMaxUsers = kickBatchMaxUsers;
+    }
+
+    /** 获取 Token 版本号本地缓存配置。 */
+    public TokenVersionCacheProperties getTokenVersionCache() {
+        return tokenVersionCache;
+    }
+
+    /** 设置 Token 版本号本地缓存配置。 */
+    public void setTokenVersionCache(TokenVersionCacheProperties tokenVersionCache) {
+        this.tokenVersionCache = tokenVersionCache;
+    }
+
     /**
      * 短信配置。
      */
@@ -105,6 +202,12 @@ public class AuthProperties {
         private long ttlSeconds = 300;
         /** 发送间隔限制（秒）。 */
         private long sendIntervalSeconds = 60;
+        /** 单个验证码允许的最大错误次数，达到后验证码作废。 */
+        private int maxVerifyAttempts = 5;
+        /** 短信服务商：stub（仅打印日志，本地开发与测试使用）或 aliyun。 */
+        private String provider = "stub";
+        /** 异步发送队列配置。 */
+        private DispatchProperties dispatch = new DispatchProperties();
 
         /** 获取 AccessKeyId。 */
         public String getAccessKeyId() {
@@ -186,6 +289,36 @@ public class AuthProperties {
             this.sendIntervalSeconds = sendIntervalSeconds;
         }
 
+        /** 获取最大错误次数。 */
+        public int getMaxVerifyAttempts() {
+            return maxVerifyAttempts;
+        }
+
+        /** 设置最大错误次数。 */
+        public void setMaxVerifyAttempts(int maxVerifyAttempts) {
+            this.maxVerifyAttempts = maxVerifyAttempts;
+        }
+
+        /** 获取短信服务商。 */
+        public String getProvider() {
+            return provider;
+        }
+
+        /** 设置短信服务商。 */
+        public void setProvider(String provider) {
+            this.provider = provider;
+        }
+
+        /** 获取异步发送队列配置。 */
+        public DispatchProperties getDispatch() {
+            return dispatch;
+        }
+
+        /** 设置异步发送队列配置。 */
+        public void setDispatch(DispatchProperties dispatch) {
+            this.dispatch = dispatch;
+        }
+
         /**
          * 模板编码配置。
          */
@@ -211,6 +344,162 @@ public class AuthProperties {
                 this.loginVerificationCode = loginVerificationCode;
             }
         }
+
+        /**
+         * 短信异步发送队列配置。
+         */
+        public static class DispatchProperties {
+            /** 是否先写入 Redis Stream 再由工作线程发送；关闭时仅使用内存队列，实例重启会丢失未发送的短信。 */
+            private boolean durable = true;
+            /** 持久化队列的 Stream Key。 */
+            private String streamKey = "auth:sms:outbox";
+            /** 最终发送失败的短信写入的 Stream Key。 */
+            private String deadLetterStreamKey = "auth:sms:dead";
+            /** 死信 Stream 保留的最大条数（近似裁剪），不大于 0 时不裁剪。 */
+            private long deadLetterMaxLength = 10000;
+            /** 消费组名称，所有实例共享。 */
+            private String consumerGroup = "auth-sms";
+            /** 消费者名称，为空时按主机名生成，需保证每个实例唯一且重启后不变。 */
+            private String consumerName;
+            /** 内存队列容量。 */
+            private int queueCapacity = 1000;
+            /** 同时调用短信服务商的请求数（工作线程数）。 */
+            private int maxConcurrency = 4;
+            /** 单次批量发送的最大条数，不超过服务商的上限。 */
+            private int maxBatchSize = 50;
+            /** 凑批等待时间（毫秒）。 */
+            private long batchWaitMillis = 20;
+            /** 最大发送次数（含首次）。 */
+            private int maxAttempts = 5;
+            /** 首次重试的退避时间（毫秒），之后按指数增长。 */
+            private long initialBackoffMillis = 500;
+            /** 最大退避时间（毫秒）。 */
+            private long maxBackoffMillis = 30000;
+            /** 读取 Stream 时的阻塞等待时间（毫秒）。 */
+            private long pollTimeoutMillis = 1000;
+            /** 已投递但超过该时长未确认的消息视为实例宕机遗留，由其他实例认领（毫秒）。 */
+            private long claimIdleMillis = 60000;
+
+            public boolean isDurable() {
+                return durable;
+            }
+
+            public void setDurable(boolean durable) {
+                this.durable = durable;
+            }
+
+            public String getStreamKey() {
+                return streamKey;
+            }
+
+            public void setStreamKey(String streamKey) {
+                this.streamKey = streamKey;
+            }
+
+            public String getDeadLetterStreamKey() {
+                return deadLetterStreamKey;
+            }
+
+            public void setDeadLetterStreamKey(String deadLetterStreamKey) {
+                this.deadLetterStreamKey = deadLetterStreamKey;
+            }
+
+            public long getDeadLetterMaxLength() {
+                return deadLetterMaxLength;
+            }
+
+            public void setDeadLetterMaxLength(long deadLetterMaxLength) {
+                this.deadLetterMaxLength = deadLetterMaxLength;
+            }
+
+            public String getConsumerGroup() {
+                return consumerGroup;
+            }
+
+            public void setConsumerGroup(String consumerGroup) {
+                this.consumerGroup = consumerGroup;
+            }
+
+            public String getConsumerName() {
+                return consumerName;
+            }
+
+            public void setConsumerName(String consumerName) {
+                this.consumerName = consumerName;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public int getMaxConcurrency() {
+                return maxConcurrency;
+            }
+
+            public void setMaxConcurrency(int maxConcurrency) {
+                this.maxConcurrency = maxConcurrency;
+            }
+
+            public int getMaxBatchSize() {
+                return maxBatchSize;
+            }
+
+            public void setMaxBatchSize(int maxBatchSize) {
+                this.maxBatchSize = maxBatchSize;
+            }
+
+            public long getBatchWaitMillis() {
+                return batchWaitMillis;
+            }
+
+            public void setBatchWaitMillis(long batchWaitMillis) {
+                this.batchWaitMillis = batchWaitMillis;
+            }
+
+            public int getMaxAttempts() {
+                return maxAttempts;
+            }
+
+            public void setMaxAttempts(int maxAttempts) {
+                this.maxAttempts = maxAttempts;
+            }
+
+            public long getInitialBackoffMillis() {
+                return initialBackoffMillis;
+            }
+
+            public void setInitialBackoffMillis(long initialBackoffMillis) {
+                this.initialBackoffMillis = initialBackoffMillis;
+            }
+
+            public long getMaxBackoffMillis() {
+                return maxBackoffMillis;
+            }
+
+            public void setMaxBackoffMillis(long maxBackoffMillis) {
+                this.maxBackoffMillis = maxBackoffMillis;
+            }
+
+            public long getPollTimeoutMillis() {
+                return pollTimeoutMillis;
+            }
+
+            public void setPollTimeoutMillis(long pollTimeoutMillis) {
+                this.pollTimeoutMillis = pollTimeoutMillis;
+            }
+
+            public long getClaimIdleMillis() {
+                return claimIdleMillis;
+            }
+
+            public void setClaimIdleMillis(long claimIdleMillis) {
+                this.claimIdleMillis = claimIdleMillis;
+            }
+        }
     }
 
     /**
@@ -249,4 +538,385 @@ public class AuthProperties {
         }
     }
 
+    /**
+     * 签名访问令牌配置。开启后登录时额外下发短时有效的签名令牌，网关可本地校验而无需访问认证服务。
+     */
+    public static class AccessTokenProperties {
+        /** 是否签发签名访问令牌。 */
+        private boolean enabled = false;
+        /** 令牌有效期（秒），过期后网关回退到会话查询。 */
+        private long ttlSeconds = 120;
+        /** 令牌所在 Cookie 名称。 */
+        private String cookieName = "atk";
+        /** HMAC 密钥（Base64，至少 32 字节），为空时自动生成并写入 Redis 供各实例与网关共享。 */
+        private String secret;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public String getCookieName() {
+            return cookieName;
+        }
+
+        public void setCookieName(String cookieName) {
+            this.cookieName = cookieName;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+    }
+
+    /**
+     * Token 版本号本地缓存配置。版本号变更通过事件流广播到各实例，TTL 仅作为事件丢失时的兜底。
+     */
+    public static class TokenVersionCacheProperties {
+        /** 是否启用本地缓存。 */
+        private boolean enabled = true;
+        /** 缓存有效期（秒）。 */
+        private long ttlSeconds = 30;
+        /** 最大缓存用户数。 */
+        private long maximumSize = 100000;
+        /** 订阅版本变更事件的消费组，为空时按主机名生成并以广播方式订阅；显式配置时需保证每个实例唯一，且不会自动清理。 */
+        private String consumerGroup;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public String getConsumerGroup() {
+            return consumerGroup;
+        }
+
+        public void setConsumerGroup(String consumerGroup) {
+            this.consumerGroup = consumerGroup;
+        }
+    }
+
+    /**
+     * 用户目录配置：已知用户名/手机号的布隆过滤器与短信登录的用户状态缓存。
+     */
+    public static class UserDirectoryProperties {
+        /** 是否启用布隆过滤器，在查询数据库前拒绝不存在的账号。 */
+        private boolean bloomEnabled = true;
+        /** 预期元素数（用户名与手机号合计）。 */
+        private long expectedInsertions = 1000000;
+        /** 目标误判率。 */
+        private double falsePositiveProbability = 0.01;
+        /** 按 update_time 增量加载的间隔（秒）；新建账号另由账号目录版本号触发按需加载，不受该间隔影响。 */
+        private long refreshIntervalSeconds = 60;
+        /** 全量重建间隔（分钟），用于剔除已修改的旧用户名/手机号。 */
+        private long rebuildIntervalMinutes = 360;
+        /** 加载时每页读取的行数。 */
+        private int loadPageSize = 5000;
+        /** 是否启用短信登录的用户状态缓存。 */
+        private boolean statusCacheEnabled = true;
+        /** 用户状态缓存有效期（秒）。 */
+        private long statusCacheTtlSeconds = 60;
+        /** 用户状态缓存最大条数。 */
+        private long statusCacheMaximumSize = 10000;
+        /** 订阅用户变更事件的消费组，为空时按主机名生成并以广播方式订阅；显式配置时需保证每个实例唯一，且不会自动清理。 */
+        private String consumerGroup;
+
+        public boolean isBloomEnabled() {
+            return bloomEnabled;
+        }
+
+        public void setBloomEnabled(boolean bloomEnabled) {
+            this.bloomEnabled = bloomEnabled;
+        }
+
+        public long getExpectedInsertions() {
+            return expectedInsertions;
+        }
+
+        public void setExpectedInsertions(long expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+        }
+
+        public double getFalsePositiveProbability() {
+            return falsePositiveProbability;
+        }
+
+        public void setFalsePositiveProbability(double falsePositiveProbability) {
+            this.falsePositiveProbability = falsePositiveProbability;
+        }
+
+        public long getRefreshIntervalSeconds() {
+            return refreshIntervalSeconds;
+        }
+
+        public void setRefreshIntervalSeconds(long refreshIntervalSeconds) {
+            this.refreshIntervalSeconds = refreshIntervalSeconds;
+        }
+
+        public long getRebuildIntervalMinutes() {
+            return rebuildIntervalMinutes;
+        }
+
+        public void setRebuildIntervalMinutes(long rebuildIntervalMinutes) {
+            this.rebuildIntervalMinutes = rebuildIntervalMinutes;
+        }
+
+        public int getLoadPageSize() {
+            return loadPageSize;
+        }
+
+        public void setLoadPageSize(int loadPageSize) {
+            this.loadPageSize = loadPageSize;
+        }
+
+        public boolean isStatusCacheEnabled() {
+            return statusCacheEnabled;
+        }
+
+        public void setStatusCacheEnabled(boolean statusCacheEnabled) {
+            this.statusCacheEnabled = statusCacheEnabled;
+        }
+
+        public long getStatusCacheTtlSeconds() {
+            return statusCacheTtlSeconds;
+        }
+
+        public void setStatusCacheTtlSeconds(long statusCacheTtlSeconds) {
+            this.statusCacheTtlSeconds = statusCacheTtlSeconds;
+        }
+
+        public long getStatusCacheMaximumSize() {
+            return statusCacheMaximumSize;
+        }
+
+        public void setStatusCacheMaximumSize(long statusCacheMaximumSize) {
+            this.statusCacheMaximumSize = statusCacheMaximumSize;
+        }
+
+        public String getConsumerGroup() {
+            return consumerGroup;
+        }
+
+        public void setConsumerGroup(String consumerGroup) {
+            this.consumerGroup = consumerGroup;
+        }
+    }
+
+    /**
+     * 登录后异步升级密码哈希的配置。明文密码仅保存在内存队列中，队列已满时放弃本次升级，下次登录再试。
+     */
+    public static class PasswordRehashProperties {
+        /** 是否升级旧算法或低成本参数的哈希。 */
+        private boolean enabled = true;
+        /** 后台线程数。 */
+        private int poolSize = 1;
+        /** 队列容量。 */
+        private int queueCapacity = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * 密码编码器参数。默认值与 Spring Security 的默认参数一致，建议按 {@link PasswordHashCalibrator} 的校准结果配置。
+     */
+    public static class PasswordEncoderProperties {
+        /** 新密码使用的算法：argon2 或 bcrypt，两种算法的历史哈希均可校验。 */
+        private String defaultAlgorithm = "argon2";
+        /** Argon2id 参数。 */
+        private Argon2Properties argon2 = new Argon2Properties();
+        /** BCrypt 强度（log2 轮数）。 */
+        private int bcryptStrength = 10;
+        /** 参数校准配置。 */
+        private CalibrationProperties calibration = new CalibrationProperties();
+
+        public String getDefaultAlgorithm() {
+            return defaultAlgorithm;
+        }
+
+        public void setDefaultAlgorithm(String defaultAlgorithm) {
+            this.defaultAlgorithm = defaultAlgorithm;
+        }
+
+        public Argon2Properties getArgon2() {
+            return argon2;
+        }
+
+        public void setArgon2(Argon2Properties argon2) {
+            this.argon2 = argon2;
+        }
+
+        public int getBcryptStrength() {
+            return bcryptStrength;
+        }
+
+        public void setBcryptStrength(int bcryptStrength) {
+            this.bcryptStrength = bcryptStrength;
+        }
+
+        public CalibrationProperties getCalibration() {
+            return calibration;
+        }
+
+        public void setCalibration(CalibrationProperties calibration) {
+            this.calibration = calibration;
+        }
+    }
+
+    /**
+     * Argon2id 参数。
+     */
+    public static class Argon2Properties {
+        /** 盐长度（字节）。 */
+        private int saltLength = 16;
+        /** 哈希长度（字节）。 */
+        private int hashLength = 32;
+        /** 并行度（lanes）。 */
+        private int parallelism = 1;
+        /** 内存开销（KiB）。 */
+        private int memoryKib = 4096;
+        /** 迭代次数。 */
+        private int iterations = 3;
+
+        public int getSaltLength() {
+            return saltLength;
+        }
+
+        public void setSaltLength(int saltLength) {
+            this.saltLength = saltLength;
+        }
+
+        public int getHashLength() {
+            return hashLength;
+        }
+
+        public void setHashLength(int hashLength) {
+            this.hashLength = hashLength;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMemoryKib() {
+            return memoryKib;
+        }
+
+        public void setMemoryKib(int memoryKib) {
+            this.memoryKib = memoryKib;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+    }
+
+    /**
+     * 密码哈希参数校准配置。
+     */
+    public static class CalibrationProperties {
+        /** 是否在启动后于后台线程执行一次校准并输出推荐参数（不会自动生效）。 */
+        private boolean onStartup = false;
+        /** 单次哈希的目标耗时（毫秒）。 */
+        private long targetMillis = 250;
+        /** 用于密码哈希的 CPU 核数，即同时进行的哈希数，小于等于 0 时取 CPU 核数。 */
+        private int coreBudget = 0;
+        /** 全部并发哈希可占用的内存上限（MiB），单次 Argon2 内存不超过该值除以核数。 */
+        private int maxTotalMemoryMib = 512;
+
+        public boolean isOnStartup() {
+            return onStartup;
+        }
+
+        public void setOnStartup(boolean onStartup) {
+            this.onStartup = onStartup;
+        }
+
+        public long getTargetMillis() {
+            return targetMillis;
+        }
+
+        public void setTargetMillis(long targetMillis) {
+            this.targetMillis = targetMillis;
+        }
+
+        public int getCoreBudget() {
+            return coreBudget;
+        }
+
+        public void setCoreBudget(int coreBudget) {
+            this.coreBudget = coreBudget;
+        }
+
+        public int getMaxTotalMemoryMib() {
+            return maxTotalMemoryMib;
+        }
+
+        public void setMaxTotalMemoryMib(int maxTotalMemoryMib) {
+            this.maxTotalMemoryMib = maxTotalMemoryMib;
+        }
+    }
 }
@@ -1,7 +1,11 @@
 package com.dhgx.auth.config;
 
+import com.dhgx.common.security.BoundedPasswordEncoder;
+import com.dhgx.common.security.PasswordHashProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
@@ -13,21 +17,51 @@ import java.util.Map;
 /**
  * 密码加密配置，使用 DelegatingPasswordEncoder 统一管理算法。
  * 默认算法为 Argon2id，兼容 bcrypt，所有哈希均带算法前缀以避免明文或可逆加密。
+ * 算法参数由 {@code auth.password-encoder.*} 配置，可通过 {@link PasswordHashCalibrator} 按机器校准。
+ * 哈希计算在 {@link BoundedPasswordEncoder} 的独立线程池中执行（{@code auth.password-hash.*}）；
+ * 后台哈希升级自带线程池，注入未包装的 {@code delegatingPasswordEncoder}，不占用登录的哈希线程池。
  */
 @Configuration
 public class PasswordEncoderConfig {
 
+    static final String ARGON2 = "argon2";
+    static final String BCRYPT = "bcrypt";
+
     /**
      * 配置密码编码器，默认使用 Argon2id，兼容 bcrypt。
      *
-     * @return DelegatingPasswordEncoder 实例
+     * @return 在独立线程池中执行哈希的 DelegatingPasswordEncoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        String defaultId = "argon2";
+    @Primary
+    public PasswordEncoder passwordEncoder(AuthProperties authProperties, MeterRegistry meterRegistry) {
+        DelegatingPasswordEncoder delegating = delegatingPasswordEncoder(authProperties);
+        PasswordHashProperties hashProperties = authProperties.getPasswordHash();
+        return hashProperties.isEnabled()
+                ? new BoundedPasswordEncoder(delegating, hashProperties, meterRegistry)
+                : delegating;
+    }
+
+    /**
+     * 未经线程池包装的编码器，在调用线程上直接计算哈希，供自带线程池的后台任务使用。
+     *
+     * @return DelegatingPasswordEncoder
+     */
+    @Bean
+    public DelegatingPasswordEncoder delegatingPasswordEncoder(AuthProperties authProperties) {
+        AuthProperties.PasswordEncoderProperties encoderProperties = authProperties.getPasswordEncoder();
+        String defaultId = BCRYPT.equalsIgnoreCase(encoderProperties.getDefaultAlgorithm()) ? BCRYPT : ARGON2;
         Map<String, PasswordEncoder> encoders = new HashMap<>();
-        encoders.put(defaultId, new Argon2PasswordEncoder());
-        encoders.put("bcrypt", new BCryptPasswordEncoder());
+        encoders.put(ARGON2, argon2(encoderProperties.getArgon2()));
+        encoders.put(BCRYPT, new BCryptPasswordEncoder(encoderProperties.getBcryptStrength()));
         return new DelegatingPasswordEncoder(defaultId, encoders);
     }
+
+    /**
+     * 按配置构建 Argon2id 编码器。
+     */
+    static Argon2PasswordEncoder argon2(AuthProperties.Argon2Properties properties) {
+        return new Argon2PasswordEncoder(properties.getSaltLength(), properties.getHashLength(),
+                properties.getParallelism(), properties.getMemoryKib(), properties.getIterations());
+    }
 }
@@ -0,0 +1,54 @@
+package com.dhgx.auth.config;
+
+import com.dhgx.common.security.PasswordHashProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * PasswordHashCalibrationRunner。
+ * <p>
+ * {@code auth.password-encoder.calibration.on-startup=true} 时，在应用就绪后于后台线程执行一次
+ * {@link PasswordHashCalibrator} 并输出推荐参数。推荐值不会自动生效，需写入配置后重启，
+ * 避免同一集群内各实例因机器差异产生不同成本的哈希。
+ * </p>
+ */
+@Component
+public class PasswordHashCalibrationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashCalibrationRunner.class);
+
+    private final AuthProperties properties;
+
+    public PasswordHashCalibrationRunner(AuthProperties properties) {
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        AuthProperties.CalibrationProperties calibration = properties.getPasswordEncoder().getCalibration();
+        if (!calibration.isOnStartup()) {
+            return;
+        }
+        PasswordHashProperties hashProperties = properties.getPasswordHash();
+        int coreBudget = calibration.getCoreBudget() > 0 ? calibration.getCoreBudget() : hashProperties.getPoolSize();
+        PasswordHashCalibrator calibrator = new PasswordHashCalibrator(calibration.getTargetMillis(),
+                calibration.getMaxTotalMemoryMib(), coreBudget);
+        Thread thread = new Thread(() -> {
+            try {
+                PasswordHashCalibrator.Recommendation recommendation = calibrator.calibrate();
+                if (!recommendation.isWithinTarget()) {
+                    log.warn("Minimum password hash cost exceeds target {}ms on this machine",
+                            recommendation.getTargetMillis());
+                }
+                log.info("Password hash calibration: {}\n{}", recommendation.summary(), recommendation.toYaml());
+            } catch (Exception ex) {
+                log.warn("Password hash calibration failed: {}", ex.getMessage());
+            }
+        }, "password-hash-calibration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
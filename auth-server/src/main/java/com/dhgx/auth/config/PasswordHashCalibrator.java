@@ -0,0 +1,238 @@
+package com.dhgx.auth.config;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Arrays;
+
+/**
+ * PasswordHashCalibrator。
+ * <p>
+ * 在当前机器上实测 Argon2id 与 BCrypt 的单次哈希耗时，给出不超过目标耗时的最高成本参数：
+ * Argon2id 先在内存上限（总内存上限 / 核数）内逐级翻倍内存，再增加迭代次数；BCrypt 从强度 10 起逐级增加。
+ * 并行度固定为 1：Spring Security 的 Argon2 实现（BouncyCastle）在单线程内依次计算各 lane，
+ * 提高并行度只会增加耗时而不会缩短，并发能力由 {@code auth.password-hash.pool-size} 的线程数提供。
+ * 可作为命令行工具运行：
+ * {@code java -cp auth-server.jar -Dloader.main=com.dhgx.auth.config.PasswordHashCalibrator
+ * org.springframework.boot.loader.PropertiesLauncher --target-millis=250 --max-total-memory-mib=512 --core-budget=4}。
+ * </p>
+ */
+public class PasswordHashCalibrator {
+
+    static final int MIN_ARGON2_MEMORY_KIB = 4096;
+    static final int MIN_ARGON2_ITERATIONS = 2;
+    static final int MAX_ARGON2_ITERATIONS = 10;
+    static final int MIN_BCRYPT_STRENGTH = 10;
+    static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "Calibrate#2024-password";
+
+    private final long targetMillis;
+    private final int coreBudget;
+    private final int maxMemoryKibPerHash;
+
+    /**
+     * @param targetMillis      单次哈希的目标耗时（毫秒）
+     * @param maxTotalMemoryMib 全部并发哈希可占用的内存上限（MiB）
+     * @param coreBudget        同时进行的哈希数，小于等于 0 时取 CPU 核数
+     */
+    public PasswordHashCalibrator(long targetMillis, int maxTotalMemoryMib, int coreBudget) {
+        this.targetMillis = Math.max(1L, targetMillis);
+        this.coreBudget = coreBudget > 0 ? coreBudget : Runtime.getRuntime().availableProcessors();
+        this.maxMemoryKibPerHash = Math.max(MIN_ARGON2_MEMORY_KIB,
+                (int) Math.min(Integer.MAX_VALUE, Math.max(1L, maxTotalMemoryMib) * 1024L / this.coreBudget));
+    }
+
+    /**
+     * 执行校准。耗时与目标耗时和机器性能相关，通常为数秒到数十秒。
+     *
+     * @return 推荐参数
+     */
+    public Recommendation calibrate() {
+        Recommendation recommendation = new Recommendation(targetMillis, coreBudget);
+        calibrateArgon2(recommendation);
+        calibrateBcrypt(recommendation);
+        return recommendation;
+    }
+
+    private void calibrateArgon2(Recommendation recommendation) {
+        int memoryKib = MIN_ARGON2_MEMORY_KIB;
+        int iterations = MIN_ARGON2_ITERATIONS;
+        double millis = measureArgon2(memoryKib, iterations);
+        while (memoryKib * 2L <= maxMemoryKibPerHash) {
+            double next = measureArgon2(memoryKib * 2, iterations);
+            if (next > targetMillis) {
+                break;
+            }
+            memoryKib *= 2;
+            millis = next;
+        }
+        while (iterations < MAX_ARGON2_ITERATIONS && millis <= targetMillis) {
+            double next = measureArgon2(memoryKib, iterations + 1);
+            if (next > targetMillis) {
+                break;
+            }
+            iterations++;
+            millis = next;
+        }
+        recommendation.argon2MemoryKib = memoryKib;
+        recommendation.argon2Iterations = iterations;
+        recommendation.argon2Millis = millis;
+    }
+
+    private void calibrateBcrypt(Recommendation recommendation) {
+        int strength = MIN_BCRYPT_STRENGTH;
+        double millis = measure(new BCryptPasswordEncoder(strength));
+        while (strength < MAX_BCRYPT_STRENGTH && millis <= targetMillis) {
+            double next = measure(new BCryptPasswordEncoder(strength + 1));
+            if (next > targetMillis) {
+                break;
+            }
+            strength++;
+            millis = next;
+        }
+        recommendation.bcryptStrength = strength;
+        recommendation.bcryptMillis = millis;
+    }
+
+    private double measureArgon2(int memoryKib, int iterations) {
+        return measure(new Argon2PasswordEncoder(16, 32, 1, memoryKib, iterations));
+    }
+
+    /**
+     * 预热一次后取 {@value #SAMPLES} 次 encode 耗时的中位数（毫秒）。
+     */
+    private static double measure(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+        double[] samples = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+
+    /**
+     * 命令行入口，参数格式 {@code --target-millis=250 --max-total-memory-mib=512 --core-budget=0}。
+     */
+    public static void main(String[] args) {
+        AuthProperties.CalibrationProperties properties = new AuthProperties.CalibrationProperties();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (!arg.startsWith("--") || index < 0) {
+                throw new IllegalArgumentException("Unrecognized argument: " + arg);
+            }
+            String name = arg.substring(2, index);
+            String value = arg.substring(index + 1);
+            if ("target-millis".equals(name)) {
+                properties.setTargetMillis(Long.parseLong(value));
+            } else if ("max-total-memory-mib".equals(name)) {
+                properties.setMaxTotalMemoryMib(Integer.parseInt(value));
+            } else if ("core-budget".equals(name)) {
+                properties.setCoreBudget(Integer.parseInt(value));
+            } else {
+                throw new IllegalArgumentException("Unrecognized argument: " + arg);
+            }
+        }
+        Recommendation recommendation = new PasswordHashCalibrator(properties.getTargetMillis(),
+                properties.getMaxTotalMemoryMib(), properties.getCoreBudget()).calibrate();
+        System.out.println(recommendation.summary());
+        System.out.println(recommendation.toYaml());
+    }
+
+    /**
+     * 校准结果：推荐参数、实测耗时与按核数估算的吞吐。
+     */
+    public static class Recommendation {
+        private final long targetMillis;
+        private final int coreBudget;
+        private int argon2MemoryKib;
+        private int argon2Iterations;
+        private double argon2Millis;
+        private int bcryptStrength;
+        private double bcryptMillis;
+
+        Recommendation(long targetMillis, int coreBudget) {
+            this.targetMillis = targetMillis;
+            this.coreBudget = coreBudget;
+        }
+
+        public long getTargetMillis() {
+            return targetMillis;
+        }
+
+        public int getCoreBudget() {
+            return coreBudget;
+        }
+
+        public int getArgon2MemoryKib() {
+            return argon2MemoryKib;
+        }
+
+        public int getArgon2Iterations() {
+            return argon2Iterations;
+        }
+
+        public double getArgon2Millis() {
+            return argon2Millis;
+        }
+
+        public int getBcryptStrength() {
+            return bcryptStrength;
+        }
+
+        public double getBcryptMillis() {
+            return bcryptMillis;
+        }
+
+        /** Argon2id 在 {@link #getCoreBudget()} 个核上的估算吞吐（次/秒）。 */
+        public double getArgon2ThroughputPerSecond() {
+            return throughput(argon2Millis);
+        }
+
+        /** BCrypt 在 {@link #getCoreBudget()} 个核上的估算吞吐（次/秒）。 */
+        public double getBcryptThroughputPerSecond() {
+            return throughput(bcryptMillis);
+        }
+
+        /** 最低成本参数已超过目标耗时时返回 false，此时推荐值为下限，应增加核数或放宽目标。 */
+        public boolean isWithinTarget() {
+            return argon2Millis <= targetMillis && bcryptMillis <= targetMillis;
+        }
+
+        /**
+         * 将推荐参数写入配置对象（用于测试或程序化配置）。
+         */
+        public void applyTo(AuthProperties.PasswordEncoderProperties properties) {
+            properties.getArgon2().setParallelism(1);
+            properties.getArgon2().setMemoryKib(argon2MemoryKib);
+            properties.getArgon2().setIterations(argon2Iterations);
+            properties.setBcryptStrength(bcryptStrength);
+        }
+
+        public String summary() {
+            return String.format("target=%dms cores=%d argon2id(m=%dKiB,t=%d,p=1)=%.1fms ~%.0f/s "
+                            + "bcrypt(%d)=%.1fms ~%.0f/s withinTarget=%s",
+                    targetMillis, coreBudget, argon2MemoryKib, argon2Iterations, argon2Millis,
+                    getArgon2ThroughputPerSecond(), bcryptStrength, bcryptMillis,
+                    getBcryptThroughputPerSecond(), isWithinTarget());
+        }
+
+        public String toYaml() {
+            return "auth:\n"
+                    + "  password-encoder:\n"
+                    + "    argon2:\n"
+                    + "      parallelism: 1\n"
+                    + "      memory-kib: " + argon2MemoryKib + "\n"
+                    + "      iterations: " + argon2Iterations + "\n"
+                    + "    bcrypt-strength: " + bcryptStrength + "\n";
+        }
+
+        private double throughput(double millis) {
+            return millis <= 0 ? 0 : coreBudget * 1000.0 / millis;
+        }
+    }
+}
@@ -4,22 +4,31 @@ import cn.dev33.satoken.stp.StpUtil;
 import com.dhgx.auth.common.api.ApiResponse;
 import com.dhgx.auth.common.api.ErrorCode;
 import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.auth.service.AccessTokenService;
 import com.dhgx.auth.service.AuthService;
 import com.dhgx.auth.service.PasswordResetService;
+import com.dhgx.auth.service.SessionIntrospectionService;
+import com.dhgx.auth.service.SessionKickService;
 import com.dhgx.auth.service.SmsCodeService;
 import com.dhgx.auth.service.UserTokenVersionService;
 import com.dhgx.common.security.PasswordCryptoService;
 import com.dhgx.common.security.PasswordEncryptProperties;
+import com.dhgx.common.feign.dto.AuthBatchKickRequest;
+import com.dhgx.common.feign.dto.AuthBatchKickResponse;
 import com.dhgx.common.feign.dto.AuthKickRequest;
 import com.dhgx.common.feign.dto.AuthLoginRequest;
 import com.dhgx.common.feign.dto.AuthLoginResponse;
 import com.dhgx.common.feign.dto.AuthLoginType;
 import com.dhgx.common.feign.dto.AuthPasswordResetRequest;
 import com.dhgx.common.feign.dto.AuthResetTokenResponse;
+import com.dhgx.common.feign.dto.AuthSessionBatchRequest;
+import com.dhgx.common.feign.dto.AuthSessionBatchResponse;
 import com.dhgx.common.feign.dto.AuthSessionResponse;
 import com.dhgx.common.feign.dto.AuthSmsScene;
 import com.dhgx.common.feign.dto.AuthSmsSendRequest;
 import com.dhgx.common.feign.dto.AuthSmsVerifyRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
@@ -29,6 +38,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -68,6 +78,18 @@ public class AuthController {
      * Token 版本号服务。
      */
     private final UserTokenVersionService userTokenVersionService;
+    /**
+     * 会话踢出服务。
+     */
+    private final SessionKickService sessionKickService;
+    /**
+     * 签名访问令牌服务。
+     */
+    private final AccessTokenService accessTokenService;
+    /**
+     * 批量会话校验服务。
+     */
+    private final SessionIntrospectionService sessionIntrospectionService;
 
     /**
      * 认证相关配置，包含内部调用 Token 等安全参数。
@@ -79,13 +101,19 @@ public class AuthController {
                           PasswordResetService passwordResetService,
                           PasswordCryptoService passwordCryptoService,
                           AuthProperties authProperties,
-                          UserTokenVersionService userTokenVersionService) {
+                          UserTokenVersionService userTokenVersionService,
+                          SessionKickService sessionKickService,
+                          AccessTokenService accessTokenService,
+                          SessionIntrospectionService sessionIntrospectionService) {
         this.authService = authService;
         this.smsCodeService = smsCodeService;
         this.passwordResetService = passwordResetService;
         this.passwordCryptoService = passwordCryptoService;
         this.authProperties = authProperties;
         this.userTokenVersionService = userTokenVersionService;
+        this.sessionKickService = sessionKickService;
+        this.accessTokenService = accessTokenService;
+        this.sessionIntrospectionService = sessionIntrospectionService;
     }
 
     /**
@@ -155,12 +183,15 @@ public class AuthController {
 
     /**
      * 用户登录接口，校验短信验证码成功后创建 Sa-Token 会话。
+     * 开启签名访问令牌时额外通过 Cookie 下发短时有效的访问令牌。
      *
-     * @param request 登录请求体，包含用户名与密码
+     * @param request      登录请求体，包含用户名与密码
+     * @param httpResponse HTTP 响应，用于写入访问令牌 Cookie
      * @return 携带用户基本信息的成功响应
      */
     @PostMapping("/login")
-    public ApiResponse<AuthLoginResponse> login(@Valid @RequestBody AuthLoginRequest request) {
+    public ApiResponse<AuthLoginResponse> login(@Valid @RequestBody AuthLoginRequest request,
+                                                HttpServletResponse httpResponse) {
         AuthLoginType loginType = request.getLoginTypeOrDefault();
         AuthService.User user;
         switch (loginType) {
@@ -178,8 +209,12 @@ public class AuthController {
                 throw new IllegalArgumentException("不支持的登录方式");
         }
         StpUtil.login(user.getUserId());
-        long tokenVersion = userTokenVersionService.getCurrentVersion(user.getUserId());
+        long tokenVersion = userTokenVersionService.refreshCurrentVersion(user.getUserId());
         userTokenVersionService.writeSessionVersion(tokenVersion);
+        if (accessTokenService.isEnabled()) {
+            addCookie(httpResponse, accessTokenService.issueCookie(user.getUserId(), tokenVersion,
+                    StpUtil.getTokenValue()));
+        }
         long loginTime = StpUtil.getSession().getCreateTime();
         AuthLoginResponse response = new AuthLoginResponse();
         response.setUserId(user.getUserId());
@@ -210,23 +245,53 @@ public class AuthController {
     }
 
     /**
-     * 用户登出接口，清理当前登录会话。
+     * 用户登出接口，清理当前登录会话，并广播吊销事件使网关丢弃该用户的会话缓存与此前签发的访问令牌。
      *
+     * @param httpResponse HTTP 响应，用于清除访问令牌 Cookie
      * @return 成功响应
      */
     @PostMapping("/logout")
-    public ApiResponse<Void> logout() {
+    public ApiResponse<Void> logout(HttpServletResponse httpResponse) {
+        Object loginId = StpUtil.getLoginIdDefaultNull();
         StpUtil.logout();
+        if (loginId != null) {
+            sessionKickService.publishLoggedOut(String.valueOf(loginId));
+        }
+        if (accessTokenService.isEnabled()) {
+            addCookie(httpResponse, accessTokenService.clearCookie());
+        }
         return ApiResponse.success(null);
     }
 
+    private void addCookie(HttpServletResponse httpResponse, ResponseCookie cookie) {
+        if (cookie != null) {
+            httpResponse.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+    }
+
     /**
      * 查询当前登录用户会话信息，需要用户已登录。
+     * 常规情况下一次 Redis 往返完成校验；未登录、开启了活跃超时、连接 Redis Cluster 或账号会话结构无法被脚本识别时
+     * 按 Sa-Token 原有流程校验，以保持相同的未登录异常与活跃续期行为。
      *
      * @return 包含用户 ID 的会话信息
      */
     @GetMapping("/session-info")
     public ApiResponse<AuthSessionResponse> sessionMe() {
+        String token = StpUtil.getTokenValue();
+        SessionIntrospectionService.SessionCheck check = sessionIntrospectionService.check(token);
+        if (check == null || check.getStatus() == SessionIntrospectionService.SessionCheck.Status.NOT_LOGIN
+                || check.getStatus() == SessionIntrospectionService.SessionCheck.Status.UNPARSEABLE) {
+            return sessionMeByStpUtil();
+        }
+        if (check.getStatus() == SessionIntrospectionService.SessionCheck.Status.VERSION_MISMATCH) {
+            StpUtil.logoutByTokenValue(token);
+            return ApiResponse.failure(ErrorCode.UNAUTHENTICATED, "登录凭证无效，请重新登录");
+        }
+        return ApiResponse.success(new AuthSessionResponse(check.getUserId(), check.getCurrentVersion()));
+    }
+
+    private ApiResponse<AuthSessionResponse> sessionMeByStpUtil() {
         StpUtil.checkLogin();
         String userId = String.valueOf(StpUtil.getLoginId());
         long currentVersion = userTokenVersionService.getCurrentVersion(userId);
@@ -237,6 +302,30 @@ public class AuthController {
         return ApiResponse.success(new AuthSessionResponse(userId, currentVersion));
     }
 
+    /**
+     * 批量查询登录凭证对应的会话信息，仅允许内部服务（网关）凭借内部 Token 调用。
+     *
+     * @param internalToken 内部鉴权 Token，通过请求头传递
+     * @param request       请求体，包含待校验的登录凭证
+     * @return 与凭证一一对应的会话信息，凭证无效时对应位置为 null
+     */
+    @PostMapping("/session-info/batch")
+    public ResponseEntity<ApiResponse<AuthSessionBatchResponse>> sessionBatch(
+            @RequestHeader(value = "X-Internal-Token", required = false) String internalToken,
+            @Valid @RequestBody AuthSessionBatchRequest request) {
+        if (internalToken == null || !internalToken.equals(authProperties.getInternalToken())) {
+            return ResponseEntity.status(ErrorCode.UNAUTHENTICATED.getHttpStatus())
+                    .body(ApiResponse.failure(ErrorCode.UNAUTHENTICATED, "内部鉴权失败"));
+        }
+        if (request.getTokens().size() > authProperties.getSessionBatchMaxTokens()) {
+            return ResponseEntity.status(ErrorCode.INVALID_ARGUMENT.getHttpStatus())
+                    .body(ApiResponse.failure(ErrorCode.INVALID_ARGUMENT,
+                            "单次最多校验 " + authProperties.getSessionBatchMaxTokens() + " 个登录凭证"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(
+                new AuthSessionBatchResponse(sessionIntrospectionService.introspect(request.getTokens()))));
+    }
+
     /**
      * 踢出指定用户的会话，仅允许内部服务凭借内部 Token 调用。
      *
@@ -252,10 +341,34 @@ public class AuthController {
             return ResponseEntity.status(ErrorCode.UNAUTHENTICATED.getHttpStatus())
                     .body(ApiResponse.failure(ErrorCode.UNAUTHENTICATED, "内部鉴权失败"));
         }
-        StpUtil.logout(request.getUserId());
+        sessionKickService.kick(request.getUserId());
         return ResponseEntity.ok(ApiResponse.success(null));
     }
 
+    /**
+     * 批量踢出用户会话，仅允许内部服务凭借内部 Token 调用。
+     *
+     * @param internalToken 内部鉴权 Token，通过请求头传递
+     * @param request       请求体，包含目标用户 ID 列表
+     * @return 每个用户的踢出结果；鉴权失败返回 401，超过单次上限返回 400
+     */
+    @PostMapping("/session/kick/batch")
+    public ResponseEntity<ApiResponse<AuthBatchKickResponse>> kickSessions(
+            @RequestHeader(value = "X-Internal-Token", required = false) String internalToken,
+            @Valid @RequestBody AuthBatchKickRequest request) {
+        if (internalToken == null || !internalToken.equals(authProperties.getInternalToken())) {
+            return ResponseEntity.status(ErrorCode.UNAUTHENTICATED.getHttpStatus())
+                    .body(ApiResponse.failure(ErrorCode.UNAUTHENTICATED, "内部鉴权失败"));
+        }
+        if (request.getUserIds().size() > authProperties.getKickBatchMaxUsers()) {
+            return ResponseEntity.status(ErrorCode.INVALID_ARGUMENT.getHttpStatus())
+                    .body(ApiResponse.failure(ErrorCode.INVALID_ARGUMENT,
+                            "单次最多踢出 " + authProperties.getKickBatchMaxUsers() + " 个用户"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(
+                new AuthBatchKickResponse(sessionKickService.kickAll(request.getUserIds()))));
+    }
+
     private SmsCodeService.TemplateScene convertScene(AuthSmsScene scene) {
         AuthSmsScene resolved = scene == null ? AuthSmsScene.LOGIN : scene;
         switch (resolved) {
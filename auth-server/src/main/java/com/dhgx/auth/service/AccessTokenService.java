@@ -0,0 +1,122 @@
+package com.dhgx.auth.service;
+
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.common.redis.RedisKeys;
+import com.dhgx.common.security.AccessTokenCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * AccessTokenService。
+ * <p>
+ * 签发短时有效的签名访问令牌，令牌携带用户 ID 与当前 Token 版本号，由网关本地校验。
+ * 签名密钥优先取配置；未配置时由首个认证服务实例随机生成并写入 Redis，
+ * 其余实例与网关从 Redis 读取同一密钥。
+ * </p>
+ */
+@Service
+public class AccessTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenService.class);
+    private static final int GENERATED_KEY_BYTES = 32;
+
+    private final AuthProperties authProperties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private volatile AccessTokenCodec codec;
+
+    public AccessTokenService(AuthProperties authProperties, StringRedisTemplate stringRedisTemplate) {
+        this.authProperties = authProperties;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * 是否开启签名访问令牌。
+     */
+    public boolean isEnabled() {
+        return authProperties.getAccessToken().isEnabled();
+    }
+
+    /**
+     * 为登录用户签发访问令牌并生成对应 Cookie。
+     *
+     * @param userId       用户 ID
+     * @param tokenVersion 当前 Token 版本号
+     * @param sessionToken 本次登录的 satoken，令牌只与该会话一起有效
+     * @return Set-Cookie 头内容，签名密钥不可用时返回 null（网关回退到会话查询，不影响登录）
+     */
+    public ResponseCookie issueCookie(String userId, long tokenVersion, String sessionToken) {
+        AuthProperties.AccessTokenProperties properties = authProperties.getAccessToken();
+        long ttlSeconds = Math.max(1L, properties.getTtlSeconds());
+        long now = System.currentTimeMillis() / 1000;
+        String token;
+        try {
+            token = codec().issue(userId, tokenVersion, now, now + ttlSeconds, sessionToken);
+        } catch (RuntimeException ex) {
+            log.warn("Skip issuing access token for user {}: {}", userId, ex.getMessage());
+            return null;
+        }
+        return ResponseCookie.from(properties.getCookieName(), token)
+                .httpOnly(true)
+                .path("/")
+                .sameSite("Lax")
+                .maxAge(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * 生成清除访问令牌的 Cookie。
+     *
+     * @return Set-Cookie 头内容
+     */
+    public ResponseCookie clearCookie() {
+        return ResponseCookie.from(authProperties.getAccessToken().getCookieName(), "")
+                .httpOnly(true)
+                .path("/")
+                .sameSite("Lax")
+                .maxAge(0)
+                .build();
+    }
+
+    private AccessTokenCodec codec() {
+        AccessTokenCodec current = codec;
+        if (current == null) {
+            synchronized (this) {
+                current = codec;
+                if (current == null) {
+                    current = new AccessTokenCodec(Base64.getDecoder().decode(resolveSigningKey()));
+                    codec = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 解析签名密钥：配置的密钥覆盖 Redis 中的值；否则尝试写入随机密钥，并发时以先写入者为准。
+     */
+    private String resolveSigningKey() {
+        String configured = authProperties.getAccessToken().getSecret();
+        if (StringUtils.hasText(configured)) {
+            stringRedisTemplate.opsForValue().set(RedisKeys.ACCESS_TOKEN_SIGNING_KEY, configured);
+            return configured;
+        }
+        byte[] generated = new byte[GENERATED_KEY_BYTES];
+        secureRandom.nextBytes(generated);
+        stringRedisTemplate.opsForValue()
+                .setIfAbsent(RedisKeys.ACCESS_TOKEN_SIGNING_KEY, Base64.getEncoder().encodeToString(generated));
+        String stored = stringRedisTemplate.opsForValue().get(RedisKeys.ACCESS_TOKEN_SIGNING_KEY);
+        if (!StringUtils.hasText(stored)) {
+            throw new IllegalStateException("Access token signing key is unavailable");
+        }
+        return stored;
+    }
+}
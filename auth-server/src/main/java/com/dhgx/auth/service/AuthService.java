@@ -22,29 +22,48 @@ public class AuthService {
     private final AuthUserMapper authUserMapper;
     private final PasswordEncoder passwordEncoder;
     private final AuthProperties authProperties;
+    private final PasswordRehashService passwordRehashService;
+    private final UserDirectoryCache userDirectoryCache;
     private static final Logger log = LoggerFactory.getLogger(AuthService.class);
 
-    public AuthService(AuthUserMapper authUserMapper, PasswordEncoder passwordEncoder, AuthProperties authProperties) {
+    public AuthService(AuthUserMapper authUserMapper, PasswordEncoder passwordEncoder, AuthProperties authProperties,
+                       PasswordRehashService passwordRehashService, UserDirectoryCache userDirectoryCache) {
         this.authUserMapper = authUserMapper;
         this.passwordEncoder = passwordEncoder;
         this.authProperties = authProperties;
+        this.passwordRehashService = passwordRehashService;
+        this.userDirectoryCache = userDirectoryCache;
         initializeBuiltinUsersSafely();
     }
 
+    /**
+     * 短信登录：优先读取本地用户缓存；允许自动建号时不经过布隆过滤器，避免漏判导致重复建号。
+     */
     public User authenticateByMobile(String mobile) {
-        AuthUser authUser = findByMobile(mobile);
+        User cached = userDirectoryCache.getByMobile(mobile);
+        if (cached != null) {
+            validateUserStatus(cached.getStatus());
+            return cached;
+        }
+        boolean autoCreate = authProperties.isAutoCreateUser();
+        AuthUser authUser = autoCreate || userDirectoryCache.mightContainMobile(mobile) ? findByMobile(mobile) : null;
         if (authUser != null) {
-            validateUserStatus(authUser);
-            return toUser(authUser);
+            User user = toDirectoryUser(authUser);
+            userDirectoryCache.putByMobile(mobile, user);
+            validateUserStatus(user.getStatus());
+            return user;
         }
-        if (!authProperties.isAutoCreateUser()) {
+        if (!autoCreate) {
             throw new IllegalArgumentException("用户不存在");
         }
         authUser = createAndPersistUser(mobile);
-        return toUser(authUser);
+        return toDirectoryUser(authUser);
     }
 
     public User authenticateByUsernameAndPassword(String username, String password) {
+        if (!userDirectoryCache.mightContainUsername(username)) {
+            throw new IllegalArgumentException("用户不存在");
+        }
         AuthUser authUser = findByUsername(username);
         if (authUser == null) {
             throw new IllegalArgumentException("用户不存在");
@@ -53,7 +72,7 @@ public class AuthService {
         if (!StringUtils.hasText(authUser.getPassword()) || !passwordEncoder.matches(password, authUser.getPassword())) {
             throw new IllegalArgumentException("用户名或密码错误");
         }
-        upgradePasswordHashIfNeeded(authUser, password);
+        passwordRehashService.submitIfNeeded(authUser.getId(), authUser.getPassword(), password);
         return toUser(authUser);
     }
 
@@ -73,6 +92,7 @@ public class AuthService {
         AuthUser authUser = newUserWithDefaults(mobile, mobile);
         authUser.setPassword(generateRandomPassword());
         authUserMapper.insert(authUser);
+        userDirectoryCache.recordCreated(authUser);
         return authUser;
     }
 
@@ -113,6 +133,7 @@ public class AuthService {
         AuthUser authUser = newUserWithDefaults(username, mobile);
         authUser.setPassword(passwordEncoder.encode(rawPassword));
         authUserMapper.insert(authUser);
+        userDirectoryCache.recordCreated(authUser);
     }
 
     public void resetPasswordByMobile(String mobile, String rawPassword) {
@@ -125,32 +146,14 @@ public class AuthService {
         authUser.setPassword(encoded);
         authUser.setUpdateTime(LocalDateTime.now());
         authUserMapper.updateById(authUser);
+        userDirectoryCache.invalidateUser(authUser.getId());
     }
 
-    /**
-     * 登录成功后自动升级为默认算法哈希（如从 bcrypt 迁移到 argon2）。
-     */
-    private void upgradePasswordHashIfNeeded(AuthUser authUser, String rawPassword) {
-        String encoded = authUser.getPassword();
-        if (!StringUtils.hasText(encoded)) {
-            return;
-        }
-        if (encoded.startsWith("{argon2}")) {
-            return;
-        }
-        try {
-            String rehashed = passwordEncoder.encode(rawPassword);
-            authUser.setPassword(rehashed);
-            authUser.setUpdateTime(LocalDateTime.now());
-            authUserMapper.updateById(authUser);
-            log.info("Upgraded password hash algorithm for user {}", authUser.getId());
-        } catch (Exception ex) {
-            log.warn("Skip upgrading password hash for user {}: {}", authUser.getId(), ex.getMessage());
-        }
+    private void validateUserStatus(AuthUser authUser) {
+        validateUserStatus(authUser.getStatus());
     }
 
-    private void validateUserStatus(AuthUser authUser) {
-        Integer status = authUser.getStatus();
+    private void validateUserStatus(Integer status) {
         if (status == null || status == 0) {
             throw new IllegalArgumentException("用户已禁用");
         }
@@ -169,6 +172,19 @@ public class AuthService {
                 authUser.getStatus());
     }
 
+    /**
+     * 转换为不含密码哈希的用户信息，可放入本地缓存。
+     */
+    private User toDirectoryUser(AuthUser authUser) {
+        return new User(
+                authUser.getId(),
+                authUser.getUsername(),
+                authUser.getMobile(),
+                null,
+                authUser.getRealName(),
+                authUser.getStatus());
+    }
+
     public static class User {
         private final String userId;
         private final String username;
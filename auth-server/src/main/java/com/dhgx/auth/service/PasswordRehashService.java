@@ -0,0 +1,153 @@
+package com.dhgx.auth.service;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.auth.entity.AuthUser;
+import com.dhgx.auth.mapper.AuthUserMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.CharBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordRehashService。
+ * <p>
+ * 登录校验通过后，若存储的哈希为旧算法或低于当前成本参数（{@link PasswordEncoder#upgradeEncoding(String)}），
+ * 将（用户 ID、旧哈希、明文密码）放入有界内存队列，由少量后台线程重新哈希，登录请求无需等待。
+ * 明文密码以字符数组保存，处理后清零，不写入任何持久化介质；队列已满或同一用户已在队列中时直接放弃，下次登录再试。
+ * 写库使用条件更新（{@code WHERE id = ? AND password = 旧哈希}），期间密码被重置时不会覆盖新密码。
+ * 哈希直接在本服务的后台线程上计算（未包装的 {@code delegatingPasswordEncoder}），不占用登录使用的哈希线程池。
+ * 指标：{@code password.rehash{result=upgraded|conflict|dropped|failed}}、{@code password.rehash.queue.size}。
+ * </p>
+ */
+@Service
+public class PasswordRehashService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordRehashService.class);
+
+    private final AuthUserMapper authUserMapper;
+    private final PasswordEncoder passwordEncoder;
+    private final boolean enabled;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pendingUserIds = ConcurrentHashMap.newKeySet();
+    private final Counter upgradedCounter;
+    private final Counter conflictCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+
+    public PasswordRehashService(AuthUserMapper authUserMapper,
+                                 @Qualifier("delegatingPasswordEncoder") PasswordEncoder passwordEncoder,
+                                 AuthProperties authProperties, MeterRegistry meterRegistry) {
+        this.authUserMapper = authUserMapper;
+        this.passwordEncoder = passwordEncoder;
+        AuthProperties.PasswordRehashProperties properties = authProperties.getPasswordRehash();
+        this.enabled = properties.isEnabled();
+        int poolSize = Math.max(1, properties.getPoolSize());
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-rehash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.upgradedCounter = resultCounter(meterRegistry, "upgraded");
+        this.conflictCounter = resultCounter(meterRegistry, "conflict");
+        this.droppedCounter = resultCounter(meterRegistry, "dropped");
+        this.failedCounter = resultCounter(meterRegistry, "failed");
+        Gauge.builder("password.rehash.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Password rehash tasks waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 校验通过后调用：哈希需要升级时提交后台任务，立即返回。
+     *
+     * @param userId       用户 ID
+     * @param storedHash   校验时使用的存储哈希
+     * @param rawPassword  已校验通过的明文密码
+     * @return 是否已提交升级任务
+     */
+    public boolean submitIfNeeded(String userId, String storedHash, String rawPassword) {
+        if (!enabled || !StringUtils.hasText(userId) || !StringUtils.hasText(storedHash) || rawPassword == null
+                || !needsUpgrade(storedHash)) {
+            return false;
+        }
+        if (!pendingUserIds.add(userId)) {
+            return false;
+        }
+        char[] password = rawPassword.toCharArray();
+        try {
+            executor.execute(() -> rehash(userId, storedHash, password));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            pendingUserIds.remove(userId);
+            Arrays.fill(password, '\0');
+            droppedCounter.increment();
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private boolean needsUpgrade(String storedHash) {
+        try {
+            return passwordEncoder.upgradeEncoding(storedHash);
+        } catch (Exception ex) {
+            log.debug("Unable to inspect password hash: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    void rehash(String userId, String storedHash, char[] password) {
+        try {
+            String rehashed = passwordEncoder.encode(CharBuffer.wrap(password));
+            LambdaUpdateWrapper<AuthUser> wrapper = new LambdaUpdateWrapper<>();
+            wrapper.set(AuthUser::getPassword, rehashed)
+                    .set(AuthUser::getUpdateTime, LocalDateTime.now())
+                    .eq(AuthUser::getId, userId)
+                    .eq(AuthUser::getPassword, storedHash);
+            if (authUserMapper.update(null, wrapper) > 0) {
+                upgradedCounter.increment();
+                log.info("Upgraded password hash for user {}", userId);
+            } else {
+                conflictCounter.increment();
+                log.debug("Skip upgrading password hash for user {}: password changed", userId);
+            }
+        } catch (Exception ex) {
+            failedCounter.increment();
+            log.warn("Skip upgrading password hash for user {}: {}", userId, ex.getMessage());
+        } finally {
+            Arrays.fill(password, '\0');
+            pendingUserIds.remove(userId);
+        }
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("password.rehash")
+                .description("Background password rehash outcomes")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
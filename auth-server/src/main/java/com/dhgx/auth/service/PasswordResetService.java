@@ -6,17 +6,23 @@ import com.dhgx.auth.config.AuthProperties;
 import com.dhgx.common.cipher.Sm4CbcUtil;
 import com.dhgx.common.security.PasswordPolicyValidator;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.security.MessageDigest;
-import java.time.Duration;
+import java.util.Arrays;
 import java.util.UUID;
 
 /**
  * PasswordResetService。
  * <p>
  * 负责忘记密码重置流程中的令牌生成、校验与清理。
+ * 发放与校验各由一个 Lua 脚本在一次往返内原子完成：发放时以 {@code SET NX} 占用发放间隔并写入令牌哈希；
+ * 校验时检查失败次数、比较令牌哈希并累加失败次数，新密码合规时把令牌原子地移到待确认 Key（保留剩余有效期），
+ * 并发的多次重置只有一次能成功。密码写库成功后删除待确认令牌与失败次数；写库失败（如哈希线程池繁忙）时令牌移回原处，
+ * 用户可用同一令牌重试。
  * </p>
  */
 @Service
@@ -25,6 +31,65 @@ public class PasswordResetService {
     private static final String RESET_TOKEN_PREFIX = "auth:pwd:reset:hash:";
     private static final String RESET_TOKEN_GUARD_PREFIX = "auth:pwd:reset:guard:";
     private static final String RESET_TOKEN_FAIL_PREFIX = "auth:pwd:reset:fail:";
+    private static final String RESET_TOKEN_PENDING_PREFIX = "auth:pwd:reset:pending:";
+
+    private static final long VERIFY_EXPIRED = 0L;
+    private static final long VERIFY_CLAIMED = 1L;
+    private static final long VERIFY_MISMATCH = 2L;
+    private static final long VERIFY_TOO_MANY_FAILURES = 3L;
+    private static final long VERIFY_MATCHED = 4L;
+
+    /** KEYS: 发放间隔, 令牌哈希, 失败次数；ARGV: 令牌哈希, 有效期（秒）, 发放间隔（秒）。返回 1 表示已写入。 */
+    private static final RedisScript<Long> ISSUE_SCRIPT = new DefaultRedisScript<>(""
+            + "if not redis.call('SET', KEYS[1], '1', 'NX', 'EX', ARGV[3]) then\n"
+            + "  return 0\n"
+            + "end\n"
+            + "redis.call('SET', KEYS[2], ARGV[1], 'EX', ARGV[2])\n"
+            + "redis.call('DEL', KEYS[3])\n"
+            + "return 1\n", Long.class);
+
+    /**
+     * KEYS: 令牌哈希, 失败次数, 待确认令牌；ARGV: 令牌哈希, 最大失败次数, 是否取出令牌（1/0）。
+     * 返回 0 令牌已失效，1 校验通过且令牌已移到待确认 Key，2 令牌不匹配，3 失败次数达到上限，4 校验通过但未取出令牌。
+     */
+    private static final RedisScript<Long> VERIFY_SCRIPT = new DefaultRedisScript<>(""
+            + "local maxFailures = tonumber(ARGV[2])\n"
+            + "local failures = tonumber(redis.call('GET', KEYS[2]) or '0') or 0\n"
+            + "if failures >= maxFailures then\n"
+            + "  return 3\n"
+            + "end\n"
+            + "local cached = redis.call('GET', KEYS[1])\n"
+            + "if not cached then\n"
+            + "  return 0\n"
+            + "end\n"
+            + "if cached == ARGV[1] then\n"
+            + "  if ARGV[3] == '1' then\n"
+            + "    redis.call('RENAME', KEYS[1], KEYS[3])\n"
+            + "    return 1\n"
+            + "  end\n"
+            + "  return 4\n"
+            + "end\n"
+            + "failures = redis.call('INCR', KEYS[2])\n"
+            + "local ttl = redis.call('PTTL', KEYS[1])\n"
+            + "if ttl > 0 then\n"
+            + "  redis.call('PEXPIRE', KEYS[2], ttl)\n"
+            + "end\n"
+            + "if failures >= maxFailures then\n"
+            + "  redis.call('DEL', KEYS[1])\n"
+            + "end\n"
+            + "return 2\n", Long.class);
+
+    /** KEYS: 令牌哈希, 待确认令牌；期间未发放新令牌时把待确认令牌移回原处（保留剩余有效期）。 */
+    private static final RedisScript<Long> RESTORE_SCRIPT = new DefaultRedisScript<>(""
+            + "if redis.call('EXISTS', KEYS[2]) == 0 then\n"
+            + "  return 0\n"
+            + "end\n"
+            + "if redis.call('EXISTS', KEYS[1]) == 1 then\n"
+            + "  redis.call('DEL', KEYS[2])\n"
+            + "  return 0\n"
+            + "end\n"
+            + "redis.call('RENAME', KEYS[2], KEYS[1])\n"
+            + "return 1\n", Long.class);
 
     private final StringRedisTemplate stringRedisTemplate;
     private final AuthService authService;
@@ -39,25 +104,36 @@ public class PasswordResetService {
     }
 
     /**
-     * 生成重置令牌并写入缓存。
+     * 生成重置令牌，并在一次往返内原子地占用发放间隔、写入令牌哈希、清零失败次数。
      *
      * @param mobile 手机号
      * @return 重置令牌
      */
     public String issueResetToken(String mobile) {
-        guardIssueFrequency(mobile);
         String token = UUID.randomUUID().toString().replace("-", "");
-        long ttlSeconds = authProperties.getPasswordReset().getTokenTtlSeconds();
-        String tokenHash = hash(token);
-        stringRedisTemplate.opsForValue().set(buildResetKey(mobile), tokenHash, Duration.ofSeconds(ttlSeconds));
-        stringRedisTemplate.opsForValue().set(buildGuardKey(mobile), "1",
-                authProperties.getPasswordReset().getIssueIntervalSeconds(), java.util.concurrent.TimeUnit.SECONDS);
-        stringRedisTemplate.delete(buildFailKey(mobile));
+        AuthProperties.PasswordResetProperties properties = authProperties.getPasswordReset();
+        Long stored = stringRedisTemplate.execute(ISSUE_SCRIPT,
+                Arrays.asList(buildGuardKey(mobile), buildResetKey(mobile), buildFailKey(mobile)),
+                hash(token),
+                String.valueOf(Math.max(1L, properties.getTokenTtlSeconds())),
+                String.valueOf(Math.max(1L, properties.getIssueIntervalSeconds())));
+        if (stored == null || stored != 1L) {
+            throw new LocalizedBusinessException(
+                    ErrorCode.INVALID_ARGUMENT,
+                    "error.request.too-frequent",
+                    "请求过于频繁，请稍后再试"
+            );
+        }
         return token;
     }
 
     /**
      * 校验令牌并重置密码。
+     * <p>
+     * 新密码在本地先行解密与校验，令牌校验、失败计数与取出令牌在一次往返内完成；
+     * 只有新密码合规时才取出令牌，因此新密码不合规时令牌仍可继续使用。
+     * 密码写库成功后再删除令牌，写库失败时恢复令牌并抛出原异常。
+     * </p>
      *
      * @param mobile   手机号
      * @param token    重置令牌
@@ -71,56 +147,73 @@ public class PasswordResetService {
                     "重置信息不完整，请重试"
             );
         }
-        if (exceedFailureLimit(mobile)) {
+        //从reset-token中获取sm4的key，令牌错误时解密失败，需等令牌校验后再决定返回哪种错误
+        String plainPWD = null;
+        RuntimeException decryptFailure = null;
+        try {
+            String key = Sm4CbcUtil.getfirst8last8(token);
+            String keyBase64 = Sm4CbcUtil.encodeBase64(key);
+            plainPWD = Sm4CbcUtil.decryptFromCombined(password, keyBase64);
+        } catch (RuntimeException ex) {
+            decryptFailure = ex;
+        }
+        boolean acceptable = decryptFailure == null && PasswordPolicyValidator.isValid(plainPWD);
+
+        Long result = stringRedisTemplate.execute(VERIFY_SCRIPT,
+                Arrays.asList(buildResetKey(mobile), buildFailKey(mobile), buildPendingKey(mobile)),
+                hash(token),
+                String.valueOf(Math.max(1, authProperties.getPasswordReset().getMaxVerifyFailures())),
+                acceptable ? "1" : "0");
+        long status = result == null ? VERIFY_EXPIRED : result;
+        if (status == VERIFY_TOO_MANY_FAILURES) {
             throw new LocalizedBusinessException(
                     ErrorCode.INVALID_ARGUMENT,
                     "error.reset.too-many-failures",
                     "重置失败次数过多，请重新获取验证码"
             );
         }
-        String resetKey = buildResetKey(mobile);
-        String cached = stringRedisTemplate.opsForValue().get(resetKey);
-        if (!StringUtils.hasText(cached)) {
-            throw new LocalizedBusinessException(
-                    ErrorCode.INVALID_ARGUMENT,
-                    "error.reset.token.expired",
-                    "重置令牌已失效，请重新获取验证码"
-            );
-        }
-        String inputHash = hash(token);
-        if (!MessageDigest.isEqual(inputHash.getBytes(java.nio.charset.StandardCharsets.UTF_8),
-                cached.getBytes(java.nio.charset.StandardCharsets.UTF_8))) {
-            incrementFailure(mobile, resetKey);
+        if (status == VERIFY_MISMATCH) {
             throw new LocalizedBusinessException(
                     ErrorCode.INVALID_ARGUMENT,
                     "error.reset.token.mismatch",
                     "重置验证失败，请重新获取验证码"
             );
         }
-
-        //从reset-token中获取sm4的key
-        String key = Sm4CbcUtil.getfirst8last8(token);
-        String keyBase64 = Sm4CbcUtil.encodeBase64(key);
-        String plainPWD = Sm4CbcUtil.decryptFromCombined(password, keyBase64);
-
-
-
-        if (!PasswordPolicyValidator.isValid(plainPWD)) {
+        if (status == VERIFY_MATCHED) {
+            if (decryptFailure != null) {
+                throw decryptFailure;
+            }
             throw new LocalizedBusinessException(
                     ErrorCode.INVALID_ARGUMENT,
                     "error.reset.password.policy",
                     "新密码不符合安全策略，请修改后重试"
             );
         }
-        authService.resetPasswordByMobile(mobile, plainPWD);
-        stringRedisTemplate.delete(resetKey);
-        stringRedisTemplate.delete(buildFailKey(mobile));
+        if (status != VERIFY_CLAIMED) {
+            throw new LocalizedBusinessException(
+                    ErrorCode.INVALID_ARGUMENT,
+                    "error.reset.token.expired",
+                    "重置令牌已失效，请重新获取验证码"
+            );
+        }
+        try {
+            authService.resetPasswordByMobile(mobile, plainPWD);
+        } catch (RuntimeException ex) {
+            stringRedisTemplate.execute(RESTORE_SCRIPT,
+                    Arrays.asList(buildResetKey(mobile), buildPendingKey(mobile)));
+            throw ex;
+        }
+        stringRedisTemplate.delete(Arrays.asList(buildPendingKey(mobile), buildFailKey(mobile)));
     }
 
     private String buildResetKey(String mobile) {
         return RESET_TOKEN_PREFIX + mobile;
     }
 
+    private String buildPendingKey(String mobile) {
+        return RESET_TOKEN_PENDING_PREFIX + mobile;
+    }
+
     private String buildGuardKey(String mobile) {
         return RESET_TOKEN_GUARD_PREFIX + mobile;
     }
@@ -129,17 +222,6 @@ public class PasswordResetService {
         return RESET_TOKEN_FAIL_PREFIX + mobile;
     }
 
-    private void guardIssueFrequency(String mobile) {
-        String guardKey = buildGuardKey(mobile);
-        if (StringUtils.hasText(stringRedisTemplate.opsForValue().get(guardKey))) {
-            throw new LocalizedBusinessException(
-                    ErrorCode.INVALID_ARGUMENT,
-                    "error.request.too-frequent",
-                    "请求过于频繁，请稍后再试"
-            );
-        }
-    }
-
     private String hash(String token) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
@@ -153,29 +235,4 @@ public class PasswordResetService {
             throw new IllegalStateException("生成重置令牌失败", ex);
         }
     }
-
-    private boolean exceedFailureLimit(String mobile) {
-        String value = stringRedisTemplate.opsForValue().get(buildFailKey(mobile));
-        if (!StringUtils.hasText(value)) {
-            return false;
-        }
-        try {
-            int failures = Integer.parseInt(value);
-            return failures >= authProperties.getPasswordReset().getMaxVerifyFailures();
-        } catch (NumberFormatException ex) {
-            return false;
-        }
-    }
-
-    private void incrementFailure(String mobile, String resetKey) {
-        String failKey = buildFailKey(mobile);
-        Long current = stringRedisTemplate.opsForValue().increment(failKey);
-        Long ttl = stringRedisTemplate.getExpire(resetKey, java.util.concurrent.TimeUnit.SECONDS);
-        if (ttl != null && ttl > 0) {
-            stringRedisTemplate.expire(failKey, ttl, java.util.concurrent.TimeUnit.SECONDS);
-        }
-        if (current != null && current >= authProperties.getPasswordReset().getMaxVerifyFailures()) {
-            stringRedisTemplate.delete(resetKey);
-        }
-    }
 }
@@ -0,0 +1,323 @@
+package com.dhgx.auth.service;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.exception.NotLoginException;
+import cn.dev33.satoken.session.SaSession;
+import cn.dev33.satoken.stp.StpLogic;
+import cn.dev33.satoken.stp.StpUtil;
+import com.dhgx.common.feign.dto.AuthSessionResponse;
+import com.dhgx.common.redis.RedisKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SessionIntrospectionService。
+ * <p>
+ * 批量校验 Sa-Token 登录凭证，供网关合并多个请求的会话校验。校验规则与单个凭证的
+ * {@code /session-info} 一致（凭证有效且会话中的 Token 版本号等于当前版本号），
+ * 但 Redis 读取按两轮流水线完成：第一轮读取全部凭证对应的登录 ID，第二轮读取去重后各用户的
+ * 账号会话与当前版本号，与凭证数量无关。开启了 Sa-Token 活跃超时（active-timeout）时，
+ * 活跃时间的校验与续期依赖 Sa-Token 自身逻辑，此时逐个凭证按单次流程校验。
+ * 单个凭证的校验由 {@link #check(String)} 通过一个 Lua 脚本在一次往返内完成：脚本解析登录 ID 并读取会话中的版本号，
+ * 当前版本号在启用了 {@link TokenVersionCache} 时取自本地缓存（未命中时多一次读取），否则由脚本一并读取。
+ * 脚本按 sa-token-jackson 的序列化结构解析账号会话，无法识别时返回 {@link SessionCheck.Status#UNPARSEABLE}，
+ * 由调用方回退到 Sa-Token 自身流程，序列化方式变化不会导致全部会话被判为版本不一致而注销。
+ * 脚本根据登录 ID 拼接账号会话与版本号的 Key，未在 KEYS 中声明，因此连接 Redis Cluster 时不使用脚本，{@link #check(String)} 返回 null。
+ * </p>
+ */
+@Service
+public class SessionIntrospectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionIntrospectionService.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SESSION_CHECK_SCRIPT = buildSessionCheckScript();
+
+    /** 脚本返回的会话版本号：会话中未记录版本号。 */
+    private static final long SESSION_VERSION_ABSENT = -1L;
+    /** 脚本返回的会话版本号：会话不存在或结构无法识别。 */
+    private static final long SESSION_UNPARSEABLE = -2L;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final UserTokenVersionService userTokenVersionService;
+    /** 是否可以使用单次往返的校验脚本（Redis Cluster 下脚本访问未声明的 Key 会失败）。 */
+    private final boolean scriptSupported;
+    private final AtomicBoolean unparseableWarned = new AtomicBoolean();
+
+    public SessionIntrospectionService(StringRedisTemplate stringRedisTemplate,
+                                       UserTokenVersionService userTokenVersionService) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.userTokenVersionService = userTokenVersionService;
+        this.scriptSupported = !isCluster(stringRedisTemplate.getConnectionFactory());
+        if (!scriptSupported) {
+            log.warn("Redis Cluster detected, session-info falls back to Sa-Token checks instead of the session check script");
+        }
+    }
+
+    /**
+     * 批量校验登录凭证。Token 版本号不一致的凭证会被注销，与单次查询行为一致。
+     *
+     * @param tokens 登录凭证
+     * @return 与凭证一一对应的会话信息，凭证无效时对应位置为 null
+     */
+    public List<AuthSessionResponse> introspect(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (SaManager.getConfig().getActiveTimeout() != -1) {
+            return introspectOneByOne(tokens);
+        }
+        StpLogic stpLogic = StpUtil.getStpLogic();
+        List<Object> loginIds = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String token : tokens) {
+                stringConnection.get(stpLogic.splicingKeyTokenValue(token));
+            }
+            return null;
+        });
+
+        Map<String, UserState> users = new LinkedHashMap<>();
+        for (Object loginId : loginIds) {
+            if (isLoginId(loginId)) {
+                users.put((String) loginId, null);
+            }
+        }
+        if (!users.isEmpty()) {
+            List<String> userIds = new ArrayList<>(users.keySet());
+            List<Object> values = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (String userId : userIds) {
+                    stringConnection.get(stpLogic.splicingKeySession(userId));
+                    stringConnection.get(RedisKeys.tokenVersion(userId));
+                }
+                return null;
+            });
+            for (int i = 0; i < userIds.size(); i++) {
+                users.put(userIds.get(i), new UserState(
+                        sessionVersion((String) values.get(i * 2)),
+                        UserTokenVersionService.parseVersion((String) values.get(i * 2 + 1))));
+            }
+        }
+
+        List<AuthSessionResponse> sessions = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            Object loginId = loginIds.get(i);
+            UserState state = isLoginId(loginId) ? users.get(loginId) : null;
+            if (state == null) {
+                sessions.add(null);
+            } else if (!userTokenVersionService.isSessionVersionValid(state.sessionVersion, state.currentVersion)) {
+                StpUtil.logoutByTokenValue(tokens.get(i));
+                sessions.add(null);
+            } else {
+                sessions.add(new AuthSessionResponse((String) loginId, state.currentVersion));
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * 一次 Redis 往返校验单个登录凭证：解析登录 ID，读取账号会话中的版本号，并与当前版本号比较。
+     * 本地缓存的版本号低于会话中的版本号时（其他实例已递增版本号而本实例尚未收到事件），改为从 Redis 重新读取后再比较，
+     * 避免误判新登录的会话。
+     *
+     * @param token 登录凭证
+     * @return 校验结果；凭证为空、开启了活跃超时（需由 Sa-Token 校验并续期）或连接 Redis Cluster 时返回 null
+     */
+    public SessionCheck check(String token) {
+        if (!scriptSupported || !StringUtils.hasText(token) || SaManager.getConfig().getActiveTimeout() != -1) {
+            return null;
+        }
+        StpLogic stpLogic = StpUtil.getStpLogic();
+        return check(stpLogic.splicingKeyTokenValue(token), stpLogic.splicingKeySession(""));
+    }
+
+    @SuppressWarnings("unchecked")
+    SessionCheck check(String tokenKey, String sessionKeyPrefix) {
+        boolean cached = userTokenVersionService.isCurrentVersionCached();
+        List<String> args = new ArrayList<>(NotLoginException.ABNORMAL_LIST.size() + 2);
+        args.add(sessionKeyPrefix);
+        args.add(cached ? "" : RedisKeys.TOKEN_VERSION_PREFIX);
+        args.addAll(NotLoginException.ABNORMAL_LIST);
+        List<Object> result = stringRedisTemplate.execute(SESSION_CHECK_SCRIPT,
+                Collections.singletonList(tokenKey), args.toArray());
+        if (result == null || result.size() < 4) {
+            return SessionCheck.NOT_LOGIN;
+        }
+        String userId = (String) result.get(1);
+        long sessionValue = ((Number) result.get(2)).longValue();
+        if (sessionValue == SESSION_UNPARSEABLE) {
+            if (unparseableWarned.compareAndSet(false, true)) {
+                log.warn("Account session of user {} is missing or not in the expected sa-token-jackson layout, "
+                        + "falling back to Sa-Token session checks", userId);
+            }
+            return new SessionCheck(SessionCheck.Status.UNPARSEABLE, userId, 0L);
+        }
+        Long sessionVersion = sessionValue == SESSION_VERSION_ABSENT ? null : sessionValue;
+        long currentVersion = cached
+                ? userTokenVersionService.getCurrentVersion(userId) : ((Number) result.get(3)).longValue();
+        if (cached && sessionVersion != null && sessionVersion > currentVersion) {
+            currentVersion = userTokenVersionService.refreshCurrentVersion(userId);
+        }
+        SessionCheck.Status status = userTokenVersionService.isSessionVersionValid(sessionVersion, currentVersion)
+                ? SessionCheck.Status.VALID : SessionCheck.Status.VERSION_MISMATCH;
+        return new SessionCheck(status, userId, currentVersion);
+    }
+
+    private List<AuthSessionResponse> introspectOneByOne(List<String> tokens) {
+        List<AuthSessionResponse> sessions = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Object loginId = StpUtil.getLoginIdByToken(token);
+            if (loginId == null) {
+                sessions.add(null);
+                continue;
+            }
+            String userId = String.valueOf(loginId);
+            long currentVersion = userTokenVersionService.getCurrentVersion(userId);
+            Long sessionVersion = userTokenVersionService.getSessionVersion(StpUtil.getSessionByLoginId(loginId, false));
+            if (!userTokenVersionService.isSessionVersionValid(sessionVersion, currentVersion)) {
+                StpUtil.logoutByTokenValue(token);
+                sessions.add(null);
+            } else {
+                sessions.add(new AuthSessionResponse(userId, currentVersion));
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * 判断 Redis 中的登录 ID 是否有效（非空且不是被顶下线、被踢出等异常标记）。
+     */
+    private static boolean isLoginId(Object value) {
+        return value instanceof String && StringUtils.hasText((String) value)
+                && !NotLoginException.ABNORMAL_LIST.contains(value);
+    }
+
+    private Long sessionVersion(String serializedSession) {
+        if (!StringUtils.hasText(serializedSession)) {
+            return null;
+        }
+        try {
+            SaSession session = SaManager.getSaSerializerTemplate().stringToObject(serializedSession, SaSession.class);
+            return userTokenVersionService.getSessionVersion(session);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to deserialize account session: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isCluster(RedisConnectionFactory connectionFactory) {
+        return connectionFactory instanceof LettuceConnectionFactory
+                && ((LettuceConnectionFactory) connectionFactory).getClusterConfiguration() != null;
+    }
+
+    /**
+     * 会话校验脚本。返回 {0} 表示未登录；否则返回 {1, loginId, 会话中的版本号, 当前版本号}，
+     * 会话中缺少版本号时为 -1，会话不存在或结构无法识别时为 -2；
+     * ARGV[2] 为空（当前版本号由本地缓存提供）时不读取当前版本号，返回 -1。
+     * 会话由 Jackson 以默认类型信息序列化，Long 型的版本号形如 {@code ["java.lang.Long", 3]}。
+     */
+    @SuppressWarnings("rawtypes")
+    private static RedisScript<List> buildSessionCheckScript() {
+        String script = ""
+                + "local loginId = redis.call('GET', KEYS[1])\n"
+                + "if not loginId or loginId == '' then\n"
+                + "  return {0}\n"
+                + "end\n"
+                + "for i = 3, #ARGV do\n"
+                + "  if loginId == ARGV[i] then\n"
+                + "    return {0}\n"
+                + "  end\n"
+                + "end\n"
+                + "local sessionVersion = -2\n"
+                + "local session = redis.call('GET', ARGV[1] .. loginId)\n"
+                + "if session then\n"
+                + "  local ok, decoded = pcall(cjson.decode, session)\n"
+                + "  if ok and type(decoded) == 'table' and type(decoded['dataMap']) == 'table' then\n"
+                + "    local value = decoded['dataMap']['tokenVersion']\n"
+                + "    if value == nil then\n"
+                + "      sessionVersion = -1\n"
+                + "    else\n"
+                + "      if type(value) == 'table' then\n"
+                + "        value = value[2]\n"
+                + "      end\n"
+                + "      sessionVersion = tonumber(value) or -2\n"
+                + "    end\n"
+                + "  end\n"
+                + "end\n"
+                + "local current = -1\n"
+                + "if ARGV[2] ~= '' then\n"
+                + "  current = tonumber(redis.call('GET', ARGV[2] .. loginId)) or 0\n"
+                + "end\n"
+                + "return {1, loginId, sessionVersion, current}\n";
+        return new DefaultRedisScript<>(script, List.class);
+    }
+
+    /**
+     * 单个凭证的校验结果。
+     */
+    public static final class SessionCheck {
+
+        /** 未登录（凭证不存在、已过期或已被顶下线、踢出）。 */
+        static final SessionCheck NOT_LOGIN = new SessionCheck(Status.NOT_LOGIN, null, 0L);
+
+        /**
+         * 校验状态。
+         */
+        public enum Status {
+            VALID, NOT_LOGIN, VERSION_MISMATCH,
+            /** 账号会话不存在或结构无法识别，需回退到 Sa-Token 校验。 */
+            UNPARSEABLE
+        }
+
+        private final Status status;
+        private final String userId;
+        private final long currentVersion;
+
+        SessionCheck(Status status, String userId, long currentVersion) {
+            this.status = status;
+            this.userId = userId;
+            this.currentVersion = currentVersion;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public long getCurrentVersion() {
+            return currentVersion;
+        }
+    }
+
+    /**
+     * 单个用户的会话版本号与当前版本号。
+     */
+    private static final class UserState {
+        private final Long sessionVersion;
+        private final long currentVersion;
+
+        private UserState(Long sessionVersion, long currentVersion) {
+            this.sessionVersion = sessionVersion;
+            this.currentVersion = currentVersion;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.dhgx.auth.service;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.dhgx.api.notify.core.EventNotifyPublisher;
+import com.dhgx.common.event.PortalEventType;
+import com.dhgx.common.feign.dto.AuthKickResult;
+import com.dhgx.common.redis.RedisKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SessionKickService。
+ * <p>
+ * 负责踢出用户会话，并向事件流广播 {@link PortalEventType#USER_KICKED}，
+ * 便于网关等持有本地会话缓存的服务及时失效。
+ * 批量踢出时先以一次管道往返递增全部用户的 Token 版本号，使已签发的访问令牌立即失效，
+ * 再逐个注销 Sa-Token 会话，并返回每个用户的结果。新版本号写入本实例的 {@link TokenVersionCache}，
+ * 并以 {@link PortalEventType#USER_TOKEN_VERSION_UPDATED} 广播给其他实例的版本号缓存。
+ * </p>
+ */
+@Service
+public class SessionKickService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionKickService.class);
+    private static final DateTimeFormatter EVENT_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final EventNotifyPublisher eventNotifyPublisher;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TokenVersionCache tokenVersionCache;
+
+    public SessionKickService(EventNotifyPublisher eventNotifyPublisher,
+                              StringRedisTemplate stringRedisTemplate,
+                              TokenVersionCache tokenVersionCache) {
+        this.eventNotifyPublisher = eventNotifyPublisher;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.tokenVersionCache = tokenVersionCache;
+    }
+
+    /**
+     * 注销指定用户的全部会话并发布踢出事件。
+     *
+     * @param userId 用户 ID
+     */
+    public void kick(String userId) {
+        StpUtil.logout(userId);
+        publishKicked(userId, null);
+    }
+
+    /**
+     * 用户主动登出后发布踢出事件（不带版本号），网关据此丢弃该用户的会话缓存，
+     * 并拒绝此前签发的访问令牌，使其不会在登出后继续放行至过期。
+     *
+     * @param userId 用户 ID
+     */
+    public void publishLoggedOut(String userId) {
+        publishKicked(userId, null);
+    }
+
+    /**
+     * 批量注销用户会话：管道递增 Token 版本号后逐个注销会话，最后以管道批量发布版本变更与踢出事件。
+     *
+     * @param userIds 用户 ID 列表，重复的 ID 只处理一次
+     * @return 每个用户的踢出结果，顺序与请求一致
+     */
+    public List<AuthKickResult> kickAll(List<String> userIds) {
+        Set<String> distinct = new LinkedHashSet<>(userIds);
+        List<String> valid = new ArrayList<>(distinct.size());
+        for (String userId : distinct) {
+            if (StringUtils.hasText(userId)) {
+                valid.add(userId);
+            }
+        }
+        Map<String, Long> versions = bumpTokenVersions(valid);
+        List<AuthKickResult> results = new ArrayList<>(distinct.size());
+        List<Map<String, String>> versionEvents = new ArrayList<>(versions.size());
+        List<Map<String, String>> events = new ArrayList<>(valid.size());
+        for (String userId : distinct) {
+            if (!StringUtils.hasText(userId)) {
+                results.add(AuthKickResult.failure(userId, "用户ID不能为空"));
+                continue;
+            }
+            Long version = versions.get(userId);
+            if (version != null) {
+                tokenVersionCache.update(userId, version);
+                versionEvents.add(eventMessage(userId, version));
+            }
+            try {
+                StpUtil.logout(userId);
+            } catch (Exception ex) {
+                log.warn("Failed to logout user {}: {}", userId, ex.getMessage());
+                results.add(AuthKickResult.failure(userId, "注销会话失败"));
+                continue;
+            }
+            events.add(eventMessage(userId, version));
+            results.add(AuthKickResult.success(userId, version));
+        }
+        publishAll(PortalEventType.USER_TOKEN_VERSION_UPDATED, versionEvents);
+        publishAll(PortalEventType.USER_KICKED, events);
+        return results;
+    }
+
+    /**
+     * 批量发布事件，发布失败不影响踢出结果，下游缓存依赖 TTL 兜底。
+     */
+    private void publishAll(PortalEventType eventType, List<Map<String, String>> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            eventNotifyPublisher.publishAll(RedisKeys.portalEventStream(eventType), events);
+        } catch (Exception ex) {
+            log.warn("Failed to publish {} events for {} users: {}", eventType, events.size(), ex.getMessage());
+        }
+    }
+
+    /**
+     * 在一次管道往返内递增全部用户的 Token 版本号，失败时返回空结果，仅依赖会话注销。
+     */
+    private Map<String, Long> bumpTokenVersions(List<String> userIds) {
+        Map<String, Long> versions = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return versions;
+        }
+        List<Object> replies;
+        try {
+            replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String userId : userIds) {
+                    connection.incr(RedisKeys.tokenVersion(userId).getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        } catch (Exception ex) {
+            log.warn("Failed to bump token versions for {} users: {}", userIds.size(), ex.getMessage());
+            return versions;
+        }
+        for (int i = 0; i < userIds.size() && i < replies.size(); i++) {
+            Object reply = replies.get(i);
+            if (reply instanceof Long) {
+                versions.put(userIds.get(i), (Long) reply);
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * 发布踢出事件，发布失败不影响踢出结果，下游缓存依赖 TTL 兜底。
+     */
+    private void publishKicked(String userId, Long tokenVersion) {
+        try {
+            eventNotifyPublisher.publish(RedisKeys.portalEventStream(PortalEventType.USER_KICKED),
+                    eventMessage(userId, tokenVersion));
+        } catch (Exception ex) {
+            log.warn("Failed to publish kick event for user {}: {}", userId, ex.getMessage());
+        }
+    }
+
+    private static Map<String, String> eventMessage(String userId, Long tokenVersion) {
+        Map<String, String> message = new HashMap<>();
+        message.put("userId", userId);
+        if (tokenVersion != null) {
+            message.put("tokenVersion", tokenVersion.toString());
+        }
+        message.put("time", LocalDateTime.now().format(EVENT_TIME_FORMATTER));
+        return message;
+    }
+}
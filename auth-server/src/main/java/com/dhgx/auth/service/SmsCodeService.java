@@ -1,18 +1,25 @@
 package com.dhgx.auth.service;
 
 import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.auth.sms.SmsDispatcher;
+import com.dhgx.auth.sms.SmsMessage;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.security.SecureRandom;
-import java.time.Duration;
-import java.util.concurrent.TimeUnit;
+import java.util.Arrays;
+import java.util.Collections;
 
 /**
  * SmsCodeService。
  * <p>
  * 负责短信验证码的生成、存储、下发与校验。
+ * 发送与校验各由一个 Lua 脚本在一次往返内原子完成：发送时以 {@code SET NX} 占用发送间隔并写入验证码，
+ * 并发请求中只有一个能成功；校验时比较并删除验证码，错误次数达到上限后验证码作废。
+ * 短信本身交给 {@link SmsDispatcher} 异步下发，接口不等待服务商响应；提交失败时释放发送间隔并删除验证码，用户可立即重试。
  * </p>
  */
 @Service
@@ -20,38 +27,114 @@ public class SmsCodeService {
 
     private static final String CODE_KEY_PREFIX = "auth:sms:code:";
     private static final String SEND_GUARD_PREFIX = "auth:sms:send:";
+    private static final String ATTEMPTS_KEY_PREFIX = "auth:sms:attempts:";
+
+    /** KEYS: 发送间隔, 验证码, 错误次数；ARGV: 验证码, 有效期（秒）, 发送间隔（秒）。返回 1 表示已写入。 */
+    private static final RedisScript<Long> SEND_SCRIPT = new DefaultRedisScript<>(""
+            + "if not redis.call('SET', KEYS[1], '1', 'NX', 'EX', ARGV[3]) then\n"
+            + "  return 0\n"
+            + "end\n"
+            + "redis.call('SET', KEYS[2], ARGV[1], 'EX', ARGV[2])\n"
+            + "redis.call('DEL', KEYS[3])\n"
+            + "return 1\n", Long.class);
+
+    /** KEYS: 发送间隔, 验证码；ARGV: 验证码。验证码仍为本次写入的值时删除两者，避免误删其他请求写入的验证码。 */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(""
+            + "if redis.call('GET', KEYS[2]) == ARGV[1] then\n"
+            + "  return redis.call('DEL', KEYS[1], KEYS[2])\n"
+            + "end\n"
+            + "return 0\n", Long.class);
+
+    /**
+     * KEYS: 验证码, 错误次数；ARGV: 验证码, 最大错误次数。
+     * 返回 1 校验通过，0 未发送或已失效，2 验证码错误，3 错误次数达到上限（验证码已作废）。
+     */
+    private static final RedisScript<Long> VERIFY_SCRIPT = new DefaultRedisScript<>(""
+            + "local cached = redis.call('GET', KEYS[1])\n"
+            + "if not cached then\n"
+            + "  return 0\n"
+            + "end\n"
+            + "if cached == ARGV[1] then\n"
+            + "  redis.call('DEL', KEYS[1], KEYS[2])\n"
+            + "  return 1\n"
+            + "end\n"
+            + "local attempts = redis.call('INCR', KEYS[2])\n"
+            + "if attempts >= tonumber(ARGV[2]) then\n"
+            + "  redis.call('DEL', KEYS[1], KEYS[2])\n"
+            + "  return 3\n"
+            + "end\n"
+            + "if attempts == 1 then\n"
+            + "  local ttl = redis.call('PTTL', KEYS[1])\n"
+            + "  if ttl > 0 then\n"
+            + "    redis.call('PEXPIRE', KEYS[2], ttl)\n"
+            + "  end\n"
+            + "end\n"
+            + "return 2\n", Long.class);
 
     private final SecureRandom secureRandom = new SecureRandom();
     private final StringRedisTemplate stringRedisTemplate;
-    private final AliyunSendMsgUtils aliyunSendMsgUtils;
+    private final SmsDispatcher smsDispatcher;
     private final AuthProperties authProperties;
 
     public SmsCodeService(StringRedisTemplate stringRedisTemplate,
-                          AliyunSendMsgUtils aliyunSendMsgUtils,
+                          SmsDispatcher smsDispatcher,
                           AuthProperties authProperties) {
         this.stringRedisTemplate = stringRedisTemplate;
-        this.aliyunSendMsgUtils = aliyunSendMsgUtils;
+        this.smsDispatcher = smsDispatcher;
         this.authProperties = authProperties;
     }
 
     /**
-     * 生成并发送短信验证码。
+     * 生成验证码并提交异步下发。
      *
      * @param mobile 手机号
      * @param scene  模板场景
      */
     public String sendCode(String mobile, TemplateScene scene) {
-        guardSendFrequency(mobile);
+        String templateCode = resolveTemplateCode(scene);
+        if (templateCode == null && smsDispatcher.requiresTemplate()) {
+            throw new IllegalStateException("短信模板未配置");
+        }
+        String code = issueCode(mobile);
+        try {
+            smsDispatcher.dispatch(SmsMessage.of(mobile, templateCode, Collections.singletonMap("code", code)));
+        } catch (RuntimeException ex) {
+            releaseCode(mobile, code);
+            throw ex;
+        }
+        return code;
+    }
+
+    /**
+     * 生成验证码并在一次往返内原子地占用发送间隔、写入验证码、清零错误次数。
+     *
+     * @param mobile 手机号
+     * @return 验证码
+     */
+    String issueCode(String mobile) {
         String code = generateCode(authProperties.getSms().getCodeLength());
-        Duration ttl = Duration.ofSeconds(authProperties.getSms().getTtlSeconds());
-        stringRedisTemplate.opsForValue().set(buildCodeKey(mobile), code, ttl);
-        stringRedisTemplate.opsForValue().set(buildSendGuardKey(mobile), "1",
-                authProperties.getSms().getSendIntervalSeconds(), TimeUnit.SECONDS);
-        System.out.println("=================手机号 : "+mobile+", 短信验证码 : "+code+" ================= ");
-//        aliyunSendMsgUtils.sendCode(mobile, code, resolveTemplateCode(scene));
+        Long stored = stringRedisTemplate.execute(SEND_SCRIPT,
+                Arrays.asList(buildSendGuardKey(mobile), buildCodeKey(mobile), buildAttemptsKey(mobile)),
+                code,
+                String.valueOf(Math.max(1L, authProperties.getSms().getTtlSeconds())),
+                String.valueOf(Math.max(1L, authProperties.getSms().getSendIntervalSeconds())));
+        if (stored == null || stored != 1L) {
+            throw new IllegalArgumentException("请求过于频繁，请稍后再试");
+        }
         return code;
     }
 
+    /**
+     * 短信未能提交下发时撤销本次发送：删除发送间隔与验证码。
+     *
+     * @param mobile 手机号
+     * @param code   本次写入的验证码
+     */
+    private void releaseCode(String mobile, String code) {
+        stringRedisTemplate.execute(RELEASE_SCRIPT,
+                Arrays.asList(buildSendGuardKey(mobile), buildCodeKey(mobile)), code);
+    }
+
     /**
      * 默认登录场景的短信验证码发送入口，兼容旧调用。
      */
@@ -60,21 +143,27 @@ public class SmsCodeService {
     }
 
     /**
-     * 校验验证码并在成功后删除。
+     * 校验验证码并在成功后删除，错误次数达到上限后验证码作废。
      *
      * @param mobile 手机号
      * @param code   验证码
      */
     public void verifyCode(String mobile, String code) {
-        String key = buildCodeKey(mobile);
-        String cached = stringRedisTemplate.opsForValue().get(key);
-        if (!StringUtils.hasText(cached)) {
-            throw new IllegalArgumentException("验证码已失效或未发送");
+        Long result = stringRedisTemplate.execute(VERIFY_SCRIPT,
+                Arrays.asList(buildCodeKey(mobile), buildAttemptsKey(mobile)),
+                code == null ? "" : code,
+                String.valueOf(Math.max(1, authProperties.getSms().getMaxVerifyAttempts())));
+        long status = result == null ? 0L : result;
+        if (status == 1L) {
+            return;
         }
-        if (!cached.equals(code)) {
+        if (status == 2L) {
             throw new IllegalArgumentException("验证码错误");
         }
-        stringRedisTemplate.delete(key);
+        if (status == 3L) {
+            throw new IllegalArgumentException("验证码错误次数过多，请重新获取");
+        }
+        throw new IllegalArgumentException("验证码已失效或未发送");
     }
 
     private String generateCode(int length) {
@@ -84,14 +173,6 @@ public class SmsCodeService {
         return String.format("%0" + length + "d", value);
     }
 
-    private void guardSendFrequency(String mobile) {
-        String guardKey = buildSendGuardKey(mobile);
-        String exists = stringRedisTemplate.opsForValue().get(guardKey);
-        if (StringUtils.hasText(exists)) {
-            throw new IllegalArgumentException("请求过于频繁，请稍后再试");
-        }
-    }
-
     private String buildCodeKey(String mobile) {
         return CODE_KEY_PREFIX + mobile;
     }
@@ -100,10 +181,14 @@ public class SmsCodeService {
         return SEND_GUARD_PREFIX + mobile;
     }
 
+    private String buildAttemptsKey(String mobile) {
+        return ATTEMPTS_KEY_PREFIX + mobile;
+    }
+
     private String resolveTemplateCode(TemplateScene scene) {
         AuthProperties.SmsProperties.TemplateCodeProperties templateCode = authProperties.getSms().getTemplateCode();
         if (templateCode == null) {
-            throw new IllegalStateException("短信模板未配置");
+            return null;
         }
         String resolved;
         switch (scene) {
@@ -121,10 +206,7 @@ public class SmsCodeService {
                 }
                 break;
         }
-        if (!StringUtils.hasText(resolved)) {
-            throw new IllegalStateException("短信模板未配置");
-        }
-        return resolved;
+        return StringUtils.hasText(resolved) ? resolved : null;
     }
 
     public enum TemplateScene {
@@ -0,0 +1,84 @@
+package com.dhgx.auth.service;
+
+import com.dhgx.auth.config.AuthProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * TokenVersionCache。
+ * <p>
+ * 认证服务本地的用户 Token 版本号缓存，避免每次会话查询都读取 Redis。
+ * 版本号只增不减，事件回填按较大值合并，因此乱序到达或与读取并发的旧值不会覆盖新值；
+ * 各实例通过 {@link TokenVersionInvalidationListener} 订阅版本变更事件，TTL 仅作为事件丢失时的兜底。
+ * 命中与未命中次数通过 Micrometer 暴露（{@code cache.gets}），
+ * 本地命中率记录在 {@code auth.token.version.cache.hit.ratio}。
+ * </p>
+ */
+@Component
+public class TokenVersionCache {
+
+    /** 缓存名称，用于指标标签。 */
+    private static final String CACHE_NAME = "authTokenVersionCache";
+
+    /** 是否启用缓存。 */
+    private final boolean enabled;
+    /** 用户 ID 到当前 Token 版本号的缓存。 */
+    private final Cache<String, Long> versions;
+
+    public TokenVersionCache(AuthProperties properties, MeterRegistry meterRegistry) {
+        AuthProperties.TokenVersionCacheProperties config = properties.getTokenVersionCache();
+        this.enabled = config.isEnabled();
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1L, config.getTtlSeconds())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, CACHE_NAME);
+        Gauge.builder("auth.token.version.cache.hit.ratio", versions, cache -> cache.stats().hitRate())
+                .description("Fraction of token version reads served from the local cache")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 读取用户当前 Token 版本号，未命中时经 loader 从 Redis 加载并缓存。
+     *
+     * @param userId 用户 ID
+     * @param loader 加载函数
+     * @return 版本号
+     */
+    public long get(String userId, Function<String, Long> loader) {
+        if (!enabled) {
+            return loader.apply(userId);
+        }
+        Long version = versions.get(userId, loader);
+        return version == null ? 0L : version;
+    }
+
+    /**
+     * 写入已知的版本号，与已缓存的值取较大者。
+     *
+     * @param userId  用户 ID
+     * @param version 版本号，为 null 时直接失效该用户的缓存
+     */
+    public void update(String userId, Long version) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        if (version == null) {
+            versions.invalidate(userId);
+            return;
+        }
+        versions.asMap().merge(userId, version, Math::max);
+    }
+}
@@ -0,0 +1,84 @@
+package com.dhgx.auth.service;
+
+import com.dhgx.api.notify.core.EventNotifySubscriber;
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.common.event.PortalEventType;
+import com.dhgx.common.redis.RedisKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+
+/**
+ * TokenVersionInvalidationListener。
+ * <p>
+ * 订阅 {@link PortalEventType#USER_TOKEN_VERSION_UPDATED} 事件，将新的版本号写入本地
+ * {@link TokenVersionCache}；事件未携带版本号时直接失效该用户的缓存。
+ * 每个认证服务实例使用独立的消费组，确保所有实例都能收到每一条事件；未显式配置消费组时以广播方式订阅，
+ * 实例停止时销毁消费组，异常退出遗留的消费组由其他实例清理。
+ * </p>
+ */
+@Component
+public class TokenVersionInvalidationListener implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionInvalidationListener.class);
+
+    /** 广播订阅的消费组前缀。 */
+    static final String CONSUMER_GROUP_PREFIX = "auth-token-version-";
+
+    private final EventNotifySubscriber eventNotifySubscriber;
+    private final TokenVersionCache tokenVersionCache;
+    private final AuthProperties properties;
+
+    public TokenVersionInvalidationListener(EventNotifySubscriber eventNotifySubscriber,
+                                            TokenVersionCache tokenVersionCache,
+                                            AuthProperties properties) {
+        this.eventNotifySubscriber = eventNotifySubscriber;
+        this.tokenVersionCache = tokenVersionCache;
+        this.properties = properties;
+    }
+
+    /**
+     * 容器初始化完成后注册订阅，订阅失败不影响启动，缓存 TTL 兜底。
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!tokenVersionCache.isEnabled()) {
+            return;
+        }
+        String streamKey = RedisKeys.portalEventStream(PortalEventType.USER_TOKEN_VERSION_UPDATED);
+        String consumerGroup = properties.getTokenVersionCache().getConsumerGroup();
+        try {
+            if (StringUtils.hasText(consumerGroup)) {
+                eventNotifySubscriber.subscribe(streamKey, consumerGroup, consumerGroup, this::onEvent);
+            } else {
+                eventNotifySubscriber.subscribeBroadcast(streamKey, CONSUMER_GROUP_PREFIX, this::onEvent);
+            }
+        } catch (Exception ex) {
+            log.warn("Failed to subscribe {} for token version cache: {}", streamKey, ex.getMessage());
+        }
+    }
+
+    void onEvent(String messageId, Map<String, String> body) {
+        String userId = body == null ? null : body.get("userId");
+        if (!StringUtils.hasText(userId)) {
+            return;
+        }
+        tokenVersionCache.update(userId, parseVersion(body.get("tokenVersion")));
+        log.debug("Applied token version event {} for user {}", messageId, userId);
+    }
+
+    private Long parseVersion(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
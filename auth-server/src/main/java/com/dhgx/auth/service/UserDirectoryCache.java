@@ -0,0 +1,364 @@
+package com.dhgx.auth.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.auth.entity.AuthUser;
+import com.dhgx.auth.mapper.AuthUserMapper;
+import com.dhgx.common.redis.RedisKeys;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserDirectoryCache。
+ * <p>
+ * 认证服务本地的用户目录，包含两部分：
+ * <ul>
+ *     <li>已知用户名与手机号的布隆过滤器：登录时先判断账号是否可能存在，确定不存在时无需查询数据库，
+ *     可挡住随机用户名的撞库请求。启动后在后台分页全量加载，之后按 {@code update_time} 增量补充，
+ *     并定期全量重建以剔除已修改的旧值；加载完成前视为全部可能存在。</li>
+ *     <li>短信登录的用户状态缓存：手机号到用户 ID、状态等基础信息（不含密码哈希）的短期缓存，
+ *     由 {@link UserDirectoryInvalidationListener} 在用户禁用、启用、改密与资料变更时失效。</li>
+ * </ul>
+ * 布隆过滤器只会误判存在。为保证判定不存在时确实不存在，每新建一个账号递增 Redis 中的账号目录版本号
+ * （{@link RedisKeys#USER_DIRECTORY_VERSION}），每次加载前记下当时的版本号；过滤器判定不存在时若版本号已变化
+ * （其他实例在上次加载后新建了账号），先同步执行一次增量加载（并发请求合并为一次）再判定，版本号读取失败时按可能存在处理。
+ * 因此随机用户名只多一次 Redis 读取，只有确实新建过账号时才查询数据库。绕过认证服务直接写库的账号需同时递增版本号。
+ * 指标：{@code auth.user.directory.bloom.rejected}、{@code auth.user.directory.bloom.size}、
+ * 状态缓存 {@code cache.*{cache=authUserStatusCache}}。
+ * </p>
+ */
+@Component
+public class UserDirectoryCache implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDirectoryCache.class);
+
+    /** 缓存名称，用于指标标签。 */
+    private static final String CACHE_NAME = "authUserStatusCache";
+    /** 增量加载时回看的时间，容忍数据库与事务提交的时间差。 */
+    private static final Duration WATERMARK_OVERLAP = Duration.ofSeconds(5);
+
+    private final AuthUserMapper authUserMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AuthProperties.UserDirectoryProperties config;
+    private final Cache<String, AuthService.User> statusCache;
+    private final Counter bloomRejectedCounter;
+    private volatile BloomFilter<CharSequence> bloomFilter;
+    /** 全量重建期间新写入的账号同时写入新过滤器，避免切换时丢失。 */
+    private volatile BloomFilter<CharSequence> rebuilding;
+    private volatile LocalDateTime watermark;
+    /** 最近一次成功加载前读取的账号目录版本号，加载结果至少包含该版本之前新建的账号。 */
+    private volatile long loadedVersion = -1L;
+    /** 串行化加载，并把并发的按需加载合并为一次。 */
+    private final Object loadLock = new Object();
+    private ScheduledExecutorService scheduler;
+
+    public UserDirectoryCache(AuthUserMapper authUserMapper, StringRedisTemplate stringRedisTemplate,
+                              AuthProperties properties, MeterRegistry meterRegistry) {
+        this.authUserMapper = authUserMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.config = properties.getUserDirectory();
+        this.statusCache = Caffeine.newBuilder()
+                .maximumSize(config.getStatusCacheMaximumSize())
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1L, config.getStatusCacheTtlSeconds())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, statusCache, CACHE_NAME);
+        this.bloomRejectedCounter = Counter.builder("auth.user.directory.bloom.rejected")
+                .description("Login lookups rejected by the account Bloom filter without a database query")
+                .register(meterRegistry);
+        Gauge.builder("auth.user.directory.bloom.size", this, cache -> {
+            BloomFilter<CharSequence> current = cache.bloomFilter;
+            return current == null ? 0 : current.approximateElementCount();
+        }).description("Approximate number of usernames and mobiles in the account Bloom filter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 容器初始化完成后在后台线程加载布隆过滤器并启动定时增量加载，加载失败不影响登录。
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!config.isBloomEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-directory-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long refreshSeconds = Math.max(1L, config.getRefreshIntervalSeconds());
+        long rebuildSeconds = Math.max(refreshSeconds, TimeUnit.MINUTES.toSeconds(config.getRebuildIntervalMinutes()));
+        scheduler.execute(this::rebuildSafely);
+        scheduler.scheduleWithFixedDelay(this::refreshSafely, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::rebuildSafely, rebuildSeconds, rebuildSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 用户名是否可能存在；过滤器未就绪时返回 true。
+     */
+    public boolean mightContainUsername(String username) {
+        return mightContain(usernameKey(username));
+    }
+
+    /**
+     * 手机号是否可能存在；过滤器未就绪时返回 true。
+     */
+    public boolean mightContainMobile(String mobile) {
+        return mightContain(mobileKey(mobile));
+    }
+
+    /**
+     * 记录本实例新建的账号，并递增账号目录版本号，使其他实例的过滤器在判定不存在前先增量加载。
+     */
+    public void recordCreated(AuthUser authUser) {
+        record(authUser);
+        if (!config.isBloomEnabled() || authUser == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().increment(RedisKeys.USER_DIRECTORY_VERSION);
+        } catch (Exception ex) {
+            log.warn("Failed to bump user directory version for {}: {}", authUser.getId(), ex.getMessage());
+        }
+    }
+
+    /**
+     * 记录账号的用户名与手机号（收到资料变更或加载时调用）。
+     */
+    public void record(AuthUser authUser) {
+        if (authUser == null) {
+            return;
+        }
+        put(usernameKey(authUser.getUsername()));
+        put(mobileKey(authUser.getMobile()));
+    }
+
+    /**
+     * 读取短信登录的用户缓存。
+     */
+    public AuthService.User getByMobile(String mobile) {
+        if (!config.isStatusCacheEnabled() || !StringUtils.hasText(mobile)) {
+            return null;
+        }
+        return statusCache.getIfPresent(mobile);
+    }
+
+    /**
+     * 缓存短信登录的用户信息，调用方需去掉密码哈希。
+     */
+    public void putByMobile(String mobile, AuthService.User user) {
+        if (config.isStatusCacheEnabled() && StringUtils.hasText(mobile) && user != null) {
+            statusCache.put(mobile, user);
+        }
+    }
+
+    /**
+     * 失效指定用户的缓存。缓存按手机号索引，按用户 ID 失效时遍历缓存，缓存规模小且事件频率低。
+     */
+    public void invalidateUser(String userId) {
+        if (!StringUtils.hasText(userId)) {
+            return;
+        }
+        statusCache.asMap().values().removeIf(user -> userId.equals(user.getUserId()));
+    }
+
+    /**
+     * 用户资料变更后，重新读取该用户并补充新的用户名与手机号。
+     */
+    public void reload(String userId) {
+        invalidateUser(userId);
+        if (!config.isBloomEnabled() || !StringUtils.hasText(userId)) {
+            return;
+        }
+        try {
+            record(authUserMapper.selectById(userId));
+        } catch (Exception ex) {
+            log.warn("Failed to reload user {} into directory: {}", userId, ex.getMessage());
+        }
+    }
+
+    /**
+     * 分页全量构建新的过滤器并替换当前过滤器。
+     */
+    void rebuild() {
+        synchronized (loadLock) {
+            long version = currentVersion();
+            BloomFilter<CharSequence> next = newFilter();
+            rebuilding = next;
+            try {
+                LocalDateTime maxUpdateTime = loadAll(next);
+                bloomFilter = next;
+                watermark = maxUpdateTime;
+                loadedVersion = version;
+                log.info("Loaded account Bloom filter with ~{} entries", next.approximateElementCount());
+            } finally {
+                rebuilding = null;
+            }
+        }
+    }
+
+    /**
+     * 加载 {@code update_time} 晚于上次水位的账号。
+     */
+    void refresh() {
+        synchronized (loadLock) {
+            BloomFilter<CharSequence> current = bloomFilter;
+            LocalDateTime since = watermark;
+            if (current == null || since == null) {
+                return;
+            }
+            long version = currentVersion();
+            LambdaQueryWrapper<AuthUser> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(AuthUser::getId, AuthUser::getUsername, AuthUser::getMobile, AuthUser::getUpdateTime)
+                    .ge(AuthUser::getUpdateTime, since.minus(WATERMARK_OVERLAP));
+            LocalDateTime maxUpdateTime = since;
+            for (AuthUser authUser : authUserMapper.selectList(wrapper)) {
+                record(authUser);
+                maxUpdateTime = later(maxUpdateTime, authUser.getUpdateTime());
+            }
+            watermark = maxUpdateTime;
+            loadedVersion = version;
+        }
+    }
+
+    /**
+     * 过滤器判定不存在时调用：上次加载后有新建账号则先增量加载。
+     *
+     * @return true 表示过滤器已包含目前为止新建的全部账号，判定不存在可以直接采信
+     */
+    private boolean isUpToDate() {
+        try {
+            if (currentVersion() == loadedVersion) {
+                return true;
+            }
+            synchronized (loadLock) {
+                // 等待期间其他线程可能已完成加载，再次比较后只加载一次；按不等比较，版本号 Key 被重置时同样重新加载
+                long version = currentVersion();
+                if (version != loadedVersion) {
+                    refresh();
+                }
+                return version == loadedVersion;
+            }
+        } catch (Exception ex) {
+            log.warn("Failed to check user directory version: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private long currentVersion() {
+        String value = stringRedisTemplate.opsForValue().get(RedisKeys.USER_DIRECTORY_VERSION);
+        return value == null ? 0L : Long.parseLong(value);
+    }
+
+    private LocalDateTime loadAll(BloomFilter<CharSequence> target) {
+        int pageSize = Math.max(1, config.getLoadPageSize());
+        String lastId = null;
+        LocalDateTime maxUpdateTime = LocalDateTime.of(1970, 1, 1, 0, 0);
+        while (true) {
+            LambdaQueryWrapper<AuthUser> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(AuthUser::getId, AuthUser::getUsername, AuthUser::getMobile, AuthUser::getUpdateTime)
+                    .gt(lastId != null, AuthUser::getId, lastId)
+                    .orderByAsc(AuthUser::getId)
+                    .last("LIMIT " + pageSize);
+            List<AuthUser> page = authUserMapper.selectList(wrapper);
+            for (AuthUser authUser : page) {
+                putInto(target, usernameKey(authUser.getUsername()));
+                putInto(target, mobileKey(authUser.getMobile()));
+                maxUpdateTime = later(maxUpdateTime, authUser.getUpdateTime());
+                lastId = authUser.getId();
+            }
+            if (page.size() < pageSize) {
+                return maxUpdateTime;
+            }
+        }
+    }
+
+    private boolean mightContain(String key) {
+        BloomFilter<CharSequence> current = bloomFilter;
+        if (!config.isBloomEnabled() || current == null || key == null || current.mightContain(key)) {
+            return true;
+        }
+        // 无法确认已包含全部新账号，或按需加载后已包含该账号
+        if (!isUpToDate() || bloomFilter.mightContain(key)) {
+            return true;
+        }
+        bloomRejectedCounter.increment();
+        return false;
+    }
+
+    private void put(String key) {
+        putInto(bloomFilter, key);
+        putInto(rebuilding, key);
+    }
+
+    private BloomFilter<CharSequence> newFilter() {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                Math.max(1L, config.getExpectedInsertions()), config.getFalsePositiveProbability());
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (Exception ex) {
+            log.warn("Failed to load account Bloom filter: {}", ex.getMessage());
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (Exception ex) {
+            log.warn("Failed to refresh account Bloom filter: {}", ex.getMessage());
+        }
+    }
+
+    private static void putInto(BloomFilter<CharSequence> filter, String key) {
+        if (filter != null && key != null) {
+            filter.put(key);
+        }
+    }
+
+    private static LocalDateTime later(LocalDateTime current, LocalDateTime candidate) {
+        return candidate != null && candidate.isAfter(current) ? candidate : current;
+    }
+
+    /**
+     * 与数据库默认排序规则一致，按忽略大小写与首尾空格比较，避免误判不存在。
+     */
+    private static String usernameKey(String username) {
+        return StringUtils.hasText(username) ? "u:" + username.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String mobileKey(String mobile) {
+        return StringUtils.hasText(mobile) ? "m:" + mobile.trim().toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,93 @@
+package com.dhgx.auth.service;
+
+import com.dhgx.api.notify.core.EventNotifyHandler;
+import com.dhgx.api.notify.core.EventNotifySubscriber;
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.common.event.PortalEventType;
+import com.dhgx.common.redis.RedisKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+
+/**
+ * UserDirectoryInvalidationListener。
+ * <p>
+ * 订阅用户禁用、启用、改密与资料变更事件，失效 {@link UserDirectoryCache} 中该用户的状态缓存；
+ * 资料变更时重新读取用户，将新的用户名与手机号补充到布隆过滤器。
+ * 每个认证服务实例使用独立的消费组，确保所有实例都能收到每一条事件；未显式配置消费组时以广播方式订阅，
+ * 实例停止时销毁消费组，异常退出遗留的消费组由其他实例清理。
+ * </p>
+ */
+@Component
+public class UserDirectoryInvalidationListener implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDirectoryInvalidationListener.class);
+
+    private static final PortalEventType[] INVALIDATING_EVENTS = {
+            PortalEventType.USER_DISABLED,
+            PortalEventType.USER_ENABLED,
+            PortalEventType.USER_PASSWORD_CHANGED
+    };
+
+    /** 广播订阅的消费组前缀。 */
+    static final String CONSUMER_GROUP_PREFIX = "auth-user-directory-";
+
+    private final EventNotifySubscriber eventNotifySubscriber;
+    private final UserDirectoryCache userDirectoryCache;
+    private final AuthProperties properties;
+
+    public UserDirectoryInvalidationListener(EventNotifySubscriber eventNotifySubscriber,
+                                             UserDirectoryCache userDirectoryCache,
+                                             AuthProperties properties) {
+        this.eventNotifySubscriber = eventNotifySubscriber;
+        this.userDirectoryCache = userDirectoryCache;
+        this.properties = properties;
+    }
+
+    /**
+     * 容器初始化完成后注册订阅，订阅失败不影响启动，缓存 TTL 与定时增量加载兜底。
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        AuthProperties.UserDirectoryProperties config = properties.getUserDirectory();
+        if (!config.isBloomEnabled() && !config.isStatusCacheEnabled()) {
+            return;
+        }
+        String consumerGroup = config.getConsumerGroup();
+        for (PortalEventType eventType : INVALIDATING_EVENTS) {
+            subscribe(eventType, consumerGroup, false);
+        }
+        subscribe(PortalEventType.USER_PROFILE_UPDATED, consumerGroup, true);
+    }
+
+    void onEvent(String messageId, Map<String, String> body, boolean reload) {
+        String userId = body == null ? null : body.get("userId");
+        if (!StringUtils.hasText(userId)) {
+            return;
+        }
+        if (reload) {
+            userDirectoryCache.reload(userId);
+        } else {
+            userDirectoryCache.invalidateUser(userId);
+        }
+        log.debug("Applied user directory event {} for user {}", messageId, userId);
+    }
+
+    private void subscribe(PortalEventType eventType, String consumerGroup, boolean reload) {
+        String streamKey = RedisKeys.portalEventStream(eventType);
+        try {
+            EventNotifyHandler handler = (messageId, body) -> onEvent(messageId, body, reload);
+            if (StringUtils.hasText(consumerGroup)) {
+                eventNotifySubscriber.subscribe(streamKey, consumerGroup, consumerGroup, handler);
+            } else {
+                eventNotifySubscriber.subscribeBroadcast(streamKey, CONSUMER_GROUP_PREFIX, handler);
+            }
+        } catch (Exception ex) {
+            log.warn("Failed to subscribe {} for user directory: {}", streamKey, ex.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.dhgx.auth.service;
 
+import cn.dev33.satoken.session.SaSession;
 import cn.dev33.satoken.stp.StpUtil;
 import com.dhgx.common.redis.RedisKeys;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -9,7 +10,8 @@ import org.springframework.util.StringUtils;
 /**
  * UserTokenVersionService。
  * <p>
- * 管理用户 Token 版本号，用于强制刷新登录态。
+ * 管理用户 Token 版本号，用于强制刷新登录态。当前版本号优先读取 {@link TokenVersionCache}，
+ * 登录写入会话的版本号始终直接读取 Redis，避免把缓存中的旧值固化到新会话。
  * </p>
  */
 @Service
@@ -18,16 +20,55 @@ public class UserTokenVersionService {
     private static final String SESSION_TOKEN_VERSION_KEY = "tokenVersion";
 
     private final StringRedisTemplate stringRedisTemplate;
+    private final TokenVersionCache tokenVersionCache;
 
-    public UserTokenVersionService(StringRedisTemplate stringRedisTemplate) {
+    public UserTokenVersionService(StringRedisTemplate stringRedisTemplate, TokenVersionCache tokenVersionCache) {
         this.stringRedisTemplate = stringRedisTemplate;
+        this.tokenVersionCache = tokenVersionCache;
     }
 
     public long getCurrentVersion(String userId) {
         if (!StringUtils.hasText(userId)) {
             return 0L;
         }
-        String value = stringRedisTemplate.opsForValue().get(RedisKeys.tokenVersion(userId));
+        return tokenVersionCache.get(userId, this::loadCurrentVersion);
+    }
+
+    /**
+     * 当前版本号是否由本地缓存提供。
+     *
+     * @return 启用了 {@link TokenVersionCache} 时为 true
+     */
+    public boolean isCurrentVersionCached() {
+        return tokenVersionCache.isEnabled();
+    }
+
+    /**
+     * 直接从 Redis 读取当前版本号并回填本地缓存，用于登录等需要写入会话的场景。
+     *
+     * @param userId 用户 ID
+     * @return 版本号
+     */
+    public long refreshCurrentVersion(String userId) {
+        if (!StringUtils.hasText(userId)) {
+            return 0L;
+        }
+        long version = loadCurrentVersion(userId);
+        tokenVersionCache.update(userId, version);
+        return version;
+    }
+
+    private long loadCurrentVersion(String userId) {
+        return parseVersion(stringRedisTemplate.opsForValue().get(RedisKeys.tokenVersion(userId)));
+    }
+
+    /**
+     * 解析 Redis 中保存的版本号，缺失或格式不正确时视为 0。
+     *
+     * @param value Redis 中的值
+     * @return 版本号
+     */
+    static long parseVersion(String value) {
         if (!StringUtils.hasText(value)) {
             return 0L;
         }
@@ -43,7 +84,20 @@ public class UserTokenVersionService {
     }
 
     public Long getSessionVersion() {
-        Object value = StpUtil.getSession().get(SESSION_TOKEN_VERSION_KEY);
+        return getSessionVersion(StpUtil.getSession());
+    }
+
+    /**
+     * 读取指定账号会话中记录的 Token 版本号。
+     *
+     * @param session 账号会话，可为空
+     * @return 版本号，未记录或格式不正确时返回 null
+     */
+    public Long getSessionVersion(SaSession session) {
+        if (session == null) {
+            return null;
+        }
+        Object value = session.get(SESSION_TOKEN_VERSION_KEY);
         if (value instanceof Number) {
             return ((Number) value).longValue();
         }
@@ -0,0 +1,93 @@
+package com.dhgx.auth.sms;
+
+import com.aliyun.dysmsapi20170525.Client;
+import com.aliyun.dysmsapi20170525.models.SendBatchSmsRequest;
+import com.aliyun.dysmsapi20170525.models.SendBatchSmsResponse;
+import com.aliyun.dysmsapi20170525.models.SendSmsRequest;
+import com.aliyun.dysmsapi20170525.models.SendSmsResponse;
+import com.aliyun.teautil.Common;
+import com.dhgx.auth.config.AuthProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AliyunSmsProvider。
+ * <p>
+ * 通过配置的 AK/SK 创建的客户端下发短信，避免在代码中泄露密钥。
+ * 单条短信调用 SendSms，多条调用 SendBatchSms（单次最多 100 个号码）。
+ * SendBatchSms 的错误码针对整批，被拒绝时由 {@link SmsDispatcher} 逐条改用 SendSms 重发。
+ * 限流类错误码（{@code isv.BUSINESS_LIMIT_CONTROL}、{@code Throttling.*}）与网络异常视为可重试，其余错误码不再重试。
+ * </p>
+ */
+public class AliyunSmsProvider implements SmsProvider {
+
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private final Client smsClient;
+    private final AuthProperties.SmsProperties smsProperties;
+
+    public AliyunSmsProvider(Client smsClient, AuthProperties authProperties) {
+        this.smsClient = smsClient;
+        this.smsProperties = authProperties.getSms();
+    }
+
+    @Override
+    public String getName() {
+        return "aliyun";
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public void send(List<SmsMessage> messages) throws SmsSendException {
+        String code;
+        String message;
+        try {
+            if (messages.size() == 1) {
+                SmsMessage sms = messages.get(0);
+                SendSmsRequest request = new SendSmsRequest()
+                        .setPhoneNumbers(sms.getMobile())
+                        .setSignName(smsProperties.getSignName())
+                        .setTemplateCode(sms.getTemplateCode())
+                        .setTemplateParam(Common.toJSONString(sms.getTemplateParams()));
+                SendSmsResponse response = smsClient.sendSms(request);
+                code = response.getBody() == null ? null : response.getBody().getCode();
+                message = response.getBody() == null ? null : response.getBody().getMessage();
+            } else {
+                List<String> mobiles = new ArrayList<>(messages.size());
+                List<String> signNames = new ArrayList<>(messages.size());
+                List<Object> params = new ArrayList<>(messages.size());
+                for (SmsMessage sms : messages) {
+                    mobiles.add(sms.getMobile());
+                    signNames.add(smsProperties.getSignName());
+                    params.add(sms.getTemplateParams());
+                }
+                SendBatchSmsRequest request = new SendBatchSmsRequest()
+                        .setPhoneNumberJson(Common.toJSONString(mobiles))
+                        .setSignNameJson(Common.toJSONString(signNames))
+                        .setTemplateCode(messages.get(0).getTemplateCode())
+                        .setTemplateParamJson(Common.toJSONString(params));
+                SendBatchSmsResponse response = smsClient.sendBatchSms(request);
+                code = response.getBody() == null ? null : response.getBody().getCode();
+                message = response.getBody() == null ? null : response.getBody().getMessage();
+            }
+        } catch (Exception ex) {
+            throw new SmsSendException("Aliyun SMS request failed: " + ex.getMessage(), ex);
+        }
+        if (!"OK".equalsIgnoreCase(code)) {
+            throw new SmsSendException("Aliyun SMS rejected: " + code + " " + message, isRetryable(code));
+        }
+    }
+
+    private static boolean isRetryable(String code) {
+        return code == null
+                || "isv.BUSINESS_LIMIT_CONTROL".equals(code)
+                || code.startsWith("Throttling")
+                || code.startsWith("InternalError")
+                || code.startsWith("ServiceUnavailable");
+    }
+}
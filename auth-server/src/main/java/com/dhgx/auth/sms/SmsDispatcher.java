@@ -0,0 +1,542 @@
+package com.dhgx.auth.sms;
+
+import com.dhgx.auth.config.AuthProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SmsDispatcher。
+ * <p>
+ * 短信异步发送队列，HTTP 请求只负责入队，服务商的耗时与故障不再影响接口响应：
+ * <ul>
+ *     <li>入队：{@code durable=true} 时写入 Redis Stream（一次 XADD），由读取线程按消费组读取到有界内存队列，
+ *     内存队列已满时暂停读取，消息留在 Stream 中；{@code durable=false} 时直接放入内存队列，队列已满时拒绝。</li>
+ *     <li>发送：{@code max-concurrency} 个工作线程从内存队列取消息，在 {@code batch-wait-millis} 内按模板凑批
+ *     （不超过服务商上限），同时调用服务商的请求数不超过工作线程数。</li>
+ *     <li>重试：批次被服务商拒绝时逐条重发，避免个别无效号码连累同批其他短信；
+ *     可重试的失败按指数退避（带随机抖动）重新入队，达到 {@code max-attempts} 或不可重试时写入死信 Stream。
+ *     成功或最终失败后 XACK 并删除原消息。</li>
+ *     <li>恢复：启动时先重新发送本实例上次未确认的消息；之后定期认领空闲超过 {@code claim-idle-millis} 的未确认消息，
+ *     用于接管已宕机实例遗留的短信。</li>
+ * </ul>
+ * 指标：{@code sms.dispatch.enqueued}、{@code sms.dispatch.delivered{provider}}、{@code sms.dispatch.retried{provider}}、
+ * {@code sms.dispatch.failed{provider}}、{@code sms.dispatch.latency{provider}}（入队到送达）、
+ * {@code sms.dispatch.provider.duration{provider,outcome}}、{@code sms.dispatch.batch.size{provider}}、
+ * {@code sms.dispatch.queue.size}、{@code sms.dispatch.inflight}。
+ * </p>
+ */
+public class SmsDispatcher implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsDispatcher.class);
+
+    /** 每次认领检查读取的未确认消息数。 */
+    private static final int CLAIM_SCAN_COUNT = 100;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SmsProvider provider;
+    private final AuthProperties.SmsProperties.DispatchProperties config;
+    private final String consumerName;
+    private final int batchSize;
+    private final BlockingQueue<SmsMessage> queue;
+    /** 已读取到本实例、尚未确认的 Stream 消息 ID，认领时跳过。 */
+    private final Set<String> inflight = ConcurrentHashMap.newKeySet();
+    private final Counter enqueuedCounter;
+    private final Counter deliveredCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer latencyTimer;
+    private final Timer providerSuccessTimer;
+    private final Timer providerFailureTimer;
+    private final DistributionSummary batchSizeSummary;
+    private volatile boolean running;
+    private ExecutorService workers;
+    private ScheduledExecutorService scheduler;
+    private Thread reader;
+
+    public SmsDispatcher(StringRedisTemplate stringRedisTemplate, SmsProvider provider,
+                         AuthProperties authProperties, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.provider = provider;
+        this.config = authProperties.getSms().getDispatch();
+        this.consumerName = resolveConsumerName(config.getConsumerName());
+        this.batchSize = Math.max(1, Math.min(config.getMaxBatchSize(), provider.getMaxBatchSize()));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity()));
+        String name = provider.getName();
+        this.enqueuedCounter = Counter.builder("sms.dispatch.enqueued")
+                .description("SMS messages accepted for asynchronous delivery")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("sms.dispatch.delivered")
+                .description("SMS messages accepted by the provider")
+                .tag("provider", name)
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("sms.dispatch.retried")
+                .description("SMS messages scheduled for another attempt")
+                .tag("provider", name)
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("sms.dispatch.failed")
+                .description("SMS messages moved to the dead-letter stream")
+                .tag("provider", name)
+                .register(meterRegistry);
+        this.latencyTimer = Timer.builder("sms.dispatch.latency")
+                .description("Time from enqueue to provider acceptance")
+                .tag("provider", name)
+                .register(meterRegistry);
+        this.providerSuccessTimer = providerTimer(meterRegistry, name, "success");
+        this.providerFailureTimer = providerTimer(meterRegistry, name, "failure");
+        this.batchSizeSummary = DistributionSummary.builder("sms.dispatch.batch.size")
+                .description("Messages per provider call")
+                .tag("provider", name)
+                .register(meterRegistry);
+        Gauge.builder("sms.dispatch.queue.size", queue, BlockingQueue::size)
+                .description("SMS messages waiting in the in-memory queue")
+                .register(meterRegistry);
+        Gauge.builder("sms.dispatch.inflight", inflight, Set::size)
+                .description("Stream messages read by this instance and not yet acknowledged")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 容器初始化完成后启动工作线程、读取线程与认领任务。
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        start();
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        AtomicInteger workerIndex = new AtomicInteger();
+        int concurrency = Math.max(1, config.getMaxConcurrency());
+        workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "sms-dispatch-" + workerIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(this::workLoop);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sms-dispatch-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (config.isDurable()) {
+            reader = new Thread(this::readLoop, "sms-dispatch-reader");
+            reader.setDaemon(true);
+            reader.start();
+            long claimInterval = Math.max(1000L, config.getClaimIdleMillis() / 2);
+            scheduler.scheduleWithFixedDelay(this::claimIdleSafely, claimInterval, claimInterval,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        running = false;
+        if (reader != null) {
+            reader.interrupt();
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 服务商是否要求配置短信模板。
+     */
+    public boolean requiresTemplate() {
+        return provider.requiresTemplate();
+    }
+
+    /**
+     * 短信入队，立即返回。
+     *
+     * @param message 短信
+     * @throws IllegalStateException 非持久化模式下内存队列已满
+     */
+    public void dispatch(SmsMessage message) {
+        if (config.isDurable()) {
+            StringRecord record = StreamRecords.string(message.toFields()).withStreamKey(config.getStreamKey());
+            stringRedisTemplate.opsForStream().add(record);
+        } else if (!queue.offer(message)) {
+            throw new IllegalStateException("短信发送繁忙，请稍后重试");
+        }
+        enqueuedCounter.increment();
+    }
+
+    private void readLoop() {
+        // 先从 0 开始分页读取本消费者上次未确认的消息，读完后改为阻塞读取新消息
+        String recoveryOffset = "0";
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                int capacity = queue.remainingCapacity();
+                if (capacity == 0) {
+                    TimeUnit.MILLISECONDS.sleep(50);
+                    continue;
+                }
+                StreamReadOptions options = StreamReadOptions.empty().count(Math.min(capacity, batchSize));
+                boolean recovering = recoveryOffset != null;
+                ReadOffset offset = recovering ? ReadOffset.from(recoveryOffset) : ReadOffset.lastConsumed();
+                if (!recovering) {
+                    options = options.block(Duration.ofMillis(Math.max(1L, config.getPollTimeoutMillis())));
+                }
+                List<MapRecord<String, Object, Object>> records = read(options, offset);
+                if (recovering) {
+                    recoveryOffset = records.isEmpty() ? null : records.get(records.size() - 1).getId().getValue();
+                }
+                for (MapRecord<String, Object, Object> record : records) {
+                    accept(record.getId().getValue(), record.getValue());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Failed to read SMS outbox {}: {}", config.getStreamKey(), ex.getMessage());
+                sleepQuietly(Math.max(100L, config.getPollTimeoutMillis()));
+            }
+        }
+    }
+
+    private List<MapRecord<String, Object, Object>> read(StreamReadOptions options, ReadOffset offset) {
+        Consumer consumer = Consumer.from(config.getConsumerGroup(), consumerName);
+        StreamOffset<String> streamOffset = StreamOffset.create(config.getStreamKey(), offset);
+        try {
+            return nullToEmpty(stringRedisTemplate.opsForStream().read(consumer, options, streamOffset));
+        } catch (RedisSystemException ex) {
+            if (ex.getMessage() == null || !ex.getMessage().contains("NOGROUP")) {
+                throw ex;
+            }
+            createGroup();
+            return nullToEmpty(stringRedisTemplate.opsForStream().read(consumer, options, streamOffset));
+        }
+    }
+
+    private void accept(String id, Map<?, ?> fields) throws InterruptedException {
+        if (fields == null || fields.isEmpty()) {
+            // 已被删除的消息在 XREADGROUP 0 中只返回 ID
+            acknowledge(Collections.singletonList(id));
+            return;
+        }
+        if (!inflight.add(id)) {
+            return;
+        }
+        queue.put(SmsMessage.fromFields(id, fields));
+    }
+
+    /**
+     * 认领空闲超时的未确认消息（含本实例重启前遗留与其他实例宕机遗留）。
+     */
+    void claimIdle() throws InterruptedException {
+        PendingMessages pending = stringRedisTemplate.opsForStream().pending(config.getStreamKey(),
+                config.getConsumerGroup(), Range.unbounded(), CLAIM_SCAN_COUNT);
+        Duration minIdle = Duration.ofMillis(Math.max(1L, config.getClaimIdleMillis()));
+        for (PendingMessage message : pending) {
+            String id = message.getIdAsString();
+            if (inflight.contains(id) || message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) < 0) {
+                continue;
+            }
+            List<StringRecord> claimed = stringRedisTemplate.execute((RedisCallback<List<StringRecord>>) connection ->
+                    ((StringRedisConnection) connection).xClaim(config.getStreamKey(), config.getConsumerGroup(),
+                            consumerName, RedisStreamCommands.XClaimOptions.minIdle(minIdle).ids(id)));
+            for (StringRecord record : nullToEmpty(claimed)) {
+                log.info("Claimed idle SMS message {} delivered {} times", id, message.getTotalDeliveryCount());
+                SmsMessage sms = SmsMessage.fromFields(id, record.getValue());
+                int previousAttempts = (int) Math.max(0L, message.getTotalDeliveryCount() - 1L);
+                if (previousAttempts >= config.getMaxAttempts()) {
+                    finish(Collections.singletonList(sms.withAttempt(previousAttempts)), false);
+                    continue;
+                }
+                if (inflight.add(id)) {
+                    queue.put(sms.withAttempt(previousAttempts));
+                }
+            }
+        }
+    }
+
+    private void workLoop() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                SmsMessage first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                for (List<SmsMessage> batch : collectBatches(first)) {
+                    send(batch);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ex) {
+                log.warn("SMS dispatch worker error: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 在凑批等待时间内继续取消息，按模板分组，每组不超过批量上限。
+     */
+    private List<List<SmsMessage>> collectBatches(SmsMessage first) throws InterruptedException {
+        List<SmsMessage> collected = new ArrayList<>();
+        collected.add(first);
+        if (batchSize > 1) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, config.getBatchWaitMillis()));
+            while (collected.size() < batchSize) {
+                long remaining = deadline - System.nanoTime();
+                SmsMessage next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                if (next == null) {
+                    break;
+                }
+                collected.add(next);
+            }
+        }
+        Map<String, List<SmsMessage>> byTemplate = new LinkedHashMap<>();
+        for (SmsMessage message : collected) {
+            String key = message.getTemplateCode() == null ? "" : message.getTemplateCode();
+            byTemplate.computeIfAbsent(key, ignored -> new ArrayList<>()).add(message);
+        }
+        return new ArrayList<>(byTemplate.values());
+    }
+
+    private void send(List<SmsMessage> batch) {
+        long start = System.nanoTime();
+        try {
+            provider.send(batch);
+            providerSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizeSummary.record(batch.size());
+            long now = System.currentTimeMillis();
+            for (SmsMessage message : batch) {
+                latencyTimer.record(Math.max(0L, now - message.getCreatedAt()), TimeUnit.MILLISECONDS);
+            }
+            deliveredCounter.increment(batch.size());
+            finish(batch, true);
+        } catch (SmsSendException ex) {
+            providerFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (batch.size() > 1 && ex.isRejected()) {
+                // 批量接口按整批判定错误码，个别号码无效或被限流会连累整批，逐条重发以隔离失败号码
+                log.debug("SMS batch of {} rejected, resending singly: {}", batch.size(), ex.getMessage());
+                for (SmsMessage message : batch) {
+                    send(Collections.singletonList(message));
+                }
+                return;
+            }
+            onFailure(batch, ex.isRetryable(), ex.getMessage());
+        } catch (RuntimeException ex) {
+            providerFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            onFailure(batch, true, ex.getMessage());
+        }
+    }
+
+    private void onFailure(List<SmsMessage> batch, boolean retryable, String reason) {
+        List<SmsMessage> exhausted = new ArrayList<>();
+        for (SmsMessage message : batch) {
+            int attempt = message.getAttempt() + 1;
+            if (retryable && attempt < config.getMaxAttempts()) {
+                retriedCounter.increment();
+                SmsMessage retry = message.withAttempt(attempt);
+                scheduler.schedule(() -> requeue(retry), backoffMillis(attempt), TimeUnit.MILLISECONDS);
+            } else {
+                exhausted.add(message.withAttempt(attempt));
+            }
+        }
+        if (!exhausted.isEmpty()) {
+            log.warn("Giving up {} SMS messages after failure: {}", exhausted.size(), reason);
+            finish(exhausted, false);
+        }
+    }
+
+    private void requeue(SmsMessage message) {
+        if (!running) {
+            return;
+        }
+        if (!queue.offer(message)) {
+            scheduler.schedule(() -> requeue(message), backoffMillis(message.getAttempt()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 第 n 次重试的退避时间：初始值按 2 的幂增长，不超过上限，并在 [50%, 100%] 之间随机抖动以错开重试。
+     */
+    long backoffMillis(int attempt) {
+        long initial = Math.max(1L, config.getInitialBackoffMillis());
+        long max = Math.max(initial, config.getMaxBackoffMillis());
+        long exponential = initial << Math.min(Math.max(0, attempt - 1), 20);
+        long capped = Math.min(max, exponential);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    /**
+     * 成功或最终失败：失败的消息写入死信 Stream，之后确认并删除原消息。
+     * 死信不含模板参数，并按 {@code dead-letter-max-length} 近似裁剪。
+     */
+    private void finish(List<SmsMessage> messages, boolean delivered) {
+        if (!delivered) {
+            failedCounter.increment(messages.size());
+            if (config.isDurable()) {
+                for (SmsMessage message : messages) {
+                    Map<String, String> fields = message.toDeadLetterFields();
+                    fields.put("attempts", String.valueOf(message.getAttempt()));
+                    try {
+                        addDeadLetter(fields);
+                    } catch (Exception ex) {
+                        log.warn("Failed to record dead SMS message for {}: {}", message.getMobile(), ex.getMessage());
+                    }
+                }
+            }
+        }
+        List<String> ids = new ArrayList<>(messages.size());
+        for (SmsMessage message : messages) {
+            if (message.getId() != null) {
+                ids.add(message.getId());
+            }
+        }
+        if (!ids.isEmpty()) {
+            try {
+                acknowledge(ids);
+            } catch (Exception ex) {
+                log.warn("Failed to acknowledge SMS messages {}: {}", ids, ex.getMessage());
+            } finally {
+                inflight.removeAll(ids);
+            }
+        }
+    }
+
+    /**
+     * 写入死信 Stream。Spring Data Redis 2.3 的 XADD 不支持裁剪参数，直接发送原始命令。
+     */
+    private void addDeadLetter(Map<String, String> fields) {
+        List<byte[]> args = new ArrayList<>(5 + fields.size() * 2);
+        args.add(bytes(config.getDeadLetterStreamKey()));
+        if (config.getDeadLetterMaxLength() > 0) {
+            args.add(bytes("MAXLEN"));
+            args.add(bytes("~"));
+            args.add(bytes(String.valueOf(config.getDeadLetterMaxLength())));
+        }
+        args.add(bytes("*"));
+        fields.forEach((name, value) -> {
+            args.add(bytes(name));
+            args.add(bytes(value));
+        });
+        byte[][] command = args.toArray(new byte[0][]);
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> connection.execute("XADD", command));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void acknowledge(List<String> ids) {
+        String[] idArray = ids.toArray(new String[0]);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.xAck(config.getStreamKey(), config.getConsumerGroup(), idArray);
+            stringConnection.xDel(config.getStreamKey(), idArray);
+            return null;
+        });
+    }
+
+    private void createGroup() {
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(
+                            stringRedisTemplate.getStringSerializer().serialize(config.getStreamKey()),
+                            config.getConsumerGroup(), ReadOffset.from("0"), true));
+        } catch (RedisSystemException ex) {
+            if (ex.getMessage() == null || !ex.getMessage().contains("BUSYGROUP")) {
+                throw ex;
+            }
+        }
+    }
+
+    private void claimIdleSafely() {
+        try {
+            claimIdle();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            log.warn("Failed to claim idle SMS messages: {}", ex.getMessage());
+        }
+    }
+
+    private static Timer providerTimer(MeterRegistry meterRegistry, String provider, String outcome) {
+        return Timer.builder("sms.dispatch.provider.duration")
+                .description("SMS provider call duration")
+                .tag("provider", provider)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String resolveConsumerName(String configured) {
+        if (StringUtils.hasText(configured)) {
+            return configured;
+        }
+        try {
+            return "auth-sms-" + InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            return "auth-sms-" + ManagementFactory.getRuntimeMXBean().getName();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.dhgx.auth.sms;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SmsMessage。
+ * <p>
+ * 一条待发送的短信：手机号、模板编码与模板参数。写入 Stream 时模板参数以 {@code param.} 前缀平铺为字段。
+ * {@code id} 为 Stream 消息 ID（仅内存队列时为空），{@code attempt} 为已失败的发送次数。
+ * </p>
+ */
+public final class SmsMessage {
+
+    private static final String FIELD_MOBILE = "mobile";
+    private static final String FIELD_TEMPLATE_CODE = "templateCode";
+    private static final String FIELD_CREATED_AT = "createdAt";
+    private static final String PARAM_PREFIX = "param.";
+
+    private final String id;
+    private final String mobile;
+    private final String templateCode;
+    private final Map<String, String> templateParams;
+    private final long createdAt;
+    private final int attempt;
+
+    private SmsMessage(String id, String mobile, String templateCode, Map<String, String> templateParams,
+                       long createdAt, int attempt) {
+        this.id = id;
+        this.mobile = mobile;
+        this.templateCode = templateCode;
+        this.templateParams = templateParams;
+        this.createdAt = createdAt;
+        this.attempt = attempt;
+    }
+
+    /**
+     * 创建新短信。
+     *
+     * @param mobile         手机号
+     * @param templateCode   模板编码，服务商不需要模板时可为空
+     * @param templateParams 模板参数
+     */
+    public static SmsMessage of(String mobile, String templateCode, Map<String, String> templateParams) {
+        Map<String, String> params = templateParams == null
+                ? Collections.emptyMap() : Collections.unmodifiableMap(new LinkedHashMap<>(templateParams));
+        return new SmsMessage(null, mobile, templateCode, params, System.currentTimeMillis(), 0);
+    }
+
+    /**
+     * 从 Stream 消息还原。
+     */
+    static SmsMessage fromFields(String id, Map<?, ?> fields) {
+        Map<String, String> params = new LinkedHashMap<>();
+        String mobile = null;
+        String templateCode = null;
+        long createdAt = System.currentTimeMillis();
+        for (Map.Entry<?, ?> entry : fields.entrySet()) {
+            String name = String.valueOf(entry.getKey());
+            String value = entry.getValue() == null ? null : String.valueOf(entry.getValue());
+            if (FIELD_MOBILE.equals(name)) {
+                mobile = value;
+            } else if (FIELD_TEMPLATE_CODE.equals(name)) {
+                templateCode = value == null || value.isEmpty() ? null : value;
+            } else if (FIELD_CREATED_AT.equals(name)) {
+                try {
+                    createdAt = Long.parseLong(value);
+                } catch (NumberFormatException ex) {
+                    // 保留当前时间
+                }
+            } else if (name.startsWith(PARAM_PREFIX)) {
+                params.put(name.substring(PARAM_PREFIX.length()), value);
+            }
+        }
+        return new SmsMessage(id, mobile, templateCode, Collections.unmodifiableMap(params), createdAt, 0);
+    }
+
+    /**
+     * 转换为 Stream 字段。
+     */
+    Map<String, String> toFields() {
+        Map<String, String> fields = new HashMap<>();
+        fields.put(FIELD_MOBILE, mobile);
+        fields.put(FIELD_TEMPLATE_CODE, templateCode == null ? "" : templateCode);
+        fields.put(FIELD_CREATED_AT, String.valueOf(createdAt));
+        templateParams.forEach((name, value) -> fields.put(PARAM_PREFIX + name, value));
+        return fields;
+    }
+
+    /**
+     * 转换为死信字段：不含模板参数（如验证码），只保留排查所需的手机号、模板编码与时间。
+     */
+    Map<String, String> toDeadLetterFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(FIELD_MOBILE, mobile);
+        fields.put(FIELD_TEMPLATE_CODE, templateCode == null ? "" : templateCode);
+        fields.put(FIELD_CREATED_AT, String.valueOf(createdAt));
+        return fields;
+    }
+
+    SmsMessage withId(String id) {
+        return new SmsMessage(id, mobile, templateCode, templateParams, createdAt, attempt);
+    }
+
+    SmsMessage withAttempt(int attempt) {
+        return new SmsMessage(id, mobile, templateCode, templateParams, createdAt, attempt);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getMobile() {
+        return mobile;
+    }
+
+    public String getTemplateCode() {
+        return templateCode;
+    }
+
+    public Map<String, String> getTemplateParams() {
+        return templateParams;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+}
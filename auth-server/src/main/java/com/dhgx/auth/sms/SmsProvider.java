@@ -0,0 +1,39 @@
+package com.dhgx.auth.sms;
+
+import java.util.List;
+
+/**
+ * SmsProvider。
+ * <p>
+ * 短信服务商适配接口。{@link SmsDispatcher} 会将同一模板的短信合并为不超过 {@link #getMaxBatchSize()} 条的批次，
+ * 整批成功或整批失败；失败时抛出 {@link SmsSendException} 并标明是否可重试。
+ * 批次被服务商拒绝时，{@link SmsDispatcher} 会逐条重发，只有确实无效的号码进入重试或死信。
+ * </p>
+ */
+public interface SmsProvider {
+
+    /**
+     * 服务商名称，用于指标标签。
+     */
+    String getName();
+
+    /**
+     * 单次调用允许发送的最大条数，不支持批量时返回 1。
+     */
+    int getMaxBatchSize();
+
+    /**
+     * 是否要求配置短信模板。
+     */
+    default boolean requiresTemplate() {
+        return true;
+    }
+
+    /**
+     * 发送一批模板相同的短信。
+     *
+     * @param messages 短信，至少一条
+     * @throws SmsSendException 发送失败
+     */
+    void send(List<SmsMessage> messages) throws SmsSendException;
+}
@@ -0,0 +1,37 @@
+package com.dhgx.auth.sms;
+
+/**
+ * 短信服务商调用失败。{@code retryable} 为 false 时（如手机号或模板无效）不再重试。
+ * 服务商已应答并拒绝时 {@link #isRejected()} 为 true，此时失败可能只由批次中的个别号码引起。
+ */
+public class SmsSendException extends Exception {
+
+    private final boolean retryable;
+    private final boolean rejected;
+
+    public SmsSendException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+        this.rejected = true;
+    }
+
+    public SmsSendException(String message, Throwable cause) {
+        super(message, cause);
+        this.retryable = true;
+        this.rejected = false;
+    }
+
+    /**
+     * 是否可以退避后重试。
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * 服务商是否已应答并拒绝；网络异常等调用失败时为 false。
+     */
+    public boolean isRejected() {
+        return rejected;
+    }
+}
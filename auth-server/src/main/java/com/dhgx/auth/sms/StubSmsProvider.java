@@ -0,0 +1,71 @@
+package com.dhgx.auth.sms;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * StubSmsProvider。
+ * <p>
+ * 本地开发与测试使用的短信服务商：不调用外部接口，仅打印日志并记录最近发送的短信。
+ * </p>
+ */
+public class StubSmsProvider implements SmsProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(StubSmsProvider.class);
+
+    /** 保留的最近发送记录条数。 */
+    private static final int HISTORY_SIZE = 1000;
+
+    private final int maxBatchSize;
+    private final List<SmsMessage> sent = new ArrayList<>();
+
+    public StubSmsProvider() {
+        this(100);
+    }
+
+    public StubSmsProvider(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public String getName() {
+        return "stub";
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public boolean requiresTemplate() {
+        return false;
+    }
+
+    @Override
+    public void send(List<SmsMessage> messages) throws SmsSendException {
+        for (SmsMessage message : messages) {
+            log.info("Stub SMS to {} template={} params={}", message.getMobile(), message.getTemplateCode(),
+                    message.getTemplateParams());
+        }
+        synchronized (sent) {
+            sent.addAll(messages);
+            if (sent.size() > HISTORY_SIZE) {
+                sent.subList(0, sent.size() - HISTORY_SIZE).clear();
+            }
+        }
+    }
+
+    /**
+     * 最近发送的短信（按发送顺序）。
+     */
+    public List<SmsMessage> getSent() {
+        synchronized (sent) {
+            return Collections.unmodifiableList(new ArrayList<>(sent));
+        }
+    }
+}
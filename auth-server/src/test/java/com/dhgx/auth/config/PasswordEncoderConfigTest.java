@@ -0,0 +1,137 @@
+package com.dhgx.auth.config;
+
+import com.dhgx.common.security.BoundedPasswordEncoder;
+import com.dhgx.common.security.PasswordHashProperties;
+import com.dhgx.common.security.PasswordHashRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordEncoderConfigTest {
+
+    @Test
+    void hashesOnWorkerPoolAndRecordsMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordEncoder encoder = new PasswordEncoderConfig().passwordEncoder(new AuthProperties(), meterRegistry);
+
+        String encoded = encoder.encode("secret-123");
+
+        assertThat(encoder).isInstanceOf(BoundedPasswordEncoder.class);
+        assertThat(encoded).startsWith("{argon2}");
+        assertThat(encoder.matches("secret-123", encoded)).isTrue();
+        assertThat(encoder.matches("secret-123", "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret-123")))
+                .isTrue();
+        assertThat(meterRegistry.get("password.hash.duration").tag("operation", "matches").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("password.hash.queue.wait").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void usesConfiguredAlgorithmAndCost() {
+        AuthProperties properties = new AuthProperties();
+        properties.getPasswordEncoder().setDefaultAlgorithm("bcrypt");
+        properties.getPasswordEncoder().setBcryptStrength(5);
+        properties.getPasswordEncoder().getArgon2().setMemoryKib(8192);
+        PasswordEncoder encoder = new PasswordEncoderConfig().passwordEncoder(properties, new SimpleMeterRegistry());
+
+        String encoded = encoder.encode("secret-123");
+
+        assertThat(encoded).startsWith("{bcrypt}$2a$05$");
+        assertThat(encoder.matches("secret-123", encoded)).isTrue();
+        assertThat(PasswordEncoderConfig.argon2(properties.getPasswordEncoder().getArgon2()).encode("secret-123"))
+                .contains("m=8192,t=3,p=1");
+    }
+
+    @Test
+    void backgroundEncoderIsNotBoundToLoginPool() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(AuthProperties.class);
+            context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+            context.register(PasswordEncoderConfig.class);
+            context.refresh();
+
+            assertThat(context.getBean(PasswordEncoder.class)).isInstanceOf(BoundedPasswordEncoder.class);
+            assertThat(context.getBean("delegatingPasswordEncoder")).isInstanceOf(DelegatingPasswordEncoder.class);
+        }
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHashProperties properties = new PasswordHashProperties();
+        properties.setPoolSize(1);
+        properties.setQueueCapacity(1);
+        properties.setRetryAfterSeconds(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                blockingEncoder(started, release), properties, meterRegistry)) {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+            waitForQueuedTask(meterRegistry);
+
+            assertThatThrownBy(() -> encoder.encode("c"))
+                    .isInstanceOf(PasswordHashRejectedException.class)
+                    .extracting(ex -> ((PasswordHashRejectedException) ex).getRetryAfterSeconds())
+                    .isEqualTo(2L);
+            assertThat(meterRegistry.get("password.hash.rejected").tag("reason", "queue_full").counter().count())
+                    .isEqualTo(1);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+        }
+    }
+
+    @Test
+    void rejectsWhenResultIsNotReadyInTime() {
+        PasswordHashProperties properties = new PasswordHashProperties();
+        properties.setPoolSize(1);
+        properties.setTimeoutMillis(50);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                blockingEncoder(new CountDownLatch(1), new CountDownLatch(1)), properties, meterRegistry)) {
+            assertThatThrownBy(() -> encoder.encode("a")).isInstanceOf(PasswordHashRejectedException.class);
+            assertThat(meterRegistry.get("password.hash.rejected").tag("reason", "timeout").counter().count())
+                    .isEqualTo(1);
+        }
+    }
+
+    private static void waitForQueuedTask(SimpleMeterRegistry meterRegistry) throws InterruptedException {
+        for (int i = 0; i < 500 && meterRegistry.get("password.hash.queue.size").gauge().value() < 1; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.dhgx.auth.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashCalibratorTest {
+
+    @Test
+    void recommendsParametersWithinMemoryBudget() {
+        PasswordHashCalibrator.Recommendation recommendation = new PasswordHashCalibrator(30, 16, 2).calibrate();
+
+        assertThat(recommendation.getCoreBudget()).isEqualTo(2);
+        assertThat(recommendation.getArgon2MemoryKib())
+                .isBetween(PasswordHashCalibrator.MIN_ARGON2_MEMORY_KIB, 8 * 1024);
+        assertThat(recommendation.getArgon2Iterations()).isBetween(PasswordHashCalibrator.MIN_ARGON2_ITERATIONS,
+                PasswordHashCalibrator.MAX_ARGON2_ITERATIONS);
+        assertThat(recommendation.getBcryptStrength()).isGreaterThanOrEqualTo(PasswordHashCalibrator.MIN_BCRYPT_STRENGTH);
+        assertThat(recommendation.getArgon2ThroughputPerSecond()).isPositive();
+        assertThat(recommendation.toYaml()).contains("memory-kib: " + recommendation.getArgon2MemoryKib())
+                .contains("bcrypt-strength: " + recommendation.getBcryptStrength());
+    }
+
+    @Test
+    void encodersBuiltFromRecommendationRoundTrip() {
+        PasswordHashCalibrator.Recommendation recommendation = new PasswordHashCalibrator(10, 8, 1).calibrate();
+        AuthProperties properties = new AuthProperties();
+        properties.getPasswordHash().setEnabled(false);
+        recommendation.applyTo(properties.getPasswordEncoder());
+
+        PasswordEncoder encoder = new PasswordEncoderConfig().passwordEncoder(properties, new SimpleMeterRegistry());
+        String encoded = encoder.encode("secret-123");
+
+        assertThat(encoded).startsWith("{argon2}")
+                .contains("m=" + recommendation.getArgon2MemoryKib() + ",t=" + recommendation.getArgon2Iterations());
+        assertThat(encoder.matches("secret-123", encoded)).isTrue();
+        assertThat(encoder.matches("secret-456", encoded)).isFalse();
+    }
+}
@@ -4,8 +4,11 @@ import com.dhgx.auth.common.api.ErrorCode;
 import com.dhgx.auth.common.exception.GlobalExceptionHandler;
 import com.dhgx.auth.common.exception.LocalizedBusinessException;
 import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.auth.service.AccessTokenService;
 import com.dhgx.auth.service.AuthService;
 import com.dhgx.auth.service.PasswordResetService;
+import com.dhgx.auth.service.SessionIntrospectionService;
+import com.dhgx.auth.service.SessionKickService;
 import com.dhgx.auth.service.SmsCodeService;
 import com.dhgx.common.security.PasswordCryptoService;
 import com.dhgx.common.security.PasswordEncryptProperties;
@@ -54,6 +57,15 @@ class AuthControllerPasswordResetTest {
     @MockBean
     private PasswordCryptoService passwordCryptoService;
 
+    @MockBean
+    private SessionKickService sessionKickService;
+
+    @MockBean
+    private AccessTokenService accessTokenService;
+
+    @MockBean
+    private SessionIntrospectionService sessionIntrospectionService;
+
     @Test
     void shouldReturnChineseMessageWhenResetTokenExpired() throws Exception {
         given(passwordCryptoService.decrypt(anyString(), anyString())).willReturn("PlainPassw0rd!");
@@ -0,0 +1,142 @@
+package com.dhgx.auth.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.auth.entity.AuthUser;
+import com.dhgx.auth.mapper.AuthUserMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class PasswordRehashServiceTest {
+
+    private final AuthUserMapper authUserMapper = mock(AuthUserMapper.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordEncoder passwordEncoder = passwordEncoder();
+    private PasswordRehashService service;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), AuthUser.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.destroy();
+        }
+    }
+
+    @Test
+    void upgradesLegacyHashInBackgroundWithConditionalUpdate() {
+        service = newService(1, 10);
+        String legacy = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret-123");
+        given(authUserMapper.update(isNull(), any())).willReturn(1);
+
+        assertThat(service.submitIfNeeded("u1", legacy, "secret-123")).isTrue();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<LambdaUpdateWrapper<AuthUser>> captor = ArgumentCaptor.forClass(LambdaUpdateWrapper.class);
+        verify(authUserMapper, timeout(5000)).update(isNull(), captor.capture());
+        LambdaUpdateWrapper<AuthUser> wrapper = captor.getValue();
+        assertThat(wrapper.getSqlSegment()).contains("id").contains("password");
+        assertThat(wrapper.getParamNameValuePairs()).containsValue("u1").containsValue(legacy);
+        String rehashed = wrapper.getParamNameValuePairs().values().stream()
+                .filter(value -> value instanceof String && ((String) value).startsWith("{argon2}"))
+                .map(String.class::cast).findFirst().orElse(null);
+        assertThat(rehashed).isNotNull();
+        assertThat(passwordEncoder.matches("secret-123", rehashed)).isTrue();
+        awaitCount("upgraded", 1);
+    }
+
+    @Test
+    void skipsHashesThatAreAlreadyCurrent() {
+        service = newService(1, 10);
+        String current = passwordEncoder.encode("secret-123");
+
+        assertThat(service.submitIfNeeded("u1", current, "secret-123")).isFalse();
+        verify(authUserMapper, never()).update(any(), any());
+    }
+
+    @Test
+    void countsConflictWhenPasswordChangedConcurrently() {
+        service = newService(1, 10);
+        given(authUserMapper.update(isNull(), any())).willReturn(0);
+
+        service.submitIfNeeded("u1", "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret-123"), "secret-123");
+
+        awaitCount("conflict", 1);
+    }
+
+    @Test
+    void dropsWhenQueueIsFullOrUserAlreadyPending() throws Exception {
+        service = newService(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(authUserMapper.update(isNull(), any())).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        String legacy = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret-123");
+
+        assertThat(service.submitIfNeeded("u1", legacy, "secret-123")).isTrue();
+        assertThat(service.submitIfNeeded("u1", legacy, "secret-123")).isFalse();
+        assertThat(service.submitIfNeeded("u2", legacy, "secret-123")).isTrue();
+        assertThat(service.submitIfNeeded("u3", legacy, "secret-123")).isFalse();
+        assertThat(meterRegistry.get("password.rehash").tag("result", "dropped").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        awaitCount("upgraded", 2);
+    }
+
+    private PasswordRehashService newService(int poolSize, int queueCapacity) {
+        AuthProperties properties = new AuthProperties();
+        properties.getPasswordRehash().setPoolSize(poolSize);
+        properties.getPasswordRehash().setQueueCapacity(queueCapacity);
+        return new PasswordRehashService(authUserMapper, passwordEncoder, properties, meterRegistry);
+    }
+
+    private void awaitCount(String result, double expected) {
+        for (int i = 0; i < 500; i++) {
+            if (meterRegistry.get("password.rehash").tag("result", result).counter().count() >= expected) {
+                return;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertThat(meterRegistry.get("password.rehash").tag("result", result).counter().count()).isEqualTo(expected);
+    }
+
+    private static PasswordEncoder passwordEncoder() {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("argon2", new Argon2PasswordEncoder());
+        encoders.put("bcrypt", new BCryptPasswordEncoder(4));
+        return new DelegatingPasswordEncoder("argon2", encoders);
+    }
+}
@@ -0,0 +1,247 @@
+package com.dhgx.auth.service;
+
+import com.dhgx.auth.common.exception.LocalizedBusinessException;
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.common.cipher.Sm4CbcUtil;
+import com.dhgx.common.security.PasswordHashRejectedException;
+import io.lettuce.core.metrics.CommandLatencyCollector;
+import io.lettuce.core.metrics.CommandLatencyId;
+import io.lettuce.core.metrics.CommandMetrics;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PasswordResetServiceTest {
+
+    private static final String MOBILE = "13800000001";
+    private static final String NEW_PASSWORD = "NewPassw0rd!";
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private final CountingCollector commandCounter = new CountingCollector();
+    private ClientResources clientResources;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private AuthService authService;
+    private PasswordResetService service;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        redisPort = findAvailablePort();
+        redisServer = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        clientResources = DefaultClientResources.builder().commandLatencyCollector(commandCounter).build();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redisPort),
+                LettuceClientConfiguration.builder().clientResources(clientResources).build());
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.flushAll();
+            return null;
+        });
+        AuthProperties properties = new AuthProperties();
+        properties.getPasswordReset().setMaxVerifyFailures(3);
+        authService = mock(AuthService.class);
+        service = new PasswordResetService(redisTemplate, authService, properties);
+        // 预先加载脚本，使每个流程只执行 EVALSHA
+        service.issueResetToken("13900000000");
+        assertThatThrownBy(() -> service.resetPassword("13900000000", "unknown-token-value", "x"))
+                .isInstanceOf(LocalizedBusinessException.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+        clientResources.shutdown();
+    }
+
+    @Test
+    void eachFlowIsOneRoundTrip() {
+        String[] token = new String[1];
+        assertThat(commandsDuring(() -> token[0] = service.issueResetToken(MOBILE))).isEqualTo(1);
+        assertThat(commandsDuring(() -> assertThatThrownBy(() -> service.issueResetToken(MOBILE))
+                .isInstanceOf(LocalizedBusinessException.class))).isEqualTo(1);
+        assertThat(commandsDuring(() -> assertFailure(() -> service.resetPassword(MOBILE, "wrong-token-value",
+                encrypt(NEW_PASSWORD, "wrong-token-value")), "error.reset.token.mismatch"))).isEqualTo(1);
+        assertThat(commandsDuring(() -> assertFailure(() -> service.resetPassword(MOBILE, token[0],
+                encrypt("short", token[0])), "error.reset.password.policy"))).isEqualTo(1);
+        // 取出令牌一次往返，写库成功后删除令牌一次往返
+        assertThat(commandsDuring(() -> service.resetPassword(MOBILE, token[0], encrypt(NEW_PASSWORD, token[0]))))
+                .isEqualTo(2);
+
+        verify(authService).resetPasswordByMobile(MOBILE, NEW_PASSWORD);
+        assertThat(redisTemplate.hasKey("auth:pwd:reset:hash:" + MOBILE)).isFalse();
+        assertThat(redisTemplate.hasKey("auth:pwd:reset:fail:" + MOBILE)).isFalse();
+        assertThat(redisTemplate.hasKey("auth:pwd:reset:pending:" + MOBILE)).isFalse();
+    }
+
+    @Test
+    void tokenSurvivesFailedPasswordWrite() {
+        String token = service.issueResetToken(MOBILE);
+        Long ttl = redisTemplate.getExpire("auth:pwd:reset:hash:" + MOBILE);
+        willThrow(new PasswordHashRejectedException("queue full", 1))
+                .willDoNothing()
+                .given(authService).resetPasswordByMobile(MOBILE, NEW_PASSWORD);
+
+        assertThatThrownBy(() -> service.resetPassword(MOBILE, token, encrypt(NEW_PASSWORD, token)))
+                .isInstanceOf(PasswordHashRejectedException.class);
+
+        assertThat(redisTemplate.hasKey("auth:pwd:reset:hash:" + MOBILE)).isTrue();
+        assertThat(redisTemplate.hasKey("auth:pwd:reset:pending:" + MOBILE)).isFalse();
+        assertThat(redisTemplate.getExpire("auth:pwd:reset:hash:" + MOBILE)).isPositive().isLessThanOrEqualTo(ttl);
+        service.resetPassword(MOBILE, token, encrypt(NEW_PASSWORD, token));
+        verify(authService, times(2)).resetPasswordByMobile(MOBILE, NEW_PASSWORD);
+        assertThat(redisTemplate.hasKey("auth:pwd:reset:hash:" + MOBILE)).isFalse();
+    }
+
+    @Test
+    void tokenIsRevokedAfterTooManyFailures() {
+        String token = service.issueResetToken(MOBILE);
+        for (int i = 0; i < 3; i++) {
+            assertFailure(() -> service.resetPassword(MOBILE, "wrong-token-value", "x"), "error.reset.token.mismatch");
+        }
+
+        assertFailure(() -> service.resetPassword(MOBILE, token, encrypt(NEW_PASSWORD, token)),
+                "error.reset.too-many-failures");
+        assertThat(redisTemplate.hasKey("auth:pwd:reset:hash:" + MOBILE)).isFalse();
+        Long failTtl = redisTemplate.getExpire("auth:pwd:reset:fail:" + MOBILE);
+        assertThat(failTtl).isPositive();
+        verify(authService, never()).resetPasswordByMobile(anyString(), anyString());
+    }
+
+    @Test
+    void concurrentResetsWithSameTokenSucceedOnce() throws Exception {
+        String token = service.issueResetToken(MOBILE);
+        String encrypted = encrypt(NEW_PASSWORD, token);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        service.resetPassword(MOBILE, token, encrypted);
+                        return true;
+                    } catch (LocalizedBusinessException ex) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(10, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            assertThat(succeeded).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(authService, times(1)).resetPasswordByMobile(MOBILE, NEW_PASSWORD);
+    }
+
+    /**
+     * 统计执行期间客户端发出的 Redis 命令数（即往返次数），脚本内部调用的命令不计入。
+     */
+    private long commandsDuring(Runnable action) {
+        long before = commandCounter.commands.get();
+        action.run();
+        return commandCounter.commands.get() - before;
+    }
+
+    private static void assertFailure(Runnable action, String messageKey) {
+        assertThatThrownBy(action::run)
+                .isInstanceOf(LocalizedBusinessException.class)
+                .extracting(ex -> ((LocalizedBusinessException) ex).getMessageKey())
+                .isEqualTo(messageKey);
+    }
+
+    private static String encrypt(String plain, String token) {
+        return Sm4CbcUtil.encryptToCombined(plain, Sm4CbcUtil.encodeBase64(Sm4CbcUtil.getfirst8last8(token)));
+    }
+
+    private static int findAvailablePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static class CountingCollector implements CommandLatencyCollector {
+
+        private final AtomicLong commands = new AtomicLong();
+
+        @Override
+        public void recordCommandLatency(SocketAddress local, SocketAddress remote, ProtocolKeyword commandType,
+                                         long firstResponseLatency, long completionLatency) {
+            commands.incrementAndGet();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public Map<CommandLatencyId, CommandMetrics> retrieveMetrics() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+    }
+}
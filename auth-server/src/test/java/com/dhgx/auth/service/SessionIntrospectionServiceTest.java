@@ -0,0 +1,217 @@
+package com.dhgx.auth.service;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.plugin.SaTokenPluginHolder;
+import cn.dev33.satoken.session.SaSession;
+import cn.dev33.satoken.util.SaTokenConsts;
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.auth.service.SessionIntrospectionService.SessionCheck;
+import com.dhgx.common.redis.RedisKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionIntrospectionServiceTest {
+
+    private static final String TOKEN_KEY = "satoken:login:token:t1";
+    private static final String SESSION_PREFIX = "satoken:login:session:";
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private SessionIntrospectionService service;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        // 与启动时相同，通过 SPI 安装 sa-token-jackson 插件
+        SaTokenPluginHolder.instance.init();
+        redisPort = findAvailablePort();
+        redisServer = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redisPort));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.flushAll();
+            return null;
+        });
+        service = newService(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void validSessionIsResolvedInOneScript() {
+        login("u1", 3L);
+        redisTemplate.opsForValue().set(RedisKeys.tokenVersion("u1"), "3");
+
+        SessionCheck check = service.check(TOKEN_KEY, SESSION_PREFIX);
+
+        assertThat(check.getStatus()).isEqualTo(SessionCheck.Status.VALID);
+        assertThat(check.getUserId()).isEqualTo("u1");
+        assertThat(check.getCurrentVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void missingVersionKeyMatchesZero() {
+        login("u1", 0L);
+
+        assertThat(service.check(TOKEN_KEY, SESSION_PREFIX).getStatus()).isEqualTo(SessionCheck.Status.VALID);
+    }
+
+    @Test
+    void bumpedOrMissingSessionVersionIsMismatch() {
+        login("u1", 3L);
+        redisTemplate.opsForValue().set(RedisKeys.tokenVersion("u1"), "4");
+
+        SessionCheck check = service.check(TOKEN_KEY, SESSION_PREFIX);
+        assertThat(check.getStatus()).isEqualTo(SessionCheck.Status.VERSION_MISMATCH);
+        assertThat(check.getCurrentVersion()).isEqualTo(4L);
+
+        redisTemplate.opsForValue().set(SESSION_PREFIX + "u1", serialize(session("u1", null)));
+        assertThat(service.check(TOKEN_KEY, SESSION_PREFIX).getStatus())
+                .isEqualTo(SessionCheck.Status.VERSION_MISMATCH);
+    }
+
+    @Test
+    void fixtureUsesSaTokenJacksonLayout() {
+        assertThat(serialize(session("u1", 3L)))
+                .contains("\"dataMap\"")
+                .contains("\"tokenVersion\"");
+    }
+
+    @Test
+    void unrecognisedSessionLayoutIsNotTreatedAsMismatch() {
+        login("u1", 3L);
+        redisTemplate.opsForValue().set(RedisKeys.tokenVersion("u1"), "3");
+
+        redisTemplate.opsForValue().set(SESSION_PREFIX + "u1", "rO0ABXNyACVjbi5kZXYzMy5zYXRva2Vu");
+        SessionCheck binary = service.check(TOKEN_KEY, SESSION_PREFIX);
+        redisTemplate.opsForValue().set(SESSION_PREFIX + "u1", "{\"attributes\":{\"tokenVersion\":3}}");
+        SessionCheck otherLayout = service.check(TOKEN_KEY, SESSION_PREFIX);
+        redisTemplate.delete(SESSION_PREFIX + "u1");
+        SessionCheck missing = service.check(TOKEN_KEY, SESSION_PREFIX);
+
+        assertThat(binary.getStatus()).isEqualTo(SessionCheck.Status.UNPARSEABLE);
+        assertThat(binary.getUserId()).isEqualTo("u1");
+        assertThat(otherLayout.getStatus()).isEqualTo(SessionCheck.Status.UNPARSEABLE);
+        assertThat(missing.getStatus()).isEqualTo(SessionCheck.Status.UNPARSEABLE);
+    }
+
+    @Test
+    void cachedCurrentVersionIsServedWithoutReadingVersionKey() {
+        service = newService(true);
+        login("u1", 3L);
+        redisTemplate.opsForValue().set(RedisKeys.tokenVersion("u1"), "3");
+
+        assertThat(service.check(TOKEN_KEY, SESSION_PREFIX).getStatus()).isEqualTo(SessionCheck.Status.VALID);
+        redisTemplate.delete(RedisKeys.tokenVersion("u1"));
+        SessionCheck check = service.check(TOKEN_KEY, SESSION_PREFIX);
+
+        assertThat(check.getStatus()).isEqualTo(SessionCheck.Status.VALID);
+        assertThat(check.getCurrentVersion()).isEqualTo(3L);
+        assertThat(meterRegistry.get("auth.token.version.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void staleCachedVersionIsRefreshedForNewerSession() {
+        service = newService(true);
+        login("u1", 3L);
+        redisTemplate.opsForValue().set(RedisKeys.tokenVersion("u1"), "3");
+        service.check(TOKEN_KEY, SESSION_PREFIX);
+
+        redisTemplate.opsForValue().set(RedisKeys.tokenVersion("u1"), "4");
+        login("u1", 4L);
+        SessionCheck check = service.check(TOKEN_KEY, SESSION_PREFIX);
+
+        assertThat(check.getStatus()).isEqualTo(SessionCheck.Status.VALID);
+        assertThat(check.getCurrentVersion()).isEqualTo(4L);
+    }
+
+    @Test
+    void missingOrKickedTokenIsNotLoggedIn() {
+        assertThat(service.check(TOKEN_KEY, SESSION_PREFIX).getStatus()).isEqualTo(SessionCheck.Status.NOT_LOGIN);
+
+        redisTemplate.opsForValue().set(TOKEN_KEY, "-5");
+        assertThat(service.check(TOKEN_KEY, SESSION_PREFIX).getStatus()).isEqualTo(SessionCheck.Status.NOT_LOGIN);
+    }
+
+    private SessionIntrospectionService newService(boolean cacheEnabled) {
+        AuthProperties properties = new AuthProperties();
+        properties.getTokenVersionCache().setEnabled(cacheEnabled);
+        meterRegistry = new SimpleMeterRegistry();
+        TokenVersionCache cache = new TokenVersionCache(properties, meterRegistry);
+        return new SessionIntrospectionService(redisTemplate, new UserTokenVersionService(redisTemplate, cache));
+    }
+
+    private void login(String userId, Long version) {
+        redisTemplate.opsForValue().set(TOKEN_KEY, userId);
+        redisTemplate.opsForValue().set(SESSION_PREFIX + userId, serialize(session(userId, version)));
+    }
+
+    /**
+     * 构造账号会话，数据直接写入 dataMap，避免经由 Sa-Token 持久层。
+     */
+    private static SaSession session(String userId, Long version) {
+        SaSession session = new SaSession(SESSION_PREFIX + userId);
+        session.setType(SaTokenConsts.SESSION_TYPE__ACCOUNT);
+        session.setLoginType("login");
+        session.setLoginId(userId);
+        if (version != null) {
+            session.getDataMap().put("tokenVersion", version);
+        }
+        return session;
+    }
+
+    /**
+     * 按 Sa-Token 实际使用的序列化器写入会话，脚本解析的结构与线上一致。
+     */
+    static String sessionJson(String userId, Long version) {
+        return serialize(session(userId, version));
+    }
+
+    private static String serialize(SaSession session) {
+        return SaManager.getSaSerializerTemplate().objectToString(session);
+    }
+
+    private static int findAvailablePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.dhgx.auth.service;
+
+import com.dhgx.api.notify.core.EventNotifyPublisher;
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.common.event.PortalEventType;
+import com.dhgx.common.feign.dto.AuthKickResult;
+import com.dhgx.common.redis.RedisKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class SessionKickServiceTest {
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private EventNotifyPublisher publisher;
+    private TokenVersionCache tokenVersionCache;
+    private SessionKickService service;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        redisPort = findAvailablePort();
+        redisServer = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redisPort));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.flushAll();
+            return null;
+        });
+        publisher = mock(EventNotifyPublisher.class);
+        tokenVersionCache = new TokenVersionCache(new AuthProperties(), new SimpleMeterRegistry());
+        service = new SessionKickService(publisher, redisTemplate, tokenVersionCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bumpsVersionsAndReportsEachUser() {
+        redisTemplate.opsForValue().set(RedisKeys.tokenVersion("u1"), "7");
+
+        List<AuthKickResult> results = service.kickAll(Arrays.asList("u1", "u2", "u1", " "));
+
+        assertThat(results).extracting(AuthKickResult::getUserId).containsExactly("u1", "u2", " ");
+        assertThat(results).extracting(AuthKickResult::isSuccess).containsExactly(true, true, false);
+        assertThat(results).extracting(AuthKickResult::getTokenVersion).containsExactly(8L, 1L, null);
+        assertThat(redisTemplate.opsForValue().get(RedisKeys.tokenVersion("u1"))).isEqualTo("8");
+        assertThat(tokenVersionCache.get("u2", userId -> 0L)).isEqualTo(1L);
+
+        ArgumentCaptor<List<Map<String, String>>> messages = ArgumentCaptor.forClass(List.class);
+        verify(publisher).publishAll(eq(RedisKeys.portalEventStream(PortalEventType.USER_KICKED)),
+                messages.capture());
+        assertThat(messages.getValue()).extracting(message -> message.get("tokenVersion"))
+                .containsExactly("8", "1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bumpedVersionsReachTokenVersionCacheOfOtherInstances() {
+        redisTemplate.opsForValue().set(RedisKeys.tokenVersion("u1"), "7");
+        TokenVersionCache peerCache = new TokenVersionCache(new AuthProperties(), new SimpleMeterRegistry());
+        TokenVersionInvalidationListener peerListener =
+                new TokenVersionInvalidationListener(null, peerCache, new AuthProperties());
+        assertThat(peerCache.get("u1", userId -> 7L)).isEqualTo(7L);
+
+        service.kickAll(Arrays.asList("u1", "u2"));
+
+        ArgumentCaptor<List<Map<String, String>>> messages = ArgumentCaptor.forClass(List.class);
+        verify(publisher).publishAll(eq(RedisKeys.portalEventStream(PortalEventType.USER_TOKEN_VERSION_UPDATED)),
+                messages.capture());
+        for (Map<String, String> message : messages.getValue()) {
+            peerListener.onEvent("1-0", message);
+        }
+        assertThat(peerCache.get("u1", userId -> 7L)).isEqualTo(8L);
+        assertThat(peerCache.get("u2", userId -> 0L)).isEqualTo(1L);
+        assertThat(tokenVersionCache.get("u1", userId -> 7L)).isEqualTo(8L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void logoutPublishesUnversionedKickSoGatewayRevokesEarlierAccessTokens() {
+        redisTemplate.opsForValue().set(RedisKeys.tokenVersion("u1"), "7");
+
+        service.publishLoggedOut("u1");
+
+        ArgumentCaptor<Map<String, String>> message = ArgumentCaptor.forClass(Map.class);
+        verify(publisher).publish(eq(RedisKeys.portalEventStream(PortalEventType.USER_KICKED)), message.capture());
+        assertThat(message.getValue()).containsEntry("userId", "u1").doesNotContainKey("tokenVersion");
+        assertThat(redisTemplate.opsForValue().get(RedisKeys.tokenVersion("u1"))).isEqualTo("7");
+    }
+
+    private static int findAvailablePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.dhgx.auth.service;
+
+import cn.dev33.satoken.session.SaSession;
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.common.redis.RedisKeys;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionValidationBenchmark。
+ * <p>
+ * 对比 {@code /session-info} 改造前后的 Redis 访问：改造前依次读取凭证、账号会话（并反序列化）与版本号，
+ * 共 3 次往返；改造后由 {@link SessionIntrospectionService#check(String)} 的 Lua 脚本一次往返完成，当前版本号取自本地缓存。
+ * 基准使用本机嵌入式 Redis，回环网络的往返耗时远低于跨机房部署，实际收益约为每次请求节省 2 个网络 RTT。
+ * 运行方式：在 auth-server 下执行 {@code mvn test-compile} 后以测试类路径运行本类的 main 方法。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionValidationBenchmark {
+
+    private static final String TOKEN_KEY = "satoken:login:token:bench-token";
+    private static final String SESSION_PREFIX = "satoken:login:session:";
+    private static final String USER_ID = "10001";
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private ObjectMapper objectMapper;
+    private SessionIntrospectionService service;
+
+    @Setup
+    public void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = RedisServer.newRedisServer().port(port).setting("bind 127.0.0.1").setting("save \"\"").build();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.opsForValue().set(TOKEN_KEY, USER_ID);
+        redisTemplate.opsForValue().set(SESSION_PREFIX + USER_ID,
+                SessionIntrospectionServiceTest.sessionJson(USER_ID, 7L));
+        redisTemplate.opsForValue().set(RedisKeys.tokenVersion(USER_ID), "7");
+        // 与 sa-token-jackson 相同的默认类型配置
+        objectMapper = new ObjectMapper();
+        objectMapper.activateDefaultTyping(BasicPolymorphicTypeValidator.builder()
+                        .allowIfSubType(Object.class).allowIfBaseType(Object.class).build(),
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        service = new SessionIntrospectionService(redisTemplate, new UserTokenVersionService(redisTemplate,
+                new TokenVersionCache(new AuthProperties(), new SimpleMeterRegistry())));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public void sequentialReads(Blackhole blackhole) throws Exception {
+        String loginId = redisTemplate.opsForValue().get(TOKEN_KEY);
+        String session = redisTemplate.opsForValue().get(SESSION_PREFIX + loginId);
+        blackhole.consume(objectMapper.readValue(session, SaSession.class).get("tokenVersion"));
+        blackhole.consume(redisTemplate.opsForValue().get(RedisKeys.tokenVersion(loginId)));
+    }
+
+    @Benchmark
+    public void singleScript(Blackhole blackhole) {
+        blackhole.consume(service.check(TOKEN_KEY, SESSION_PREFIX));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SessionValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
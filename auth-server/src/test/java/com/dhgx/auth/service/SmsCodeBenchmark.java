@@ -0,0 +1,109 @@
+package com.dhgx.auth.service;
+
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.auth.sms.SmsDispatcher;
+import com.dhgx.auth.sms.StubSmsProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SmsCodeBenchmark。
+ * <p>
+ * 对比短信验证码“发送 + 校验”一轮的 Redis 访问：改造前发送为 GET 间隔、SET 验证码、SET 间隔，
+ * 校验为 GET、DEL，共 5 次往返；改造后发送与校验各一个 Lua 脚本，共 2 次往返。
+ * 每次操作前删除发送间隔 Key，使发送总能成功。
+ * 运行方式：在 auth-server 下执行 {@code mvn test-compile} 后以测试类路径运行本类的 main 方法。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmsCodeBenchmark {
+
+    private static final String MOBILE = "13800000001";
+    private static final String CODE_KEY = "auth:sms:code:" + MOBILE;
+    private static final String GUARD_KEY = "auth:sms:send:" + MOBILE;
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private SmsDispatcher dispatcher;
+    private SmsCodeService service;
+
+    @Setup
+    public void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = RedisServer.newRedisServer().port(port).setting("bind 127.0.0.1").setting("save \"\"").build();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        AuthProperties properties = new AuthProperties();
+        properties.getSms().getDispatch().setDurable(false);
+        dispatcher = new SmsDispatcher(redisTemplate, new StubSmsProvider(), properties, new SimpleMeterRegistry());
+        dispatcher.afterSingletonsInstantiated();
+        service = new SmsCodeService(redisTemplate, dispatcher, properties);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        dispatcher.destroy();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public void separateCommands() {
+        redisTemplate.delete(GUARD_KEY);
+        if (redisTemplate.opsForValue().get(GUARD_KEY) != null) {
+            throw new IllegalStateException();
+        }
+        redisTemplate.opsForValue().set(CODE_KEY, "123456", Duration.ofSeconds(300));
+        redisTemplate.opsForValue().set(GUARD_KEY, "1", Duration.ofSeconds(60));
+        if (redisTemplate.opsForValue().get(CODE_KEY) == null) {
+            throw new IllegalStateException();
+        }
+        redisTemplate.delete(CODE_KEY);
+    }
+
+    @Benchmark
+    public void luaScripts() {
+        redisTemplate.delete(GUARD_KEY);
+        service.verifyCode(MOBILE, service.issueCode(MOBILE));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SmsCodeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,180 @@
+package com.dhgx.auth.service;
+
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.auth.sms.SmsDispatcher;
+import com.dhgx.auth.sms.StubSmsProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+
+class SmsCodeServiceTest {
+
+    private static final String MOBILE = "13800000001";
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private AuthProperties properties;
+    private SmsCodeService service;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        redisPort = findAvailablePort();
+        redisServer = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redisPort));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.flushAll();
+            return null;
+        });
+        properties = new AuthProperties();
+        properties.getSms().setMaxVerifyAttempts(3);
+        properties.getSms().getDispatch().setDurable(false);
+        SmsDispatcher dispatcher = new SmsDispatcher(redisTemplate, new StubSmsProvider(), properties,
+                new SimpleMeterRegistry());
+        service = new SmsCodeService(redisTemplate, dispatcher, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void concurrentSendsIssueExactlyOneCode() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 20; round++) {
+                String mobile = "1390000" + String.format("%04d", round);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<String>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            return service.sendCode(mobile, SmsCodeService.TemplateScene.LOGIN);
+                        } catch (IllegalArgumentException ex) {
+                            return null;
+                        }
+                    }));
+                }
+                start.countDown();
+                List<String> issued = new ArrayList<>();
+                for (Future<String> result : results) {
+                    String code = result.get(10, TimeUnit.SECONDS);
+                    if (code != null) {
+                        issued.add(code);
+                    }
+                }
+                assertThat(issued).hasSize(1);
+                assertThat(redisTemplate.opsForValue().get("auth:sms:code:" + mobile)).isEqualTo(issued.get(0));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void correctCodeIsConsumedOnce() {
+        String code = service.sendCode(MOBILE, SmsCodeService.TemplateScene.LOGIN);
+
+        service.verifyCode(MOBILE, code);
+
+        assertThatThrownBy(() -> service.verifyCode(MOBILE, code)).hasMessage("验证码已失效或未发送");
+        assertThatThrownBy(() -> service.sendCode(MOBILE, SmsCodeService.TemplateScene.LOGIN))
+                .hasMessage("请求过于频繁，请稍后再试");
+    }
+
+    @Test
+    void codeIsRevokedAfterTooManyWrongAttempts() {
+        String code = service.sendCode(MOBILE, SmsCodeService.TemplateScene.LOGIN);
+        String wrong = code.equals("000000") ? "111111" : "000000";
+
+        assertThatThrownBy(() -> service.verifyCode(MOBILE, wrong)).hasMessage("验证码错误");
+        assertThatThrownBy(() -> service.verifyCode(MOBILE, wrong)).hasMessage("验证码错误");
+        assertThat(redisTemplate.getExpire("auth:sms:attempts:" + MOBILE)).isPositive();
+        assertThatThrownBy(() -> service.verifyCode(MOBILE, wrong)).hasMessage("验证码错误次数过多，请重新获取");
+        assertThatThrownBy(() -> service.verifyCode(MOBILE, code)).hasMessage("验证码已失效或未发送");
+    }
+
+    @Test
+    void resendResetsAttemptCounter() {
+        String first = service.sendCode(MOBILE, SmsCodeService.TemplateScene.LOGIN);
+        String wrong = first.equals("000000") ? "111111" : "000000";
+        assertThatThrownBy(() -> service.verifyCode(MOBILE, wrong)).hasMessage("验证码错误");
+        assertThatThrownBy(() -> service.verifyCode(MOBILE, wrong)).hasMessage("验证码错误");
+        redisTemplate.delete("auth:sms:send:" + MOBILE);
+
+        String second = service.sendCode(MOBILE, SmsCodeService.TemplateScene.LOGIN);
+        assertThat(redisTemplate.hasKey("auth:sms:attempts:" + MOBILE)).isFalse();
+        String wrongAgain = second.equals("000000") ? "111111" : "000000";
+        assertThatThrownBy(() -> service.verifyCode(MOBILE, wrongAgain)).hasMessage("验证码错误");
+        service.verifyCode(MOBILE, second);
+    }
+
+    @Test
+    void failedDispatchReleasesSendGuardAndCode() {
+        SmsDispatcher dispatcher = mock(SmsDispatcher.class);
+        willThrow(new IllegalStateException("短信发送繁忙，请稍后重试")).given(dispatcher).dispatch(any());
+        SmsCodeService failing = new SmsCodeService(redisTemplate, dispatcher, properties);
+
+        assertThatThrownBy(() -> failing.sendCode(MOBILE, SmsCodeService.TemplateScene.LOGIN))
+                .hasMessage("短信发送繁忙，请稍后重试");
+
+        assertThat(redisTemplate.hasKey("auth:sms:send:" + MOBILE)).isFalse();
+        assertThat(redisTemplate.hasKey("auth:sms:code:" + MOBILE)).isFalse();
+        String code = service.sendCode(MOBILE, SmsCodeService.TemplateScene.LOGIN);
+        service.verifyCode(MOBILE, code);
+    }
+
+    private static int findAvailablePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.dhgx.auth.service;
+
+import com.dhgx.auth.config.AuthProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenVersionCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, Long> loader = userId -> {
+        loads.incrementAndGet();
+        return 3L;
+    };
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenVersionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TokenVersionCache(new AuthProperties(), meterRegistry);
+    }
+
+    @Test
+    void repeatedReadsAreServedLocally() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(cache.get("u1", loader)).isEqualTo(3L);
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("auth.token.version.cache.hit.ratio").gauge().value()).isEqualTo(0.75);
+    }
+
+    @Test
+    void eventKeepsHighestVersion() {
+        cache.get("u1", loader);
+
+        cache.update("u1", 5L);
+        cache.update("u1", 4L);
+
+        assertThat(cache.get("u1", loader)).isEqualTo(5L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void eventWithoutVersionForcesReload() {
+        cache.get("u1", loader);
+
+        new TokenVersionInvalidationListener(null, cache, new AuthProperties())
+                .onEvent("1-0", Collections.singletonMap("userId", "u1"));
+
+        assertThat(cache.get("u1", loader)).isEqualTo(3L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        AuthProperties properties = new AuthProperties();
+        properties.getTokenVersionCache().setEnabled(false);
+        TokenVersionCache disabled = new TokenVersionCache(properties, new SimpleMeterRegistry());
+
+        disabled.get("u1", loader);
+        disabled.update("u1", 9L);
+
+        assertThat(disabled.get("u1", loader)).isEqualTo(3L);
+        assertThat(loads).hasValue(2);
+    }
+}
@@ -0,0 +1,139 @@
+package com.dhgx.auth.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.dhgx.auth.config.AuthProperties;
+import com.dhgx.auth.entity.AuthUser;
+import com.dhgx.auth.mapper.AuthUserMapper;
+import com.dhgx.common.redis.RedisKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserDirectoryCacheTest {
+
+    private final AuthUserMapper authUserMapper = mock(AuthUserMapper.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserDirectoryCache cache;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), AuthUser.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        AuthProperties properties = new AuthProperties();
+        properties.getUserDirectory().setLoadPageSize(2);
+        properties.getUserDirectory().setExpectedInsertions(1000);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        given(redisTemplate.opsForValue()).willReturn(valueOperations);
+        cache = new UserDirectoryCache(authUserMapper, redisTemplate, properties, meterRegistry);
+    }
+
+    @Test
+    void allowsEverythingUntilLoaded() {
+        assertThat(cache.mightContainUsername("nobody")).isTrue();
+        assertThat(cache.mightContainMobile("13900000000")).isTrue();
+    }
+
+    @Test
+    void loadsAllPagesAndRejectsUnknownAccounts() {
+        given(authUserMapper.selectList(any()))
+                .willReturn(Arrays.asList(user("1", "admin", "13800000001"), user("2", "user", "13800000002")))
+                .willReturn(Collections.singletonList(user("3", "alice", "13800000003")));
+
+        cache.rebuild();
+
+        verify(authUserMapper, times(2)).selectList(any());
+        assertThat(cache.mightContainUsername("alice")).isTrue();
+        assertThat(cache.mightContainUsername(" Admin ")).isTrue();
+        assertThat(cache.mightContainMobile("13800000002")).isTrue();
+        assertThat(cache.mightContainUsername("random-attacker-name")).isFalse();
+        assertThat(cache.mightContainMobile("13999999999")).isFalse();
+        assertThat(meterRegistry.get("auth.user.directory.bloom.rejected").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void addsNewAccountsIncrementally() {
+        given(authUserMapper.selectList(any()))
+                .willReturn(Collections.singletonList(user("1", "admin", "13800000001")))
+                .willReturn(Collections.singletonList(user("2", "bob", "13800000009")));
+        cache.rebuild();
+        assertThat(cache.mightContainUsername("bob")).isFalse();
+
+        cache.refresh();
+        AuthUser carol = user("3", "carol", "13800000010");
+        cache.record(carol);
+
+        assertThat(cache.mightContainUsername("bob")).isTrue();
+        assertThat(cache.mightContainMobile("13800000010")).isTrue();
+    }
+
+    @Test
+    void accountCreatedElsewhereSinceLastLoadIsLoadedBeforeRejecting() {
+        given(authUserMapper.selectList(any()))
+                .willReturn(Collections.singletonList(user("1", "admin", "13800000001")))
+                .willReturn(Collections.singletonList(user("2", "bob", "13800000009")));
+        cache.rebuild();
+        // 其他实例新建账号后递增了版本号
+        given(valueOperations.get(RedisKeys.USER_DIRECTORY_VERSION)).willReturn("1");
+
+        assertThat(cache.mightContainUsername("bob")).isTrue();
+        assertThat(cache.mightContainUsername("random-attacker-name")).isFalse();
+        assertThat(cache.mightContainMobile("13999999999")).isFalse();
+
+        // 版本号未再变化，后续判定不存在不再查询数据库
+        verify(authUserMapper, times(2)).selectList(any());
+    }
+
+    @Test
+    void unknownDirectoryVersionIsNotTreatedAsDefinitive() {
+        given(authUserMapper.selectList(any()))
+                .willReturn(Collections.singletonList(user("1", "admin", "13800000001")));
+        cache.rebuild();
+        given(valueOperations.get(RedisKeys.USER_DIRECTORY_VERSION)).willThrow(new IllegalStateException("down"));
+
+        assertThat(cache.mightContainUsername("nobody")).isTrue();
+        assertThat(meterRegistry.get("auth.user.directory.bloom.rejected").counter().count()).isZero();
+    }
+
+    @Test
+    void invalidatesStatusCacheByUserId() {
+        AuthService.User user = new AuthService.User("1", "admin", "13800000001", null, null, 1);
+        cache.putByMobile("13800000001", user);
+        assertThat(cache.getByMobile("13800000001")).isSameAs(user);
+
+        cache.invalidateUser("2");
+        assertThat(cache.getByMobile("13800000001")).isSameAs(user);
+
+        cache.invalidateUser("1");
+        assertThat(cache.getByMobile("13800000001")).isNull();
+    }
+
+    private static AuthUser user(String id, String username, String mobile) {
+        AuthUser authUser = new AuthUser();
+        authUser.setId(id);
+        authUser.setUsername(username);
+        authUser.setMobile(mobile);
+        authUser.setUpdateTime(LocalDateTime.now());
+        return authUser;
+    }
+}
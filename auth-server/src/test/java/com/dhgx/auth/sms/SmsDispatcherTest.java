@@ -0,0 +1,314 @@
+package com.dhgx.auth.sms;
+
+import com.dhgx.auth.config.AuthProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SmsDispatcherTest {
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private AuthProperties properties;
+    private AuthProperties.SmsProperties.DispatchProperties dispatch;
+    private SimpleMeterRegistry meterRegistry;
+    private SmsDispatcher dispatcher;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        redisPort = findAvailablePort();
+        redisServer = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redisPort));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.flushAll();
+            return null;
+        });
+        properties = new AuthProperties();
+        dispatch = properties.getSms().getDispatch();
+        dispatch.setConsumerName("test-consumer");
+        dispatch.setPollTimeoutMillis(100);
+        dispatch.setInitialBackoffMillis(10);
+        dispatch.setMaxBackoffMillis(50);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.destroy();
+        }
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void deliversDurableMessagesInTemplateBatchesAndRemovesThemFromStream() throws Exception {
+        dispatch.setBatchWaitMillis(200);
+        RecordingProvider provider = new RecordingProvider(10);
+        dispatcher = new SmsDispatcher(redisTemplate, provider, properties, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            dispatcher.dispatch(SmsMessage.of("1380000000" + i, i % 2 == 0 ? "T_LOGIN" : "T_VERIFY",
+                    Collections.singletonMap("code", "12345" + i)));
+        }
+        dispatcher.start();
+
+        awaitTrue(() -> provider.delivered.size() == 4);
+        assertThat(provider.batches).allSatisfy(batch ->
+                assertThat(batch).extracting(SmsMessage::getTemplateCode).containsOnly(batch.get(0).getTemplateCode()));
+        assertThat(provider.delivered).extracting(message -> message.getTemplateParams().get("code"))
+                .containsExactlyInAnyOrder("123450", "123451", "123452", "123453");
+        awaitTrue(() -> streamLength(dispatch.getStreamKey()) == 0);
+        assertThat(meterRegistry.get("sms.dispatch.delivered").tag("provider", "recording").counter().count())
+                .isEqualTo(4);
+        assertThat(meterRegistry.get("sms.dispatch.latency").timer().count()).isEqualTo(4);
+    }
+
+    @Test
+    void retriesRetryableFailuresWithBackoff() throws Exception {
+        RecordingProvider provider = new RecordingProvider(10);
+        provider.failures.set(2);
+        dispatcher = new SmsDispatcher(redisTemplate, provider, properties, meterRegistry);
+        dispatcher.start();
+
+        dispatcher.dispatch(SmsMessage.of("13800000001", "T_LOGIN", Collections.singletonMap("code", "111111")));
+
+        awaitTrue(() -> provider.delivered.size() == 1);
+        assertThat(provider.calls.get()).isEqualTo(3);
+        assertThat(provider.delivered.get(0).getAttempt()).isEqualTo(2);
+        assertThat(meterRegistry.get("sms.dispatch.retried").counter().count()).isEqualTo(2);
+        awaitTrue(() -> streamLength(dispatch.getStreamKey()) == 0);
+    }
+
+    @Test
+    void movesNonRetryableFailuresToDeadLetterStream() throws Exception {
+        RecordingProvider provider = new RecordingProvider(10);
+        provider.failures.set(Integer.MAX_VALUE);
+        provider.retryable = false;
+        dispatcher = new SmsDispatcher(redisTemplate, provider, properties, meterRegistry);
+        dispatcher.start();
+
+        dispatcher.dispatch(SmsMessage.of("13800000001", "T_LOGIN", Collections.singletonMap("code", "111111")));
+
+        awaitTrue(() -> streamLength(dispatch.getDeadLetterStreamKey()) == 1);
+        assertThat(provider.calls.get()).isEqualTo(1);
+        awaitTrue(() -> streamLength(dispatch.getStreamKey()) == 0);
+        assertThat(meterRegistry.get("sms.dispatch.failed").counter().count()).isEqualTo(1);
+        Map<Object, Object> deadLetter = redisTemplate.opsForStream()
+                .range(dispatch.getDeadLetterStreamKey(), Range.unbounded()).get(0).getValue();
+        assertThat(deadLetter).containsEntry("mobile", "13800000001").containsEntry("templateCode", "T_LOGIN")
+                .containsEntry("attempts", "1").doesNotContainKey("param.code");
+    }
+
+    @Test
+    void rejectedBatchIsResentSinglySoOnlyInvalidNumberFails() throws Exception {
+        dispatch.setBatchWaitMillis(200);
+        RecordingProvider provider = new RecordingProvider(10);
+        provider.rejectedMobiles.add("13800000002");
+        dispatcher = new SmsDispatcher(redisTemplate, provider, properties, meterRegistry);
+        for (int i = 1; i <= 3; i++) {
+            dispatcher.dispatch(SmsMessage.of("1380000000" + i, "T_LOGIN", Collections.singletonMap("code", "11111" + i)));
+        }
+        dispatcher.start();
+
+        awaitTrue(() -> streamLength(dispatch.getDeadLetterStreamKey()) == 1);
+        awaitTrue(() -> provider.delivered.size() == 2);
+        assertThat(provider.delivered).extracting(SmsMessage::getMobile)
+                .containsExactlyInAnyOrder("13800000001", "13800000003");
+        assertThat(provider.batches).allSatisfy(batch -> assertThat(batch).hasSize(1));
+        assertThat(redisTemplate.opsForStream().range(dispatch.getDeadLetterStreamKey(), Range.unbounded()).get(0)
+                .getValue()).containsEntry("mobile", "13800000002");
+        awaitTrue(() -> streamLength(dispatch.getStreamKey()) == 0);
+    }
+
+    @Test
+    void trimsDeadLetterStream() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            redisTemplate.opsForStream().add(StreamRecords.string(Collections.singletonMap("mobile", "old"))
+                    .withStreamKey(dispatch.getDeadLetterStreamKey()));
+        }
+        dispatch.setDeadLetterMaxLength(10);
+        RecordingProvider provider = new RecordingProvider(10);
+        provider.failures.set(Integer.MAX_VALUE);
+        provider.retryable = false;
+        dispatcher = new SmsDispatcher(redisTemplate, provider, properties, meterRegistry);
+        dispatcher.start();
+
+        dispatcher.dispatch(SmsMessage.of("13800000001", "T_LOGIN", Collections.singletonMap("code", "111111")));
+
+        awaitTrue(() -> streamLength(dispatch.getDeadLetterStreamKey()) < 1000);
+    }
+
+    @Test
+    void limitsConcurrentProviderCalls() throws Exception {
+        dispatch.setDurable(false);
+        dispatch.setMaxConcurrency(2);
+        RecordingProvider provider = new RecordingProvider(1);
+        provider.sendMillis = 30;
+        dispatcher = new SmsDispatcher(redisTemplate, provider, properties, meterRegistry);
+        dispatcher.start();
+
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(SmsMessage.of("1380000000" + i, "T_LOGIN", Collections.singletonMap("code", "1")));
+        }
+
+        awaitTrue(() -> provider.delivered.size() == 10);
+        assertThat(provider.maxConcurrent.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsWhenInMemoryQueueIsFull() {
+        dispatch.setDurable(false);
+        dispatch.setQueueCapacity(1);
+        dispatcher = new SmsDispatcher(redisTemplate, new RecordingProvider(1), properties, meterRegistry);
+
+        dispatcher.dispatch(SmsMessage.of("13800000001", "T_LOGIN", Collections.emptyMap()));
+
+        assertThatThrownBy(() -> dispatcher.dispatch(SmsMessage.of("13800000002", "T_LOGIN", Collections.emptyMap())))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void claimsMessagesLeftPendingByAnotherConsumer() throws Exception {
+        dispatch.setClaimIdleMillis(1);
+        redisTemplate.opsForStream().createGroup(dispatch.getStreamKey(), ReadOffset.from("0"),
+                dispatch.getConsumerGroup());
+        redisTemplate.opsForStream().add(StreamRecords.string(
+                SmsMessage.of("13800000001", "T_LOGIN", Collections.singletonMap("code", "222222")).toFields())
+                .withStreamKey(dispatch.getStreamKey()));
+        redisTemplate.opsForStream().read(Consumer.from(dispatch.getConsumerGroup(), "crashed-instance"),
+                StreamOffset.create(dispatch.getStreamKey(), ReadOffset.lastConsumed()));
+        RecordingProvider provider = new RecordingProvider(10);
+        dispatcher = new SmsDispatcher(redisTemplate, provider, properties, meterRegistry);
+        dispatcher.start();
+        TimeUnit.MILLISECONDS.sleep(10);
+
+        dispatcher.claimIdle();
+
+        awaitTrue(() -> provider.delivered.size() == 1);
+        assertThat(provider.delivered.get(0).getTemplateParams()).containsEntry("code", "222222");
+        awaitTrue(() -> redisTemplate.opsForStream()
+                .pending(dispatch.getStreamKey(), dispatch.getConsumerGroup()).getTotalPendingMessages() == 0);
+    }
+
+    private long streamLength(String key) {
+        Long size = redisTemplate.opsForStream().size(key);
+        return size == null ? 0L : size;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static int findAvailablePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static class RecordingProvider implements SmsProvider {
+
+        private final int maxBatchSize;
+        private final List<SmsMessage> delivered = new CopyOnWriteArrayList<>();
+        private final List<List<SmsMessage>> batches = new CopyOnWriteArrayList<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final Set<String> rejectedMobiles = ConcurrentHashMap.newKeySet();
+        private volatile boolean retryable = true;
+        private volatile long sendMillis;
+
+        RecordingProvider(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        @Override
+        public void send(List<SmsMessage> messages) throws SmsSendException {
+            calls.incrementAndGet();
+            int current = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(current, Math::max);
+            try {
+                if (sendMillis > 0) {
+                    TimeUnit.MILLISECONDS.sleep(sendMillis);
+                }
+                if (failures.getAndDecrement() > 0) {
+                    throw new SmsSendException("simulated failure", retryable);
+                }
+                for (SmsMessage message : messages) {
+                    if (rejectedMobiles.contains(message.getMobile())) {
+                        throw new SmsSendException("isv.MOBILE_NUMBER_ILLEGAL", false);
+                    }
+                }
+                batches.add(new ArrayList<>(messages));
+                delivered.addAll(messages);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+    }
+}
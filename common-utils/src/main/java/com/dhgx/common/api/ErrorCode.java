@@ -18,6 +18,8 @@ public enum ErrorCode {
     INVALID_RETURN_URL(100301, 400, "回调地址不合法或不在白名单"),
     /** 资源不存在。 */
     NOT_FOUND(100404, 404, "资源不存在或已被删除"),
+    /** 请求过于频繁，被网关限流。 */
+    TOO_MANY_REQUESTS(100429, 429, "请求过于频繁，请稍后再试"),
     /** 未知或服务端内部错误。 */
     INTERNAL_ERROR(100500, 500, "系统开小差了，请稍后再试"),
 
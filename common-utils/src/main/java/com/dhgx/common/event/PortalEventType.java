@@ -14,5 +14,9 @@ public enum PortalEventType {
     /** 用户被禁用。 */
     USER_DISABLED,
     /** 用户已启用/解禁。 */
-    USER_ENABLED
+    USER_ENABLED,
+    /** 用户 Token 版本号已更新，旧会话需重新校验。 */
+    USER_TOKEN_VERSION_UPDATED,
+    /** 用户会话已被认证中心踢出。 */
+    USER_KICKED
 }
@@ -1,5 +1,6 @@
 package com.dhgx.common.feign;
 
+import com.dhgx.common.feign.dto.AuthBatchKickRequest;
 import com.dhgx.common.feign.dto.AuthPasswordResetRequest;
 import com.dhgx.common.feign.dto.AuthKickRequest;
 import com.dhgx.common.feign.dto.AuthLoginRequest;
@@ -104,4 +105,15 @@ public interface AuthFeignClient {
     @PostMapping("/session/kick")
     Response kick(@RequestHeader("X-Internal-Token") String internalToken,
                   @RequestBody AuthKickRequest request);
+
+    /**
+     * 批量踢出用户，返回每个用户的踢出结果。
+     *
+     * @param internalToken 内部鉴权 Token
+     * @param request       请求体
+     * @return 原始响应
+     */
+    @PostMapping("/session/kick/batch")
+    Response kickAll(@RequestHeader("X-Internal-Token") String internalToken,
+                     @RequestBody AuthBatchKickRequest request);
 }
@@ -0,0 +1,26 @@
+package com.dhgx.common.feign.dto;
+
+import java.util.List;
+
+/**
+ * AuthBatchKickRequest。
+ */
+public class AuthBatchKickRequest {
+    @javax.validation.constraints.NotEmpty(message = "用户ID不能为空")
+    private List<String> userIds;
+
+    public AuthBatchKickRequest() {
+    }
+
+    public AuthBatchKickRequest(List<String> userIds) {
+        this.userIds = userIds;
+    }
+
+    public List<String> getUserIds() {
+        return userIds;
+    }
+
+    public void setUserIds(List<String> userIds) {
+        this.userIds = userIds;
+    }
+}
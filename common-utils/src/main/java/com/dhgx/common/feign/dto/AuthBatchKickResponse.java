@@ -0,0 +1,28 @@
+package com.dhgx.common.feign.dto;
+
+import java.util.List;
+
+/**
+ * AuthBatchKickResponse。
+ * <p>
+ * 每个用户一条踢出结果，顺序与请求一致（重复的用户 ID 只保留第一次出现的位置）。
+ * </p>
+ */
+public class AuthBatchKickResponse {
+    private List<AuthKickResult> results;
+
+    public AuthBatchKickResponse() {
+    }
+
+    public AuthBatchKickResponse(List<AuthKickResult> results) {
+        this.results = results;
+    }
+
+    public List<AuthKickResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<AuthKickResult> results) {
+        this.results = results;
+    }
+}
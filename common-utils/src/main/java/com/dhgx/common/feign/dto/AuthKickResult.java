@@ -0,0 +1,64 @@
+package com.dhgx.common.feign.dto;
+
+/**
+ * AuthKickResult。
+ * <p>
+ * 单个用户的踢出结果；成功时 tokenVersion 为递增后的 Token 版本号，失败时 message 为失败原因。
+ * </p>
+ */
+public class AuthKickResult {
+    private String userId;
+    private boolean success;
+    private Long tokenVersion;
+    private String message;
+
+    public AuthKickResult() {
+    }
+
+    public AuthKickResult(String userId, boolean success, Long tokenVersion, String message) {
+        this.userId = userId;
+        this.success = success;
+        this.tokenVersion = tokenVersion;
+        this.message = message;
+    }
+
+    public static AuthKickResult success(String userId, Long tokenVersion) {
+        return new AuthKickResult(userId, true, tokenVersion, null);
+    }
+
+    public static AuthKickResult failure(String userId, String message) {
+        return new AuthKickResult(userId, false, null, message);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public Long getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(Long tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,26 @@
+package com.dhgx.common.feign.dto;
+
+import java.util.List;
+
+/**
+ * AuthSessionBatchRequest。
+ */
+public class AuthSessionBatchRequest {
+    @javax.validation.constraints.NotEmpty(message = "登录凭证不能为空")
+    private List<String> tokens;
+
+    public AuthSessionBatchRequest() {
+    }
+
+    public AuthSessionBatchRequest(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(List<String> tokens) {
+        this.tokens = tokens;
+    }
+}
@@ -0,0 +1,28 @@
+package com.dhgx.common.feign.dto;
+
+import java.util.List;
+
+/**
+ * AuthSessionBatchResponse。
+ * <p>
+ * 与请求中的登录凭证一一对应，凭证无效时对应位置为 null。
+ * </p>
+ */
+public class AuthSessionBatchResponse {
+    private List<AuthSessionResponse> sessions;
+
+    public AuthSessionBatchResponse() {
+    }
+
+    public AuthSessionBatchResponse(List<AuthSessionResponse> sessions) {
+        this.sessions = sessions;
+    }
+
+    public List<AuthSessionResponse> getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(List<AuthSessionResponse> sessions) {
+        this.sessions = sessions;
+    }
+}
@@ -0,0 +1,132 @@
+package com.dhgx.common.gateway;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * GatewayIdentitySigner。
+ * <p>
+ * 网关向下游透传已校验身份的签名工具。网关校验登录态后写入用户 ID、Token 版本号与时间戳，
+ * 并以 HmacSHA256 签名；门户校验签名与时效通过后直接信任该身份，不再重复调用认证服务。
+ * 签名同时覆盖请求方法、路径与 satoken 的 SHA-256 摘要（摘要不随请求头传输），门户用实际收到的请求与 Cookie 重新计算，
+ * 截获的身份头无法搭配其他凭证或用于其他接口重放。
+ * 密钥取自 {@link GatewaySecurityProperties#getIdentitySecret()}，未配置时不签发也不信任。
+ * </p>
+ */
+public class GatewayIdentitySigner {
+
+    /** 用户 ID 请求头。 */
+    public static final String USER_ID_HEADER = "X-Gateway-User-Id";
+    /** Token 版本号请求头，未知时为空串。 */
+    public static final String AUTH_VERSION_HEADER = "X-Gateway-Auth-Version";
+    /** 签名时间戳（毫秒）请求头。 */
+    public static final String TIMESTAMP_HEADER = "X-Gateway-Timestamp";
+    /** 签名请求头。 */
+    public static final String SIGNATURE_HEADER = "X-Gateway-Signature";
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec secretKey;
+    /** Mac 非线程安全，按线程复用。 */
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * @param secret 共享密钥，为空时签名器不可用
+     */
+    public GatewayIdentitySigner(String secret) {
+        if (secret == null || secret.trim().isEmpty()) {
+            this.secretKey = null;
+            this.macs = null;
+            return;
+        }
+        this.secretKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * 是否配置了共享密钥。
+     */
+    public boolean isEnabled() {
+        return secretKey != null;
+    }
+
+    /**
+     * 计算签名。
+     *
+     * @param userId      用户 ID
+     * @param authVersion Token 版本号，可为空
+     * @param timestamp   时间戳（毫秒）
+     * @param method      请求方法
+     * @param path        请求路径（不含查询串）
+     * @param token       satoken 原始值
+     * @return Base64Url 编码的签名
+     */
+    public String sign(String userId, String authVersion, long timestamp, String method, String path, String token) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Gateway identity secret is not configured");
+        }
+        return ENCODER.encodeToString(mac(userId, authVersion, timestamp, method, path, token));
+    }
+
+    /**
+     * 校验签名与时效。
+     *
+     * @param userId        用户 ID
+     * @param authVersion   Token 版本号，可为空
+     * @param timestamp     时间戳请求头
+     * @param signature     签名请求头
+     * @param method        实际收到的请求方法
+     * @param path          实际收到的请求路径（不含查询串）
+     * @param token         实际收到的 satoken，缺失时不信任
+     * @param maxAgeMillis  允许的最大时间差（毫秒）
+     * @return true 表示身份可信
+     */
+    public boolean verify(String userId, String authVersion, String timestamp, String signature,
+                          String method, String path, String token, long maxAgeMillis) {
+        if (!isEnabled() || userId == null || userId.isEmpty() || timestamp == null || signature == null
+                || token == null || token.isEmpty()) {
+            return false;
+        }
+        try {
+            long signedAt = Long.parseLong(timestamp);
+            if (Math.abs(System.currentTimeMillis() - signedAt) > maxAgeMillis) {
+                return false;
+            }
+            return MessageDigest.isEqual(mac(userId, authVersion, signedAt, method, path, token),
+                    DECODER.decode(signature));
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private byte[] mac(String userId, String authVersion, long timestamp, String method, String path, String token) {
+        String payload = userId + '\n' + (authVersion == null ? "" : authVersion) + '\n' + timestamp
+                + '\n' + (method == null ? "" : method) + '\n' + (path == null ? "" : path)
+                + '\n' + ENCODER.encodeToString(sha256(token == null ? "" : token));
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 not available", ex);
+        }
+    }
+}
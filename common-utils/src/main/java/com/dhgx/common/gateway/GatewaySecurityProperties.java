@@ -8,13 +8,17 @@ import java.util.List;
 /**
  * GatewaySecurityProperties。
  * <p>
- * 网关与门户共用的接口白名单配置，集中在 common-utils 统一维护。
+ * 网关与门户共用的接口白名单与身份透传配置，集中在 common-utils 统一维护。
  * </p>
  */
 @ConfigurationProperties(prefix = "gateway.security")
 public class GatewaySecurityProperties {
     /** 网关放行的白名单路径集合。 */
     private List<String> whitelist = new ArrayList<>();
+    /** 网关透传身份请求头的签名密钥，网关与门户需一致；为空时不透传，门户照常调用认证服务校验。 */
+    private String identitySecret;
+    /** 透传身份允许的最大时间差（秒）。 */
+    private long identityMaxAgeSeconds = 30;
 
     /**
      * 获取白名单列表。
@@ -33,4 +37,40 @@ public class GatewaySecurityProperties {
     public void setWhitelist(List<String> whitelist) {
         this.whitelist = whitelist;
     }
+
+    /**
+     * 获取身份透传签名密钥。
+     *
+     * @return 签名密钥
+     */
+    public String getIdentitySecret() {
+        return identitySecret;
+    }
+
+    /**
+     * 设置身份透传签名密钥。
+     *
+     * @param identitySecret 签名密钥
+     */
+    public void setIdentitySecret(String identitySecret) {
+        this.identitySecret = identitySecret;
+    }
+
+    /**
+     * 获取透传身份允许的最大时间差（秒）。
+     *
+     * @return 最大时间差
+     */
+    public long getIdentityMaxAgeSeconds() {
+        return identityMaxAgeSeconds;
+    }
+
+    /**
+     * 设置透传身份允许的最大时间差（秒）。
+     *
+     * @param identityMaxAgeSeconds 最大时间差
+     */
+    public void setIdentityMaxAgeSeconds(long identityMaxAgeSeconds) {
+        this.identityMaxAgeSeconds = identityMaxAgeSeconds;
+    }
 }
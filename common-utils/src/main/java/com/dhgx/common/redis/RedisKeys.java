@@ -1,5 +1,7 @@
 package com.dhgx.common.redis;
 
+import com.dhgx.common.event.PortalEventType;
+
 import java.time.Duration;
 
 /**
@@ -37,9 +39,19 @@ public final class RedisKeys {
 
     /** 用户 Token 版本号前缀。 */
     public static final String TOKEN_VERSION_PREFIX = "auth:token:version:";
+    /** 签名访问令牌的 HMAC 密钥（Base64），由认证服务写入，网关启动时读取。 */
+    public static final String ACCESS_TOKEN_SIGNING_KEY = "auth:access-token:signing-key";
+
+    /** 账号目录版本号，每新建一个账号递增一次，认证服务据此判断布隆过滤器是否可能漏掉新账号。 */
+    public static final String USER_DIRECTORY_VERSION = "auth:user-directory:version";
+
+    /** 网关限流令牌桶前缀。 */
+    public static final String GATEWAY_RATE_LIMIT_PREFIX = "gateway:rate-limit:";
 
     /** 门户事件流 Key。 */
     public static final String PORTAL_EVENTS_STREAM = "portal:events";
+    /** 按事件类型拆分的门户事件流前缀。 */
+    public static final String PORTAL_EVENT_STREAM_PREFIX = PORTAL_EVENTS_STREAM + ":";
 
     /**
      * 拼接 SSO Ticket 的完整 Key。
@@ -101,6 +113,28 @@ public final class RedisKeys {
         return TOKEN_VERSION_PREFIX + userId;
     }
 
+    /**
+     * 拼接网关限流令牌桶 Key，例如 {@code gateway:rate-limit:login:ip:10.0.0.1}。
+     *
+     * @param ruleId    限流规则 ID
+     * @param dimension 限流维度（ip、user）
+     * @param value     维度取值
+     * @return Redis Key
+     */
+    public static String gatewayRateLimit(String ruleId, String dimension, String value) {
+        return GATEWAY_RATE_LIMIT_PREFIX + ruleId + ":" + dimension + ":" + value;
+    }
+
+    /**
+     * 拼接指定事件类型的门户事件流 Key，例如 {@code portal:events:USER_DISABLED}。
+     *
+     * @param eventType 事件类型
+     * @return Redis Stream Key
+     */
+    public static String portalEventStream(PortalEventType eventType) {
+        return PORTAL_EVENT_STREAM_PREFIX + eventType.name();
+    }
+
     /**
      * 拼接事件去重 Key（按业务系统区分）。
      *
@@ -0,0 +1,169 @@
+package com.dhgx.common.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * AccessTokenCodec。
+ * <p>
+ * 签名访问令牌的编解码，认证服务签发、网关本地校验。使用 HmacSHA256，格式为：
+ * {@code v2.Base64Url(userId).tokenVersion.issuedAt.expiresAt.sessionDigest.Base64Url(signature)}，
+ * 时间单位为秒，签名覆盖最后一个 {@code .} 之前的全部内容。{@code sessionDigest} 为签发时 satoken 的
+ * SHA-256 摘要（Base64Url），令牌只能与签发时的会话凭证一起使用。
+ * </p>
+ */
+public class AccessTokenCodec {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final String VERSION_PREFIX = "v2.";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec secretKey;
+    /** Mac 非线程安全，按线程复用。 */
+    private final ThreadLocal<Mac> macs;
+
+    public AccessTokenCodec(byte[] key) {
+        if (key == null || key.length < 32) {
+            throw new IllegalArgumentException("访问令牌签名密钥长度不能少于 32 字节");
+        }
+        this.secretKey = new SecretKeySpec(key.clone(), HMAC_SHA256);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * 签发访问令牌。
+     *
+     * @param userId       用户 ID
+     * @param tokenVersion 签发时的 Token 版本号
+     * @param issuedAt     签发时间（秒）
+     * @param expiresAt    过期时间（秒）
+     * @param sessionToken 签发时的 satoken
+     * @return 令牌字符串
+     */
+    public String issue(String userId, long tokenVersion, long issuedAt, long expiresAt, String sessionToken) {
+        String payload = VERSION_PREFIX
+                + ENCODER.encodeToString(userId.getBytes(StandardCharsets.UTF_8))
+                + '.' + tokenVersion + '.' + issuedAt + '.' + expiresAt + '.' + sessionDigest(sessionToken);
+        return payload + '.' + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * 计算 satoken 的摘要。
+     *
+     * @param sessionToken satoken 原始值
+     * @return Base64Url 编码的 SHA-256 摘要
+     */
+    public static String sessionDigest(String sessionToken) {
+        try {
+            return ENCODER.encodeToString(MessageDigest.getInstance("SHA-256")
+                    .digest((sessionToken == null ? "" : sessionToken).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    /**
+     * 校验签名并解析令牌，不检查是否过期。
+     *
+     * @param token 令牌字符串
+     * @return 令牌内容，格式错误或签名不匹配时返回 null
+     */
+    public Claims decode(String token) {
+        if (token == null || !token.startsWith(VERSION_PREFIX)) {
+            return null;
+        }
+        int signatureStart = token.lastIndexOf('.');
+        int digestStart = token.lastIndexOf('.', signatureStart - 1);
+        int expiresStart = token.lastIndexOf('.', digestStart - 1);
+        int issuedStart = token.lastIndexOf('.', expiresStart - 1);
+        int versionStart = token.lastIndexOf('.', issuedStart - 1);
+        if (versionStart < VERSION_PREFIX.length()) {
+            return null;
+        }
+        try {
+            byte[] expected = sign(token.substring(0, signatureStart));
+            byte[] actual = DECODER.decode(token.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+            String userId = new String(DECODER.decode(token.substring(VERSION_PREFIX.length(), versionStart)),
+                    StandardCharsets.UTF_8);
+            long tokenVersion = Long.parseLong(token.substring(versionStart + 1, issuedStart));
+            long issuedAt = Long.parseLong(token.substring(issuedStart + 1, expiresStart));
+            long expiresAt = Long.parseLong(token.substring(expiresStart + 1, digestStart));
+            return new Claims(userId, tokenVersion, issuedAt, expiresAt, token.substring(digestStart + 1, signatureStart));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 not available", ex);
+        }
+    }
+
+    /**
+     * 访问令牌内容。
+     */
+    public static class Claims {
+        private final String userId;
+        private final long tokenVersion;
+        private final long issuedAt;
+        private final long expiresAt;
+        private final String sessionDigest;
+
+        public Claims(String userId, long tokenVersion, long issuedAt, long expiresAt, String sessionDigest) {
+            this.userId = userId;
+            this.tokenVersion = tokenVersion;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+            this.sessionDigest = sessionDigest;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public long getTokenVersion() {
+            return tokenVersion;
+        }
+
+        public long getIssuedAt() {
+            return issuedAt;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public String getSessionDigest() {
+            return sessionDigest;
+        }
+
+        /**
+         * 令牌是否签发给该 satoken。
+         *
+         * @param sessionToken 本次请求携带的 satoken
+         * @return true 表示与签发时的会话凭证一致
+         */
+        public boolean isIssuedFor(String sessionToken) {
+            return sessionToken != null && MessageDigest.isEqual(
+                    sessionDigest.getBytes(StandardCharsets.US_ASCII),
+                    AccessTokenCodec.sessionDigest(sessionToken).getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
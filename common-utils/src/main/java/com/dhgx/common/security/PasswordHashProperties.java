@@ -0,0 +1,57 @@
+package com.dhgx.common.security;
+
+/**
+ * 密码哈希线程池配置。
+ */
+public class PasswordHashProperties {
+    /** 是否在独立线程池中执行密码哈希，关闭时在调用线程中直接执行。 */
+    private boolean enabled = true;
+    /** 线程数，小于等于 0 时取 CPU 核数。 */
+    private int poolSize = 0;
+    /** 等待队列容量，队列已满时立即拒绝。 */
+    private int queueCapacity = 32;
+    /** 调用方等待结果的最长时间（毫秒），超时视为拒绝。 */
+    private long timeoutMillis = 5000;
+    /** 拒绝时建议客户端重试的等待时长（秒）。 */
+    private long retryAfterSeconds = 1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
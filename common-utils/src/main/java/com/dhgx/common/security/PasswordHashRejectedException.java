@@ -0,0 +1,21 @@
+package com.dhgx.common.security;
+
+/**
+ * 密码哈希线程池繁忙（队列已满或等待超时）时抛出，调用方应返回可重试的繁忙响应。
+ */
+public class PasswordHashRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * 建议客户端重试的等待时长（秒）。
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
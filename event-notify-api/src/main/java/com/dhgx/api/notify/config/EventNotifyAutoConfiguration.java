@@ -1,7 +1,12 @@
 package com.dhgx.api.notify.config;
 
+import com.dhgx.api.notify.core.EventNotifyDispatcher;
 import com.dhgx.api.notify.core.EventNotifyPublisher;
+import com.dhgx.api.notify.core.EventNotifyStreamTrimmer;
 import com.dhgx.api.notify.core.EventNotifySubscriber;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -17,6 +22,8 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.stream.StreamMessageListenerContainer;
 
 import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 自动装配 Redis Stream 相关的通用组件。
@@ -53,11 +60,18 @@ public class EventNotifyAutoConfiguration {
     @Bean(destroyMethod = "stop")
     @ConditionalOnMissingBean
     public StreamMessageListenerContainer<String, MapRecord<String, String, String>> streamMessageListenerContainer(
-            StringRedisTemplate stringRedisTemplate) {
+            StringRedisTemplate stringRedisTemplate, EventNotifyProperties properties) {
+        // 每个订阅长期占用一个轮询线程，使用独立的守护线程池，避免与应用的 TaskExecutor 互相影响
+        AtomicInteger threadIndex = new AtomicInteger();
         StreamMessageListenerContainer.StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
                 StreamMessageListenerContainer.StreamMessageListenerContainerOptions.<String, MapRecord<String, String, String>>builder()
-                        .batchSize(10)
-                        .pollTimeout(Duration.ofSeconds(2))
+                        .batchSize(Math.max(1, properties.getPollBatchSize()))
+                        .pollTimeout(Duration.ofMillis(Math.max(0L, properties.getPollTimeoutMillis())))
+                        .executor(Executors.newCachedThreadPool(runnable -> {
+                            Thread thread = new Thread(runnable, "event-notify-poll-" + threadIndex.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }))
                         .build();
         StreamMessageListenerContainer<String, MapRecord<String, String, String>> container =
                 StreamMessageListenerContainer.create(stringRedisTemplate.getRequiredConnectionFactory(), options);
@@ -65,17 +79,37 @@ public class EventNotifyAutoConfiguration {
         return container;
     }
 
-    @Bean
+    @Bean(destroyMethod = "stop")
     @ConditionalOnMissingBean
     public EventNotifyPublisher messagePublisher(StringRedisTemplate stringRedisTemplate, EventNotifyProperties properties) {
         return new EventNotifyPublisher(stringRedisTemplate, properties);
     }
 
-    @Bean
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnMissingBean
+    public EventNotifyStreamTrimmer eventNotifyStreamTrimmer(StringRedisTemplate stringRedisTemplate,
+                                                             EventNotifyProperties properties,
+                                                             EventNotifyPublisher messagePublisher,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        EventNotifyStreamTrimmer trimmer = new EventNotifyStreamTrimmer(stringRedisTemplate, properties,
+                messagePublisher, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        trimmer.start();
+        return trimmer;
+    }
+
+    @Bean(destroyMethod = "stop")
     @ConditionalOnMissingBean
     public EventNotifySubscriber messageSubscriber(StringRedisTemplate stringRedisTemplate,
                                                    StreamMessageListenerContainer<String, MapRecord<String, String, String>> streamMessageListenerContainer,
-                                                   EventNotifyProperties properties) {
-        return new EventNotifySubscriber(stringRedisTemplate, streamMessageListenerContainer, properties);
+                                                   EventNotifyProperties properties,
+                                                   EventNotifyPublisher messagePublisher,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        EventNotifyDispatcher dispatcher = null;
+        if (properties.isDispatchEnabled()) {
+            dispatcher = new EventNotifyDispatcher(properties.getDispatchPartitions(), properties.getDispatchQueueCapacity(),
+                    properties.getDispatchKeyField(), meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        }
+        return new EventNotifySubscriber(stringRedisTemplate, streamMessageListenerContainer, properties, dispatcher,
+                messagePublisher);
     }
 }
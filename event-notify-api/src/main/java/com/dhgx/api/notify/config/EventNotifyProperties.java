@@ -3,6 +3,9 @@ package com.dhgx.api.notify.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Redis Stream 配置项，便于各微服务统一调整流名称、消费组与消费者标识。
  */
@@ -29,4 +32,170 @@ public class EventNotifyProperties {
      */
     private boolean createGroupIfAbsent = true;
 
+    /**
+     * 每次 XREADGROUP 读取的消息数（COUNT）；开启自适应时为下限。
+     */
+    private int pollBatchSize = 10;
+
+    /**
+     * XREADGROUP 的阻塞等待时长（毫秒，BLOCK）。
+     */
+    private long pollTimeoutMillis = 2000;
+
+    /**
+     * 是否自适应调整读取批量：返回满批（存在积压）时翻倍，返回不足半批（趋于空闲）时减半。
+     */
+    private boolean adaptiveBatchEnabled = false;
+
+    /**
+     * 自适应读取批量的上限。
+     */
+    private int adaptiveMaxBatchSize = 500;
+
+    /**
+     * 是否定期认领空闲的未确认消息（XPENDING/XCLAIM），用于重试处理失败的消息并接管已宕机消费者的消息。
+     */
+    private boolean reclaimEnabled = true;
+
+    /**
+     * 未确认消息空闲超过该时长（毫秒）后才会被认领重试。
+     */
+    private long reclaimIdleMillis = 60000;
+
+    /**
+     * 认领检查的间隔（毫秒）。
+     */
+    private long reclaimIntervalMillis = 30000;
+
+    /**
+     * 每次认领检查读取的未确认消息数上限。
+     */
+    private int reclaimBatchSize = 100;
+
+    /**
+     * 最大投递次数，达到后消息转入死信 Stream 并确认。
+     */
+    private int maxDeliveryAttempts = 5;
+
+    /**
+     * 死信 Stream Key 后缀，死信 Stream 为原 Stream Key 加该后缀。
+     */
+    private String deadLetterSuffix = ":dlq";
+
+    /**
+     * 是否把消息交给分区工作线程并行处理；关闭时在容器轮询线程上逐条处理。
+     * 开启后处理器改在工作线程上执行，处理器需是线程安全的，默认关闭。
+     */
+    private boolean dispatchEnabled = false;
+
+    /**
+     * 分区处理时失败消息在分区内重试的初始间隔（毫秒），每次翻倍，不超过 {@code reclaim-idle-millis}。
+     */
+    private long dispatchRetryBackoffMillis = 500;
+
+    /**
+     * 分区（工作线程）数，同一分区内的消息按到达顺序处理。
+     */
+    private int dispatchPartitions = 4;
+
+    /**
+     * 每个分区的队列容量，队列已满时暂停拉取新消息。
+     */
+    private int dispatchQueueCapacity = 256;
+
+    /**
+     * 分区键字段，同一键值的消息进入同一分区以保证顺序；消息缺少该字段时按消息 ID 分区。
+     */
+    private String dispatchKeyField = "userId";
+
+    /**
+     * 广播订阅遗留消费组的判定阈值（毫秒）：同前缀的其他消费组心跳与全部消费者都超过该时长未更新时视为实例已下线并销毁，
+     * 小于等于 0 表示不清理。
+     */
+    private long broadcastGroupIdleMillis = 3600000;
+
+    /**
+     * 刷新心跳并清理广播订阅遗留消费组的间隔（毫秒），实际间隔不超过 {@code broadcast-group-idle-millis} 的三分之一。
+     */
+    private long broadcastGroupSweepIntervalMillis = 300000;
+
+    /**
+     * 默认保留的最大消息数（近似值，XADD/XTRIM MAXLEN ~），小于等于 0 表示不限制。
+     */
+    private long retentionMaxLength = 100000;
+
+    /**
+     * 默认保留的最长时间（毫秒，近似值，XADD/XTRIM MINID ~，需要 Redis 6.2+），小于等于 0 表示不限制。
+     */
+    private long retentionMaxAgeMillis = 0;
+
+    /**
+     * 按 Stream Key 覆盖的保留策略，未设置的字段沿用默认值。
+     */
+    private Map<String, StreamRetention> retention = new LinkedHashMap<>();
+
+    /**
+     * 是否启用后台裁剪，写入稀少的 Stream 依靠后台裁剪清理过期消息。
+     */
+    private boolean trimEnabled = true;
+
+    /**
+     * 后台裁剪的间隔（毫秒）。
+     */
+    private long trimIntervalMillis = 60000;
+
+    /**
+     * 异步发布缓冲区容量，已满时 {@code publishAsync} 返回失败的 Future。
+     */
+    private int asyncBufferCapacity = 10000;
+
+    /**
+     * 异步发布单批最多合并的消息数。
+     */
+    private int asyncMaxBatchSize = 500;
+
+    /**
+     * 异步发布收到第一条消息后等待凑批的时长（毫秒）。
+     */
+    private long asyncLingerMillis = 5;
+
+    /**
+     * 计算指定 Stream 生效的保留策略。
+     *
+     * @param streamKey Stream Key
+     * @return 合并默认值后的保留策略
+     */
+    public StreamRetention retentionFor(String streamKey) {
+        StreamRetention override = retention.get(streamKey);
+        StreamRetention effective = new StreamRetention();
+        effective.setMaxLength(override != null && override.getMaxLength() != null
+                ? override.getMaxLength() : retentionMaxLength);
+        effective.setMaxAgeMillis(override != null && override.getMaxAgeMillis() != null
+                ? override.getMaxAgeMillis() : retentionMaxAgeMillis);
+        return effective;
+    }
+
+    /**
+     * 单个 Stream 的保留策略。
+     */
+    @Data
+    public static class StreamRetention {
+        /**
+         * 最大消息数，小于等于 0 表示不限制。
+         */
+        private Long maxLength;
+
+        /**
+         * 最长保留时间（毫秒），小于等于 0 表示不限制。
+         */
+        private Long maxAgeMillis;
+
+        public boolean hasMaxLength() {
+            return maxLength != null && maxLength > 0;
+        }
+
+        public boolean hasMaxAge() {
+            return maxAgeMillis != null && maxAgeMillis > 0;
+        }
+    }
 }
@@ -0,0 +1,170 @@
+package com.dhgx.api.notify.core;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按分区并行处理 Stream 消息。
+ * <p>
+ * 每个分区一个工作线程与一个有界队列，消息按键字段（如 {@code userId}）的哈希值分配分区：
+ * 同一键的消息始终进入同一分区并按到达顺序处理，不同键的消息在各分区并行处理。
+ * 分区队列已满时 {@link #dispatch} 阻塞调用方（即容器的轮询线程），从而暂停拉取新消息。
+ * 处理逻辑在返回前完成自己的重试（见 {@link EventNotifySubscriber}），失败的消息重试期间占住分区，同一键的后续消息不会越过它。
+ * 指标：{@code event.notify.partition.queue.size{partition}}（分区积压）、
+ * {@code event.notify.partition.lag{partition}}（消息写入 Stream 到开始处理的延迟）、
+ * {@code event.notify.handler.duration{stream}}（处理耗时）。
+ * </p>
+ */
+@Slf4j
+public class EventNotifyDispatcher implements AutoCloseable {
+
+    private final String keyField;
+    private final MeterRegistry meterRegistry;
+    private final List<Partition> partitions;
+    private final Map<String, Timer> handlerTimers = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    /**
+     * @param partitions    分区（工作线程）数
+     * @param queueCapacity 每个分区的队列容量
+     * @param keyField      分区键字段，消息缺少该字段时按消息 ID 分区
+     * @param meterRegistry 指标注册表
+     */
+    public EventNotifyDispatcher(int partitions, int queueCapacity, String keyField, MeterRegistry meterRegistry) {
+        Assert.isTrue(partitions > 0, "partitions must be positive");
+        this.keyField = keyField;
+        this.meterRegistry = meterRegistry;
+        this.partitions = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            this.partitions.add(new Partition(i, Math.max(1, queueCapacity)));
+        }
+    }
+
+    /**
+     * 把消息交给对应分区，分区队列已满时阻塞直到有空位。
+     *
+     * @param streamKey Stream Key，用于指标标签
+     * @param messageId 消息 ID，用于计算延迟与缺少键字段时分区
+     * @param body      消息体
+     * @param task      处理逻辑
+     * @throws InterruptedException 等待队列空位时被中断
+     */
+    public void dispatch(String streamKey, String messageId, Map<String, String> body, Runnable task)
+            throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("dispatcher is closed");
+        }
+        String key = keyField == null ? null : body.get(keyField);
+        Partition partition = partitions.get(partitionOf(key != null ? key : messageId));
+        partition.queue.put(new Task(streamKey, messageId, task));
+    }
+
+    /**
+     * 分区数。
+     */
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        for (Partition partition : partitions) {
+            partition.worker.interrupt();
+        }
+    }
+
+    int partitionOf(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % partitions.size();
+    }
+
+    /**
+     * 消息 ID 的毫秒时间戳部分，无法解析时返回 -1。
+     */
+    static long timestampOf(String messageId) {
+        int separator = messageId.indexOf('-');
+        try {
+            return Long.parseLong(separator < 0 ? messageId : messageId.substring(0, separator));
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    private Timer handlerTimer(String streamKey) {
+        return handlerTimers.computeIfAbsent(streamKey, key -> Timer.builder("event.notify.handler.duration")
+                .description("Event handler execution time")
+                .tag("stream", key)
+                .register(meterRegistry));
+    }
+
+    private final class Partition implements Runnable {
+        private final BlockingQueue<Task> queue;
+        private final Timer lagTimer;
+        private final Thread worker;
+
+        private Partition(int index, int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            Iterable<Tag> tags = Tags.of("partition", String.valueOf(index));
+            Gauge.builder("event.notify.partition.queue.size", queue, BlockingQueue::size)
+                    .description("Events waiting in the partition queue")
+                    .tags(tags)
+                    .register(meterRegistry);
+            this.lagTimer = Timer.builder("event.notify.partition.lag")
+                    .description("Time from stream append to handler start")
+                    .tags(tags)
+                    .register(meterRegistry);
+            this.worker = new Thread(this, "event-notify-worker-" + index);
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                Task task;
+                try {
+                    task = queue.take();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                long appendedAt = timestampOf(task.messageId);
+                if (appendedAt > 0) {
+                    lagTimer.record(Math.max(0L, System.currentTimeMillis() - appendedAt), TimeUnit.MILLISECONDS);
+                }
+                long start = System.nanoTime();
+                try {
+                    task.runnable.run();
+                } catch (RuntimeException ex) {
+                    log.warn("处理 Stream {} 消息 {} 异常: {}", task.streamKey, task.messageId, ex.getMessage());
+                } finally {
+                    handlerTimer(task.streamKey).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+    }
+
+    private static final class Task {
+        private final String streamKey;
+        private final String messageId;
+        private final Runnable runnable;
+
+        private Task(String streamKey, String messageId, Runnable runnable) {
+            this.streamKey = streamKey;
+            this.messageId = messageId;
+            this.runnable = runnable;
+        }
+    }
+}
@@ -2,20 +2,51 @@ package com.dhgx.api.notify.core;
 
 import com.dhgx.api.notify.config.EventNotifyProperties;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisPipelineException;
 import org.springframework.data.redis.connection.stream.MapRecord;
 import org.springframework.data.redis.connection.stream.RecordId;
 import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Redis Stream 消息发布。
+ * <p>
+ * 按 {@link EventNotifyProperties#retentionFor(String)} 的保留策略在 XADD 中附带近似裁剪
+ * （配置了最长保留时间时使用 {@code MINID ~}，否则使用 {@code MAXLEN ~}），裁剪以宏节点为单位，均摊开销为 O(1)。
+ * {@code publishAll} 以管道一次发送多条 XADD；{@code publishAsync} 把消息放入有界缓冲区，由后台线程按
+ * {@code async-linger-millis} 凑批后以管道发送，调用线程不等待 Redis 往返。
+ * </p>
+ */
+@Slf4j
 @RequiredArgsConstructor
 public class EventNotifyPublisher {
     private final StringRedisTemplate stringRedisTemplate;
     private final EventNotifyProperties properties;
+    /**
+     * 本实例写入过的 Stream，供后台裁剪使用。
+     */
+    private final Set<String> publishedStreams = ConcurrentHashMap.newKeySet();
+    private BlockingQueue<AsyncMessage> asyncBuffer;
+    private Thread flusher;
+    private volatile boolean stopped;
 
     /**
      * 发布单字段消息，常用于简单事件通知。
@@ -58,12 +89,258 @@ public class EventNotifyPublisher {
      * @return Redis 生成的 RecordId
      */
     public RecordId publish(String streamKey, Map<String, String> message) {
+        validate(streamKey, message);
+        publishedStreams.add(streamKey);
+        EventNotifyProperties.StreamRetention retention = properties.retentionFor(streamKey);
+        if (!retention.hasMaxAge() && !retention.hasMaxLength()) {
+            MapRecord<String, String, String> record = StreamRecords.mapBacked(message)
+                    .withStreamKey(streamKey);
+            return stringRedisTemplate.opsForStream().add(record);
+        }
+        // Spring Data Redis 2.3 的 XADD 不支持裁剪参数，直接发送原始命令
+        byte[][] args = xAddArgs(streamKey, message, retention);
+        byte[] id = stringRedisTemplate.execute((RedisCallback<byte[]>) connection ->
+                (byte[]) connection.execute("XADD", args));
+        return id == null ? null : RecordId.of(new String(id, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 以管道批量发布到默认 Stream。
+     *
+     * @param messages 消息列表
+     * @return 与消息顺序一致的 RecordId 列表
+     */
+    public List<RecordId> publishAll(List<Map<String, String>> messages) {
+        return publishAll(properties.getStreamKey(), messages);
+    }
+
+    /**
+     * 以管道批量发布到指定 Stream，全部 XADD 在一次往返内发送。
+     * 任一条失败时抛出异常，此时其余消息可能已经写入。
+     *
+     * @param streamKey Stream Key
+     * @param messages  消息列表
+     * @return 与消息顺序一致的 RecordId 列表
+     */
+    public List<RecordId> publishAll(String streamKey, List<Map<String, String>> messages) {
+        if (CollectionUtils.isEmpty(messages)) {
+            return Collections.emptyList();
+        }
+        List<byte[][]> commands = new ArrayList<>(messages.size());
+        for (Map<String, String> message : messages) {
+            validate(streamKey, message);
+            commands.add(xAddArgs(streamKey, message, properties.retentionFor(streamKey)));
+        }
+        publishedStreams.add(streamKey);
+        List<Object> results = xAddPipelined(commands);
+        List<RecordId> ids = new ArrayList<>(results.size());
+        for (Object result : results) {
+            ids.add(toRecordId(result));
+        }
+        return ids;
+    }
+
+    /**
+     * 异步发布到默认 Stream。
+     *
+     * @param message 消息字段集合
+     * @return 写入完成后得到 RecordId 的 Future
+     */
+    public CompletableFuture<RecordId> publishAsync(Map<String, String> message) {
+        return publishAsync(properties.getStreamKey(), message);
+    }
+
+    /**
+     * 异步发布到指定 Stream。缓冲区已满或发布器已停止时返回失败的 Future，不阻塞调用线程。
+     *
+     * @param streamKey Stream Key
+     * @param message   消息字段集合
+     * @return 写入完成后得到 RecordId 的 Future
+     */
+    public CompletableFuture<RecordId> publishAsync(String streamKey, Map<String, String> message) {
+        validate(streamKey, message);
+        CompletableFuture<RecordId> future = new CompletableFuture<>();
+        BlockingQueue<AsyncMessage> buffer = startFlusherIfNecessary();
+        if (buffer == null) {
+            future.completeExceptionally(new IllegalStateException("event publisher is stopped"));
+        } else if (!buffer.offer(new AsyncMessage(streamKey, new LinkedHashMap<>(message), future))) {
+            future.completeExceptionally(new IllegalStateException("event publish buffer is full"));
+        }
+        return future;
+    }
+
+    /**
+     * 停止异步发布，等待缓冲区中的消息发送完毕后返回，由容器关闭时调用。
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            stopped = true;
+            thread = flusher;
+        }
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 本实例写入过的 Stream Key。
+     */
+    Set<String> getPublishedStreams() {
+        return publishedStreams;
+    }
+
+    private byte[][] xAddArgs(String streamKey, Map<String, String> message,
+                              EventNotifyProperties.StreamRetention retention) {
+        RedisSerializer<String> serializer = stringRedisTemplate.getStringSerializer();
+        List<byte[]> args = new ArrayList<>(5 + message.size() * 2);
+        args.add(serializer.serialize(streamKey));
+        if (retention.hasMaxAge()) {
+            args.add(serializer.serialize("MINID"));
+            args.add(serializer.serialize("~"));
+            args.add(serializer.serialize(minId(retention.getMaxAgeMillis())));
+        } else if (retention.hasMaxLength()) {
+            args.add(serializer.serialize("MAXLEN"));
+            args.add(serializer.serialize("~"));
+            args.add(serializer.serialize(String.valueOf(retention.getMaxLength())));
+        }
+        args.add(serializer.serialize("*"));
+        for (Map.Entry<String, String> entry : message.entrySet()) {
+            args.add(serializer.serialize(entry.getKey()));
+            args.add(serializer.serialize(entry.getValue()));
+        }
+        return args.toArray(new byte[0][]);
+    }
+
+    private List<Object> xAddPipelined(List<byte[][]> commands) {
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[][] args : commands) {
+                connection.execute("XADD", args);
+            }
+            return null;
+        });
+    }
+
+    private synchronized BlockingQueue<AsyncMessage> startFlusherIfNecessary() {
+        if (stopped) {
+            return null;
+        }
+        if (flusher == null) {
+            asyncBuffer = new ArrayBlockingQueue<>(Math.max(1, properties.getAsyncBufferCapacity()));
+            BlockingQueue<AsyncMessage> buffer = asyncBuffer;
+            flusher = new Thread(() -> flushLoop(buffer), "event-notify-publish");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+        return asyncBuffer;
+    }
+
+    private void flushLoop(BlockingQueue<AsyncMessage> buffer) {
+        int maxBatchSize = Math.max(1, properties.getAsyncMaxBatchSize());
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, properties.getAsyncLingerMillis()));
+        List<AsyncMessage> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                AsyncMessage first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (stopped) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    buffer.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    AsyncMessage next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException ex) {
+                buffer.drainTo(batch);
+                flush(batch);
+                return;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<AsyncMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<byte[][]> commands = new ArrayList<>(batch.size());
+        for (AsyncMessage message : batch) {
+            publishedStreams.add(message.streamKey);
+            commands.add(xAddArgs(message.streamKey, message.body, properties.retentionFor(message.streamKey)));
+        }
+        List<?> results;
+        try {
+            results = xAddPipelined(commands);
+        } catch (RedisPipelineException ex) {
+            results = ex.getPipelineResult();
+        } catch (RuntimeException ex) {
+            log.warn("批量发布 {} 条事件失败: {}", batch.size(), ex.getMessage());
+            for (AsyncMessage message : batch) {
+                message.future.completeExceptionally(ex);
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Object result = i < results.size() ? results.get(i) : null;
+            CompletableFuture<RecordId> future = batch.get(i).future;
+            if (result instanceof Throwable) {
+                future.completeExceptionally((Throwable) result);
+            } else if (result == null) {
+                future.completeExceptionally(new IllegalStateException("no reply for XADD"));
+            } else {
+                future.complete(toRecordId(result));
+            }
+        }
+    }
+
+    private static void validate(String streamKey, Map<String, String> message) {
         if (CollectionUtils.isEmpty(message)) {
             throw new IllegalArgumentException("message payload must not be empty");
         }
         Assert.hasText(streamKey, "streamKey must not be blank");
-        MapRecord<String, String, String> record = StreamRecords.mapBacked(message)
-                .withStreamKey(streamKey);
-        return stringRedisTemplate.opsForStream().add(record);
+    }
+
+    private static RecordId toRecordId(Object reply) {
+        if (reply instanceof RecordId) {
+            return (RecordId) reply;
+        }
+        return RecordId.of(reply instanceof byte[] ? new String((byte[]) reply, StandardCharsets.UTF_8) : reply.toString());
+    }
+
+    /**
+     * 早于该 ID 的消息超过最长保留时间。
+     */
+    static String minId(long maxAgeMillis) {
+        return String.valueOf(Math.max(0L, System.currentTimeMillis() - maxAgeMillis));
+    }
+
+    private static final class AsyncMessage {
+        private final String streamKey;
+        private final Map<String, String> body;
+        private final CompletableFuture<RecordId> future;
+
+        private AsyncMessage(String streamKey, Map<String, String> body, CompletableFuture<RecordId> future) {
+            this.streamKey = streamKey;
+            this.body = body;
+            this.future = future;
+        }
     }
 }
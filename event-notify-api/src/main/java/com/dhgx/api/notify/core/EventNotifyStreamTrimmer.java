@@ -0,0 +1,142 @@
+package com.dhgx.api.notify.core;
+
+import com.dhgx.api.notify.config.EventNotifyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stream 后台裁剪。
+ * <p>
+ * XADD 只在写入时裁剪，写入稀少的 Stream 中过期消息会长期滞留。后台任务每隔 {@code trim-interval-millis}
+ * 对本实例写入过的 Stream 与 {@code retention} 中显式配置的 Stream 执行 {@code XTRIM MAXLEN ~}/{@code XTRIM MINID ~}。
+ * 指标：{@code event.notify.stream.length{stream}}（最近一次裁剪后的长度）、
+ * {@code event.notify.stream.trimmed{stream}}（后台裁剪删除的消息数）。
+ * </p>
+ */
+@Slf4j
+public class EventNotifyStreamTrimmer {
+
+    /**
+     * 依次按 MAXLEN、MINID 近似裁剪并返回 {删除数, 裁剪后长度}，ARGV 为空串表示不按该策略裁剪。
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> TRIM_SCRIPT = new DefaultRedisScript<>(
+            "local trimmed = 0\n"
+                    + "if ARGV[1] ~= '' then\n"
+                    + "  trimmed = trimmed + redis.call('XTRIM', KEYS[1], 'MAXLEN', '~', ARGV[1])\n"
+                    + "end\n"
+                    + "if ARGV[2] ~= '' then\n"
+                    + "  trimmed = trimmed + redis.call('XTRIM', KEYS[1], 'MINID', '~', ARGV[2])\n"
+                    + "end\n"
+                    + "return {trimmed, redis.call('XLEN', KEYS[1])}",
+            List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EventNotifyProperties properties;
+    private final EventNotifyPublisher publisher;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicLong> lengths = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+
+    public EventNotifyStreamTrimmer(StringRedisTemplate stringRedisTemplate, EventNotifyProperties properties,
+                                    EventNotifyPublisher publisher, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+        this.publisher = publisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 启动后台裁剪，{@code trim-enabled} 为 false 时不启动。
+     */
+    public synchronized void start() {
+        if (!properties.isTrimEnabled() || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-notify-trim");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1000L, properties.getTrimIntervalMillis());
+        executor.scheduleWithFixedDelay(this::trimAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * 对全部已知 Stream 执行一次裁剪。
+     */
+    void trimAll() {
+        Set<String> streamKeys = new LinkedHashSet<>(properties.getRetention().keySet());
+        streamKeys.addAll(publisher.getPublishedStreams());
+        for (String streamKey : streamKeys) {
+            try {
+                trim(streamKey);
+            } catch (Exception ex) {
+                log.warn("裁剪 Stream {} 失败: {}", streamKey, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 按保留策略裁剪单个 Stream。
+     *
+     * @return 删除的消息数
+     */
+    long trim(String streamKey) {
+        EventNotifyProperties.StreamRetention retention = properties.retentionFor(streamKey);
+        String maxLength = retention.hasMaxLength() ? String.valueOf(retention.getMaxLength()) : "";
+        String minId = retention.hasMaxAge() ? EventNotifyPublisher.minId(retention.getMaxAgeMillis()) : "";
+        List<?> result = stringRedisTemplate.execute(TRIM_SCRIPT, Collections.singletonList(streamKey),
+                maxLength, minId);
+        long trimmed = valueAt(result, 0);
+        if (trimmed > 0) {
+            Counter.builder("event.notify.stream.trimmed")
+                    .description("Entries removed by the background stream trimmer")
+                    .tag("stream", streamKey)
+                    .register(meterRegistry)
+                    .increment(trimmed);
+        }
+        lengthOf(streamKey).set(valueAt(result, 1));
+        return trimmed;
+    }
+
+    private static long valueAt(List<?> result, int index) {
+        if (result == null || result.size() <= index || !(result.get(index) instanceof Number)) {
+            return 0L;
+        }
+        return ((Number) result.get(index)).longValue();
+    }
+
+    private AtomicLong lengthOf(String streamKey) {
+        return lengths.computeIfAbsent(streamKey, key -> {
+            AtomicLong length = new AtomicLong();
+            Gauge.builder("event.notify.stream.length", length, AtomicLong::get)
+                    .description("Stream length after the last background trim")
+                    .tag("stream", key)
+                    .register(meterRegistry);
+            return length;
+        });
+    }
+}
@@ -1,27 +1,124 @@
 package com.dhgx.api.notify.core;
 
 import com.dhgx.api.notify.config.EventNotifyProperties;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
 import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
 import org.springframework.data.redis.connection.stream.Consumer;
 import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
 import org.springframework.data.redis.connection.stream.ReadOffset;
 import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.stream.StreamListener;
 import org.springframework.data.redis.stream.StreamMessageListenerContainer;
 import org.springframework.data.redis.stream.Subscription;
 import org.springframework.util.Assert;
 
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * 基于消费组的 Redis Stream 订阅。
+ * <p>
+ * 处理成功后 XACK 确认消息；处理失败的消息保留在未确认列表（PEL）中，由认领任务在空闲超过
+ * {@code reclaim-idle-millis} 后通过 XPENDING/XCLAIM 认领并重新处理，同时接管已宕机消费者遗留的消息。
+ * 投递次数达到 {@code max-delivery-attempts} 的消息写入死信 Stream（原 Stream Key + {@code dead-letter-suffix}）后确认，
+ * 死信经由 {@link EventNotifyPublisher} 写入，与普通 Stream 一样按保留策略裁剪并纳入后台裁剪。
+ * 配置了 {@link EventNotifyDispatcher} 时，消息按分区键交给工作线程并行处理，同一键的消息保持顺序：
+ * 处理失败的消息在分区内按 {@code dispatch-retry-backoff-millis} 退避重试，共 {@code max-delivery-attempts} 次，
+ * 仍失败则写入死信；重试期间占住分区，同一分区的后续消息等待，避免同一键的后续事件越过失败的事件先被处理。
+ * 开启 {@code adaptive-batch-enabled} 时不经过容器（容器的读取批量在创建时固定），每个订阅由独立线程循环
+ * XREADGROUP，并按 {@link #nextBatchSize} 在 {@code poll-batch-size} 与 {@code adaptive-max-batch-size} 之间调整读取批量。
+ * {@link #subscribeBroadcast} 为每个实例创建独立的消费组（前缀 + 主机名），取消订阅或停止时 XGROUP DESTROY；
+ * 存活实例定期在 {@code <stream>:broadcast-groups} 哈希中刷新自己消费组的心跳，实例异常退出遗留的同前缀消费组
+ * 在心跳与全部消费者（XINFO GROUPS/CONSUMERS）都超过 {@code broadcast-group-idle-millis} 未更新时由后台任务销毁，
+ * 避免消费组与未确认列表随实例更替不断累积。
+ * </p>
+ */
 @Slf4j
-@RequiredArgsConstructor
 public class EventNotifySubscriber {
+    /**
+     * 死信消息中记录来源信息的字段名。
+     */
+    public static final String DEAD_LETTER_STREAM_FIELD = "dlq.stream";
+    public static final String DEAD_LETTER_ID_FIELD = "dlq.id";
+    public static final String DEAD_LETTER_GROUP_FIELD = "dlq.group";
+    public static final String DEAD_LETTER_DELIVERIES_FIELD = "dlq.deliveries";
+    /**
+     * 广播消费组心跳哈希的 Key 后缀，字段为消费组名，值为最近一次心跳的时间戳（毫秒）。
+     */
+    public static final String BROADCAST_GROUPS_SUFFIX = ":broadcast-groups";
+
     private final StringRedisTemplate stringRedisTemplate;
     private final StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
     private final EventNotifyProperties properties;
+    private final EventNotifyDispatcher dispatcher;
+    private final EventNotifyPublisher deadLetterPublisher;
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    /**
+     * 已交给工作线程但尚未处理完的消息，认领任务跳过这些消息以免重复处理。
+     */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService reclaimExecutor;
+    private ScheduledExecutorService groupSweepExecutor;
+    private ExecutorService adaptivePollExecutor;
+
+    public EventNotifySubscriber(StringRedisTemplate stringRedisTemplate,
+                                 StreamMessageListenerContainer<String, MapRecord<String, String, String>> container,
+                                 EventNotifyProperties properties) {
+        this(stringRedisTemplate, container, properties, null);
+    }
+
+    /**
+     * @param dispatcher 分区并行处理器，为 {@code null} 时在容器轮询线程上逐条处理
+     */
+    public EventNotifySubscriber(StringRedisTemplate stringRedisTemplate,
+                                 StreamMessageListenerContainer<String, MapRecord<String, String, String>> container,
+                                 EventNotifyProperties properties,
+                                 EventNotifyDispatcher dispatcher) {
+        this(stringRedisTemplate, container, properties, dispatcher,
+                new EventNotifyPublisher(stringRedisTemplate, properties));
+    }
+
+    /**
+     * @param dispatcher          分区并行处理器，为 {@code null} 时在容器轮询线程上逐条处理
+     * @param deadLetterPublisher 写入死信使用的发布器，应与后台裁剪共用同一实例
+     */
+    public EventNotifySubscriber(StringRedisTemplate stringRedisTemplate,
+                                 StreamMessageListenerContainer<String, MapRecord<String, String, String>> container,
+                                 EventNotifyProperties properties,
+                                 EventNotifyDispatcher dispatcher,
+                                 EventNotifyPublisher deadLetterPublisher) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.container = container;
+        this.properties = properties;
+        this.dispatcher = dispatcher;
+        this.deadLetterPublisher = deadLetterPublisher;
+    }
 
     /**
      * 注册一个消费者监听，消费组不存在时会自动创建。
@@ -39,24 +136,444 @@ public class EventNotifySubscriber {
      * @param streamKey     需要订阅的 Stream Key
      * @param consumerGroup 消费组名称
      * @param consumerName  消费者名称
-     * @param handler       消息处理逻辑
+     * @param handler       消息处理逻辑，抛出异常时消息不会被确认，稍后由认领任务重试
      * @return 订阅句柄，可在需要时取消订阅
      */
     public Subscription subscribe(String streamKey, String consumerGroup, String consumerName, EventNotifyHandler handler) {
+        return subscribe(streamKey, consumerGroup, consumerName, null, handler);
+    }
+
+    /**
+     * 广播订阅：每个实例使用独立的消费组 {@code groupPrefix + 主机名}，确保所有实例都能收到每一条消息。
+     * 取消订阅或停止时销毁该消费组；已下线实例遗留的同前缀消费组由后台任务清理。
+     *
+     * @param streamKey   需要订阅的 Stream Key
+     * @param groupPrefix 消费组前缀，同一用途的各实例应使用相同前缀，且不与其他用途的消费组重叠
+     * @param handler     消息处理逻辑
+     * @return 订阅句柄
+     */
+    public Subscription subscribeBroadcast(String streamKey, String groupPrefix, EventNotifyHandler handler) {
+        Assert.hasText(groupPrefix, "groupPrefix must not be blank");
+        String consumerGroup = groupPrefix + instanceId();
+        // 先写心跳再创建消费组，其他实例的清理任务不会把刚创建的消费组当作遗留
+        heartbeat(streamKey, consumerGroup);
+        return subscribe(streamKey, consumerGroup, consumerGroup, groupPrefix, handler);
+    }
+
+    private Subscription subscribe(String streamKey, String consumerGroup, String consumerName, String broadcastPrefix,
+                                   EventNotifyHandler handler) {
         Assert.hasText(streamKey, "streamKey must not be blank");
         Assert.hasText(consumerGroup, "consumerGroup must not be blank");
         Assert.hasText(consumerName, "consumerName must not be blank");
         createGroupIfNecessary(streamKey, consumerGroup);
         StreamOffset<String> streamOffset = StreamOffset.create(streamKey, ReadOffset.lastConsumed());
         Consumer consumer = Consumer.from(consumerGroup, consumerName);
+        Registration registration = new Registration(streamKey, consumerGroup, consumerName, broadcastPrefix, handler);
 
-        return container.receive(consumer, streamOffset, new StreamListener<String, MapRecord<String, String, String>>() {
+        Subscription subscription;
+        if (properties.isAdaptiveBatchEnabled()) {
+            AdaptivePoll poll = new AdaptivePoll(registration, consumer, streamOffset);
+            startAdaptivePollExecutor().execute(poll);
+            subscription = poll;
+        } else {
+            // 监听器内捕获异常：容器默认在监听器抛出异常时取消整个订阅；
+            // 取消后仍阻塞中的读取会因消费组被销毁而失败，此时不再记录告警
+            StreamMessageListenerContainer.StreamReadRequest<String> request = StreamMessageListenerContainer.StreamReadRequest
+                    .builder(streamOffset)
+                    .consumer(consumer)
+                    .autoAcknowledge(false)
+                    .errorHandler(ex -> {
+                        if (!registration.cancelled) {
+                            log.warn("读取 Stream {} 消费组 {} 失败: {}", registration.streamKey,
+                                    registration.consumerGroup, ex.getMessage());
+                        }
+                    })
+                    .build();
+            subscription = container.register(request,
+                    new StreamListener<String, MapRecord<String, String, String>>() {
+                        @Override
+                        public void onMessage(MapRecord<String, String, String> message) {
+                            submit(registration, message.getId().getValue(), message.getValue(), 0L);
+                        }
+                    });
+        }
+        registration.subscription = subscription;
+        registrations.add(registration);
+        startReclaimIfNecessary();
+        if (broadcastPrefix != null) {
+            startGroupSweepIfNecessary();
+        }
+        return new Subscription() {
             @Override
-            public void onMessage(MapRecord<String, String, String> message) {
-                Map<String, String> body = message.getValue();
-                handler.onMessage(message.getId().getValue(), body);
+            public boolean isActive() {
+                return subscription.isActive();
+            }
+
+            @Override
+            public boolean await(Duration timeout) throws InterruptedException {
+                return subscription.await(timeout);
+            }
+
+            @Override
+            public void cancel() {
+                EventNotifySubscriber.this.cancel(registration);
+            }
+        };
+    }
+
+    private void cancel(Registration registration) {
+        registration.cancelled = true;
+        registrations.remove(registration);
+        registration.subscription.cancel();
+        if (registration.broadcastPrefix != null) {
+            try {
+                stringRedisTemplate.opsForStream().destroyGroup(registration.streamKey, registration.consumerGroup);
+                stringRedisTemplate.opsForHash().delete(registration.streamKey + BROADCAST_GROUPS_SUFFIX,
+                        registration.consumerGroup);
+                log.info("销毁广播消费组 {}（Stream {}）", registration.consumerGroup, registration.streamKey);
+            } catch (Exception ex) {
+                log.warn("销毁广播消费组 {}（Stream {}）失败: {}", registration.consumerGroup, registration.streamKey,
+                        ex.getMessage());
             }
+        }
+    }
+
+    /**
+     * 停止认领任务、自适应读取线程与分区工作线程，由容器关闭时调用；尚未处理的消息留在未确认列表中，由其他实例认领。
+     * 广播订阅先取消再销毁本实例的消费组。
+     */
+    public synchronized void stop() {
+        if (reclaimExecutor != null) {
+            reclaimExecutor.shutdownNow();
+            reclaimExecutor = null;
+        }
+        if (groupSweepExecutor != null) {
+            groupSweepExecutor.shutdownNow();
+            groupSweepExecutor = null;
+        }
+        if (adaptivePollExecutor != null) {
+            adaptivePollExecutor.shutdownNow();
+            adaptivePollExecutor = null;
+        }
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+        for (Registration registration : registrations) {
+            if (registration.broadcastPrefix != null) {
+                cancel(registration);
+            }
+        }
+    }
+
+    /**
+     * 刷新本实例广播消费组的心跳，并清理已下线实例遗留的广播消费组：与本实例订阅同前缀、不是本实例的消费组，
+     * 心跳缺失或超过 {@code broadcast-group-idle-millis} 未刷新，且全部消费者空闲超过同一时长。
+     * Redis 7.2 之前消费者的空闲时间只在读到消息时刷新，写入稀少的 Stream 上存活实例也会显示为空闲，因此以心跳为准；
+     * 尚未有消费者的消费组可能刚由旧版本实例创建，不做清理。
+     */
+    void sweepBroadcastGroups() {
+        long maxIdle = properties.getBroadcastGroupIdleMillis();
+        if (maxIdle <= 0) {
+            return;
+        }
+        Map<String, Set<String>> ownGroups = new HashMap<>();
+        Map<String, Set<String>> prefixes = new HashMap<>();
+        for (Registration registration : registrations) {
+            if (registration.broadcastPrefix != null) {
+                heartbeat(registration.streamKey, registration.consumerGroup);
+                ownGroups.computeIfAbsent(registration.streamKey, key -> new HashSet<>()).add(registration.consumerGroup);
+                prefixes.computeIfAbsent(registration.streamKey, key -> new HashSet<>()).add(registration.broadcastPrefix);
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : prefixes.entrySet()) {
+            String streamKey = entry.getKey();
+            String heartbeatKey = streamKey + BROADCAST_GROUPS_SUFFIX;
+            try {
+                Map<String, String> heartbeats = stringRedisTemplate.<String, String>opsForHash().entries(heartbeatKey);
+                StreamInfo.XInfoGroups groups = stringRedisTemplate.opsForStream().groups(streamKey);
+                for (int i = 0; i < groups.size(); i++) {
+                    StreamInfo.XInfoGroup group = groups.get(i);
+                    String name = group.groupName();
+                    if (ownGroups.get(streamKey).contains(name) || !startsWithAny(name, entry.getValue())
+                            || isAlive(heartbeats.get(name), maxIdle) || !isIdle(streamKey, group, maxIdle)) {
+                        continue;
+                    }
+                    stringRedisTemplate.opsForStream().destroyGroup(streamKey, name);
+                    stringRedisTemplate.opsForHash().delete(heartbeatKey, name);
+                    log.info("销毁 Stream {} 上已下线实例的广播消费组 {}（未确认 {} 条）", streamKey, name,
+                            group.pendingCount());
+                }
+            } catch (Exception ex) {
+                log.warn("清理 Stream {} 的广播消费组失败: {}", streamKey, ex.getMessage());
+            }
+        }
+    }
+
+    private void heartbeat(String streamKey, String consumerGroup) {
+        stringRedisTemplate.opsForHash().put(streamKey + BROADCAST_GROUPS_SUFFIX, consumerGroup,
+                String.valueOf(System.currentTimeMillis()));
+    }
+
+    private static boolean isAlive(String heartbeat, long maxIdle) {
+        if (heartbeat == null) {
+            return false;
+        }
+        try {
+            return System.currentTimeMillis() - Long.parseLong(heartbeat) < maxIdle;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private boolean isIdle(String streamKey, StreamInfo.XInfoGroup group, long maxIdle) {
+        if (group.consumerCount() == null || group.consumerCount() == 0) {
+            return false;
+        }
+        return stringRedisTemplate.opsForStream().consumers(streamKey, group.groupName()).stream()
+                .allMatch(consumer -> consumer.idleTimeMs() != null && consumer.idleTimeMs() >= maxIdle);
+    }
+
+    private static boolean startsWithAny(String name, Set<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String instanceId() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            return ManagementFactory.getRuntimeMXBean().getName();
+        }
+    }
+
+    /**
+     * 对全部活跃订阅执行一次认领检查。
+     */
+    void reclaimPending() {
+        for (Registration registration : registrations) {
+            try {
+                reclaim(registration);
+            } catch (Exception ex) {
+                log.warn("认领 Stream {} 消费组 {} 的未确认消息失败: {}",
+                        registration.streamKey, registration.consumerGroup, ex.getMessage());
+            }
+        }
+    }
+
+    private void reclaim(Registration registration) {
+        Duration minIdle = Duration.ofMillis(Math.max(1L, properties.getReclaimIdleMillis()));
+        PendingMessages pending = stringRedisTemplate.opsForStream().pending(registration.streamKey,
+                registration.consumerGroup, Range.unbounded(), Math.max(1, properties.getReclaimBatchSize()));
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) < 0) {
+                continue;
+            }
+            String id = message.getIdAsString();
+            if (inFlight.contains(inFlightKey(registration, id))) {
+                continue;
+            }
+            List<StringRecord> claimed = claim(registration, id, minIdle);
+            if (claimed.isEmpty()) {
+                acknowledgeIfDeleted(registration, id);
+                continue;
+            }
+            for (StringRecord record : claimed) {
+                if (message.getTotalDeliveryCount() >= properties.getMaxDeliveryAttempts()) {
+                    deadLetter(registration, id, record.getValue(), message.getTotalDeliveryCount());
+                } else {
+                    submit(registration, id, record.getValue(), message.getTotalDeliveryCount());
+                }
+            }
+        }
+    }
+
+    private List<StringRecord> claim(Registration registration, String id, Duration minIdle) {
+        List<StringRecord> claimed;
+        try {
+            claimed = stringRedisTemplate.execute((RedisCallback<List<StringRecord>>) connection ->
+                    ((StringRedisConnection) connection).xClaim(registration.streamKey, registration.consumerGroup,
+                            registration.consumerName, RedisStreamCommands.XClaimOptions.minIdle(minIdle).ids(id)));
+        } catch (RuntimeException ex) {
+            // 消息已被删除时 XCLAIM 返回空条目，客户端无法转换
+            log.debug("认领 Stream {} 消息 {} 失败: {}", registration.streamKey, id, ex.getMessage());
+            return Collections.emptyList();
+        }
+        return claimed == null ? Collections.emptyList() : claimed;
+    }
+
+    /**
+     * 消息已被删除（例如被裁剪）时未确认记录无法认领，直接确认以免长期滞留；消息仍存在时说明已被其他消费者认领。
+     */
+    private void acknowledgeIfDeleted(Registration registration, String id) {
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                .range(registration.streamKey, Range.closed(id, id));
+        if (records == null || records.isEmpty()) {
+            acknowledge(registration, id);
+        }
+    }
+
+    /**
+     * 有分区处理器时按分区键排队（队列已满时阻塞当前线程），否则直接处理。
+     * <p>
+     * 两种方式都会在处理期间登记在途消息，认领线程据此跳过仍在处理的消息，避免同一条消息被并发处理两次。
+     * </p>
+     *
+     * @param deliveries 此前已投递的次数，新读取的消息为 0
+     */
+    private void submit(Registration registration, String id, Map<String, String> body, long deliveries) {
+        String key = inFlightKey(registration, id);
+        if (!inFlight.add(key)) {
+            return;
+        }
+        if (dispatcher == null) {
+            try {
+                deliver(registration, id, body);
+            } finally {
+                inFlight.remove(key);
+            }
+            return;
+        }
+        try {
+            dispatcher.dispatch(registration.streamKey, id, body, () -> {
+                try {
+                    deliverInOrder(registration, id, body, deliveries);
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (InterruptedException ex) {
+            inFlight.remove(key);
+            Thread.currentThread().interrupt();
+        } catch (IllegalStateException ex) {
+            // 处理器已关闭，消息留在未确认列表中等待认领
+            inFlight.remove(key);
+        }
+    }
+
+    private static String inFlightKey(Registration registration, String id) {
+        return registration.streamKey + '|' + registration.consumerGroup + '|' + id;
+    }
+
+    private boolean deliver(Registration registration, String id, Map<String, String> body) {
+        try {
+            registration.handler.onMessage(id, body);
+        } catch (RuntimeException ex) {
+            log.warn("处理 Stream {} 消息 {} 失败，稍后重试: {}", registration.streamKey, id, ex.getMessage());
+            return false;
+        }
+        acknowledge(registration, id);
+        return true;
+    }
+
+    /**
+     * 分区工作线程上处理消息：失败时在当前线程退避重试，用尽次数后写入死信，返回前不处理同一分区的后续消息。
+     * 等待重试时被中断（处理器关闭）则直接返回，消息留在未确认列表中由认领任务接手。
+     */
+    private void deliverInOrder(Registration registration, String id, Map<String, String> body, long deliveries) {
+        long attempts = deliveries;
+        long backoff = Math.max(1L, properties.getDispatchRetryBackoffMillis());
+        long maxBackoff = Math.max(backoff, properties.getReclaimIdleMillis());
+        while (true) {
+            attempts++;
+            if (deliver(registration, id, body)) {
+                return;
+            }
+            if (attempts >= properties.getMaxDeliveryAttempts()) {
+                deadLetter(registration, id, body, attempts);
+                return;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(backoff);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = Math.min(maxBackoff, backoff * 2);
+        }
+    }
+
+    private void deadLetter(Registration registration, String id, Map<String, String> body, long deliveries) {
+        Map<String, String> fields = new HashMap<>(body);
+        fields.put(DEAD_LETTER_STREAM_FIELD, registration.streamKey);
+        fields.put(DEAD_LETTER_ID_FIELD, id);
+        fields.put(DEAD_LETTER_GROUP_FIELD, registration.consumerGroup);
+        fields.put(DEAD_LETTER_DELIVERIES_FIELD, String.valueOf(deliveries));
+        String deadLetterKey = registration.streamKey + properties.getDeadLetterSuffix();
+        deadLetterPublisher.publish(deadLetterKey, fields);
+        acknowledge(registration, id);
+        log.warn("Stream {} 消息 {} 投递 {} 次仍未处理成功，已转入死信 {}",
+                registration.streamKey, id, deliveries, deadLetterKey);
+    }
+
+    private void acknowledge(Registration registration, String id) {
+        try {
+            stringRedisTemplate.opsForStream().acknowledge(registration.streamKey, registration.consumerGroup, id);
+        } catch (Exception ex) {
+            log.warn("确认 Stream {} 消息 {} 失败: {}", registration.streamKey, id, ex.getMessage());
+        }
+    }
+
+    /**
+     * 计算下一次读取批量：返回满批说明存在积压，批量翻倍；返回不足半批说明趋于空闲，批量减半。
+     *
+     * @param current  本次读取批量
+     * @param received 本次读到的消息数
+     * @param min      批量下限
+     * @param max      批量上限
+     * @return 下一次读取批量
+     */
+    static int nextBatchSize(int current, int received, int min, int max) {
+        if (received >= current) {
+            return Math.min(max, current * 2);
+        }
+        if (received < current / 2) {
+            return Math.max(min, current / 2);
+        }
+        return current;
+    }
+
+    private synchronized ExecutorService startAdaptivePollExecutor() {
+        if (adaptivePollExecutor == null) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            adaptivePollExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "event-notify-adaptive-poll-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return adaptivePollExecutor;
+    }
+
+    private synchronized void startReclaimIfNecessary() {
+        if (!properties.isReclaimEnabled() || reclaimExecutor != null) {
+            return;
+        }
+        reclaimExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-notify-reclaim");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(100L, properties.getReclaimIntervalMillis());
+        reclaimExecutor.scheduleWithFixedDelay(this::reclaimPending, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void startGroupSweepIfNecessary() {
+        if (properties.getBroadcastGroupIdleMillis() <= 0 || groupSweepExecutor != null) {
+            return;
+        }
+        groupSweepExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-notify-group-sweep");
+            thread.setDaemon(true);
+            return thread;
         });
+        // 心跳间隔需明显短于空闲阈值，否则存活实例的消费组会被误判为遗留
+        long interval = Math.max(1000L, Math.min(properties.getBroadcastGroupSweepIntervalMillis(),
+                properties.getBroadcastGroupIdleMillis() / 3));
+        groupSweepExecutor.scheduleWithFixedDelay(this::sweepBroadcastGroups, interval, interval, TimeUnit.MILLISECONDS);
     }
 
     private void createGroupIfNecessary(String streamKey, String consumerGroup) {
@@ -64,7 +581,10 @@ public class EventNotifySubscriber {
             return;
         }
         try {
-            stringRedisTemplate.opsForStream().createGroup(streamKey, consumerGroup);
+            // 使用 MKSTREAM，避免事件尚未写入时因 Stream 不存在而创建失败
+            byte[] rawKey = stringRedisTemplate.getStringSerializer().serialize(streamKey);
+            stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(rawKey, consumerGroup, ReadOffset.latest(), true));
             log.info("创建消费组 {} 用于 Stream {}", consumerGroup, streamKey);
         } catch (RedisSystemException e) {
             // 消费组已存在时会抛出 BUSYGROUP，忽略即可
@@ -75,4 +595,105 @@ public class EventNotifySubscriber {
             }
         }
     }
+
+    /**
+     * 订阅登记，供认领任务使用。
+     */
+    private static class Registration {
+        private final String streamKey;
+        private final String consumerGroup;
+        private final String consumerName;
+        /**
+         * 广播订阅的消费组前缀，普通订阅为 {@code null}。
+         */
+        private final String broadcastPrefix;
+        private final EventNotifyHandler handler;
+        private volatile Subscription subscription;
+        private volatile boolean cancelled;
+
+        private Registration(String streamKey, String consumerGroup, String consumerName, String broadcastPrefix,
+                             EventNotifyHandler handler) {
+            this.streamKey = streamKey;
+            this.consumerGroup = consumerGroup;
+            this.consumerName = consumerName;
+            this.broadcastPrefix = broadcastPrefix;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * 自适应批量的读取循环，同一订阅只有一个读取线程，消息按读取顺序提交。
+     */
+    private final class AdaptivePoll implements Subscription, Runnable {
+        private final Registration registration;
+        private final Consumer consumer;
+        private final StreamOffset<String> offset;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private volatile boolean active = true;
+        private volatile int batchSize;
+
+        private AdaptivePoll(Registration registration, Consumer consumer, StreamOffset<String> offset) {
+            this.registration = registration;
+            this.consumer = consumer;
+            this.offset = offset;
+            this.batchSize = minBatchSize();
+        }
+
+        @Override
+        public void run() {
+            started.countDown();
+            Duration block = Duration.ofMillis(Math.max(1L, properties.getPollTimeoutMillis()));
+            while (active && !Thread.currentThread().isInterrupted()) {
+                List<MapRecord<String, Object, Object>> records;
+                try {
+                    records = stringRedisTemplate.opsForStream()
+                            .read(consumer, StreamReadOptions.empty().count(batchSize).block(block), offset);
+                } catch (RuntimeException ex) {
+                    if (!active) {
+                        return;
+                    }
+                    log.warn("读取 Stream {} 消费组 {} 失败: {}", registration.streamKey, registration.consumerGroup,
+                            ex.getMessage());
+                    pause(block);
+                    continue;
+                }
+                int received = records == null ? 0 : records.size();
+                for (int i = 0; i < received && active; i++) {
+                    MapRecord<String, Object, Object> record = records.get(i);
+                    Map<String, String> body = new HashMap<>();
+                    record.getValue().forEach((field, value) -> body.put(String.valueOf(field), String.valueOf(value)));
+                    submit(registration, record.getId().getValue(), body, 0L);
+                }
+                batchSize = nextBatchSize(batchSize, received, minBatchSize(),
+                        Math.max(minBatchSize(), properties.getAdaptiveMaxBatchSize()));
+            }
+        }
+
+        @Override
+        public boolean isActive() {
+            return active && started.getCount() == 0;
+        }
+
+        @Override
+        public boolean await(Duration timeout) throws InterruptedException {
+            return started.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void cancel() {
+            active = false;
+        }
+
+        private int minBatchSize() {
+            return Math.max(1, properties.getPollBatchSize());
+        }
+
+        private void pause(Duration duration) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(duration.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 }
@@ -0,0 +1,131 @@
+package com.dhgx.api.notify.core;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventNotifyDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EventNotifyDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    @Test
+    void keepsOrderWithinKeyWhileOtherKeysProceed() throws Exception {
+        dispatcher = new EventNotifyDispatcher(4, 16, "userId", meterRegistry);
+        String slowKey = "slow";
+        String fastKey = keyInOtherPartition(slowKey);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastDone = new CountDownLatch(3);
+        Map<String, List<Integer>> seen = new HashMap<>();
+        seen.put(slowKey, new CopyOnWriteArrayList<>());
+        seen.put(fastKey, new CopyOnWriteArrayList<>());
+
+        for (int i = 0; i < 3; i++) {
+            int seq = i;
+            dispatcher.dispatch("s", (1000 + i) + "-0", body(slowKey), () -> {
+                if (seq == 0) {
+                    await(release);
+                }
+                seen.get(slowKey).add(seq);
+            });
+            dispatcher.dispatch("s", (2000 + i) + "-0", body(fastKey), () -> {
+                seen.get(fastKey).add(seq);
+                fastDone.countDown();
+            });
+        }
+
+        // 慢分区阻塞时，其他分区的消息照常处理
+        assertThat(fastDone.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(seen.get(slowKey)).isEmpty();
+
+        release.countDown();
+        awaitTrue(() -> seen.get(slowKey).size() == 3);
+        assertThat(seen.get(slowKey)).containsExactly(0, 1, 2);
+        assertThat(seen.get(fastKey)).containsExactly(0, 1, 2);
+        awaitTrue(() -> meterRegistry.get("event.notify.handler.duration").tag("stream", "s").timer().count() == 6);
+    }
+
+    @Test
+    void blocksCallerWhenPartitionQueueIsFull() throws Exception {
+        dispatcher = new EventNotifyDispatcher(1, 2, "userId", meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch("s", "1-0", body("u1"), () -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.dispatch("s", "2-0", body("u1"), () -> {
+        });
+        dispatcher.dispatch("s", "3-0", body("u1"), () -> {
+        });
+        assertThat(meterRegistry.get("event.notify.partition.queue.size").tag("partition", "0").gauge().value())
+                .isEqualTo(2.0);
+
+        AtomicBoolean accepted = new AtomicBoolean();
+        Thread poller = new Thread(() -> {
+            try {
+                dispatcher.dispatch("s", "4-0", body("u1"), () -> {
+                });
+                accepted.set(true);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        poller.start();
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(accepted.get()).isFalse();
+
+        release.countDown();
+        poller.join(5000);
+        assertThat(accepted.get()).isTrue();
+    }
+
+    private String keyInOtherPartition(String key) {
+        int partition = dispatcher.partitionOf(key);
+        for (int i = 0; ; i++) {
+            String candidate = "u" + i;
+            if (dispatcher.partitionOf(candidate) != partition) {
+                return candidate;
+            }
+        }
+    }
+
+    private static Map<String, String> body(String userId) {
+        return Collections.singletonMap("userId", userId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
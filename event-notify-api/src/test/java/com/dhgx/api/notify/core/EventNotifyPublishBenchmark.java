@@ -0,0 +1,121 @@
+package com.dhgx.api.notify.core;
+
+import com.dhgx.api.notify.config.EventNotifyProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventNotifyPublishBenchmark。
+ * <p>
+ * 对比发布 {@value #BATCH} 条事件的吞吐（按单条消息计）：逐条同步 XADD，每条一次往返；
+ * {@code publishAll} 管道批量发送，一次往返；{@code publishAsync} 由后台线程凑批后以管道发送，调用线程只入队。
+ * Stream 按默认的 {@code MAXLEN ~ 100000} 裁剪，长度保持稳定。
+ * 运行方式：在 event-notify-api 下执行 {@code mvn test-compile} 后以测试类路径运行本类的 main 方法。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventNotifyPublishBenchmark {
+
+    private static final int BATCH = 100;
+    private static final String STREAM = "bench:events";
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private EventNotifyPublisher publisher;
+    private List<Map<String, String>> messages;
+
+    @Setup
+    public void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = RedisServer.newRedisServer().port(port).setting("bind 127.0.0.1").setting("save \"\"").build();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        EventNotifyProperties properties = new EventNotifyProperties();
+        properties.setAsyncMaxBatchSize(BATCH);
+        publisher = new EventNotifyPublisher(redisTemplate, properties);
+        messages = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            Map<String, String> message = new HashMap<>();
+            message.put("eventType", "USER_KICKED");
+            message.put("userId", "u" + i);
+            messages.add(message);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        publisher.stop();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public RecordId synchronous() {
+        RecordId last = null;
+        for (Map<String, String> message : messages) {
+            last = publisher.publish(STREAM, message);
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<RecordId> pipelined() {
+        return publisher.publishAll(STREAM, messages);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public RecordId async() {
+        List<CompletableFuture<RecordId>> futures = new ArrayList<>(BATCH);
+        for (Map<String, String> message : messages) {
+            futures.add(publisher.publishAsync(STREAM, message));
+        }
+        return futures.get(BATCH - 1).join();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventNotifyPublishBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.dhgx.api.notify.core;
+
+import com.dhgx.api.notify.config.EventNotifyProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventNotifyPublisherTest {
+
+    private static final String STREAM = "test:events";
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private EventNotifyProperties properties;
+    private EventNotifyPublisher publisher;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        redisPort = findAvailablePort();
+        redisServer = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redisPort));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.flushAll();
+            return null;
+        });
+        properties = new EventNotifyProperties();
+        publisher = new EventNotifyPublisher(redisTemplate, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.stop();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void publishAllWritesMessagesInOrder() {
+        List<Map<String, String>> messages = messages(50);
+
+        List<RecordId> ids = publisher.publishAll(STREAM, messages);
+
+        assertThat(ids).hasSize(50).doesNotContainNull();
+        assertThat(streamValues()).isEqualTo(messages);
+        assertThat(ids).isEqualTo(streamIds());
+    }
+
+    @Test
+    void publishAsyncCompletesFuturesWithStreamIds() throws Exception {
+        properties.setAsyncMaxBatchSize(32);
+        List<Map<String, String>> messages = messages(200);
+
+        List<CompletableFuture<RecordId>> futures = new ArrayList<>();
+        for (Map<String, String> message : messages) {
+            futures.add(publisher.publishAsync(STREAM, message));
+        }
+        List<RecordId> ids = new ArrayList<>();
+        for (CompletableFuture<RecordId> future : futures) {
+            ids.add(future.get(5, TimeUnit.SECONDS));
+        }
+
+        assertThat(streamValues()).isEqualTo(messages);
+        assertThat(ids).isEqualTo(streamIds());
+    }
+
+    @Test
+    void stopFlushesBufferedMessagesAndRejectsNewOnes() throws Exception {
+        properties.setAsyncLingerMillis(200);
+        List<CompletableFuture<RecordId>> futures = new ArrayList<>();
+        for (Map<String, String> message : messages(20)) {
+            futures.add(publisher.publishAsync(STREAM, message));
+        }
+
+        publisher.stop();
+
+        assertThat(futures).allMatch(future -> future.isDone() && !future.isCompletedExceptionally());
+        assertThat(redisTemplate.opsForStream().size(STREAM)).isEqualTo(20L);
+        assertThat(publisher.publishAsync(STREAM, Collections.singletonMap("seq", "late")))
+                .isCompletedExceptionally();
+    }
+
+    private List<Map<String, String>> streamValues() {
+        List<Map<String, String>> values = new ArrayList<>();
+        for (MapRecord<String, Object, Object> record : redisTemplate.opsForStream().range(STREAM, Range.unbounded())) {
+            values.add(Collections.singletonMap("seq", (String) record.getValue().get("seq")));
+        }
+        return values;
+    }
+
+    private List<RecordId> streamIds() {
+        List<RecordId> ids = new ArrayList<>();
+        for (MapRecord<String, Object, Object> record : redisTemplate.opsForStream().range(STREAM, Range.unbounded())) {
+            ids.add(record.getId());
+        }
+        return ids;
+    }
+
+    private static List<Map<String, String>> messages(int count) {
+        List<Map<String, String>> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(Collections.singletonMap("seq", String.valueOf(i)));
+        }
+        return messages;
+    }
+
+    private static int findAvailablePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.dhgx.api.notify.core;
+
+import com.dhgx.api.notify.config.EventNotifyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventNotifyStreamTrimmerTest {
+
+    private static final String STREAM = "test:events";
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private EventNotifyProperties properties;
+    private EventNotifyPublisher publisher;
+    private SimpleMeterRegistry meterRegistry;
+    private EventNotifyStreamTrimmer trimmer;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        redisPort = findAvailablePort();
+        redisServer = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redisPort));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.flushAll();
+            return null;
+        });
+        properties = new EventNotifyProperties();
+        publisher = new EventNotifyPublisher(redisTemplate, properties);
+        meterRegistry = new SimpleMeterRegistry();
+        trimmer = new EventNotifyStreamTrimmer(redisTemplate, properties, publisher, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        trimmer.stop();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void boundsStreamLengthOnPublish() {
+        properties.setRetentionMaxLength(100);
+
+        RecordId last = null;
+        for (int i = 0; i < 1000; i++) {
+            last = publisher.publish(STREAM, Collections.singletonMap("seq", String.valueOf(i)));
+        }
+
+        // 近似裁剪按宏节点删除，保留数量不少于上限且远小于写入量
+        assertThat(redisTemplate.opsForStream().size(STREAM)).isBetween(100L, 300L);
+        assertThat(last).isNotNull();
+        assertThat(redisTemplate.opsForStream().reverseRange(STREAM,
+                Range.unbounded()).get(0).getId()).isEqualTo(last);
+    }
+
+    @Test
+    void publishesWithoutTrimmingWhenRetentionDisabled() {
+        properties.setRetentionMaxLength(0);
+
+        for (int i = 0; i < 300; i++) {
+            publisher.publish(STREAM, Collections.singletonMap("seq", String.valueOf(i)));
+        }
+
+        assertThat(redisTemplate.opsForStream().size(STREAM)).isEqualTo(300L);
+    }
+
+    @Test
+    void backgroundTrimRemovesExpiredEntriesOfIdleStream() {
+        properties.setRetentionMaxLength(0);
+        EventNotifyProperties.StreamRetention retention = new EventNotifyProperties.StreamRetention();
+        retention.setMaxAgeMillis(3_600_000L);
+        properties.getRetention().put(STREAM, retention);
+        for (int i = 1; i <= 500; i++) {
+            redisTemplate.opsForStream().add(StreamRecords.string(Collections.singletonMap("seq", String.valueOf(i)))
+                    .withStreamKey(STREAM).withId(RecordId.of(i + "-0")));
+        }
+        // 由其他实例写入、此后再无写入的 Stream，只能依靠配置中的 Stream Key 被后台裁剪
+        redisTemplate.opsForStream().add(STREAM, Collections.singletonMap("seq", "fresh"));
+
+        trimmer.trimAll();
+
+        long remaining = redisTemplate.opsForStream().size(STREAM);
+        assertThat(remaining).isLessThan(501L).isGreaterThanOrEqualTo(1L);
+        assertThat(meterRegistry.get("event.notify.stream.trimmed").tag("stream", STREAM).counter().count())
+                .isEqualTo(501.0 - remaining);
+        assertThat(meterRegistry.get("event.notify.stream.length").tag("stream", STREAM).gauge().value())
+                .isEqualTo((double) remaining);
+    }
+
+    private static int findAvailablePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
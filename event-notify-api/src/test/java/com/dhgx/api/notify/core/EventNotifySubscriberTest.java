@@ -0,0 +1,406 @@
+package com.dhgx.api.notify.core;
+
+import com.dhgx.api.notify.config.EventNotifyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.Subscription;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventNotifySubscriberTest {
+
+    private static final String STREAM = "test:events";
+    private static final String GROUP = "test-group";
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+    private EventNotifyProperties properties;
+    private EventNotifyPublisher publisher;
+    private EventNotifySubscriber subscriber;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        redisPort = findAvailablePort();
+        redisServer = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redisPort));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.flushAll();
+            return null;
+        });
+        container = StreamMessageListenerContainer.create(connectionFactory,
+                StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(Duration.ofMillis(100))
+                        .build());
+        container.start();
+        properties = new EventNotifyProperties();
+        properties.setReclaimEnabled(false);
+        properties.setReclaimIdleMillis(1);
+        properties.setMaxDeliveryAttempts(3);
+        publisher = new EventNotifyPublisher(redisTemplate, properties);
+        subscriber = new EventNotifySubscriber(redisTemplate, container, properties, null, publisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscriber.stop();
+        container.stop();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void acknowledgesAfterHandlerSucceeds() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        subscriber.subscribe(STREAM, GROUP, "c1", (id, body) -> received.add(body.get("userId")));
+
+        publisher.publish(STREAM, Collections.singletonMap("userId", "u1"));
+        publisher.publish(STREAM, Collections.singletonMap("userId", "u2"));
+
+        awaitTrue(() -> received.size() == 2);
+        awaitTrue(() -> pendingCount() == 0);
+        assertThat(received).containsExactly("u1", "u2");
+    }
+
+    @Test
+    void retriesFailedMessageAndMovesItToDeadLetterAfterMaxAttempts() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        subscriber.subscribe(STREAM, GROUP, "c1", (id, body) -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        });
+        publisher.publish(STREAM, Collections.singletonMap("userId", "u1"));
+        awaitTrue(() -> attempts.get() == 1);
+        assertThat(pendingCount()).isEqualTo(1);
+
+        for (int i = 0; i < 3; i++) {
+            TimeUnit.MILLISECONDS.sleep(5);
+            subscriber.reclaimPending();
+        }
+
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(pendingCount()).isZero();
+        List<MapRecord<String, Object, Object>> dead = redisTemplate.opsForStream()
+                .read(StreamOffset.fromStart(STREAM + ":dlq"));
+        assertThat(dead).hasSize(1);
+        assertThat(dead.get(0).getValue())
+                .containsEntry("userId", "u1")
+                .containsEntry(EventNotifySubscriber.DEAD_LETTER_STREAM_FIELD, STREAM)
+                .containsEntry(EventNotifySubscriber.DEAD_LETTER_DELIVERIES_FIELD, "3");
+        // 死信经由发布器写入，由后台裁剪覆盖
+        assertThat(publisher.getPublishedStreams()).contains(STREAM + ":dlq");
+    }
+
+    @Test
+    void recoversTransientFailureOnReclaim() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        subscriber.subscribe(STREAM, GROUP, "c1", (id, body) -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("transient");
+            }
+        });
+        publisher.publish(STREAM, Collections.singletonMap("userId", "u1"));
+        awaitTrue(() -> attempts.get() == 1);
+
+        TimeUnit.MILLISECONDS.sleep(5);
+        subscriber.reclaimPending();
+
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(pendingCount()).isZero();
+        assertThat(redisTemplate.hasKey(STREAM + ":dlq")).isFalse();
+    }
+
+    @Test
+    void doesNotReclaimMessageStillBeingHandledWithoutDispatcher() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        subscriber.subscribe(STREAM, GROUP, "c1", (id, body) -> {
+            attempts.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        publisher.publish(STREAM, Collections.singletonMap("userId", "u1"));
+        awaitTrue(() -> attempts.get() == 1);
+
+        TimeUnit.MILLISECONDS.sleep(5);
+        subscriber.reclaimPending();
+
+        assertThat(attempts.get()).isEqualTo(1);
+        release.countDown();
+        awaitTrue(() -> pendingCount() == 0);
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    void takesOverMessagesLeftByDeadConsumer() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        subscriber.subscribe(STREAM, GROUP, "c1", (id, body) -> received.add(body.get("userId")));
+        // 另一个消费者读取后宕机，消息停留在它的未确认列表中
+        redisTemplate.opsForStream().add(STREAM, Collections.singletonMap("userId", "orphan"));
+        redisTemplate.opsForStream().read(Consumer.from(GROUP, "crashed"),
+                StreamOffset.create(STREAM, ReadOffset.lastConsumed()));
+        assertThat(pendingCount()).isEqualTo(1);
+
+        TimeUnit.MILLISECONDS.sleep(5);
+        subscriber.reclaimPending();
+
+        assertThat(received).contains("orphan");
+        assertThat(pendingCount()).isZero();
+    }
+
+    @Test
+    void acknowledgesPendingEntriesOfDeletedMessages() throws Exception {
+        redisTemplate.opsForStream().createGroup(STREAM, ReadOffset.from("0"), GROUP);
+        String id = redisTemplate.opsForStream().add(STREAM, Collections.singletonMap("userId", "gone")).getValue();
+        redisTemplate.opsForStream().read(Consumer.from(GROUP, "crashed"),
+                StreamOffset.create(STREAM, ReadOffset.lastConsumed()));
+        redisTemplate.opsForStream().delete(STREAM, id);
+        subscriber.subscribe(STREAM, GROUP, "c1", (messageId, body) -> {
+        });
+
+        TimeUnit.MILLISECONDS.sleep(5);
+        subscriber.reclaimPending();
+
+        assertThat(pendingCount()).isZero();
+    }
+
+    @Test
+    void dispatchesInKeyOrderAcrossPartitions() throws Exception {
+        subscriber.stop();
+        EventNotifyDispatcher dispatcher = new EventNotifyDispatcher(4, 8, "userId", new SimpleMeterRegistry());
+        subscriber = new EventNotifySubscriber(redisTemplate, container, properties, dispatcher);
+        Map<String, List<String>> received = new ConcurrentHashMap<>();
+        subscriber.subscribe(STREAM, GROUP, "c1", (id, body) ->
+                received.computeIfAbsent(body.get("userId"), key -> new CopyOnWriteArrayList<>()).add(body.get("seq")));
+
+        List<String> expected = new ArrayList<>();
+        for (int seq = 0; seq < 20; seq++) {
+            expected.add(String.valueOf(seq));
+            for (int user = 0; user < 5; user++) {
+                Map<String, String> body = new HashMap<>();
+                body.put("userId", "u" + user);
+                body.put("seq", String.valueOf(seq));
+                publisher.publish(STREAM, body);
+            }
+        }
+
+        awaitTrue(() -> received.values().stream().mapToInt(List::size).sum() == 100);
+        awaitTrue(() -> pendingCount() == 0);
+        assertThat(received).hasSize(5);
+        received.values().forEach(sequence -> assertThat(sequence).isEqualTo(expected));
+    }
+
+    @Test
+    void retriesFailedMessageInPartitionBeforeLaterMessagesOfSameKey() throws Exception {
+        subscriber.stop();
+        properties.setDispatchRetryBackoffMillis(5);
+        EventNotifyDispatcher dispatcher = new EventNotifyDispatcher(1, 8, "userId", new SimpleMeterRegistry());
+        subscriber = new EventNotifySubscriber(redisTemplate, container, properties, dispatcher, publisher);
+        AtomicInteger failures = new AtomicInteger();
+        List<String> received = new CopyOnWriteArrayList<>();
+        subscriber.subscribe(STREAM, GROUP, "c1", (id, body) -> {
+            if ("0".equals(body.get("seq")) && failures.incrementAndGet() < 3) {
+                throw new IllegalStateException("boom");
+            }
+            received.add(body.get("seq"));
+        });
+
+        for (int seq = 0; seq < 3; seq++) {
+            Map<String, String> body = new HashMap<>();
+            body.put("userId", "u1");
+            body.put("seq", String.valueOf(seq));
+            publisher.publish(STREAM, body);
+        }
+
+        awaitTrue(() -> received.size() == 3);
+        awaitTrue(() -> pendingCount() == 0);
+        assertThat(received).containsExactly("0", "1", "2");
+        assertThat(failures.get()).isEqualTo(3);
+    }
+
+    @Test
+    void deadLettersMessageAfterInPartitionRetriesAreExhausted() throws Exception {
+        subscriber.stop();
+        properties.setDispatchRetryBackoffMillis(5);
+        EventNotifyDispatcher dispatcher = new EventNotifyDispatcher(1, 8, "userId", new SimpleMeterRegistry());
+        subscriber = new EventNotifySubscriber(redisTemplate, container, properties, dispatcher, publisher);
+        AtomicInteger attempts = new AtomicInteger();
+        List<String> received = new CopyOnWriteArrayList<>();
+        subscriber.subscribe(STREAM, GROUP, "c1", (id, body) -> {
+            if ("0".equals(body.get("seq"))) {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("boom");
+            }
+            received.add(body.get("seq"));
+        });
+
+        for (int seq = 0; seq < 2; seq++) {
+            Map<String, String> body = new HashMap<>();
+            body.put("userId", "u1");
+            body.put("seq", String.valueOf(seq));
+            publisher.publish(STREAM, body);
+        }
+
+        awaitTrue(() -> received.size() == 1);
+        awaitTrue(() -> pendingCount() == 0);
+        assertThat(attempts.get()).isEqualTo(3);
+        List<MapRecord<String, Object, Object>> dead = redisTemplate.opsForStream()
+                .read(StreamOffset.fromStart(STREAM + ":dlq"));
+        assertThat(dead).hasSize(1);
+        assertThat(dead.get(0).getValue())
+                .containsEntry("seq", "0")
+                .containsEntry(EventNotifySubscriber.DEAD_LETTER_DELIVERIES_FIELD, "3");
+    }
+
+    @Test
+    void adaptivePollingCatchesUpWithBacklogInOrder() throws Exception {
+        properties.setAdaptiveBatchEnabled(true);
+        properties.setPollBatchSize(5);
+        properties.setAdaptiveMaxBatchSize(200);
+        properties.setPollTimeoutMillis(100);
+        redisTemplate.opsForStream().createGroup(STREAM, ReadOffset.from("0"), GROUP);
+        List<String> expected = new ArrayList<>();
+        for (int seq = 0; seq < 500; seq++) {
+            expected.add(String.valueOf(seq));
+            publisher.publish(STREAM, Collections.singletonMap("seq", String.valueOf(seq)));
+        }
+        List<String> received = new CopyOnWriteArrayList<>();
+
+        Subscription subscription =
+                subscriber.subscribe(STREAM, GROUP, "c1", (id, body) -> received.add(body.get("seq")));
+        assertThat(subscription.await(Duration.ofSeconds(5))).isTrue();
+
+        awaitTrue(() -> received.size() == 500);
+        awaitTrue(() -> pendingCount() == 0);
+        assertThat(received).isEqualTo(expected);
+
+        subscription.cancel();
+        assertThat(subscription.isActive()).isFalse();
+    }
+
+    @Test
+    void adaptiveBatchSizeGrowsUnderLagAndShrinksWhenIdle() {
+        assertThat(EventNotifySubscriber.nextBatchSize(10, 10, 10, 500)).isEqualTo(20);
+        assertThat(EventNotifySubscriber.nextBatchSize(320, 320, 10, 500)).isEqualTo(500);
+        assertThat(EventNotifySubscriber.nextBatchSize(40, 25, 10, 500)).isEqualTo(40);
+        assertThat(EventNotifySubscriber.nextBatchSize(40, 3, 10, 500)).isEqualTo(20);
+        assertThat(EventNotifySubscriber.nextBatchSize(12, 0, 10, 500)).isEqualTo(10);
+    }
+
+    @Test
+    void broadcastGroupIsDestroyedOnStop() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        subscriber.subscribeBroadcast(STREAM, "bc-", (id, body) -> received.add(body.get("userId")));
+        publisher.publish(STREAM, Collections.singletonMap("userId", "u1"));
+        awaitTrue(() -> received.size() == 1);
+        assertThat(groupNames()).hasSize(1).allMatch(name -> name.startsWith("bc-"));
+        assertThat(redisTemplate.opsForHash().keys(STREAM + EventNotifySubscriber.BROADCAST_GROUPS_SUFFIX))
+                .containsExactlyElementsOf(groupNames());
+
+        subscriber.stop();
+
+        assertThat(groupNames()).isEmpty();
+        assertThat(redisTemplate.hasKey(STREAM + EventNotifySubscriber.BROADCAST_GROUPS_SUFFIX)).isFalse();
+    }
+
+    @Test
+    void sweepDestroysIdleBroadcastGroupsOfSamePrefixOnly() throws Exception {
+        publisher.publish(STREAM, Collections.singletonMap("userId", "u1"));
+        String heartbeats = STREAM + EventNotifySubscriber.BROADCAST_GROUPS_SUFFIX;
+        for (String group : new String[]{"bc-gone", "bc-stale", "bc-quiet", "other-gone"}) {
+            redisTemplate.opsForStream().createGroup(STREAM, ReadOffset.from("0"), group);
+            redisTemplate.opsForStream().read(Consumer.from(group, "c1"), StreamOffset.create(STREAM, ReadOffset.lastConsumed()));
+        }
+        redisTemplate.opsForStream().createGroup(STREAM, ReadOffset.latest(), "bc-starting");
+        redisTemplate.opsForHash().put(heartbeats, "bc-stale", String.valueOf(System.currentTimeMillis() - 60000));
+        subscriber.subscribeBroadcast(STREAM, "bc-", (id, body) -> { });
+        properties.setBroadcastGroupIdleMillis(1500);
+        TimeUnit.MILLISECONDS.sleep(2000);
+        // 写入稀少的 Stream 上存活实例的消费者同样显示为空闲，只有心跳是新的
+        redisTemplate.opsForHash().put(heartbeats, "bc-quiet", String.valueOf(System.currentTimeMillis()));
+
+        subscriber.sweepBroadcastGroups();
+
+        // 心跳缺失或过期且消费者空闲的同前缀消费组被销毁；心跳新鲜、尚无消费者、前缀不同的消费组以及本实例的消费组保留
+        assertThat(groupNames()).doesNotContain("bc-gone", "bc-stale")
+                .contains("bc-quiet", "bc-starting", "other-gone")
+                .hasSize(4);
+        assertThat(redisTemplate.opsForHash().keys(heartbeats)).doesNotContain("bc-stale");
+    }
+
+    private List<String> groupNames() {
+        List<String> names = new ArrayList<>();
+        redisTemplate.opsForStream().groups(STREAM).forEach(group -> names.add(group.groupName()));
+        return names;
+    }
+
+    private long pendingCount() {
+        return redisTemplate.opsForStream().pending(STREAM, GROUP).getTotalPendingMessages();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static int findAvailablePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.dhgx.gateway;
 
 import com.dhgx.common.gateway.GatewaySecurityProperties;
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import com.dhgx.gateway.config.GatewayRateLimitProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -13,7 +15,8 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
  * </p>
  */
 @SpringBootApplication
-@EnableConfigurationProperties(GatewaySecurityProperties.class)
+@EnableConfigurationProperties({GatewaySecurityProperties.class, GatewayAuthProperties.class,
+        GatewayRateLimitProperties.class})
 @EnableFeignClients(basePackages = {"com.dhgx"})
 public class GatewayServerApplication {
 
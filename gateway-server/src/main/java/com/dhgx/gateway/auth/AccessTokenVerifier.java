@@ -0,0 +1,184 @@
+package com.dhgx.gateway.auth;
+
+import com.dhgx.common.redis.RedisKeys;
+import com.dhgx.common.security.AccessTokenCodec;
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import com.dhgx.gateway.filter.CookieValueScanner;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AccessTokenVerifier。
+ * <p>
+ * 本地校验认证服务签发的签名访问令牌，校验通过即可放行而无需访问认证服务。
+ * 签名密钥启动时从 Redis 读取，未就绪时按间隔在后台重试。
+ * 令牌过期、签名无效、与本次请求的 satoken 不是同一会话，或所属用户在签发后被吊销（禁用、改密、踢出、登出、版本变更事件）时
+ * 返回 null，由调用方回退到会话查询。校验结果计数记录在 {@code gateway.access.token.verifications}。
+ * </p>
+ */
+@Component
+public class AccessTokenVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenVerifier.class);
+
+    private final GatewayAuthProperties.AccessToken properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    /** 用户 ID 到最近一次吊销记录。 */
+    private final Cache<String, Revocation> revocations;
+    private final Counter validCounter;
+    private final Counter expiredCounter;
+    private final Counter revokedCounter;
+    private final Counter invalidCounter;
+    private final Counter mismatchCounter;
+    /** 是否有后台密钥加载正在进行。 */
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+    private volatile AccessTokenCodec codec;
+    private volatile long nextLoadAttemptAt;
+
+    public AccessTokenVerifier(GatewayAuthProperties gatewayAuthProperties,
+                               StringRedisTemplate stringRedisTemplate,
+                               MeterRegistry meterRegistry) {
+        this.properties = gatewayAuthProperties.getAccessToken();
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.revocations = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1L, properties.getRevocationRetentionSeconds())))
+                .build();
+        this.validCounter = counter(meterRegistry, "valid");
+        this.expiredCounter = counter(meterRegistry, "expired");
+        this.revokedCounter = counter(meterRegistry, "revoked");
+        this.invalidCounter = counter(meterRegistry, "invalid");
+        this.mismatchCounter = counter(meterRegistry, "mismatch");
+        if (properties.isEnabled()) {
+            loadKey();
+        }
+    }
+
+    /**
+     * 从 Cookie 头中取出访问令牌并校验。
+     *
+     * @param cookieHeader Cookie 头
+     * @param sessionToken 本次请求携带的 satoken，须与签发令牌时的会话一致
+     * @return 校验通过时的会话快照，否则返回 null
+     */
+    public ValidatedSession verify(String cookieHeader, String sessionToken) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        String token = CookieValueScanner.find(cookieHeader, properties.getCookieName());
+        if (token == null) {
+            return null;
+        }
+        AccessTokenCodec current = codec;
+        if (current == null) {
+            scheduleKeyLoad();
+            return null;
+        }
+        AccessTokenCodec.Claims claims = current.decode(token);
+        if (claims == null) {
+            invalidCounter.increment();
+            return null;
+        }
+        if (!claims.isIssuedFor(sessionToken)) {
+            mismatchCounter.increment();
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (claims.getExpiresAt() * 1000 <= now) {
+            expiredCounter.increment();
+            return null;
+        }
+        if (isRevoked(claims)) {
+            revokedCounter.increment();
+            return null;
+        }
+        validCounter.increment();
+        return new ValidatedSession(claims.getUserId(), claims.getTokenVersion(), now);
+    }
+
+    /**
+     * 记录用户吊销。吊销前签发的令牌不再本地放行；携带新版本号时，版本号不低于该值的令牌仍可放行。
+     *
+     * @param userId       用户 ID
+     * @param tokenVersion 吊销后生效的 Token 版本号，未知时为 null
+     */
+    public void revoke(String userId, Long tokenVersion) {
+        if (userId == null) {
+            return;
+        }
+        revocations.put(userId, new Revocation(System.currentTimeMillis(), tokenVersion));
+    }
+
+    private boolean isRevoked(AccessTokenCodec.Claims claims) {
+        Revocation revocation = revocations.getIfPresent(claims.getUserId());
+        if (revocation == null) {
+            return false;
+        }
+        if (revocation.tokenVersion != null && claims.getTokenVersion() >= revocation.tokenVersion) {
+            return false;
+        }
+        long skewMillis = Math.max(0L, properties.getClockSkewSeconds()) * 1000;
+        return claims.getIssuedAt() * 1000 <= revocation.revokedAt + skewMillis;
+    }
+
+    /**
+     * 在弹性线程上重试加载密钥，避免阻塞事件循环；同一时刻最多一个加载任务。
+     */
+    private void scheduleKeyLoad() {
+        if (System.currentTimeMillis() < nextLoadAttemptAt || !loading.compareAndSet(false, true)) {
+            return;
+        }
+        Mono.fromRunnable(this::loadKey)
+                .subscribeOn(Schedulers.boundedElastic())
+                .doFinally(signal -> loading.set(false))
+                .subscribe(null, ex -> log.warn("Failed to load access token signing key: {}", ex.getMessage()));
+    }
+
+    private void loadKey() {
+        nextLoadAttemptAt = System.currentTimeMillis()
+                + Math.max(1L, properties.getKeyRetryIntervalSeconds()) * 1000;
+        try {
+            String encoded = stringRedisTemplate.opsForValue().get(RedisKeys.ACCESS_TOKEN_SIGNING_KEY);
+            if (!StringUtils.hasText(encoded)) {
+                log.info("Access token signing key not published yet, falling back to session checks");
+                return;
+            }
+            codec = new AccessTokenCodec(Base64.getDecoder().decode(encoded));
+            log.info("Access token signing key loaded");
+        } catch (RuntimeException ex) {
+            log.warn("Failed to load access token signing key: {}", ex.getMessage());
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.access.token.verifications")
+                .description("Local signed access token verifications")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 吊销记录。
+     */
+    private static final class Revocation {
+        private final long revokedAt;
+        private final Long tokenVersion;
+
+        private Revocation(long revokedAt, Long tokenVersion) {
+            this.revokedAt = revokedAt;
+            this.tokenVersion = tokenVersion;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.dhgx.gateway.auth;
+
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * AuthCircuitBreaker。
+ * <p>
+ * 网关调用认证服务校验登录态时使用的熔断器。按最近 N 次调用的滑动窗口统计失败率与慢调用率，
+ * 任一超过阈值即熔断，熔断期间不再访问认证服务，由调用方回退到已校验会话的宽限窗口；
+ * 熔断时长结束后放行少量探测调用，探测全部完成且未超阈值时恢复，否则重新熔断。
+ * 认证服务正常返回的未登录结果视为成功调用，仅网络异常、超时与 5xx 计为失败。
+ * 当前状态记录在 {@code gateway.auth.circuit.state}（0 关闭、1 打开、2 半开），
+ * 调用结果记录在 {@code gateway.auth.circuit.calls}。
+ * </p>
+ */
+@Component
+public class AuthCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthCircuitBreaker.class);
+
+    /**
+     * 熔断器状态。
+     */
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final GatewayAuthProperties.CircuitBreaker config;
+    /** 毫秒时钟，便于测试替换。 */
+    private final LongSupplier clock;
+    /** 滑动窗口：每次调用是否失败。 */
+    private final boolean[] failedCalls;
+    /** 滑动窗口：每次调用是否为慢调用。 */
+    private final boolean[] slowCalls;
+    private final Counter successCounter;
+    private final Counter failureCounter;
+    private final Counter slowCounter;
+    private final Counter notPermittedCounter;
+
+    private State state = State.CLOSED;
+    /** 窗口写入位置。 */
+    private int cursor;
+    /** 窗口内已记录的调用数。 */
+    private int recorded;
+    private int failures;
+    private int slows;
+    /** 最近一次熔断的时间戳（毫秒）。 */
+    private long openedAt;
+    /** 半开状态下已放行的探测调用数。 */
+    private int halfOpenIssued;
+
+    public AuthCircuitBreaker(GatewayAuthProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    AuthCircuitBreaker(GatewayAuthProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.config = properties.getCircuitBreaker();
+        this.clock = clock;
+        int windowSize = Math.max(1, config.getSlidingWindowSize());
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+        this.successCounter = counter(meterRegistry, "success");
+        this.failureCounter = counter(meterRegistry, "failure");
+        this.slowCounter = counter(meterRegistry, "slow");
+        this.notPermittedCounter = counter(meterRegistry, "not_permitted");
+        Gauge.builder("gateway.auth.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("Auth-server circuit state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 申请一次调用许可。
+     *
+     * @return false 表示熔断中，调用方不应访问认证服务
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (!config.isEnabled()) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < config.getWaitDurationInOpenMillis()) {
+                notPermittedCounter.increment();
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenIssued >= permittedCallsInHalfOpen()) {
+                notPermittedCounter.increment();
+                return false;
+            }
+            halfOpenIssued++;
+        }
+        return true;
+    }
+
+    /**
+     * 记录一次调用结果。
+     *
+     * @param durationMillis 调用耗时（毫秒）
+     * @param failed         是否失败（网络异常、超时、5xx）
+     */
+    public synchronized void onResult(long durationMillis, boolean failed) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        boolean slow = durationMillis >= config.getSlowCallDurationMillis();
+        (failed ? failureCounter : successCounter).increment();
+        if (slow) {
+            slowCounter.increment();
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        record(failed, slow);
+        if (state == State.HALF_OPEN) {
+            if (recorded >= permittedCallsInHalfOpen()) {
+                transitionTo(exceedsThresholds() ? State.OPEN : State.CLOSED);
+            }
+        } else if (recorded >= config.getMinimumCalls() && exceedsThresholds()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * 调用被取消、未产生结果时归还半开状态的探测许可。
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && halfOpenIssued > recorded) {
+            halfOpenIssued--;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if (recorded == failedCalls.length) {
+            if (failedCalls[cursor]) {
+                failures--;
+            }
+            if (slowCalls[cursor]) {
+                slows--;
+            }
+        } else {
+            recorded++;
+        }
+        failedCalls[cursor] = failed;
+        slowCalls[cursor] = slow;
+        if (failed) {
+            failures++;
+        }
+        if (slow) {
+            slows++;
+        }
+        cursor = (cursor + 1) % failedCalls.length;
+    }
+
+    private boolean exceedsThresholds() {
+        return failures * 100.0 >= config.getFailureRateThreshold() * recorded
+                || slows * 100.0 >= config.getSlowCallRateThreshold() * recorded;
+    }
+
+    private void transitionTo(State target) {
+        if (target == State.OPEN) {
+            openedAt = clock.getAsLong();
+            log.warn("Auth-server circuit opened: {} failed and {} slow of last {} calls", failures, slows, recorded);
+        } else if (state != target) {
+            log.info("Auth-server circuit {}", target == State.CLOSED ? "closed" : "half-open");
+        }
+        state = target;
+        halfOpenIssued = 0;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        cursor = 0;
+        recorded = 0;
+        failures = 0;
+        slows = 0;
+    }
+
+    private int permittedCallsInHalfOpen() {
+        return Math.max(1, Math.min(config.getPermittedCallsInHalfOpen(), failedCalls.length));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gateway.auth.circuit.calls")
+                .description("Session checks against auth-server by circuit breaker outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
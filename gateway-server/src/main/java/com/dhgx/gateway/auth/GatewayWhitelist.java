@@ -0,0 +1,64 @@
+package com.dhgx.gateway.auth;
+
+import com.dhgx.common.gateway.GatewaySecurityProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GatewayWhitelist。
+ * <p>
+ * 持有当前生效的 {@link WhitelistMatcher}。启动时编译一次；Nacos 配置刷新后
+ * （属性重新绑定完成并发布 {@link RefreshScopeRefreshedEvent}）
+ * 重新编译并整体替换，请求线程始终读取到完整的旧实例或新实例。
+ * </p>
+ */
+@Component
+public class GatewayWhitelist {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayWhitelist.class);
+
+    private final GatewaySecurityProperties securityProperties;
+    /** 当前生效的匹配器。 */
+    private volatile WhitelistMatcher matcher;
+
+    public GatewayWhitelist(GatewaySecurityProperties securityProperties) {
+        this.securityProperties = securityProperties;
+        this.matcher = compile();
+    }
+
+    /**
+     * 判断路径是否命中白名单。
+     *
+     * @param path 请求路径
+     * @return true 表示命中白名单
+     */
+    public boolean matches(String path) {
+        return matcher.matches(path);
+    }
+
+    /**
+     * 配置刷新后重新编译白名单。
+     *
+     * @param event 刷新完成事件
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh(RefreshScopeRefreshedEvent event) {
+        this.matcher = compile();
+        log.info("Gateway whitelist recompiled, {} patterns", sizeOf(securityProperties.getWhitelist()));
+    }
+
+    private WhitelistMatcher compile() {
+        List<String> whitelist = securityProperties.getWhitelist();
+        return WhitelistMatcher.compile(whitelist == null ? null : new ArrayList<>(whitelist));
+    }
+
+    private static int sizeOf(List<String> whitelist) {
+        return whitelist == null ? 0 : whitelist.size();
+    }
+}
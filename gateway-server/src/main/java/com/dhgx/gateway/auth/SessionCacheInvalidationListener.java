@@ -0,0 +1,99 @@
+package com.dhgx.gateway.auth;
+
+import com.dhgx.api.notify.core.EventNotifySubscriber;
+import com.dhgx.common.event.PortalEventType;
+import com.dhgx.common.redis.RedisKeys;
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SessionCacheInvalidationListener。
+ * <p>
+ * 订阅用户禁用、改密、Token 版本变更与踢出事件，按用户失效网关本地会话缓存，
+ * 并吊销该用户此前签发的签名访问令牌。
+ * 每个网关实例使用独立的消费组，确保所有实例都能收到每一条事件；未显式配置消费组时以广播方式订阅，
+ * 实例停止时销毁消费组，异常退出遗留的消费组由其他实例清理。
+ * </p>
+ */
+@Component
+public class SessionCacheInvalidationListener implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionCacheInvalidationListener.class);
+
+    /** 需要触发缓存失效的事件类型。 */
+    private static final List<PortalEventType> INVALIDATING_EVENTS = Arrays.asList(
+            PortalEventType.USER_DISABLED,
+            PortalEventType.USER_PASSWORD_CHANGED,
+            PortalEventType.USER_TOKEN_VERSION_UPDATED,
+            PortalEventType.USER_KICKED);
+
+    /** 广播订阅的消费组前缀。 */
+    static final String CONSUMER_GROUP_PREFIX = "gateway-session-cache-";
+
+    private final EventNotifySubscriber eventNotifySubscriber;
+    private final SessionValidationCache sessionValidationCache;
+    private final AccessTokenVerifier accessTokenVerifier;
+    private final GatewayAuthProperties properties;
+
+    public SessionCacheInvalidationListener(EventNotifySubscriber eventNotifySubscriber,
+                                            SessionValidationCache sessionValidationCache,
+                                            AccessTokenVerifier accessTokenVerifier,
+                                            GatewayAuthProperties properties) {
+        this.eventNotifySubscriber = eventNotifySubscriber;
+        this.sessionValidationCache = sessionValidationCache;
+        this.accessTokenVerifier = accessTokenVerifier;
+        this.properties = properties;
+    }
+
+    /**
+     * 容器初始化完成后注册订阅，单个 Stream 订阅失败不影响启动，缓存 TTL 兜底。
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!properties.getSessionCache().isEnabled() && !properties.getAccessToken().isEnabled()) {
+            return;
+        }
+        String consumerGroup = properties.getSessionCache().getConsumerGroup();
+        for (PortalEventType eventType : INVALIDATING_EVENTS) {
+            String streamKey = RedisKeys.portalEventStream(eventType);
+            try {
+                if (StringUtils.hasText(consumerGroup)) {
+                    eventNotifySubscriber.subscribe(streamKey, consumerGroup, consumerGroup, this::onEvent);
+                } else {
+                    eventNotifySubscriber.subscribeBroadcast(streamKey, CONSUMER_GROUP_PREFIX, this::onEvent);
+                }
+            } catch (Exception ex) {
+                log.warn("Failed to subscribe {} for session cache invalidation: {}", streamKey, ex.getMessage());
+            }
+        }
+    }
+
+    private void onEvent(String messageId, Map<String, String> body) {
+        String userId = body == null ? null : body.get("userId");
+        if (!StringUtils.hasText(userId)) {
+            return;
+        }
+        sessionValidationCache.invalidateUser(userId);
+        accessTokenVerifier.revoke(userId, parseVersion(body.get("tokenVersion")));
+        log.debug("Invalidated cached sessions of user {} by event {}", userId, messageId);
+    }
+
+    private Long parseVersion(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.dhgx.gateway.auth;
+
+/**
+ * SessionCheckResult。
+ * <p>
+ * 一次登录态校验的结果：通过时携带会话快照，未通过时携带可透传给前端的提示信息。
+ * </p>
+ */
+public final class SessionCheckResult {
+
+    /** 校验通过时的会话快照。 */
+    private final ValidatedSession session;
+    /** 校验未通过时的提示信息，可为空。 */
+    private final String message;
+
+    private SessionCheckResult(ValidatedSession session, String message) {
+        this.session = session;
+        this.message = message;
+    }
+
+    /**
+     * 构建校验通过的结果。
+     *
+     * @param session 会话快照
+     * @return 校验结果
+     */
+    public static SessionCheckResult authenticated(ValidatedSession session) {
+        return new SessionCheckResult(session, null);
+    }
+
+    /**
+     * 构建校验未通过的结果。
+     *
+     * @param message 提示信息，为空时使用默认文案
+     * @return 校验结果
+     */
+    public static SessionCheckResult rejected(String message) {
+        return new SessionCheckResult(null, message);
+    }
+
+    public boolean isAuthenticated() {
+        return session != null;
+    }
+
+    public ValidatedSession getSession() {
+        return session;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
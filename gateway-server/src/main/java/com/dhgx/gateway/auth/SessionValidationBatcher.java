@@ -0,0 +1,165 @@
+package com.dhgx.gateway.auth;
+
+import com.dhgx.gateway.client.ReactiveAuthClient;
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionValidationBatcher。
+ * <p>
+ * 将未命中缓存的会话校验攒批后经认证服务 {@code /session-info/batch} 一次完成：
+ * 首个待校验凭证到达时开始计时，攒满 maxBatchSize 个或等待满 maxWaitMillis 即发送。
+ * maxBatchSize 超过认证服务单批上限 serverMaxTokens 时按上限分批，避免整批被认证服务拒绝。
+ * 同一凭证的并发校验已由 {@link SessionValidationSingleFlight} 合并，进入批次的凭证互不相同。
+ * 批量调用失败时本批全部以错误信号结束，由调用方按单次调用失败处理（熔断计数与过期会话宽限）。
+ * 批次大小记录在 {@code gateway.session.batch.size}，批量调用次数记录在 {@code gateway.session.batch.calls}。
+ * </p>
+ */
+@Component
+public class SessionValidationBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionValidationBatcher.class);
+
+    private final ReactiveAuthClient reactiveAuthClient;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitMillis;
+    private final Scheduler scheduler;
+    private final DistributionSummary batchSize;
+    private final Counter batchCalls;
+
+    /** 当前正在攒的批次。 */
+    private List<Pending> pending = new ArrayList<>();
+    /** 当前批次的定时发送任务。 */
+    private Disposable scheduledFlush;
+
+    public SessionValidationBatcher(ReactiveAuthClient reactiveAuthClient,
+                                    GatewayAuthProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this(reactiveAuthClient, properties, meterRegistry, Schedulers.parallel());
+    }
+
+    SessionValidationBatcher(ReactiveAuthClient reactiveAuthClient,
+                             GatewayAuthProperties properties,
+                             MeterRegistry meterRegistry,
+                             Scheduler scheduler) {
+        GatewayAuthProperties.Batch config = properties.getBatch();
+        this.reactiveAuthClient = reactiveAuthClient;
+        this.enabled = config.isEnabled();
+        int serverMaxTokens = Math.max(1, config.getServerMaxTokens());
+        if (config.getMaxBatchSize() > serverMaxTokens) {
+            log.warn("gateway.auth.batch.max-batch-size={} 超过认证服务单批上限 {}，按上限分批",
+                    config.getMaxBatchSize(), serverMaxTokens);
+        }
+        this.maxBatchSize = Math.max(1, Math.min(config.getMaxBatchSize(), serverMaxTokens));
+        this.maxWaitMillis = Math.max(0L, config.getMaxWaitMillis());
+        this.scheduler = scheduler;
+        this.batchSize = DistributionSummary.builder("gateway.session.batch.size")
+                .description("Tokens per batched session validation")
+                .register(meterRegistry);
+        this.batchCalls = Counter.builder("gateway.session.batch.calls")
+                .description("Batched session validation calls to auth-server")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 是否启用批量校验。
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 提交一个凭证等待批量校验。
+     *
+     * @param token satoken 原始值
+     * @return 校验结果，批量调用失败时以错误信号结束
+     */
+    public Mono<SessionCheckResult> validate(String token) {
+        return Mono.create(sink -> enqueue(new Pending(token, sink)));
+    }
+
+    private void enqueue(Pending item) {
+        List<Pending> ready = null;
+        synchronized (this) {
+            pending.add(item);
+            if (pending.size() >= maxBatchSize) {
+                ready = drain();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flushOnTimeout, maxWaitMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (ready != null) {
+            send(ready);
+        }
+    }
+
+    private void flushOnTimeout() {
+        List<Pending> ready;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            ready = drain();
+        }
+        send(ready);
+    }
+
+    /**
+     * 取出当前批次并取消其定时任务，调用方需持有锁。
+     */
+    private List<Pending> drain() {
+        List<Pending> ready = pending;
+        pending = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.dispose();
+            scheduledFlush = null;
+        }
+        return ready;
+    }
+
+    private void send(List<Pending> batch) {
+        List<String> tokens = new ArrayList<>(batch.size());
+        for (Pending item : batch) {
+            tokens.add(item.token);
+        }
+        batchSize.record(batch.size());
+        batchCalls.increment();
+        reactiveAuthClient.sessionBatch(tokens).subscribe(results -> {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).sink.success(results.get(i));
+            }
+        }, ex -> {
+            for (Pending item : batch) {
+                item.sink.error(ex);
+            }
+        });
+    }
+
+    /**
+     * 等待批量校验的凭证。
+     */
+    private static final class Pending {
+        private final String token;
+        private final MonoSink<SessionCheckResult> sink;
+
+        private Pending(String token, MonoSink<SessionCheckResult> sink) {
+            this.token = token;
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.dhgx.gateway.auth;
+
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SessionValidationCache。
+ * <p>
+ * 网关本地的已校验会话缓存，以 satoken 的 SHA-256 摘要为 Key，避免在内存中保存原始凭证。
+ * 条目按容量与较短的 TTL 淘汰；收到用户禁用、改密、踢出等事件时按用户维度立即失效。
+ * 超过软过期时间的条目照常放行，由调用方在后台重新校验；超过 TTL 的条目不再直接放行，
+ * 但会在最大宽限时长内保留，仅在认证服务熔断或调用失败时经 {@link #getStale(String)} 使用，
+ * 因此 {@code cache.gets} 的命中数包含这部分宽限条目。
+ * 命中、未命中与淘汰次数通过 Micrometer 暴露（{@code cache.gets}、{@code cache.evictions} 等），
+ * 事件驱动的失效次数记录在 {@code gateway.session.cache.invalidations}。
+ * </p>
+ */
+@Component
+public class SessionValidationCache {
+
+    /** 缓存名称，用于指标标签。 */
+    private static final String CACHE_NAME = "gatewaySessionCache";
+
+    /** 是否启用缓存。 */
+    private final boolean enabled;
+    /** 有效期（毫秒）。 */
+    private final long ttlMillis;
+    /** 软过期时间（毫秒）。 */
+    private final long softTtlMillis;
+    /** 有效期加最大宽限时长（毫秒）。 */
+    private final long staleLimitMillis;
+    /** Token 摘要到会话快照的缓存。 */
+    private final Cache<String, ValidatedSession> sessions;
+    /** 用户 ID 到 Token 摘要集合的索引，用于按用户失效。 */
+    private final ConcurrentHashMap<String, Set<String>> userIndex = new ConcurrentHashMap<>();
+    /** 最近被失效的用户及失效时间，防止失效前发起的校验结果在失效后被回填。 */
+    private final Cache<String, Long> recentInvalidations;
+    /** 事件驱动失效计数。 */
+    private final Counter invalidationCounter;
+
+    public SessionValidationCache(GatewayAuthProperties properties, MeterRegistry meterRegistry) {
+        GatewayAuthProperties.SessionCache config = properties.getSessionCache();
+        Duration ttl = Duration.ofSeconds(Math.max(1L, config.getTtlSeconds()));
+        this.enabled = config.isEnabled();
+        this.ttlMillis = ttl.toMillis();
+        this.softTtlMillis = Math.min(ttlMillis, Math.max(0L, config.getSoftTtlSeconds()) * 1000);
+        this.staleLimitMillis = ttlMillis + Math.max(0L, config.getMaxStaleSeconds()) * 1000;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(Duration.ofMillis(staleLimitMillis))
+                .recordStats()
+                .removalListener(this::onRemoval)
+                .build();
+        this.recentInvalidations = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, CACHE_NAME);
+        this.invalidationCounter = Counter.builder("gateway.session.cache.invalidations")
+                .description("Sessions evicted by user disable/password change/kick events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 查询有效期内的已缓存会话。
+     *
+     * @param token satoken 原始值
+     * @return 会话快照，未命中或已超过有效期时返回 null
+     */
+    public ValidatedSession get(String token) {
+        if (!enabled || token == null) {
+            return null;
+        }
+        ValidatedSession session = sessions.getIfPresent(hashToken(token));
+        return session != null && ageOf(session) < ttlMillis ? session : null;
+    }
+
+    /**
+     * 查询最大宽限时长内的已缓存会话，仅用于认证服务不可用时的降级放行。
+     *
+     * @param token satoken 原始值
+     * @return 会话快照，未命中或超过宽限时长时返回 null
+     */
+    public ValidatedSession getStale(String token) {
+        if (!enabled || token == null) {
+            return null;
+        }
+        ValidatedSession session = sessions.asMap().get(hashToken(token));
+        return session != null && ageOf(session) < staleLimitMillis ? session : null;
+    }
+
+    /**
+     * 判断会话是否已超过软过期时间，需要在后台重新校验。
+     *
+     * @param session 会话快照
+     * @return true 表示需要刷新
+     */
+    public boolean isRefreshDue(ValidatedSession session) {
+        return session != null && ageOf(session) >= softTtlMillis;
+    }
+
+    /**
+     * 移除单个凭证的缓存会话，认证服务明确判定未登录时调用，避免过期会话在降级时被继续使用。
+     *
+     * @param token satoken 原始值
+     */
+    public void invalidate(String token) {
+        if (!enabled || token == null) {
+            return;
+        }
+        sessions.invalidate(hashToken(token));
+    }
+
+    /**
+     * 写入校验通过的会话。
+     *
+     * @param token            satoken 原始值
+     * @param session          会话快照
+     * @param validationStarted 发起校验的时间戳（毫秒），早于该用户最近一次失效时不回填
+     */
+    public void put(String token, ValidatedSession session, long validationStarted) {
+        if (!enabled || token == null || session == null || session.getUserId() == null) {
+            return;
+        }
+        String key = hashToken(token);
+        // 在用户索引的同一个桶锁内检查失效记录并写入，与 invalidateUser 互斥，失效不会插在检查与写入之间
+        userIndex.compute(session.getUserId(), (userId, keys) -> {
+            Long invalidatedAt = recentInvalidations.getIfPresent(userId);
+            if (invalidatedAt != null && invalidatedAt >= validationStarted) {
+                return keys;
+            }
+            Set<String> updated = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            updated.add(key);
+            sessions.put(key, session);
+            return updated;
+        });
+    }
+
+    /**
+     * 按用户失效全部缓存会话。
+     *
+     * @param userId 用户 ID
+     */
+    public void invalidateUser(String userId) {
+        if (userId == null) {
+            return;
+        }
+        long invalidatedAt = System.currentTimeMillis();
+        userIndex.compute(userId, (id, keys) -> {
+            recentInvalidations.put(id, invalidatedAt);
+            if (keys != null && !keys.isEmpty()) {
+                sessions.invalidateAll(keys);
+            }
+            return null;
+        });
+        invalidationCounter.increment();
+    }
+
+    private static long ageOf(ValidatedSession session) {
+        return System.currentTimeMillis() - session.getValidatedAt();
+    }
+
+    /**
+     * 条目被移除时清理用户索引。
+     */
+    private void onRemoval(String key, ValidatedSession session, RemovalCause cause) {
+        if (key == null || session == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        userIndex.computeIfPresent(session.getUserId(), (userId, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * 计算 Token 摘要。
+     *
+     * @param token satoken 原始值
+     * @return Base64 编码的 SHA-256 摘要
+     */
+    static String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
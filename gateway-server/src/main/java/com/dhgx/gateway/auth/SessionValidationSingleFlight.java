@@ -0,0 +1,91 @@
+package com.dhgx.gateway.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * SessionValidationSingleFlight。
+ * <p>
+ * 同一凭证的并发校验合并为一次认证服务调用：首个请求发起校验，
+ * 校验完成前到达的同凭证请求共享同一结果。校验结束后立即移除在途记录，
+ * 不额外缓存结果（结果缓存由 {@link SessionValidationCache} 负责）。
+ * 发起与合并次数记录在 {@code gateway.session.validation.requests}，
+ * 累计合并比例记录在 {@code gateway.session.validation.coalescing.ratio}。
+ * </p>
+ */
+@Component
+public class SessionValidationSingleFlight {
+
+    /** Token 摘要到在途校验的映射。 */
+    private final ConcurrentHashMap<String, Mono<SessionCheckResult>> inFlight = new ConcurrentHashMap<>();
+    /** 实际发起认证服务调用的次数。 */
+    private final Counter leaderCounter;
+    /** 复用在途校验的次数。 */
+    private final Counter coalescedCounter;
+
+    public SessionValidationSingleFlight(MeterRegistry meterRegistry) {
+        this.leaderCounter = Counter.builder("gateway.session.validation.requests")
+                .description("Session validations that called auth-server")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("gateway.session.validation.requests")
+                .description("Session validations that joined an in-flight call")
+                .tag("role", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("gateway.session.validation.in.flight", inFlight, ConcurrentHashMap::size)
+                .description("Distinct tokens currently being validated")
+                .register(meterRegistry);
+        Gauge.builder("gateway.session.validation.coalescing.ratio", this, SessionValidationSingleFlight::coalescingRatio)
+                .description("Share of session validations served by an in-flight call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 执行校验，同一凭证已有在途校验时直接复用。
+     *
+     * @param token  satoken 原始值
+     * @param loader 实际发起校验的逻辑，仅由首个请求调用
+     * @return 校验结果
+     */
+    public Mono<SessionCheckResult> execute(String token, Supplier<Mono<SessionCheckResult>> loader) {
+        String key = SessionValidationCache.hashToken(token);
+        AtomicBoolean leader = new AtomicBoolean(false);
+        Mono<SessionCheckResult> shared = inFlight.computeIfAbsent(key, k -> {
+            leader.set(true);
+            return share(k, loader);
+        });
+        if (leader.get()) {
+            leaderCounter.increment();
+        } else {
+            coalescedCounter.increment();
+        }
+        return shared;
+    }
+
+    /**
+     * 构建可共享的校验：结果对所有订阅者重放，结束后移除自身的在途记录。
+     * 单个订阅者取消不会中断上游调用，其余等待者仍能拿到结果。
+     */
+    private Mono<SessionCheckResult> share(String key, Supplier<Mono<SessionCheckResult>> loader) {
+        AtomicReference<Mono<SessionCheckResult>> self = new AtomicReference<>();
+        Mono<SessionCheckResult> shared = Mono.defer(loader)
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .cache();
+        self.set(shared);
+        return shared;
+    }
+
+    private double coalescingRatio() {
+        double coalesced = coalescedCounter.count();
+        double total = coalesced + leaderCounter.count();
+        return total == 0 ? 0 : coalesced / total;
+    }
+}
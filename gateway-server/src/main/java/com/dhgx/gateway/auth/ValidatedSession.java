@@ -0,0 +1,35 @@
+package com.dhgx.gateway.auth;
+
+/**
+ * ValidatedSession。
+ * <p>
+ * 经认证服务校验通过的会话快照，仅保存网关放行所需的最小信息。
+ * </p>
+ */
+public final class ValidatedSession {
+
+    /** 用户 ID。 */
+    private final String userId;
+    /** 校验时的 Token 版本号。 */
+    private final Long tokenVersion;
+    /** 校验完成时间戳（毫秒）。 */
+    private final long validatedAt;
+
+    public ValidatedSession(String userId, Long tokenVersion, long validatedAt) {
+        this.userId = userId;
+        this.tokenVersion = tokenVersion;
+        this.validatedAt = validatedAt;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Long getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public long getValidatedAt() {
+        return validatedAt;
+    }
+}
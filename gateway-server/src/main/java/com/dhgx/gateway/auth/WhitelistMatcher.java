@@ -0,0 +1,187 @@
+package com.dhgx.gateway.auth;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * WhitelistMatcher。
+ * <p>
+ * 预编译的白名单匹配器，匹配结果与 {@link AntPathMatcher} 一致（含连续分隔符的非规范路径按更严格的规则处理，
+ * 仅可能少放行），实例不可变、可并发使用：
+ * </p>
+ * <ul>
+ *     <li>不含通配符的模式放入哈希集合，按路径精确查找；</li>
+ *     <li>形如 {@code /a/b/**} 的前缀模式编入按路径段组织的前缀树，沿路径逐段查找，耗时与路径长度成正比；</li>
+ *     <li>其余含通配符的模式挂在其字面前缀对应的树节点上，仅当路径经过该节点时才交给 AntPathMatcher 复核。</li>
+ * </ul>
+ */
+public final class WhitelistMatcher {
+
+    private static final String SEPARATOR = "/";
+    private static final String DOUBLE_WILDCARD = "**";
+    private static final WhitelistMatcher EMPTY = new WhitelistMatcher(Collections.<String>emptySet(), new Node(),
+            Collections.<String>emptyList());
+
+    /** 复核复杂模式使用的匹配器，内部缓存已解析的模式。 */
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    /** 不含通配符的精确路径。 */
+    private final Set<String> exactPaths;
+    /** 按路径段组织的前缀树根节点。 */
+    private final Node root;
+    /** 不以分隔符开头、无法编入前缀树的模式，逐个复核。 */
+    private final List<String> fallbackPatterns;
+
+    private WhitelistMatcher(Set<String> exactPaths, Node root, List<String> fallbackPatterns) {
+        this.exactPaths = exactPaths;
+        this.root = root;
+        this.fallbackPatterns = fallbackPatterns;
+    }
+
+    /**
+     * 编译白名单模式。
+     *
+     * @param patterns 白名单路径模式，可为空
+     * @return 匹配器
+     */
+    public static WhitelistMatcher compile(List<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return EMPTY;
+        }
+        Set<String> exactPaths = new HashSet<>();
+        Node root = new Node();
+        List<String> fallbackPatterns = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+            if (!pattern.startsWith(SEPARATOR)) {
+                fallbackPatterns.add(pattern);
+                continue;
+            }
+            List<String> segments = tokenize(pattern);
+            int literalCount = countLiteralSegments(segments);
+            if (literalCount == segments.size()) {
+                exactPaths.add(pattern);
+                continue;
+            }
+            Node node = root;
+            for (int i = 0; i < literalCount; i++) {
+                node = node.children.computeIfAbsent(segments.get(i), key -> new Node());
+            }
+            if (literalCount == segments.size() - 1 && DOUBLE_WILDCARD.equals(segments.get(literalCount))) {
+                node.prefix = true;
+            } else {
+                node.patterns.add(pattern);
+            }
+        }
+        return new WhitelistMatcher(exactPaths, root, fallbackPatterns);
+    }
+
+    /**
+     * 判断路径是否命中白名单。
+     *
+     * @param path 请求路径
+     * @return true 表示命中白名单
+     */
+    public boolean matches(String path) {
+        if (path == null) {
+            return false;
+        }
+        if (exactPaths.contains(path)) {
+            return true;
+        }
+        if (path.startsWith(SEPARATOR) && matchesTree(path)) {
+            return true;
+        }
+        for (String pattern : fallbackPatterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 沿路径段遍历前缀树，经过的前缀节点直接命中，挂载的复杂模式交给 AntPathMatcher 复核。
+     */
+    private boolean matchesTree(String path) {
+        Node node = root;
+        int length = path.length();
+        int index = 0;
+        while (true) {
+            if (node.prefix) {
+                return true;
+            }
+            for (String pattern : node.patterns) {
+                if (pathMatcher.match(pattern, path)) {
+                    return true;
+                }
+            }
+            while (index < length && path.charAt(index) == '/') {
+                index++;
+            }
+            if (index >= length) {
+                return false;
+            }
+            int end = path.indexOf('/', index);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.children.get(path.substring(index, end));
+            if (node == null) {
+                return false;
+            }
+            index = end;
+        }
+    }
+
+    /**
+     * 统计开头连续的字面路径段数量。
+     */
+    private static int countLiteralSegments(List<String> segments) {
+        int count = 0;
+        for (String segment : segments) {
+            if (isWildcardSegment(segment)) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isWildcardSegment(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0;
+    }
+
+    /**
+     * 按分隔符切分路径段，忽略空段，与 AntPathMatcher 的切分规则一致。
+     */
+    private static List<String> tokenize(String pattern) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : pattern.split(SEPARATOR)) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * 前缀树节点。
+     */
+    private static final class Node {
+        /** 子节点，按字面路径段索引。 */
+        private final Map<String, Node> children = new HashMap<>();
+        /** 挂载在该节点上的复杂模式。 */
+        private final List<String> patterns = new ArrayList<>();
+        /** 是否存在以该节点为前缀的 {@code /**} 模式。 */
+        private boolean prefix;
+    }
+}
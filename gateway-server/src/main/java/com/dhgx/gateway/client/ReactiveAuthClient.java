@@ -0,0 +1,128 @@
+package com.dhgx.gateway.client;
+
+import com.dhgx.gateway.auth.SessionCheckResult;
+import com.dhgx.gateway.auth.ValidatedSession;
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ReactiveAuthClient。
+ * <p>
+ * 基于 WebClient 的认证服务客户端，全程运行在 Reactor Netty 事件循环上，
+ * 不占用也不阻塞任何线程，供网关过滤器校验登录态。
+ * </p>
+ */
+@Component
+public class ReactiveAuthClient {
+
+    /** 会话查询接口路径，与 AuthFeignClient#sessionMe 一致。 */
+    private static final String SESSION_INFO_PATH = "/session-info";
+    /** 批量会话查询接口路径。 */
+    private static final String SESSION_INFO_BATCH_PATH = "/session-info/batch";
+    /** 内部鉴权请求头。 */
+    private static final String INTERNAL_TOKEN_HEADER = "X-Internal-Token";
+
+    private final WebClient webClient;
+    private final String internalToken;
+
+    public ReactiveAuthClient(@LoadBalanced @Qualifier("authWebClientBuilder") WebClient.Builder authWebClientBuilder,
+                              GatewayAuthProperties gatewayAuthProperties) {
+        this.webClient = authWebClientBuilder.build();
+        String token = gatewayAuthProperties.getClient().getInternalToken();
+        this.internalToken = token == null ? "" : token;
+    }
+
+    /**
+     * 携带原始 Cookie 查询当前会话。
+     *
+     * @param cookie Cookie 头
+     * @return 校验结果，网络异常或认证服务返回 5xx 时以错误信号结束
+     */
+    public Mono<SessionCheckResult> sessionMe(String cookie) {
+        return webClient.get()
+                .uri(SESSION_INFO_PATH)
+                .header(HttpHeaders.COOKIE, cookie)
+                .exchange()
+                .flatMap(this::toResult);
+    }
+
+    /**
+     * 批量查询登录凭证对应的会话。
+     *
+     * @param tokens satoken 原始值
+     * @return 与凭证一一对应的校验结果；网络异常、5xx 或认证服务拒绝批量请求时以错误信号结束
+     */
+    public Mono<List<SessionCheckResult>> sessionBatch(List<String> tokens) {
+        return webClient.post()
+                .uri(SESSION_INFO_BATCH_PATH)
+                .header(INTERNAL_TOKEN_HEADER, internalToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Collections.singletonMap("tokens", tokens))
+                .exchange()
+                .flatMap(response -> response.statusCode().is2xxSuccessful()
+                        ? response.bodyToMono(JsonNode.class)
+                        : response.createException().flatMap(ex -> Mono.<JsonNode>error(ex)))
+                .map(body -> toBatchResult(body, tokens.size()));
+    }
+
+    private List<SessionCheckResult> toBatchResult(JsonNode body, int expectedSize) {
+        JsonNode sessions = body.path("data").path("sessions");
+        if (body.path("code").asInt(-1) != 0 || !sessions.isArray() || sessions.size() != expectedSize) {
+            throw new IllegalStateException("Unexpected session batch response: " + body.path("message").asText(""));
+        }
+        long now = System.currentTimeMillis();
+        List<SessionCheckResult> results = new ArrayList<>(expectedSize);
+        for (JsonNode session : sessions) {
+            String userId = session.path("userId").asText(null);
+            if (StringUtils.hasText(userId)) {
+                JsonNode tokenVersion = session.path("tokenVersion");
+                results.add(SessionCheckResult.authenticated(new ValidatedSession(userId,
+                        tokenVersion.isNumber() ? tokenVersion.asLong() : null, now)));
+            } else {
+                results.add(SessionCheckResult.rejected(null));
+            }
+        }
+        return results;
+    }
+
+    private Mono<SessionCheckResult> toResult(ClientResponse response) {
+        if (response.statusCode().is5xxServerError()) {
+            return response.createException().flatMap(Mono::error);
+        }
+        boolean success = response.statusCode().is2xxSuccessful();
+        return response.bodyToMono(JsonNode.class)
+                .map(body -> toResult(success, body))
+                .defaultIfEmpty(SessionCheckResult.rejected(null));
+    }
+
+    /**
+     * 解析认证服务响应体，业务码非 0 或缺少用户 ID 时视为未登录。
+     */
+    private SessionCheckResult toResult(boolean success, JsonNode body) {
+        if (success && body.path("code").asInt(-1) == 0) {
+            JsonNode data = body.path("data");
+            String userId = data.path("userId").asText(null);
+            if (StringUtils.hasText(userId)) {
+                JsonNode tokenVersion = data.path("tokenVersion");
+                return SessionCheckResult.authenticated(new ValidatedSession(userId,
+                        tokenVersion.isNumber() ? tokenVersion.asLong() : null,
+                        System.currentTimeMillis()));
+            }
+        }
+        JsonNode message = body.get("message");
+        return SessionCheckResult.rejected(message == null || message.isNull() ? null : message.asText());
+    }
+}
@@ -0,0 +1,62 @@
+package com.dhgx.gateway.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * AuthWebClientConfiguration。
+ * <p>
+ * 构建网关访问认证服务的 WebClient：基于 Reactor Netty 的独立连接池，默认保持长连接，
+ * 并通过 {@link LoadBalanced} 按服务名经注册中心负载均衡。
+ * </p>
+ */
+@Configuration
+public class AuthWebClientConfiguration {
+
+    /**
+     * 认证服务专用连接池，与网关转发流量的连接池隔离。
+     *
+     * @param properties 网关鉴权配置
+     * @return 连接池
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider authConnectionProvider(GatewayAuthProperties properties) {
+        GatewayAuthProperties.Client client = properties.getClient();
+        return ConnectionProvider.builder("auth-client")
+                .maxConnections(client.getMaxConnections())
+                .pendingAcquireMaxCount(client.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(client.getPendingAcquireTimeoutMillis()))
+                .maxIdleTime(Duration.ofSeconds(client.getMaxIdleSeconds()))
+                .build();
+    }
+
+    /**
+     * 支持负载均衡的 WebClient.Builder，基础地址为 {@code http://{serviceId}{contextPath}}。
+     *
+     * @param properties             网关鉴权配置
+     * @param authConnectionProvider 认证服务连接池
+     * @return WebClient.Builder
+     */
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder authWebClientBuilder(GatewayAuthProperties properties,
+                                                  ConnectionProvider authConnectionProvider) {
+        GatewayAuthProperties.Client client = properties.getClient();
+        HttpClient httpClient = HttpClient.create(authConnectionProvider)
+                .keepAlive(true)
+                .tcpConfiguration(tcp -> tcp.option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                        client.getConnectTimeoutMillis()))
+                .responseTimeout(Duration.ofMillis(client.getResponseTimeoutMillis()));
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .baseUrl("http://" + client.getServiceId() + client.getContextPath());
+    }
+}
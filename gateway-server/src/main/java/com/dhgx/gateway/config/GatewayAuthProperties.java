@@ -0,0 +1,467 @@
+package com.dhgx.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * GatewayAuthProperties。
+ * <p>
+ * 网关登录态校验相关配置，包含认证服务客户端、熔断与已校验会话的本地缓存参数。
+ * </p>
+ */
+@ConfigurationProperties(prefix = "gateway.auth")
+public class GatewayAuthProperties {
+
+    /** 认证服务响应式客户端配置。 */
+    private Client client = new Client();
+    /** 已校验会话缓存配置。 */
+    private SessionCache sessionCache = new SessionCache();
+    /** 签名访问令牌本地校验配置。 */
+    private AccessToken accessToken = new AccessToken();
+    /** 认证服务调用熔断配置。 */
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    /** 批量会话校验配置。 */
+    private Batch batch = new Batch();
+
+    /**
+     * 获取认证服务客户端配置。
+     *
+     * @return 客户端配置
+     */
+    public Client getClient() {
+        return client;
+    }
+
+    /**
+     * 设置认证服务客户端配置。
+     *
+     * @param client 客户端配置
+     */
+    public void setClient(Client client) {
+        this.client = client;
+    }
+
+    /**
+     * 获取会话缓存配置。
+     *
+     * @return 会话缓存配置
+     */
+    public SessionCache getSessionCache() {
+        return sessionCache;
+    }
+
+    /**
+     * 设置会话缓存配置。
+     *
+     * @param sessionCache 会话缓存配置
+     */
+    public void setSessionCache(SessionCache sessionCache) {
+        this.sessionCache = sessionCache;
+    }
+
+    /**
+     * 获取签名访问令牌配置。
+     *
+     * @return 签名访问令牌配置
+     */
+    public AccessToken getAccessToken() {
+        return accessToken;
+    }
+
+    /**
+     * 设置签名访问令牌配置。
+     *
+     * @param accessToken 签名访问令牌配置
+     */
+    public void setAccessToken(AccessToken accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    /**
+     * 获取熔断配置。
+     *
+     * @return 熔断配置
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 设置熔断配置。
+     *
+     * @param circuitBreaker 熔断配置
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * 获取批量会话校验配置。
+     *
+     * @return 批量会话校验配置
+     */
+    public Batch getBatch() {
+        return batch;
+    }
+
+    /**
+     * 设置批量会话校验配置。
+     *
+     * @param batch 批量会话校验配置
+     */
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    /**
+     * 认证服务响应式客户端配置，连接池与超时均作用于网关到认证服务的调用。
+     */
+    public static class Client {
+        /** 认证服务在注册中心的服务名。 */
+        private String serviceId = "auth-server";
+        /** 认证服务接口前缀，与 Feign 客户端的 auth.feign.path 保持一致。 */
+        private String contextPath = "/auth-server";
+        /** 建连超时（毫秒）。 */
+        private int connectTimeoutMillis = 1000;
+        /** 响应超时（毫秒）。 */
+        private long responseTimeoutMillis = 2000;
+        /** 连接池最大连接数。 */
+        private int maxConnections = 200;
+        /** 等待获取连接的最大排队数。 */
+        private int pendingAcquireMaxCount = 1000;
+        /** 等待获取连接的超时（毫秒）。 */
+        private long pendingAcquireTimeoutMillis = 500;
+        /** 空闲连接保留时长（秒），需小于认证服务端 keep-alive 超时，避免复用已被服务端关闭的连接。 */
+        private long maxIdleSeconds = 15;
+        /** 调用认证服务内部接口（如批量会话查询）使用的内部 Token，与认证服务 auth.internal-token 一致。 */
+        private String internalToken;
+
+        public String getServiceId() {
+            return serviceId;
+        }
+
+        public void setServiceId(String serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        public String getContextPath() {
+            return contextPath;
+        }
+
+        public void setContextPath(String contextPath) {
+            this.contextPath = contextPath;
+        }
+
+        public int getConnectTimeoutMillis() {
+            return connectTimeoutMillis;
+        }
+
+        public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+        }
+
+        public long getResponseTimeoutMillis() {
+            return responseTimeoutMillis;
+        }
+
+        public void setResponseTimeoutMillis(long responseTimeoutMillis) {
+            this.responseTimeoutMillis = responseTimeoutMillis;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public long getPendingAcquireTimeoutMillis() {
+            return pendingAcquireTimeoutMillis;
+        }
+
+        public void setPendingAcquireTimeoutMillis(long pendingAcquireTimeoutMillis) {
+            this.pendingAcquireTimeoutMillis = pendingAcquireTimeoutMillis;
+        }
+
+        public long getMaxIdleSeconds() {
+            return maxIdleSeconds;
+        }
+
+        public void setMaxIdleSeconds(long maxIdleSeconds) {
+            this.maxIdleSeconds = maxIdleSeconds;
+        }
+
+        public String getInternalToken() {
+            return internalToken;
+        }
+
+        public void setInternalToken(String internalToken) {
+            this.internalToken = internalToken;
+        }
+    }
+
+    /**
+     * 已校验会话缓存配置。
+     */
+    public static class SessionCache {
+        /** 是否启用本地会话缓存。 */
+        private boolean enabled = true;
+        /** 缓存最大条目数。 */
+        private long maximumSize = 10000;
+        /** 缓存有效期（秒），应明显短于会话本身的有效期。 */
+        private long ttlSeconds = 30;
+        /** 软过期时间（秒），命中时照常放行并在后台重新校验，应小于 ttlSeconds。 */
+        private long softTtlSeconds = 20;
+        /** 过期后的最大宽限时长（秒），仅在认证服务熔断或调用失败时使用，0 表示不使用过期会话。 */
+        private long maxStaleSeconds = 120;
+        /**
+         * 订阅失效事件使用的消费组，为空时按主机名生成并以广播方式订阅（停止时销毁，遗留的由其他实例清理），
+         * 显式配置时需保证每个网关实例唯一，且不会自动清理。
+         */
+        private String consumerGroup;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public long getSoftTtlSeconds() {
+            return softTtlSeconds;
+        }
+
+        public void setSoftTtlSeconds(long softTtlSeconds) {
+            this.softTtlSeconds = softTtlSeconds;
+        }
+
+        public long getMaxStaleSeconds() {
+            return maxStaleSeconds;
+        }
+
+        public void setMaxStaleSeconds(long maxStaleSeconds) {
+            this.maxStaleSeconds = maxStaleSeconds;
+        }
+
+        public String getConsumerGroup() {
+            return consumerGroup;
+        }
+
+        public void setConsumerGroup(String consumerGroup) {
+            this.consumerGroup = consumerGroup;
+        }
+    }
+
+    /**
+     * 签名访问令牌本地校验配置，需与认证服务 auth.access-token 同时开启。
+     */
+    public static class AccessToken {
+        /** 是否本地校验签名访问令牌。 */
+        private boolean enabled = false;
+        /** 令牌所在 Cookie 名称，与认证服务保持一致。 */
+        private String cookieName = "atk";
+        /** 吊销记录保留时长（秒），应不小于认证服务签发的令牌有效期。 */
+        private long revocationRetentionSeconds = 300;
+        /** 吊销判断允许的时钟偏差（秒），签发时间落在吊销时间加偏差之内的令牌一律回退到会话查询。 */
+        private long clockSkewSeconds = 5;
+        /** 签名密钥尚未就绪时的重试间隔（秒）。 */
+        private long keyRetryIntervalSeconds = 30;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getCookieName() {
+            return cookieName;
+        }
+
+        public void setCookieName(String cookieName) {
+            this.cookieName = cookieName;
+        }
+
+        public long getRevocationRetentionSeconds() {
+            return revocationRetentionSeconds;
+        }
+
+        public void setRevocationRetentionSeconds(long revocationRetentionSeconds) {
+            this.revocationRetentionSeconds = revocationRetentionSeconds;
+        }
+
+        public long getClockSkewSeconds() {
+            return clockSkewSeconds;
+        }
+
+        public void setClockSkewSeconds(long clockSkewSeconds) {
+            this.clockSkewSeconds = clockSkewSeconds;
+        }
+
+        public long getKeyRetryIntervalSeconds() {
+            return keyRetryIntervalSeconds;
+        }
+
+        public void setKeyRetryIntervalSeconds(long keyRetryIntervalSeconds) {
+            this.keyRetryIntervalSeconds = keyRetryIntervalSeconds;
+        }
+    }
+
+    /**
+     * 认证服务调用熔断配置，失败率或慢调用率任一超过阈值即熔断。
+     */
+    public static class CircuitBreaker {
+        /** 是否启用熔断。 */
+        private boolean enabled = true;
+        /** 滑动窗口大小（最近调用次数）。 */
+        private int slidingWindowSize = 50;
+        /** 窗口内至少累计的调用数，不足时不计算比例。 */
+        private int minimumCalls = 20;
+        /** 失败率阈值（百分比）。 */
+        private float failureRateThreshold = 50;
+        /** 慢调用判定时长（毫秒）。 */
+        private long slowCallDurationMillis = 500;
+        /** 慢调用率阈值（百分比）。 */
+        private float slowCallRateThreshold = 80;
+        /** 熔断持续时长（毫秒），结束后进入半开状态。 */
+        private long waitDurationInOpenMillis = 5000;
+        /** 半开状态放行的探测调用数。 */
+        private int permittedCallsInHalfOpen = 5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public long getSlowCallDurationMillis() {
+            return slowCallDurationMillis;
+        }
+
+        public void setSlowCallDurationMillis(long slowCallDurationMillis) {
+            this.slowCallDurationMillis = slowCallDurationMillis;
+        }
+
+        public float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public long getWaitDurationInOpenMillis() {
+            return waitDurationInOpenMillis;
+        }
+
+        public void setWaitDurationInOpenMillis(long waitDurationInOpenMillis) {
+            this.waitDurationInOpenMillis = waitDurationInOpenMillis;
+        }
+
+        public int getPermittedCallsInHalfOpen() {
+            return permittedCallsInHalfOpen;
+        }
+
+        public void setPermittedCallsInHalfOpen(int permittedCallsInHalfOpen) {
+            this.permittedCallsInHalfOpen = permittedCallsInHalfOpen;
+        }
+    }
+
+    /**
+     * 批量会话校验配置：未命中缓存的校验在短时间窗口内合并，经认证服务批量接口一次完成。
+     */
+    public static class Batch {
+        /** 是否启用批量校验，需同时配置 client.internal-token。 */
+        private boolean enabled = false;
+        /** 单批最大凭证数，超过 serverMaxTokens 时按 serverMaxTokens 分批。 */
+        private int maxBatchSize = 64;
+        /** 认证服务单次批量校验的凭证上限，需与 auth.session-batch-max-tokens 一致。 */
+        private int serverMaxTokens = 200;
+        /** 攒批最长等待时间（毫秒）。 */
+        private long maxWaitMillis = 2;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getServerMaxTokens() {
+            return serverMaxTokens;
+        }
+
+        public void setServerMaxTokens(int serverMaxTokens) {
+            this.serverMaxTokens = serverMaxTokens;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public void setMaxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.dhgx.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GatewayRateLimitProperties。
+ * <p>
+ * 网关限流配置。每条规则按路由 ID 与路径匹配请求，按客户端 IP 或登录用户维度分别计数，
+ * 令牌桶以 Redis 为准，网关本地预检桶仅用于拦截明显超限的流量。
+ * </p>
+ */
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class GatewayRateLimitProperties {
+
+    /** 是否启用限流。默认关闭，启用前须按部署拓扑配置 {@code trusted-proxy-hops}。 */
+    private boolean enabled = false;
+    /**
+     * 信任的 X-Forwarded-For 代理层数，0 表示直接使用 TCP 对端地址；
+     * 网关前有负载均衡时按实际层数配置，避免客户端伪造来源 IP。
+     */
+    private int trustedProxyHops = 0;
+    /** 访问 Redis 的超时（毫秒），超时或异常时放行并计数。 */
+    private long redisTimeoutMillis = 100;
+    /** 本地预检桶的最大数量。 */
+    private long localMaximumSize = 100000;
+    /** 限流规则。 */
+    private List<Rule> rules = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getTrustedProxyHops() {
+        return trustedProxyHops;
+    }
+
+    public void setTrustedProxyHops(int trustedProxyHops) {
+        this.trustedProxyHops = trustedProxyHops;
+    }
+
+    public long getRedisTimeoutMillis() {
+        return redisTimeoutMillis;
+    }
+
+    public void setRedisTimeoutMillis(long redisTimeoutMillis) {
+        this.redisTimeoutMillis = redisTimeoutMillis;
+    }
+
+    public long getLocalMaximumSize() {
+        return localMaximumSize;
+    }
+
+    public void setLocalMaximumSize(long localMaximumSize) {
+        this.localMaximumSize = localMaximumSize;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * 限流维度。
+     */
+    public enum Dimension {
+        /** 按客户端 IP 计数。 */
+        IP,
+        /** 按网关校验通过的用户 ID 计数，匿名请求不受该规则约束。 */
+        USER
+    }
+
+    /**
+     * 单条限流规则：桶容量即允许的突发量，每 refillPeriodSeconds 秒补充 refillTokens 个令牌。
+     */
+    public static class Rule {
+        /** 规则 ID，用于 Redis Key 与指标标签。 */
+        private String id;
+        /** 适用的路由 ID，为空表示不限路由。 */
+        private List<String> routeIds = new ArrayList<>();
+        /** 适用的路径，支持精确路径与 Ant 风格通配，为空表示不限路径。 */
+        private List<String> paths = new ArrayList<>();
+        /** 限流维度。 */
+        private Dimension dimension = Dimension.IP;
+        /** 桶容量。 */
+        private long capacity = 10;
+        /** 每个周期补充的令牌数。 */
+        private long refillTokens = 10;
+        /** 补充周期（秒）。 */
+        private long refillPeriodSeconds = 1;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public List<String> getRouteIds() {
+            return routeIds;
+        }
+
+        public void setRouteIds(List<String> routeIds) {
+            this.routeIds = routeIds;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public Dimension getDimension() {
+            return dimension;
+        }
+
+        public void setDimension(Dimension dimension) {
+            this.dimension = dimension;
+        }
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(long capacity) {
+            this.capacity = capacity;
+        }
+
+        public long getRefillTokens() {
+            return refillTokens;
+        }
+
+        public void setRefillTokens(long refillTokens) {
+            this.refillTokens = refillTokens;
+        }
+
+        public long getRefillPeriodSeconds() {
+            return refillPeriodSeconds;
+        }
+
+        public void setRefillPeriodSeconds(long refillPeriodSeconds) {
+            this.refillPeriodSeconds = refillPeriodSeconds;
+        }
+    }
+}
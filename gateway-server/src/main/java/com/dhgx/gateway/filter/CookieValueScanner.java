@@ -0,0 +1,57 @@
+package com.dhgx.gateway.filter;
+
+/**
+ * CookieValueScanner。
+ * <p>
+ * 在 Cookie 头上原地扫描指定名称的值，不切分字符串、不创建中间对象，
+ * 仅在找到非空值时截取一次结果。解析规则与按 {@code ;} 切分后逐项 trim 的写法一致：
+ * 以第一个同名 Cookie 为准，值为空时视为缺失。
+ * </p>
+ */
+public final class CookieValueScanner {
+
+    private CookieValueScanner() {
+    }
+
+    /**
+     * 查找 Cookie 值。
+     *
+     * @param cookieHeader Cookie 头，可为空
+     * @param name         Cookie 名称
+     * @return Cookie 值，缺失或为空时返回 null
+     */
+    public static String find(String cookieHeader, String name) {
+        if (cookieHeader == null) {
+            return null;
+        }
+        int length = cookieHeader.length();
+        int nameLength = name.length();
+        int index = 0;
+        while (index < length) {
+            while (index < length && cookieHeader.charAt(index) <= ' ') {
+                index++;
+            }
+            int end = cookieHeader.indexOf(';', index);
+            if (end < 0) {
+                end = length;
+            }
+            if (end - index > nameLength
+                    && cookieHeader.charAt(index + nameLength) == '='
+                    && cookieHeader.regionMatches(index, name, 0, nameLength)) {
+                return valueOf(cookieHeader, index + nameLength + 1, end);
+            }
+            index = end + 1;
+        }
+        return null;
+    }
+
+    private static String valueOf(String cookieHeader, int start, int end) {
+        while (start < end && cookieHeader.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && cookieHeader.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return start == end ? null : cookieHeader.substring(start, end);
+    }
+}
@@ -0,0 +1,83 @@
+package com.dhgx.gateway.filter;
+
+import com.dhgx.common.gateway.GatewayIdentitySigner;
+import com.dhgx.common.gateway.GatewaySecurityProperties;
+import com.dhgx.gateway.auth.ValidatedSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * GatewayIdentityPropagator。
+ * <p>
+ * 向下游透传网关已校验的身份：校验通过的请求写入签名身份头，签名绑定请求方法、路径与本次请求的 satoken，
+ * 所有请求都会先移除客户端自带的同名请求头，防止伪造。校验通过的用户 ID 同时写入请求属性
+ * {@link #AUTHENTICATED_USER_ID_ATTR}，供后续过滤器（如按用户限流）使用。
+ * </p>
+ */
+@Component
+public class GatewayIdentityPropagator {
+
+    /** 校验通过的用户 ID 请求属性。 */
+    public static final String AUTHENTICATED_USER_ID_ATTR = GatewayIdentityPropagator.class.getName() + ".userId";
+
+    private final GatewayIdentitySigner signer;
+
+    public GatewayIdentityPropagator(GatewaySecurityProperties securityProperties) {
+        this.signer = new GatewayIdentitySigner(securityProperties.getIdentitySecret());
+    }
+
+    /**
+     * 写入签名身份头。
+     *
+     * @param exchange 请求上下文
+     * @param session  已校验的会话
+     * @param token    本次请求的 satoken
+     * @return 携带身份头的请求上下文
+     */
+    public ServerWebExchange propagate(ServerWebExchange exchange, ValidatedSession session, String token) {
+        if (session != null && session.getUserId() != null) {
+            exchange.getAttributes().put(AUTHENTICATED_USER_ID_ATTR, session.getUserId());
+        }
+        if (!signer.isEnabled() || session == null) {
+            return strip(exchange);
+        }
+        String userId = session.getUserId();
+        String authVersion = session.getTokenVersion() == null ? "" : String.valueOf(session.getTokenVersion());
+        long timestamp = System.currentTimeMillis();
+        String signature = signer.sign(userId, authVersion, timestamp, exchange.getRequest().getMethodValue(),
+                exchange.getRequest().getURI().getRawPath(), token);
+        return exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    headers.set(GatewayIdentitySigner.USER_ID_HEADER, userId);
+                    headers.set(GatewayIdentitySigner.AUTH_VERSION_HEADER, authVersion);
+                    headers.set(GatewayIdentitySigner.TIMESTAMP_HEADER, String.valueOf(timestamp));
+                    headers.set(GatewayIdentitySigner.SIGNATURE_HEADER, signature);
+                }))
+                .build();
+    }
+
+    /**
+     * 移除客户端自带的身份头，未携带时原样返回。
+     *
+     * @param exchange 请求上下文
+     * @return 请求上下文
+     */
+    public ServerWebExchange strip(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (!headers.containsKey(GatewayIdentitySigner.USER_ID_HEADER)
+                && !headers.containsKey(GatewayIdentitySigner.AUTH_VERSION_HEADER)
+                && !headers.containsKey(GatewayIdentitySigner.TIMESTAMP_HEADER)
+                && !headers.containsKey(GatewayIdentitySigner.SIGNATURE_HEADER)) {
+            return exchange;
+        }
+        return exchange.mutate()
+                .request(request -> request.headers(mutable -> {
+                    mutable.remove(GatewayIdentitySigner.USER_ID_HEADER);
+                    mutable.remove(GatewayIdentitySigner.AUTH_VERSION_HEADER);
+                    mutable.remove(GatewayIdentitySigner.TIMESTAMP_HEADER);
+                    mutable.remove(GatewayIdentitySigner.SIGNATURE_HEADER);
+                }))
+                .build();
+    }
+}
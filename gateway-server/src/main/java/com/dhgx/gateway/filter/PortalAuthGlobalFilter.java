@@ -1,64 +1,106 @@
 package com.dhgx.gateway.filter;
 
-import com.dhgx.common.api.ErrorCode;
-import com.dhgx.common.feign.AuthFeignClient;
-import com.dhgx.common.gateway.GatewaySecurityProperties;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import feign.Response;
-import org.apache.commons.lang.StringUtils;
+import com.dhgx.gateway.auth.AccessTokenVerifier;
+import com.dhgx.gateway.auth.AuthCircuitBreaker;
+import com.dhgx.gateway.auth.GatewayWhitelist;
+import com.dhgx.gateway.auth.SessionCheckResult;
+import com.dhgx.gateway.auth.SessionValidationBatcher;
+import com.dhgx.gateway.auth.SessionValidationCache;
+import com.dhgx.gateway.auth.SessionValidationSingleFlight;
+import com.dhgx.gateway.auth.ValidatedSession;
+import com.dhgx.gateway.client.ReactiveAuthClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.publisher.SignalType;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * PortalAuthGlobalFilter。
  * <p>
- * 全局鉴权过滤器，拦截 Portal API 请求，调用认证服务校验登录状态，
- * 未通过校验时返回 401 JSON 响应。
+ * 全局鉴权过滤器，拦截 Portal API 请求，通过响应式客户端调用认证服务校验登录状态，
+ * 未通过校验时返回 401 JSON 响应。校验通过的会话写入 {@link SessionValidationCache}，
+ * 在缓存有效期内同一凭证的后续请求不再访问认证服务；同一凭证的并发校验经
+ * {@link SessionValidationSingleFlight} 合并为一次调用。开启签名访问令牌时优先经
+ * {@link AccessTokenVerifier} 本地校验，令牌过期或被吊销时才回退到上述流程。
+ * 校验通过的身份经 {@link GatewayIdentityPropagator} 以签名请求头透传给下游。
+ * 缓存会话超过软过期时间时照常放行并在后台重新校验；认证服务调用经 {@link AuthCircuitBreaker} 保护，
+ * 熔断或调用失败时在最大宽限时长内继续使用该凭证最近一次校验通过的会话，
+ * 降级放行次数记录在 {@code gateway.session.stale.served}。启用批量校验时，未命中缓存的校验经
+ * {@link SessionValidationBatcher} 攒批后调用认证服务批量接口。
  * </p>
  */
 @Component
 public class PortalAuthGlobalFilter implements GlobalFilter, Ordered {
 
-    /** 安全配置，包含白名单配置。 */
-    private final GatewaySecurityProperties securityProperties;
-    /** 调用认证服务的 Feign 客户端。 */
-    private final AuthFeignClient authFeignClient;
-    /** JSON 序列化工具。 */
-    private final ObjectMapper objectMapper;
-    /** 路径匹配器，用于匹配白名单。 */
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    /** 登录凭证 Cookie 名称。 */
+    private static final String SA_TOKEN_COOKIE = "satoken";
+
+    /** 预编译的白名单。 */
+    private final GatewayWhitelist whitelist;
+    /** 调用认证服务的响应式客户端。 */
+    private final ReactiveAuthClient reactiveAuthClient;
+    /** 401 响应输出。 */
+    private final UnauthorizedResponseWriter unauthorizedResponseWriter;
+    /** 已校验会话的本地缓存。 */
+    private final SessionValidationCache sessionValidationCache;
+    /** 同一凭证并发校验的合并器。 */
+    private final SessionValidationSingleFlight sessionValidationSingleFlight;
+    /** 签名访问令牌本地校验器。 */
+    private final AccessTokenVerifier accessTokenVerifier;
+    /** 身份透传。 */
+    private final GatewayIdentityPropagator identityPropagator;
+    /** 认证服务调用熔断器。 */
+    private final AuthCircuitBreaker authCircuitBreaker;
+    /** 批量会话校验。 */
+    private final SessionValidationBatcher sessionValidationBatcher;
+    /** 降级放行计数。 */
+    private final Counter staleServedCounter;
 
     /**
      * 构造函数，注入依赖。
      *
-     * @param securityProperties 安全配置项
-     * @param authFeignClient 认证服务 Feign 客户端
-     * @param objectMapper JSON 序列化工具
+     * @param whitelist 预编译的白名单
+     * @param reactiveAuthClient 认证服务响应式客户端
+     * @param unauthorizedResponseWriter 401 响应输出
+     * @param sessionValidationCache 已校验会话缓存
+     * @param sessionValidationSingleFlight 并发校验合并器
+     * @param accessTokenVerifier 签名访问令牌校验器
+     * @param identityPropagator 身份透传
+     * @param authCircuitBreaker 认证服务调用熔断器
+     * @param sessionValidationBatcher 批量会话校验
+     * @param meterRegistry 指标注册表
      */
-    public PortalAuthGlobalFilter(GatewaySecurityProperties securityProperties,
-                                  AuthFeignClient authFeignClient,
-                                  ObjectMapper objectMapper) {
-        this.securityProperties = securityProperties;
-        this.authFeignClient = authFeignClient;
-        this.objectMapper = objectMapper;
+    public PortalAuthGlobalFilter(GatewayWhitelist whitelist,
+                                  ReactiveAuthClient reactiveAuthClient,
+                                  UnauthorizedResponseWriter unauthorizedResponseWriter,
+                                  SessionValidationCache sessionValidationCache,
+                                  SessionValidationSingleFlight sessionValidationSingleFlight,
+                                  AccessTokenVerifier accessTokenVerifier,
+                                  GatewayIdentityPropagator identityPropagator,
+                                  AuthCircuitBreaker authCircuitBreaker,
+                                  SessionValidationBatcher sessionValidationBatcher,
+                                  MeterRegistry meterRegistry) {
+        this.whitelist = whitelist;
+        this.reactiveAuthClient = reactiveAuthClient;
+        this.unauthorizedResponseWriter = unauthorizedResponseWriter;
+        this.sessionValidationCache = sessionValidationCache;
+        this.sessionValidationSingleFlight = sessionValidationSingleFlight;
+        this.accessTokenVerifier = accessTokenVerifier;
+        this.identityPropagator = identityPropagator;
+        this.authCircuitBreaker = authCircuitBreaker;
+        this.sessionValidationBatcher = sessionValidationBatcher;
+        this.staleServedCounter = Counter.builder("gateway.session.stale.served")
+                .description("Requests admitted with a stale session while auth-server was unavailable")
+                .register(meterRegistry);
     }
 
     /**
@@ -73,34 +115,98 @@ public class PortalAuthGlobalFilter implements GlobalFilter, Ordered {
         String path = exchange.getRequest().getURI().getPath();
 
         if (isWhitelisted(path)) {
-            return chain.filter(exchange);
+            return chain.filter(identityPropagator.strip(exchange));
         }
         String cookie = exchange.getRequest().getHeaders().getFirst(HttpHeaders.COOKIE);
         String cookieHeader = cookie == null ? "" : cookie;
-        if (!hasSaTokenCookie(cookieHeader)) {
+        String token = CookieValueScanner.find(cookieHeader, SA_TOKEN_COOKIE);
+        if (token == null) {
             return writeUnauthorized(exchange, "登录凭证缺失，请先登录");
         }
-        return Mono.fromCallable(() -> authFeignClient.sessionMe(cookieHeader))
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(response -> handleResponse(chain, exchange, response))
-                .onErrorResume(ex -> writeUnauthorized(exchange, null));
+        ValidatedSession session = accessTokenVerifier.verify(cookieHeader, token);
+        if (session == null) {
+            session = sessionValidationCache.get(token);
+            if (sessionValidationCache.isRefreshDue(session)) {
+                refreshInBackground(token, cookieHeader);
+            }
+        }
+        if (session != null) {
+            return chain.filter(identityPropagator.propagate(exchange, session, token));
+        }
+        return sessionValidationSingleFlight.execute(token, () -> validate(token, cookieHeader))
+                .flatMap(result -> result.isAuthenticated()
+                        ? chain.filter(identityPropagator.propagate(exchange, result.getSession(), token))
+                        : writeUnauthorized(exchange, result.getMessage()));
     }
 
     /**
-     * 处理认证服务返回结果，成功则放行，失败则返回 401。
+     * 后台重新校验即将过期的缓存会话，与同凭证的前台校验合并，结果仅用于刷新缓存。
      *
-     * @param chain    过滤器链
-     * @param exchange 请求上下文
-     * @param response 认证服务响应
-     * @return 下一步处理的 Mono
+     * @param token        satoken 原始值
+     * @param cookieHeader Cookie 头
+     */
+    private void refreshInBackground(String token, String cookieHeader) {
+        sessionValidationSingleFlight.execute(token, () -> validate(token, cookieHeader)).subscribe();
+    }
+
+    /**
+     * 调用认证服务校验登录态，通过时写入缓存，明确未登录时移除缓存。仅由合并后的首个请求执行一次。
+     * 熔断中或调用失败（网络异常、超时、5xx）时回退到宽限窗口内的缓存会话。
+     *
+     * @param token        satoken 原始值
+     * @param cookieHeader Cookie 头
+     * @return 校验结果，调用异常且无可用宽限会话时视为未通过
+     */
+    private Mono<SessionCheckResult> validate(String token, String cookieHeader) {
+        if (!authCircuitBreaker.tryAcquirePermission()) {
+            return Mono.just(fallback(token));
+        }
+        long validationStarted = System.currentTimeMillis();
+        long startedNanos = System.nanoTime();
+        AtomicBoolean recorded = new AtomicBoolean(false);
+        Mono<SessionCheckResult> check = sessionValidationBatcher.isEnabled()
+                ? sessionValidationBatcher.validate(token)
+                : reactiveAuthClient.sessionMe(cookieHeader);
+        return check
+                .doOnNext(result -> {
+                    recordCall(recorded, startedNanos, false);
+                    if (result.isAuthenticated()) {
+                        sessionValidationCache.put(token, result.getSession(), validationStarted);
+                    } else {
+                        sessionValidationCache.invalidate(token);
+                    }
+                })
+                .onErrorResume(ex -> {
+                    recordCall(recorded, startedNanos, true);
+                    return Mono.just(fallback(token));
+                })
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL && recorded.compareAndSet(false, true)) {
+                        authCircuitBreaker.release();
+                    }
+                });
+    }
+
+    private void recordCall(AtomicBoolean recorded, long startedNanos, boolean failed) {
+        if (recorded.compareAndSet(false, true)) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+            authCircuitBreaker.onResult(elapsedMillis, failed);
+        }
+    }
+
+    /**
+     * 认证服务不可用时的降级结果：宽限窗口内有该凭证的会话则放行，否则视为未通过。
+     *
+     * @param token satoken 原始值
+     * @return 校验结果
      */
-    private Mono<Void> handleResponse(GatewayFilterChain chain,
-                                      ServerWebExchange exchange,
-                                      Response response) {
-        if (response.status() >= 200 && response.status() < 300) {
-            return chain.filter(exchange);
+    private SessionCheckResult fallback(String token) {
+        ValidatedSession stale = sessionValidationCache.getStale(token);
+        if (stale == null) {
+            return SessionCheckResult.rejected(null);
         }
-        return writeUnauthorized(exchange, resolveErrorMessage(response));
+        staleServedCounter.increment();
+        return SessionCheckResult.authenticated(stale);
     }
 
     /**
@@ -110,77 +216,18 @@ public class PortalAuthGlobalFilter implements GlobalFilter, Ordered {
      * @return true 表示命中白名单
      */
     private boolean isWhitelisted(String path) {
-        List<String> whitelist = securityProperties.getWhitelist();
-        if (whitelist == null || whitelist.isEmpty()) {
-            return false;
-        }
-        return whitelist.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+        return whitelist.matches(path);
     }
 
     /**
      * 返回未登录的 401 JSON 响应。
      *
      * @param exchange 请求上下文
+     * @param message  提示信息，为空时使用默认文案
      * @return 写入响应的 Mono
      */
     private Mono<Void> writeUnauthorized(ServerWebExchange exchange, String message) {
-        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
-        byte[] payload = buildUnauthorizedPayload(message);
-        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse()
-                .bufferFactory()
-                .wrap(payload)));
-    }
-
-    /**
-     * 构建未登录响应的 JSON 字节数组。
-     *
-     * @return JSON 内容字节
-     */
-    private byte[] buildUnauthorizedPayload(String message) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("code", ErrorCode.UNAUTHENTICATED.getCode());
-        String resolvedMessage = message == null || StringUtils.isBlank(message)
-                ? ErrorCode.UNAUTHENTICATED.getMessage()
-                : message;
-        body.put("message", resolvedMessage);
-        body.put("data", null);
-        try {
-            return objectMapper.writeValueAsBytes(body);
-        } catch (JsonProcessingException ex) {
-            return ("{\"code\":" + ErrorCode.UNAUTHENTICATED.getCode()
-                    + ",\"message\":\"" + resolvedMessage
-                    + "\",\"data\":null}").getBytes(StandardCharsets.UTF_8);
-        }
-    }
-
-    private String resolveErrorMessage(Response response) {
-        if (response == null || response.body() == null) {
-            return null;
-        }
-        try (InputStream inputStream = response.body().asInputStream()) {
-            Map<String, Object> payload = objectMapper.readValue(inputStream, new TypeReference<Map<String, Object>>() {
-            });
-            Object value = payload.get("message");
-            return value == null ? null : value.toString();
-        } catch (IOException ex) {
-            return null;
-        }
-    }
-
-    private boolean hasSaTokenCookie(String cookieHeader) {
-        if (cookieHeader == null || StringUtils.isBlank(cookieHeader)) {
-            return false;
-        }
-        String[] parts = cookieHeader.split(";");
-        for (String part : parts) {
-            String trimmed = part.trim();
-            if (trimmed.startsWith("satoken=")) {
-                String value = trimmed.substring("satoken=".length()).trim();
-                return !value.isEmpty();
-            }
-        }
-        return false;
+        return unauthorizedResponseWriter.write(exchange, message);
     }
 
     /**
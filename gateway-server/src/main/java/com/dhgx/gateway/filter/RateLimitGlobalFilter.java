@@ -0,0 +1,145 @@
+package com.dhgx.gateway.filter;
+
+import com.dhgx.gateway.config.GatewayRateLimitProperties;
+import com.dhgx.gateway.ratelimit.RateLimitKey;
+import com.dhgx.gateway.ratelimit.RateLimitRule;
+import com.dhgx.gateway.ratelimit.RateLimitRules;
+import com.dhgx.gateway.ratelimit.TokenBucketRateLimiter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * RateLimitGlobalFilter。
+ * <p>
+ * 全局限流过滤器，按 {@code gateway.rate-limit.rules} 对登录、短信、验证码等入口限流，
+ * 超限时返回 429。IP 维度取 TCP 对端地址（配置了可信代理层数时取 X-Forwarded-For 中对应位置）；
+ * 用户维度取 {@link PortalAuthGlobalFilter} 校验通过的用户 ID，因此本过滤器排在鉴权之后，匿名请求只受 IP 规则约束。
+ * 未配置可信代理层数却收到 X-Forwarded-For 时，说明网关前有代理，IP 规则实际按代理地址计数，启动与首次出现时各告警一次。
+ * </p>
+ */
+@Component
+public class RateLimitGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitGlobalFilter.class);
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final RateLimitRules rateLimitRules;
+    private final TokenBucketRateLimiter tokenBucketRateLimiter;
+    private final TooManyRequestsResponseWriter tooManyRequestsResponseWriter;
+    /** 客户端地址解析。 */
+    private final RemoteAddressResolver remoteAddressResolver;
+    /** 是否按 TCP 对端地址计数（未配置可信代理层数）。 */
+    private final boolean peerAddressOnly;
+    /** 是否已对代理转发头告警。 */
+    private final AtomicBoolean forwardedHeaderWarned = new AtomicBoolean();
+
+    /**
+     * 构造函数，注入依赖。
+     *
+     * @param rateLimitRules 限流规则
+     * @param tokenBucketRateLimiter 令牌桶限流器
+     * @param tooManyRequestsResponseWriter 429 响应输出
+     * @param properties 限流配置
+     */
+    public RateLimitGlobalFilter(RateLimitRules rateLimitRules,
+                                 TokenBucketRateLimiter tokenBucketRateLimiter,
+                                 TooManyRequestsResponseWriter tooManyRequestsResponseWriter,
+                                 GatewayRateLimitProperties properties) {
+        this.rateLimitRules = rateLimitRules;
+        this.tokenBucketRateLimiter = tokenBucketRateLimiter;
+        this.tooManyRequestsResponseWriter = tooManyRequestsResponseWriter;
+        this.remoteAddressResolver = properties.getTrustedProxyHops() > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(properties.getTrustedProxyHops())
+                : new RemoteAddressResolver() {
+                };
+        this.peerAddressOnly = properties.getTrustedProxyHops() <= 0;
+        if (properties.isEnabled() && peerAddressOnly) {
+            log.warn("Rate limiting uses the TCP peer address (gateway.rate-limit.trusted-proxy-hops=0); "
+                    + "behind a load balancer all clients share the proxy's IP buckets");
+        }
+    }
+
+    /**
+     * 过滤入口，对命中规则的请求申请令牌。
+     *
+     * @param exchange 当前请求上下文
+     * @param chain    过滤器链
+     * @return 继续链路或返回限流响应的 Mono
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!rateLimitRules.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        List<RateLimitRule> rules = rateLimitRules.match(route == null ? null : route.getId(),
+                exchange.getRequest().getURI().getPath());
+        if (rules.isEmpty()) {
+            return chain.filter(exchange);
+        }
+        List<RateLimitKey> keys = new ArrayList<>(rules.size());
+        for (RateLimitRule rule : rules) {
+            String value = resolve(exchange, rule.getDimension());
+            if (value != null) {
+                keys.add(new RateLimitKey(rule, value));
+            }
+        }
+        if (keys.isEmpty()) {
+            return chain.filter(exchange);
+        }
+        return tokenBucketRateLimiter.acquire(keys)
+                .flatMap(decision -> decision.isAllowed()
+                        ? chain.filter(exchange)
+                        : tooManyRequestsResponseWriter.write(exchange, decision.getRetryAfterMillis()));
+    }
+
+    /**
+     * 解析规则维度对应的取值。
+     *
+     * @param exchange  请求上下文
+     * @param dimension 限流维度
+     * @return 维度取值，无法确定时返回 null
+     */
+    private String resolve(ServerWebExchange exchange, GatewayRateLimitProperties.Dimension dimension) {
+        if (dimension == GatewayRateLimitProperties.Dimension.USER) {
+            return exchange.getAttribute(GatewayIdentityPropagator.AUTHENTICATED_USER_ID_ATTR);
+        }
+        if (peerAddressOnly && exchange.getRequest().getHeaders().containsKey(X_FORWARDED_FOR)
+                && forwardedHeaderWarned.compareAndSet(false, true)) {
+            log.warn("Received {} while gateway.rate-limit.trusted-proxy-hops=0; IP rate limits count the proxy "
+                    + "address {}, set trusted-proxy-hops to the number of proxies in front of the gateway",
+                    X_FORWARDED_FOR, exchange.getRequest().getRemoteAddress());
+        }
+        InetSocketAddress address = remoteAddressResolver.resolve(exchange);
+        if (address == null) {
+            return null;
+        }
+        return address.getAddress() == null ? address.getHostString() : address.getAddress().getHostAddress();
+    }
+
+    /**
+     * 排在 {@link PortalAuthGlobalFilter} 之后，以便取得校验通过的用户 ID。
+     *
+     * @return 排序值
+     */
+    @Override
+    public int getOrder() {
+        return -90;
+    }
+}
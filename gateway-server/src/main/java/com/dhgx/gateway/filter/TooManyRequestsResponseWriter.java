@@ -0,0 +1,63 @@
+package com.dhgx.gateway.filter;
+
+import com.dhgx.common.api.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * TooManyRequestsResponseWriter。
+ * <p>
+ * 输出被限流的 429 JSON 响应并设置 {@code Retry-After}。响应体固定，
+ * 与 {@link UnauthorizedResponseWriter} 一样预先编码为共享的只读缓冲区。
+ * </p>
+ */
+@Component
+public class TooManyRequestsResponseWriter {
+
+    private final UnauthorizedResponseWriter.Payload payload;
+
+    public TooManyRequestsResponseWriter(ObjectMapper objectMapper) {
+        this.payload = new UnauthorizedResponseWriter.Payload(encode(objectMapper));
+    }
+
+    /**
+     * 返回被限流的 429 JSON 响应。
+     *
+     * @param exchange         请求上下文
+     * @param retryAfterMillis 建议的重试等待时长（毫秒）
+     * @return 写入响应的 Mono
+     */
+    public Mono<Void> write(ServerWebExchange exchange, long retryAfterMillis) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1L, (retryAfterMillis + 999) / 1000)));
+        response.getHeaders().setContentLength(payload.getBytes().length);
+        return response.writeWith(Mono.just(payload.toDataBuffer(response.bufferFactory())));
+    }
+
+    private static byte[] encode(ObjectMapper objectMapper) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("code", ErrorCode.TOO_MANY_REQUESTS.getCode());
+        body.put("message", ErrorCode.TOO_MANY_REQUESTS.getMessage());
+        body.put("data", null);
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException ex) {
+            return ("{\"code\":" + ErrorCode.TOO_MANY_REQUESTS.getCode()
+                    + ",\"message\":\"" + ErrorCode.TOO_MANY_REQUESTS.getMessage()
+                    + "\",\"data\":null}").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
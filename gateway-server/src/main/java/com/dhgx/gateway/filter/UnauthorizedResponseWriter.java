@@ -0,0 +1,128 @@
+package com.dhgx.gateway.filter;
+
+import com.dhgx.common.api.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UnauthorizedResponseWriter。
+ * <p>
+ * 输出未登录的 401 JSON 响应。响应体按提示信息预先编码为只读的堆外缓冲区并缓存，
+ * 每次写出仅复制读写索引，不再逐次构建 Map 与 JSON 序列化；被拒请求占多数时（撞库、爬虫）
+ * 可显著降低分配与 GC 压力。提示信息来自认证服务，种类有限，缓存条目数设有上限，超出后按次编码。
+ * </p>
+ */
+@Component
+public class UnauthorizedResponseWriter {
+
+    /** 缓存的提示信息种类上限。 */
+    static final int MAX_CACHED_MESSAGES = 256;
+
+    private final ObjectMapper objectMapper;
+    /** 默认提示信息对应的响应体。 */
+    private final Payload defaultPayload;
+    /** 提示信息到响应体的缓存。 */
+    private final ConcurrentHashMap<String, Payload> payloads = new ConcurrentHashMap<>();
+
+    public UnauthorizedResponseWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.defaultPayload = new Payload(encode(ErrorCode.UNAUTHENTICATED.getMessage()));
+    }
+
+    /**
+     * 返回未登录的 401 JSON 响应。
+     *
+     * @param exchange 请求上下文
+     * @param message  提示信息，为空时使用默认文案
+     * @return 写入响应的 Mono
+     */
+    public Mono<Void> write(ServerWebExchange exchange, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        Payload payload = payloadOf(message);
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(payload.bytes.length);
+        return response.writeWith(Mono.just(payload.toDataBuffer(response.bufferFactory())));
+    }
+
+    /**
+     * 获取提示信息对应的预编码响应体。
+     *
+     * @param message 提示信息
+     * @return 响应体
+     */
+    Payload payloadOf(String message) {
+        if (message == null || StringUtils.isBlank(message)) {
+            return defaultPayload;
+        }
+        Payload payload = payloads.get(message);
+        if (payload != null) {
+            return payload;
+        }
+        payload = new Payload(encode(message));
+        if (payloads.size() < MAX_CACHED_MESSAGES) {
+            Payload existing = payloads.putIfAbsent(message, payload);
+            return existing != null ? existing : payload;
+        }
+        return payload;
+    }
+
+    private byte[] encode(String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("code", ErrorCode.UNAUTHENTICATED.getCode());
+        body.put("message", message);
+        body.put("data", null);
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException ex) {
+            return ("{\"code\":" + ErrorCode.UNAUTHENTICATED.getCode()
+                    + ",\"message\":\"" + ErrorCode.UNAUTHENTICATED.getMessage()
+                    + "\",\"data\":null}").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 预编码的响应体。堆外缓冲区只读且不可释放，可被所有响应共享。
+     */
+    static final class Payload {
+        private final byte[] bytes;
+        private final ByteBuf buffer;
+
+        Payload(byte[] bytes) {
+            this.bytes = bytes;
+            this.buffer = Unpooled.unreleasableBuffer(
+                    Unpooled.directBuffer(bytes.length).writeBytes(bytes).asReadOnly());
+        }
+
+        /**
+         * 生成本次写出使用的 DataBuffer，Netty 环境下共享底层内存，仅复制读写索引。
+         */
+        DataBuffer toDataBuffer(DataBufferFactory bufferFactory) {
+            if (bufferFactory instanceof NettyDataBufferFactory) {
+                return ((NettyDataBufferFactory) bufferFactory).wrap(buffer.duplicate());
+            }
+            return bufferFactory.wrap(bytes);
+        }
+
+        byte[] getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.dhgx.gateway.ratelimit;
+
+/**
+ * LocalTokenBucket。
+ * <p>
+ * 网关本地的预检令牌桶，参数与 Redis 中的令牌桶一致。本实例放行的请求都会同时扣减 Redis 令牌桶，
+ * 因此本地桶余量不小于 Redis 桶余量：本地桶耗尽时 Redis 桶必然也已耗尽，可直接拒绝而不访问 Redis。
+ * Redis 判定拒绝时归还本地扣减，并在建议的等待时长内直接拒绝后续请求。
+ * </p>
+ */
+final class LocalTokenBucket {
+
+    private final long capacity;
+    private final double tokensPerMilli;
+    private double tokens;
+    private long updatedAt;
+    /** 在此时间戳（毫秒）之前直接拒绝。 */
+    private long blockedUntil;
+
+    LocalTokenBucket(RateLimitRule rule, long now) {
+        this.capacity = rule.getCapacity();
+        this.tokensPerMilli = rule.getTokensPerMilli();
+        this.tokens = capacity;
+        this.updatedAt = now;
+    }
+
+    /**
+     * 距离可以放行还需等待的毫秒数，0 表示当前可放行。
+     */
+    synchronized long waitMillis(long now) {
+        refill(now);
+        if (now < blockedUntil) {
+            return blockedUntil - now;
+        }
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerMilli);
+    }
+
+    /**
+     * 扣减一个令牌。并发放行时余量可能短暂为负，与 Redis 中实际的扣减保持一致。
+     */
+    synchronized void acquire(long now) {
+        refill(now);
+        tokens -= 1;
+    }
+
+    /**
+     * 归还一个令牌，并在 until 之前直接拒绝。
+     */
+    synchronized void reject(long now, long until) {
+        refill(now);
+        tokens = Math.min(capacity, tokens + 1);
+        blockedUntil = Math.max(blockedUntil, until);
+    }
+
+    /**
+     * 归还一个令牌。
+     */
+    synchronized void refund(long now) {
+        refill(now);
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    private void refill(long now) {
+        if (now > updatedAt) {
+            tokens = Math.min(capacity, tokens + (now - updatedAt) * tokensPerMilli);
+            updatedAt = now;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.dhgx.gateway.ratelimit;
+
+/**
+ * RateLimitDecision。
+ * <p>
+ * 一次限流判定的结果：被拒绝时携带触发的规则与建议的重试等待时长。
+ * </p>
+ */
+public final class RateLimitDecision {
+
+    private static final RateLimitDecision ALLOWED = new RateLimitDecision(null, 0);
+
+    /** 触发限流的规则 ID，放行时为 null。 */
+    private final String ruleId;
+    /** 建议的重试等待时长（毫秒）。 */
+    private final long retryAfterMillis;
+
+    private RateLimitDecision(String ruleId, long retryAfterMillis) {
+        this.ruleId = ruleId;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * 放行结果。
+     *
+     * @return 判定结果
+     */
+    public static RateLimitDecision allowed() {
+        return ALLOWED;
+    }
+
+    /**
+     * 拒绝结果。
+     *
+     * @param ruleId           触发的规则 ID
+     * @param retryAfterMillis 建议的重试等待时长（毫秒）
+     * @return 判定结果
+     */
+    public static RateLimitDecision rejected(String ruleId, long retryAfterMillis) {
+        return new RateLimitDecision(ruleId, Math.max(0L, retryAfterMillis));
+    }
+
+    public boolean isAllowed() {
+        return ruleId == null;
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
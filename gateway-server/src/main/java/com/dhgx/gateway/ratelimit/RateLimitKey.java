@@ -0,0 +1,29 @@
+package com.dhgx.gateway.ratelimit;
+
+import com.dhgx.common.redis.RedisKeys;
+
+/**
+ * RateLimitKey。
+ * <p>
+ * 一次请求在某条规则下对应的令牌桶，由规则与维度取值（客户端 IP 或用户 ID）确定。
+ * </p>
+ */
+public final class RateLimitKey {
+
+    private final RateLimitRule rule;
+    /** 令牌桶 Key，同时用于 Redis 与本地预检桶。 */
+    private final String bucketKey;
+
+    public RateLimitKey(RateLimitRule rule, String value) {
+        this.rule = rule;
+        this.bucketKey = RedisKeys.gatewayRateLimit(rule.getId(), rule.getDimensionName(), value);
+    }
+
+    public RateLimitRule getRule() {
+        return rule;
+    }
+
+    public String getBucketKey() {
+        return bucketKey;
+    }
+}
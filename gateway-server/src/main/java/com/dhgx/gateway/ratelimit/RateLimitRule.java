@@ -0,0 +1,114 @@
+package com.dhgx.gateway.ratelimit;
+
+import com.dhgx.gateway.auth.WhitelistMatcher;
+import com.dhgx.gateway.config.GatewayRateLimitProperties;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * RateLimitRule。
+ * <p>
+ * 编译后的单条限流规则：路由 ID 按哈希集合匹配，路径复用 {@link WhitelistMatcher} 预编译匹配，
+ * 补充速率换算为每毫秒令牌数，供 Redis 脚本与本地预检桶共用。
+ * </p>
+ */
+public final class RateLimitRule {
+
+    private final String id;
+    /** 维度名称，用于 Redis Key。 */
+    private final String dimensionName;
+    private final GatewayRateLimitProperties.Dimension dimension;
+    private final long capacity;
+    /** 每毫秒补充的令牌数。 */
+    private final double tokensPerMilli;
+    /** 适用的路由 ID，为空表示不限路由。 */
+    private final Set<String> routeIds;
+    /** 适用的路径，为 null 表示不限路径。 */
+    private final WhitelistMatcher paths;
+
+    private RateLimitRule(String id, GatewayRateLimitProperties.Dimension dimension, long capacity,
+                          double tokensPerMilli, Set<String> routeIds, WhitelistMatcher paths) {
+        this.id = id;
+        this.dimension = dimension;
+        this.dimensionName = dimension.name().toLowerCase(Locale.ROOT);
+        this.capacity = capacity;
+        this.tokensPerMilli = tokensPerMilli;
+        this.routeIds = routeIds;
+        this.paths = paths;
+    }
+
+    /**
+     * 编译规则配置。
+     *
+     * @param rule 规则配置
+     * @return 编译后的规则
+     * @throws IllegalArgumentException 规则 ID 为空或容量、补充速率不为正数时
+     */
+    public static RateLimitRule compile(GatewayRateLimitProperties.Rule rule) {
+        if (!StringUtils.hasText(rule.getId())) {
+            throw new IllegalArgumentException("Rate limit rule id is required");
+        }
+        if (rule.getCapacity() <= 0 || rule.getRefillTokens() <= 0 || rule.getRefillPeriodSeconds() <= 0) {
+            throw new IllegalArgumentException("Rate limit rule " + rule.getId()
+                    + " requires positive capacity, refill-tokens and refill-period-seconds");
+        }
+        Set<String> routeIds = rule.getRouteIds() == null || rule.getRouteIds().isEmpty()
+                ? Collections.<String>emptySet()
+                : Collections.unmodifiableSet(new HashSet<>(rule.getRouteIds()));
+        WhitelistMatcher paths = rule.getPaths() == null || rule.getPaths().isEmpty()
+                ? null
+                : WhitelistMatcher.compile(rule.getPaths());
+        GatewayRateLimitProperties.Dimension dimension = rule.getDimension() == null
+                ? GatewayRateLimitProperties.Dimension.IP
+                : rule.getDimension();
+        double tokensPerMilli = (double) rule.getRefillTokens() / (rule.getRefillPeriodSeconds() * 1000);
+        return new RateLimitRule(rule.getId(), dimension, rule.getCapacity(), tokensPerMilli, routeIds, paths);
+    }
+
+    /**
+     * 判断请求是否适用本规则。
+     *
+     * @param routeId 路由 ID，可为空
+     * @param path    请求路径
+     * @return true 表示适用
+     */
+    public boolean matches(String routeId, String path) {
+        if (!routeIds.isEmpty() && (routeId == null || !routeIds.contains(routeId))) {
+            return false;
+        }
+        return paths == null || paths.matches(path);
+    }
+
+    /**
+     * 令牌桶从空补满所需的毫秒数。
+     *
+     * @return 毫秒数
+     */
+    public long fullRefillMillis() {
+        return (long) Math.ceil(capacity / tokensPerMilli);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public GatewayRateLimitProperties.Dimension getDimension() {
+        return dimension;
+    }
+
+    public String getDimensionName() {
+        return dimensionName;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public double getTokensPerMilli() {
+        return tokensPerMilli;
+    }
+}
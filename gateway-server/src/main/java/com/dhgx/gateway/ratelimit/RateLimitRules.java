@@ -0,0 +1,88 @@
+package com.dhgx.gateway.ratelimit;
+
+import com.dhgx.gateway.config.GatewayRateLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RateLimitRules。
+ * <p>
+ * 持有当前生效的限流规则。启动时编译一次，Nacos 配置刷新后重新编译并整体替换；
+ * 配置有误的规则记录告警后跳过，不影响其余规则。
+ * </p>
+ */
+@Component
+public class RateLimitRules {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitRules.class);
+
+    private final GatewayRateLimitProperties properties;
+    /** 当前生效的规则。 */
+    private volatile List<RateLimitRule> rules;
+
+    public RateLimitRules(GatewayRateLimitProperties properties) {
+        this.properties = properties;
+        this.rules = compile();
+    }
+
+    /**
+     * 是否启用限流。
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled() && !rules.isEmpty();
+    }
+
+    /**
+     * 查找适用于请求的规则。
+     *
+     * @param routeId 路由 ID，可为空
+     * @param path    请求路径
+     * @return 适用的规则，无匹配时返回空列表
+     */
+    public List<RateLimitRule> match(String routeId, String path) {
+        List<RateLimitRule> matched = null;
+        for (RateLimitRule rule : rules) {
+            if (rule.matches(routeId, path)) {
+                if (matched == null) {
+                    matched = new ArrayList<>(2);
+                }
+                matched.add(rule);
+            }
+        }
+        return matched == null ? Collections.<RateLimitRule>emptyList() : matched;
+    }
+
+    /**
+     * 配置刷新后重新编译规则。
+     *
+     * @param event 刷新完成事件
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh(RefreshScopeRefreshedEvent event) {
+        this.rules = compile();
+        log.info("Gateway rate limit rules recompiled, {} rules", rules.size());
+    }
+
+    private List<RateLimitRule> compile() {
+        List<GatewayRateLimitProperties.Rule> configured = properties.getRules();
+        if (configured == null || configured.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<RateLimitRule> compiled = new ArrayList<>(configured.size());
+        for (GatewayRateLimitProperties.Rule rule : configured) {
+            try {
+                compiled.add(RateLimitRule.compile(rule));
+            } catch (IllegalArgumentException ex) {
+                log.warn("Skip invalid rate limit rule: {}", ex.getMessage());
+            }
+        }
+        return Collections.unmodifiableList(compiled);
+    }
+}
@@ -0,0 +1,184 @@
+package com.dhgx.gateway.ratelimit;
+
+import com.dhgx.gateway.config.GatewayRateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TokenBucketRateLimiter。
+ * <p>
+ * 分布式令牌桶限流。一次请求命中的所有令牌桶在同一个 Lua 脚本中原子判定：
+ * 全部有余量才统一扣减，任一不足则都不扣减并返回建议的等待时长，Redis 中的令牌桶是唯一准绳。
+ * 访问 Redis 前先经 {@link LocalTokenBucket} 预检，本地桶已耗尽的请求直接拒绝，不产生 Redis 调用。
+ * Redis 超时或异常时放行（本地预检仍生效）。判定结果记录在
+ * {@code gateway.rate.limit.requests{rule,result=allowed|rejected|rejected_local|error}}。
+ * </p>
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenBucketRateLimiter.class);
+
+    /** 本地预检桶空闲淘汰时长，淘汰后重建为满桶，只会更宽松，不会误拒。 */
+    private static final Duration LOCAL_BUCKET_IDLE = Duration.ofMinutes(5);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TOKEN_BUCKET_SCRIPT = buildTokenBucketScript();
+
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final Duration redisTimeout;
+    /** 令牌桶 Key 到本地预检桶。 */
+    private final Cache<String, LocalTokenBucket> localBuckets;
+    private final MeterRegistry meterRegistry;
+    /** 规则与结果到计数器的缓存。 */
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                                  GatewayRateLimitProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.redisTimeout = Duration.ofMillis(Math.max(1L, properties.getRedisTimeoutMillis()));
+        this.localBuckets = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaximumSize())
+                .expireAfterAccess(LOCAL_BUCKET_IDLE)
+                .build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 为请求命中的全部令牌桶各申请一个令牌。
+     *
+     * @param keys 令牌桶
+     * @return 判定结果
+     */
+    public Mono<RateLimitDecision> acquire(List<RateLimitKey> keys) {
+        long now = System.currentTimeMillis();
+        List<LocalTokenBucket> buckets = new ArrayList<>(keys.size());
+        for (RateLimitKey key : keys) {
+            LocalTokenBucket bucket = localBuckets.get(key.getBucketKey(), k -> new LocalTokenBucket(key.getRule(), now));
+            long waitMillis = bucket.waitMillis(now);
+            if (waitMillis > 0) {
+                count(key.getRule().getId(), "rejected_local");
+                return Mono.just(RateLimitDecision.rejected(key.getRule().getId(), waitMillis));
+            }
+            buckets.add(bucket);
+        }
+        for (LocalTokenBucket bucket : buckets) {
+            bucket.acquire(now);
+        }
+        return execute(keys, now)
+                .map(result -> toDecision(keys, buckets, now, result))
+                .timeout(redisTimeout)
+                .onErrorResume(ex -> {
+                    log.debug("Rate limit check skipped, redis unavailable: {}", ex.getMessage());
+                    for (RateLimitKey key : keys) {
+                        count(key.getRule().getId(), "error");
+                    }
+                    return Mono.just(RateLimitDecision.allowed());
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<List<Long>> execute(List<RateLimitKey> keys, long now) {
+        List<String> redisKeys = new ArrayList<>(keys.size());
+        List<String> args = new ArrayList<>(keys.size() * 2 + 1);
+        args.add(String.valueOf(now));
+        for (RateLimitKey key : keys) {
+            redisKeys.add(key.getBucketKey());
+            args.add(String.valueOf(key.getRule().getTokensPerMilli()));
+            args.add(String.valueOf(key.getRule().getCapacity()));
+        }
+        return reactiveStringRedisTemplate.execute(TOKEN_BUCKET_SCRIPT, redisKeys, args)
+                .reduce(new ArrayList<Long>(2), (values, chunk) -> {
+                    values.addAll((List<Long>) chunk);
+                    return values;
+                })
+                .map(values -> (List<Long>) values);
+    }
+
+    /**
+     * 解析脚本结果：{被拒绝的桶序号（从 1 开始，0 表示放行）, 建议等待毫秒数}。
+     */
+    private RateLimitDecision toDecision(List<RateLimitKey> keys, List<LocalTokenBucket> buckets, long now,
+                                         List<Long> result) {
+        int rejectedIndex = result.isEmpty() ? 0 : result.get(0).intValue();
+        if (rejectedIndex <= 0 || rejectedIndex > keys.size()) {
+            for (RateLimitKey key : keys) {
+                count(key.getRule().getId(), "allowed");
+            }
+            return RateLimitDecision.allowed();
+        }
+        long retryAfterMillis = result.size() > 1 ? result.get(1) : 0L;
+        for (int i = 0; i < buckets.size(); i++) {
+            if (i == rejectedIndex - 1) {
+                buckets.get(i).reject(now, now + retryAfterMillis);
+            } else {
+                buckets.get(i).refund(now);
+            }
+        }
+        String ruleId = keys.get(rejectedIndex - 1).getRule().getId();
+        count(ruleId, "rejected");
+        return RateLimitDecision.rejected(ruleId, retryAfterMillis);
+    }
+
+    private void count(String ruleId, String result) {
+        counters.computeIfAbsent(ruleId + ':' + result, k -> Counter.builder("gateway.rate.limit.requests")
+                        .description("Gateway rate limit decisions")
+                        .tag("rule", ruleId)
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static RedisScript<List> buildTokenBucketScript() {
+        String script = ""
+                + "local now = tonumber(ARGV[1])\n"
+                + "local tokens = {}\n"
+                + "local rejected = 0\n"
+                + "local retryAfter = 0\n"
+                + "for i = 1, #KEYS do\n"
+                + "  local rate = tonumber(ARGV[i * 2])\n"
+                + "  local capacity = tonumber(ARGV[i * 2 + 1])\n"
+                + "  local bucket = redis.call('HMGET', KEYS[i], 'tokens', 'ts')\n"
+                + "  local current = tonumber(bucket[1])\n"
+                + "  local ts = tonumber(bucket[2])\n"
+                + "  if current == nil or ts == nil then\n"
+                + "    current = capacity\n"
+                + "    ts = now\n"
+                + "  end\n"
+                + "  current = math.min(capacity, current + math.max(0, now - ts) * rate)\n"
+                + "  tokens[i] = current\n"
+                + "  if rejected == 0 and current < 1 then\n"
+                + "    rejected = i\n"
+                + "    retryAfter = math.ceil((1 - current) / rate)\n"
+                + "  end\n"
+                + "end\n"
+                + "for i = 1, #KEYS do\n"
+                + "  local rate = tonumber(ARGV[i * 2])\n"
+                + "  local capacity = tonumber(ARGV[i * 2 + 1])\n"
+                + "  local remaining = tokens[i]\n"
+                + "  if rejected == 0 then\n"
+                + "    remaining = remaining - 1\n"
+                + "  end\n"
+                + "  redis.call('HMSET', KEYS[i], 'tokens', remaining, 'ts', now)\n"
+                + "  redis.call('PEXPIRE', KEYS[i], math.ceil(capacity / rate) + 1000)\n"
+                + "end\n"
+                + "return {rejected, retryAfter}\n";
+        return new DefaultRedisScript<>(script, List.class);
+    }
+}
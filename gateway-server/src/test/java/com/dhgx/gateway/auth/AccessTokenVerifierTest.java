@@ -0,0 +1,102 @@
+package com.dhgx.gateway.auth;
+
+import com.dhgx.common.redis.RedisKeys;
+import com.dhgx.common.security.AccessTokenCodec;
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class AccessTokenVerifierTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes();
+    private static final String SESSION = "abc";
+
+    private final AccessTokenCodec codec = new AccessTokenCodec(KEY);
+    private AccessTokenVerifier verifier;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        given(redisTemplate.opsForValue()).willReturn(valueOperations);
+        given(valueOperations.get(RedisKeys.ACCESS_TOKEN_SIGNING_KEY))
+                .willReturn(Base64.getEncoder().encodeToString(KEY));
+        GatewayAuthProperties properties = new GatewayAuthProperties();
+        properties.getAccessToken().setEnabled(true);
+        properties.getAccessToken().setClockSkewSeconds(0);
+        verifier = new AccessTokenVerifier(properties, redisTemplate, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void acceptsValidToken() {
+        ValidatedSession session = verify(cookie(issue("u1", 3, now() - 1, now() + 60)));
+
+        assertThat(session).isNotNull();
+        assertThat(session.getUserId()).isEqualTo("u1");
+        assertThat(session.getTokenVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void rejectsExpiredOrTamperedToken() {
+        String token = issue("u1", 3, now() - 120, now() + 60);
+
+        assertThat(verify(cookie(issue("u1", 3, now() - 120, now() - 1)))).isNull();
+        assertThat(verify(cookie(token.replace(".3.", ".4.")))).isNull();
+        assertThat(verify(cookie(new AccessTokenCodec("fedcba9876543210fedcba9876543210".getBytes())
+                .issue("u1", 3, now(), now() + 60, SESSION)))).isNull();
+        assertThat(verify("satoken=abc")).isNull();
+    }
+
+    @Test
+    void rejectsTokenPresentedWithAnotherSession() {
+        String token = issue("u1", 3, now() - 1, now() + 60);
+
+        assertThat(verifier.verify("satoken=x; atk=" + token, "x")).isNull();
+        assertThat(verifier.verify(cookie(token), null)).isNull();
+        assertThat(verifier.verify(cookie(token), SESSION)).isNotNull();
+    }
+
+    @Test
+    void rejectsTokensIssuedBeforeRevocation() {
+        String token = issue("u1", 3, now() - 10, now() + 60);
+
+        verifier.revoke("u1", null);
+
+        assertThat(verify(cookie(token))).isNull();
+        assertThat(verify(cookie(issue("u2", 3, now() - 10, now() + 60)))).isNotNull();
+    }
+
+    @Test
+    void acceptsTokensAtOrAboveRevokedVersion() {
+        verifier.revoke("u1", 4L);
+
+        assertThat(verify(cookie(issue("u1", 3, now() - 10, now() + 60)))).isNull();
+        assertThat(verify(cookie(issue("u1", 4, now() - 10, now() + 60)))).isNotNull();
+    }
+
+    private ValidatedSession verify(String cookieHeader) {
+        return verifier.verify(cookieHeader, SESSION);
+    }
+
+    private String issue(String userId, long tokenVersion, long issuedAt, long expiresAt) {
+        return codec.issue(userId, tokenVersion, issuedAt, expiresAt, SESSION);
+    }
+
+    private static String cookie(String token) {
+        return "satoken=" + SESSION + "; atk=" + token;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
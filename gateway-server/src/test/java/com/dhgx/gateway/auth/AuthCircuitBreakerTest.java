@@ -0,0 +1,95 @@
+package com.dhgx.gateway.auth;
+
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private AuthCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        GatewayAuthProperties properties = new GatewayAuthProperties();
+        GatewayAuthProperties.CircuitBreaker config = properties.getCircuitBreaker();
+        config.setSlidingWindowSize(10);
+        config.setMinimumCalls(5);
+        config.setFailureRateThreshold(50);
+        config.setSlowCallDurationMillis(200);
+        config.setSlowCallRateThreshold(60);
+        config.setWaitDurationInOpenMillis(1000);
+        config.setPermittedCallsInHalfOpen(2);
+        breaker = new AuthCircuitBreaker(properties, new SimpleMeterRegistry(), now::get);
+    }
+
+    @Test
+    void opensWhenSlowCallRateExceedsThreshold() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            breaker.onResult(800, false);
+        }
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.CLOSED);
+
+        breaker.onResult(800, false);
+
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void staysClosedWhileCallsAreFastAndSuccessful() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            breaker.onResult(i % 5 == 0 ? 800 : 10, i % 4 == 0);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenProbesCloseOrReopenTheCircuit() {
+        trip();
+        now.addAndGet(1000);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.HALF_OPEN);
+        breaker.onResult(10, false);
+        breaker.onResult(10, true);
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.OPEN);
+
+        now.addAndGet(1000);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onResult(10, false);
+        breaker.onResult(10, false);
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void cancelledProbeReturnsItsPermit() {
+        trip();
+        now.addAndGet(1000);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+
+        breaker.release();
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    private void trip() {
+        for (int i = 0; i < 5; i++) {
+            breaker.tryAcquirePermission();
+            breaker.onResult(10, true);
+        }
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,129 @@
+package com.dhgx.gateway.auth;
+
+import com.dhgx.api.notify.core.EventNotifyHandler;
+import com.dhgx.api.notify.core.EventNotifySubscriber;
+import com.dhgx.common.event.PortalEventType;
+import com.dhgx.common.redis.RedisKeys;
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class SessionCacheInvalidationListenerTest {
+
+    private final EventNotifySubscriber subscriber = mock(EventNotifySubscriber.class);
+    private final AccessTokenVerifier accessTokenVerifier = mock(AccessTokenVerifier.class);
+    private GatewayAuthProperties properties;
+    private SessionValidationCache cache;
+    private SessionCacheInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GatewayAuthProperties();
+        properties.getSessionCache().setConsumerGroup("gateway-test");
+        cache = new SessionValidationCache(properties, new SimpleMeterRegistry());
+        listener = new SessionCacheInvalidationListener(subscriber, cache, accessTokenVerifier, properties);
+    }
+
+    @Test
+    void subscribesToEveryInvalidatingStreamWithOwnGroup() {
+        listener.afterSingletonsInstantiated();
+
+        for (PortalEventType eventType : new PortalEventType[]{PortalEventType.USER_DISABLED,
+                PortalEventType.USER_PASSWORD_CHANGED, PortalEventType.USER_TOKEN_VERSION_UPDATED,
+                PortalEventType.USER_KICKED}) {
+            verify(subscriber).subscribe(eq(RedisKeys.portalEventStream(eventType)), eq("gateway-test"),
+                    eq("gateway-test"), any(EventNotifyHandler.class));
+        }
+    }
+
+    @Test
+    void subscribesAsBroadcastWhenNoGroupIsConfigured() {
+        properties.getSessionCache().setConsumerGroup(null);
+
+        listener.afterSingletonsInstantiated();
+
+        verify(subscriber).subscribeBroadcast(eq(RedisKeys.portalEventStream(PortalEventType.USER_KICKED)),
+                eq(SessionCacheInvalidationListener.CONSUMER_GROUP_PREFIX), any(EventNotifyHandler.class));
+        verify(subscriber, never()).subscribe(anyString(), anyString(), anyString(), any(EventNotifyHandler.class));
+    }
+
+    @Test
+    void eventEvictsCachedSessionsOfUserAndRevokesAccessTokens() {
+        cache.put("t1", session("u1"), 0);
+        cache.put("t2", session("u1"), 0);
+        cache.put("t3", session("u2"), 0);
+        EventNotifyHandler handler = subscribedHandler();
+
+        Map<String, String> body = new HashMap<>();
+        body.put("userId", "u1");
+        body.put("tokenVersion", "7");
+        handler.onMessage("1-0", body);
+
+        assertThat(cache.get("t1")).isNull();
+        assertThat(cache.get("t2")).isNull();
+        assertThat(cache.getStale("t1")).isNull();
+        assertThat(cache.get("t3")).isNotNull();
+        verify(accessTokenVerifier).revoke("u1", 7L);
+    }
+
+    @Test
+    void sessionValidatedBeforeEventIsNotCachedAfterEviction() {
+        long validationStarted = System.currentTimeMillis() - 1000;
+        EventNotifyHandler handler = subscribedHandler();
+
+        handler.onMessage("1-0", Collections.singletonMap("userId", "u1"));
+        cache.put("t1", session("u1"), validationStarted);
+
+        assertThat(cache.get("t1")).isNull();
+        verify(accessTokenVerifier).revoke(eq("u1"), isNull());
+    }
+
+    @Test
+    void eventWithoutUserIdIsIgnored() {
+        cache.put("t1", session("u1"), 0);
+        EventNotifyHandler handler = subscribedHandler();
+
+        handler.onMessage("1-0", Collections.singletonMap("tokenVersion", "7"));
+
+        assertThat(cache.get("t1")).isNotNull();
+        verify(accessTokenVerifier, never()).revoke(anyString(), any());
+    }
+
+    @Test
+    void doesNotSubscribeWhenCacheAndAccessTokenAreDisabled() {
+        properties.getSessionCache().setEnabled(false);
+        properties.getAccessToken().setEnabled(false);
+
+        listener.afterSingletonsInstantiated();
+
+        verifyNoInteractions(subscriber);
+    }
+
+    private EventNotifyHandler subscribedHandler() {
+        listener.afterSingletonsInstantiated();
+        ArgumentCaptor<EventNotifyHandler> handler = ArgumentCaptor.forClass(EventNotifyHandler.class);
+        verify(subscriber).subscribe(eq(RedisKeys.portalEventStream(PortalEventType.USER_KICKED)),
+                anyString(), anyString(), handler.capture());
+        return handler.getValue();
+    }
+
+    private static ValidatedSession session(String userId) {
+        return new ValidatedSession(userId, 1L, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,97 @@
+package com.dhgx.gateway.auth;
+
+import com.dhgx.gateway.client.ReactiveAuthClient;
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SessionValidationBatcherTest {
+
+    private final ReactiveAuthClient authClient = mock(ReactiveAuthClient.class);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendsFullBatchImmediatelyAndMapsResultsInOrder() {
+        given(authClient.sessionBatch(anyList())).willReturn(Mono.just(Arrays.asList(
+                SessionCheckResult.authenticated(new ValidatedSession("u1", 1L, 0)),
+                SessionCheckResult.rejected(null),
+                SessionCheckResult.authenticated(new ValidatedSession("u3", 2L, 0)))));
+        SessionValidationBatcher batcher = batcher(3, 10_000);
+
+        List<SessionCheckResult> results = Mono.zip(batcher.validate("t1"), batcher.validate("t2"), batcher.validate("t3"))
+                .map(tuple -> Arrays.asList(tuple.getT1(), tuple.getT2(), tuple.getT3()))
+                .block(Duration.ofSeconds(1));
+
+        ArgumentCaptor<List<String>> tokens = ArgumentCaptor.forClass(List.class);
+        verify(authClient, times(1)).sessionBatch(tokens.capture());
+        assertThat(tokens.getValue()).containsExactly("t1", "t2", "t3");
+        assertThat(results.get(0).getSession().getUserId()).isEqualTo("u1");
+        assertThat(results.get(1).isAuthenticated()).isFalse();
+        assertThat(results.get(2).getSession().getUserId()).isEqualTo("u3");
+    }
+
+    @Test
+    void flushesPartialBatchAfterMaxWait() {
+        given(authClient.sessionBatch(anyList())).willReturn(Mono.just(Arrays.asList(
+                SessionCheckResult.rejected(null), SessionCheckResult.rejected(null))));
+        SessionValidationBatcher batcher = batcher(64, 5);
+
+        Object results = Mono.zip(batcher.validate("t1"), batcher.validate("t2")).block(Duration.ofSeconds(1));
+
+        assertThat(results).isNotNull();
+        verify(authClient, times(1)).sessionBatch(Arrays.asList("t1", "t2"));
+    }
+
+    @Test
+    void failsEveryPendingValidationWhenBatchCallFails() {
+        given(authClient.sessionBatch(anyList())).willReturn(Mono.error(new IllegalStateException("down")));
+        SessionValidationBatcher batcher = batcher(2, 10_000);
+
+        Mono<SessionCheckResult> first = batcher.validate("t1").cache();
+        first.subscribe(result -> { }, ex -> { });
+
+        assertThatThrownBy(() -> batcher.validate("t2").block(Duration.ofSeconds(1))).hasMessageContaining("down");
+        assertThatThrownBy(() -> first.block(Duration.ofSeconds(1))).hasMessageContaining("down");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void splitsBatchesAtAuthServerLimit() {
+        given(authClient.sessionBatch(anyList())).willReturn(Mono.just(Arrays.asList(
+                SessionCheckResult.rejected(null), SessionCheckResult.rejected(null))));
+        GatewayAuthProperties properties = new GatewayAuthProperties();
+        properties.getBatch().setEnabled(true);
+        properties.getBatch().setMaxBatchSize(300);
+        properties.getBatch().setServerMaxTokens(2);
+        properties.getBatch().setMaxWaitMillis(10_000);
+        SessionValidationBatcher batcher = new SessionValidationBatcher(authClient, properties, new SimpleMeterRegistry());
+
+        Mono.zip(batcher.validate("t1"), batcher.validate("t2")).block(Duration.ofSeconds(1));
+
+        ArgumentCaptor<List<String>> tokens = ArgumentCaptor.forClass(List.class);
+        verify(authClient, times(1)).sessionBatch(tokens.capture());
+        assertThat(tokens.getValue()).containsExactly("t1", "t2");
+    }
+
+    private SessionValidationBatcher batcher(int maxBatchSize, long maxWaitMillis) {
+        GatewayAuthProperties properties = new GatewayAuthProperties();
+        properties.getBatch().setEnabled(true);
+        properties.getBatch().setMaxBatchSize(maxBatchSize);
+        properties.getBatch().setMaxWaitMillis(maxWaitMillis);
+        return new SessionValidationBatcher(authClient, properties, new SimpleMeterRegistry());
+    }
+}
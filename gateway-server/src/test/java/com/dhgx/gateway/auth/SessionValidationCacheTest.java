@@ -0,0 +1,59 @@
+package com.dhgx.gateway.auth;
+
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionValidationCacheTest {
+
+    private SessionValidationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        GatewayAuthProperties properties = new GatewayAuthProperties();
+        properties.getSessionCache().setTtlSeconds(30);
+        properties.getSessionCache().setSoftTtlSeconds(20);
+        properties.getSessionCache().setMaxStaleSeconds(60);
+        cache = new SessionValidationCache(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void freshSessionIsServedAndRefreshedAfterSoftTtl() {
+        cache.put("t1", sessionValidatedSecondsAgo("u1", 5), 0);
+        cache.put("t2", sessionValidatedSecondsAgo("u2", 25), 0);
+
+        assertThat(cache.get("t1")).isNotNull();
+        assertThat(cache.isRefreshDue(cache.get("t1"))).isFalse();
+        assertThat(cache.get("t2")).isNotNull();
+        assertThat(cache.isRefreshDue(cache.get("t2"))).isTrue();
+    }
+
+    @Test
+    void expiredSessionIsOnlyAvailableWithinStaleWindow() {
+        cache.put("t1", sessionValidatedSecondsAgo("u1", 45), 0);
+        cache.put("t2", sessionValidatedSecondsAgo("u2", 100), 0);
+
+        assertThat(cache.get("t1")).isNull();
+        assertThat(cache.getStale("t1")).isNotNull();
+        assertThat(cache.getStale("t2")).isNull();
+    }
+
+    @Test
+    void rejectedOrInvalidatedSessionIsNotServedStale() {
+        cache.put("t1", sessionValidatedSecondsAgo("u1", 45), 0);
+        cache.put("t2", sessionValidatedSecondsAgo("u2", 45), 0);
+
+        cache.invalidate("t1");
+        cache.invalidateUser("u2");
+
+        assertThat(cache.getStale("t1")).isNull();
+        assertThat(cache.getStale("t2")).isNull();
+    }
+
+    private static ValidatedSession sessionValidatedSecondsAgo(String userId, long seconds) {
+        return new ValidatedSession(userId, 1L, System.currentTimeMillis() - seconds * 1000);
+    }
+}
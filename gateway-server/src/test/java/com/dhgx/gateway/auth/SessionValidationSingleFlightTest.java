@@ -0,0 +1,150 @@
+package com.dhgx.gateway.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionValidationSingleFlightTest {
+
+    private static final int CONCURRENCY = 16;
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicInteger loaderCalls = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private SessionValidationSingleFlight singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SessionValidationSingleFlight(meterRegistry);
+        executor = Executors.newFixedThreadPool(CONCURRENCY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentValidationsOfSameTokenCallLoaderOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SessionCheckResult expected = SessionCheckResult.authenticated(
+                new ValidatedSession("u1", 1L, System.currentTimeMillis()));
+
+        List<CompletableFuture<SessionCheckResult>> results = executeConcurrently(() -> Mono.fromCallable(() -> {
+            release.await(5, TimeUnit.SECONDS);
+            return expected;
+        }).subscribeOn(Schedulers.elastic()));
+
+        assertThat(inFlight()).isEqualTo(1.0);
+        release.countDown();
+        for (CompletableFuture<SessionCheckResult> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(expected);
+        }
+
+        assertThat(loaderCalls.get()).isEqualTo(1);
+        assertThat(inFlight()).isEqualTo(0.0);
+        assertThat(requests("leader")).isEqualTo(1.0);
+        assertThat(requests("coalesced")).isEqualTo(CONCURRENCY - 1.0);
+        assertThat(meterRegistry.get("gateway.session.validation.coalescing.ratio").gauge().value())
+                .isEqualTo((CONCURRENCY - 1.0) / CONCURRENCY);
+    }
+
+    @Test
+    void failedValidationIsSharedAndThenForgotten() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<CompletableFuture<SessionCheckResult>> results = executeConcurrently(() -> Mono.<SessionCheckResult>defer(() -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return Mono.error(new IllegalStateException("auth-server unavailable"));
+        }).subscribeOn(Schedulers.elastic()));
+
+        release.countDown();
+        for (CompletableFuture<SessionCheckResult> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(loaderCalls.get()).isEqualTo(1);
+        assertThat(inFlight()).isEqualTo(0.0);
+
+        SessionCheckResult retried = singleFlight.execute("token", () -> {
+            loaderCalls.incrementAndGet();
+            return Mono.just(SessionCheckResult.rejected(null));
+        }).block(TIMEOUT);
+
+        assertThat(retried.isAuthenticated()).isFalse();
+        assertThat(loaderCalls.get()).isEqualTo(2);
+        assertThat(requests("leader")).isEqualTo(2.0);
+    }
+
+    @Test
+    void differentTokensAreValidatedIndependently() {
+        singleFlight.execute("t1", () -> {
+            loaderCalls.incrementAndGet();
+            return Mono.just(SessionCheckResult.rejected(null));
+        }).block(TIMEOUT);
+        singleFlight.execute("t2", () -> {
+            loaderCalls.incrementAndGet();
+            return Mono.just(SessionCheckResult.rejected(null));
+        }).block(TIMEOUT);
+
+        assertThat(loaderCalls.get()).isEqualTo(2);
+        assertThat(requests("leader")).isEqualTo(2.0);
+        assertThat(requests("coalesced")).isEqualTo(0.0);
+    }
+
+    /**
+     * 在多个线程上同时对同一凭证发起校验并订阅，返回时所有请求均已加入在途校验。
+     */
+    private List<CompletableFuture<SessionCheckResult>> executeConcurrently(
+            Supplier<Mono<SessionCheckResult>> loader) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CompletableFuture<SessionCheckResult>>> submitted = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            submitted.add(executor.submit(() -> {
+                start.await();
+                return singleFlight.execute("token", () -> {
+                    loaderCalls.incrementAndGet();
+                    return loader.get();
+                }).toFuture();
+            }));
+        }
+        start.countDown();
+        List<CompletableFuture<SessionCheckResult>> results = new ArrayList<>();
+        for (Future<CompletableFuture<SessionCheckResult>> future : submitted) {
+            results.add(future.get(5, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("gateway.session.validation.in.flight").gauge().value();
+    }
+
+    private double requests(String role) {
+        return meterRegistry.get("gateway.session.validation.requests").tag("role", role).counter().count();
+    }
+}
@@ -0,0 +1,116 @@
+package com.dhgx.gateway.auth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WhitelistMatcherBenchmark。
+ * <p>
+ * 对比逐个 AntPathMatcher 匹配与预编译白名单在 10/100/1000 条模式下的耗时。
+ * 运行方式：在 gateway-server 下执行 {@code mvn test-compile} 后以测试类路径运行本类的 main 方法。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WhitelistMatcherBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int patternCount;
+
+    private List<String> patterns;
+    private AntPathMatcher antPathMatcher;
+    private WhitelistMatcher whitelistMatcher;
+    /** 未命中白名单的业务请求，是网关上最常见的情况。 */
+    private String missPath;
+    /** 命中前缀白名单的请求。 */
+    private String prefixHitPath;
+    /** 命中精确白名单的请求。 */
+    private String exactHitPath;
+
+    @Setup
+    public void setUp() {
+        patterns = new ArrayList<>(patternCount);
+        for (int i = 0; i < patternCount; i++) {
+            switch (i % 3) {
+                case 0:
+                    patterns.add("/service-" + i + "/api/public/**");
+                    break;
+                case 1:
+                    patterns.add("/service-" + i + "/api/login");
+                    break;
+                default:
+                    patterns.add("/service-" + i + "/api/files/*.png");
+                    break;
+            }
+        }
+        antPathMatcher = new AntPathMatcher();
+        whitelistMatcher = WhitelistMatcher.compile(patterns);
+        missPath = "/portal-server/portal/api/users/10001/profile";
+        prefixHitPath = "/service-" + (patternCount - 1 - (patternCount - 1) % 3) + "/api/public/news/1";
+        exactHitPath = "/service-" + (patternCount - 1 - (patternCount - 2) % 3) + "/api/login";
+    }
+
+    @Benchmark
+    public boolean antPathMatcherMiss() {
+        return antMatch(missPath);
+    }
+
+    @Benchmark
+    public boolean compiledMiss() {
+        return whitelistMatcher.matches(missPath);
+    }
+
+    @Benchmark
+    public boolean antPathMatcherPrefixHit() {
+        return antMatch(prefixHitPath);
+    }
+
+    @Benchmark
+    public boolean compiledPrefixHit() {
+        return whitelistMatcher.matches(prefixHitPath);
+    }
+
+    @Benchmark
+    public boolean antPathMatcherExactHit() {
+        return antMatch(exactHitPath);
+    }
+
+    @Benchmark
+    public boolean compiledExactHit() {
+        return whitelistMatcher.matches(exactHitPath);
+    }
+
+    /**
+     * 与改造前 PortalAuthGlobalFilter#isWhitelisted 相同的逐个匹配实现。
+     */
+    private boolean antMatch(String path) {
+        return patterns.stream().anyMatch(pattern -> antPathMatcher.match(pattern, path));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WhitelistMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,74 @@
+package com.dhgx.gateway.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WhitelistMatcherTest {
+
+    private static final List<String> PATTERNS = Arrays.asList(
+            "/auth-server/auth/api/login",
+            "/auth-server/auth/api/sms/**",
+            "/portal-server/portal/api/public/**",
+            "/portal-server/portal/api/files/*.png",
+            "/portal-server/portal/api/users/{id}/avatar",
+            "/static/**/*.js",
+            "/health/",
+            "/**/actuator/health",
+            "docs/**");
+
+    private static final List<String> PATHS = Arrays.asList(
+            "/auth-server/auth/api/login",
+            "/auth-server/auth/api/login/",
+            "/auth-server/auth/api/logout",
+            "/auth-server/auth/api/sms",
+            "/auth-server/auth/api/sms/",
+            "/auth-server/auth/api/sms/send",
+            "/auth-server/auth/api/smsx",
+            "/portal-server/portal/api/public/a/b/c",
+            "/portal-server/portal/api/files/a.png",
+            "/portal-server/portal/api/files/a.jpg",
+            "/portal-server/portal/api/files/x/a.png",
+            "/portal-server/portal/api/users/1/avatar",
+            "/portal-server/portal/api/users/1/profile",
+            "/static/js/app.js",
+            "/static/app.css",
+            "/health",
+            "/health/",
+            "/gateway/actuator/health",
+            "/actuator/health",
+            "docs/index.html",
+            "/docs/index.html",
+            "/",
+            "");
+
+    @Test
+    void matchesSameAsAntPathMatcher() {
+        AntPathMatcher antPathMatcher = new AntPathMatcher();
+        WhitelistMatcher matcher = WhitelistMatcher.compile(PATTERNS);
+
+        for (String path : PATHS) {
+            boolean expected = PATTERNS.stream().anyMatch(pattern -> antPathMatcher.match(pattern, path));
+            assertThat(matcher.matches(path)).as(path).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void rootDoubleWildcardMatchesEverything() {
+        WhitelistMatcher matcher = WhitelistMatcher.compile(Collections.singletonList("/**"));
+
+        assertThat(matcher.matches("/")).isTrue();
+        assertThat(matcher.matches("/a/b")).isTrue();
+    }
+
+    @Test
+    void emptyWhitelistMatchesNothing() {
+        assertThat(WhitelistMatcher.compile(null).matches("/a")).isFalse();
+        assertThat(WhitelistMatcher.compile(Collections.<String>emptyList()).matches("/a")).isFalse();
+    }
+}
@@ -0,0 +1,111 @@
+package com.dhgx.gateway.client;
+
+import com.dhgx.gateway.auth.SessionCheckResult;
+import com.dhgx.gateway.config.GatewayAuthProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReactiveAuthClientTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicReference<ClientRequest> lastRequest = new AtomicReference<>();
+
+    @Test
+    void authenticatedSessionCarriesUserIdAndTokenVersion() {
+        ReactiveAuthClient client = client(HttpStatus.OK,
+                "{\"code\":0,\"data\":{\"userId\":\"u1\",\"tokenVersion\":3}}");
+
+        SessionCheckResult result = client.sessionMe("satoken=abc").block(TIMEOUT);
+
+        assertThat(result.isAuthenticated()).isTrue();
+        assertThat(result.getSession().getUserId()).isEqualTo("u1");
+        assertThat(result.getSession().getTokenVersion()).isEqualTo(3L);
+        assertThat(lastRequest.get().method()).isEqualTo(HttpMethod.GET);
+        assertThat(lastRequest.get().url().getPath()).isEqualTo("/session-info");
+        assertThat(lastRequest.get().headers().getFirst(HttpHeaders.COOKIE)).isEqualTo("satoken=abc");
+    }
+
+    @Test
+    void businessFailureOr4xxIsRejectedWithMessage() {
+        SessionCheckResult notLoggedIn = client(HttpStatus.OK, "{\"code\":401,\"message\":\"未登录\"}")
+                .sessionMe("satoken=abc").block(TIMEOUT);
+        SessionCheckResult unauthorized = client(HttpStatus.UNAUTHORIZED, "{\"code\":401,\"message\":\"会话已失效\"}")
+                .sessionMe("satoken=abc").block(TIMEOUT);
+        SessionCheckResult missingUser = client(HttpStatus.OK, "{\"code\":0,\"data\":{}}")
+                .sessionMe("satoken=abc").block(TIMEOUT);
+
+        assertThat(notLoggedIn.isAuthenticated()).isFalse();
+        assertThat(notLoggedIn.getMessage()).isEqualTo("未登录");
+        assertThat(unauthorized.isAuthenticated()).isFalse();
+        assertThat(unauthorized.getMessage()).isEqualTo("会话已失效");
+        assertThat(missingUser.isAuthenticated()).isFalse();
+        assertThat(missingUser.getMessage()).isNull();
+    }
+
+    @Test
+    void serverErrorIsMappedToErrorSignal() {
+        ReactiveAuthClient client = client(HttpStatus.SERVICE_UNAVAILABLE, "{\"code\":503}");
+
+        assertThatThrownBy(() -> client.sessionMe("satoken=abc").block(TIMEOUT))
+                .isInstanceOf(WebClientResponseException.class)
+                .satisfies(ex -> assertThat(((WebClientResponseException) ex).getRawStatusCode()).isEqualTo(503));
+    }
+
+    @Test
+    void batchResultsFollowTokenOrder() {
+        ReactiveAuthClient client = client(HttpStatus.OK, "{\"code\":0,\"data\":{\"sessions\":["
+                + "{\"userId\":\"u1\",\"tokenVersion\":2},{},{\"userId\":\"u3\"}]}}");
+
+        List<SessionCheckResult> results = client.sessionBatch(Arrays.asList("t1", "t2", "t3")).block(TIMEOUT);
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).getSession().getUserId()).isEqualTo("u1");
+        assertThat(results.get(0).getSession().getTokenVersion()).isEqualTo(2L);
+        assertThat(results.get(1).isAuthenticated()).isFalse();
+        assertThat(results.get(2).getSession().getTokenVersion()).isNull();
+        assertThat(lastRequest.get().url().getPath()).isEqualTo("/session-info/batch");
+        assertThat(lastRequest.get().headers().getFirst("X-Internal-Token")).isEqualTo("internal-secret");
+    }
+
+    @Test
+    void batchFailsOnServerErrorOrMismatchedSize() {
+        assertThatThrownBy(() -> client(HttpStatus.INTERNAL_SERVER_ERROR, "{}")
+                .sessionBatch(Arrays.asList("t1", "t2")).block(TIMEOUT))
+                .isInstanceOf(WebClientResponseException.class);
+        assertThatThrownBy(() -> client(HttpStatus.OK, "{\"code\":0,\"data\":{\"sessions\":[{}]}}")
+                .sessionBatch(Arrays.asList("t1", "t2")).block(TIMEOUT))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private ReactiveAuthClient client(HttpStatus status, String body) {
+        WebClient.Builder builder = WebClient.builder()
+                .baseUrl("http://auth-server")
+                .exchangeFunction(request -> {
+                    lastRequest.set(request);
+                    return Mono.just(ClientResponse.create(status)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(body)
+                            .build());
+                });
+        GatewayAuthProperties properties = new GatewayAuthProperties();
+        properties.getClient().setInternalToken("internal-secret");
+        return new ReactiveAuthClient(builder, properties);
+    }
+}
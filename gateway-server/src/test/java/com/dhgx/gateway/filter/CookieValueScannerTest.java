@@ -0,0 +1,54 @@
+package com.dhgx.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CookieValueScannerTest {
+
+    private static final List<String> HEADERS = Arrays.asList(
+            "",
+            " ",
+            "satoken=abc",
+            "satoken=",
+            "satoken= ",
+            "satoken = abc",
+            "a=1; satoken=abc; b=2",
+            "a=1;satoken=abc",
+            "a=1;  satoken=  abc  ",
+            "xsatoken=abc; satoken=def",
+            "satokenx=abc",
+            "satoken=; satoken=abc",
+            "satoken=abc; satoken=def",
+            ";;satoken=abc;;",
+            "a=1; b=2");
+
+    @Test
+    void findsSameValueAsSplitParsing() {
+        for (String header : HEADERS) {
+            assertThat(CookieValueScanner.find(header, "satoken")).as(header).isEqualTo(splitParse(header));
+        }
+    }
+
+    @Test
+    void nullHeaderHasNoValue() {
+        assertThat(CookieValueScanner.find(null, "satoken")).isNull();
+    }
+
+    /**
+     * 改造前按分号切分的解析方式，作为对照。
+     */
+    private static String splitParse(String cookieHeader) {
+        for (String part : cookieHeader.split(";")) {
+            String trimmed = part.trim();
+            if (trimmed.startsWith("satoken=")) {
+                String value = trimmed.substring("satoken=".length()).trim();
+                return value.isEmpty() ? null : value;
+            }
+        }
+        return null;
+    }
+}
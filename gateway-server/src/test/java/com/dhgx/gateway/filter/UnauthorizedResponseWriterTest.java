@@ -0,0 +1,54 @@
+package com.dhgx.gateway.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnauthorizedResponseWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UnauthorizedResponseWriter writer = new UnauthorizedResponseWriter(objectMapper);
+
+    @Test
+    void writesUnauthorizedJson() throws Exception {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/portal/api/me"));
+
+        writer.write(exchange, "登录已失效").block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        JsonNode body = objectMapper.readTree(exchange.getResponse().getBodyAsString().block());
+        assertThat(body.path("code").asInt()).isEqualTo(100100);
+        assertThat(body.path("message").asText()).isEqualTo("登录已失效");
+        assertThat(body.has("data")).isTrue();
+    }
+
+    @Test
+    void blankMessageFallsBackToDefault() {
+        assertThat(writer.payloadOf(" ")).isSameAs(writer.payloadOf(null));
+    }
+
+    @Test
+    void sharedBufferSurvivesRepeatedWrites() {
+        NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+        UnauthorizedResponseWriter.Payload payload = writer.payloadOf("登录已失效");
+
+        for (int i = 0; i < 3; i++) {
+            DataBuffer buffer = payload.toDataBuffer(bufferFactory);
+            assertThat(buffer.toString(StandardCharsets.UTF_8))
+                    .isEqualTo(new String(payload.getBytes(), StandardCharsets.UTF_8));
+            DataBufferUtils.release(buffer);
+        }
+        assertThat(writer.payloadOf("登录已失效")).isSameAs(payload);
+    }
+}
@@ -0,0 +1,182 @@
+package com.dhgx.gateway.ratelimit;
+
+import com.dhgx.gateway.config.GatewayRateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private LettuceConnectionFactory connectionFactory;
+    private ReactiveStringRedisTemplate redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private TokenBucketRateLimiter limiter;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        redisPort = findAvailablePort();
+        redisServer = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redisPort));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+        redisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = newLimiter(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void allowsBurstUpToCapacityThenRejectsWithRetryAfter() {
+        RateLimitKey key = new RateLimitKey(rule("sms", 3, 1, 60), "10.0.0.1");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(acquire(limiter, key).isAllowed()).isTrue();
+        }
+        SimpleMeterRegistry anotherRegistry = new SimpleMeterRegistry();
+        RateLimitDecision rejected = acquire(newLimiter(anotherRegistry), key);
+
+        assertThat(rejected.isAllowed()).isFalse();
+        assertThat(rejected.getRuleId()).isEqualTo("sms");
+        assertThat(rejected.getRetryAfterMillis()).isBetween(1L, 60_000L);
+        assertThat(anotherRegistry.counter("gateway.rate.limit.requests", "rule", "sms", "result", "rejected")
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void redisBucketIsSharedAcrossGatewayInstances() {
+        RateLimitKey key = new RateLimitKey(rule("login", 4, 1, 60), "10.0.0.2");
+        TokenBucketRateLimiter another = newLimiter(new SimpleMeterRegistry());
+
+        int allowed = 0;
+        for (int i = 0; i < 4; i++) {
+            allowed += acquire(limiter, key).isAllowed() ? 1 : 0;
+            allowed += acquire(another, key).isAllowed() ? 1 : 0;
+        }
+
+        assertThat(allowed).isEqualTo(4);
+    }
+
+    @Test
+    void rejectsLocallyWithoutCallingRedisOnceBucketIsKnownEmpty() {
+        RateLimitKey key = new RateLimitKey(rule("captcha", 2, 1, 60), "10.0.0.3");
+        acquire(limiter, key);
+        acquire(limiter, key);
+
+        redisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+        RateLimitDecision decision = acquire(limiter, key);
+
+        assertThat(decision.isAllowed()).isFalse();
+        assertThat(count("captcha", "rejected_local")).isEqualTo(1);
+        assertThat(redisTemplate.hasKey(key.getBucketKey()).block()).isFalse();
+    }
+
+    @Test
+    void consumesAllBucketsOrNone() {
+        RateLimitKey ip = new RateLimitKey(rule("login-ip", 10, 1, 60), "10.0.0.4");
+        RateLimitKey user = new RateLimitKey(rule("login-user", 1, 1, 60), "u1");
+        TokenBucketRateLimiter another = newLimiter(new SimpleMeterRegistry());
+
+        assertThat(acquire(limiter, ip, user).isAllowed()).isTrue();
+        RateLimitDecision decision = acquire(another, ip, user);
+
+        assertThat(decision.isAllowed()).isFalse();
+        assertThat(decision.getRuleId()).isEqualTo("login-user");
+        assertThat(Double.parseDouble(redisTemplate.<String, String>opsForHash()
+                .get(ip.getBucketKey(), "tokens").block())).isLessThan(9.1);
+    }
+
+    @Test
+    void allowsWhenRedisIsUnavailable() {
+        connectionFactory.destroy();
+        LettuceConnectionFactory broken = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("127.0.0.1", findUnusedPort()));
+        broken.afterPropertiesSet();
+        TokenBucketRateLimiter unavailable = new TokenBucketRateLimiter(new ReactiveStringRedisTemplate(broken),
+                new GatewayRateLimitProperties(), meterRegistry);
+
+        RateLimitDecision decision = acquire(unavailable, new RateLimitKey(rule("sms", 1, 1, 60), "10.0.0.5"));
+
+        assertThat(decision.isAllowed()).isTrue();
+        assertThat(count("sms", "error")).isEqualTo(1);
+        broken.destroy();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redisPort));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    private TokenBucketRateLimiter newLimiter(SimpleMeterRegistry registry) {
+        GatewayRateLimitProperties properties = new GatewayRateLimitProperties();
+        properties.setRedisTimeoutMillis(2000);
+        return new TokenBucketRateLimiter(redisTemplate, properties, registry);
+    }
+
+    private static RateLimitDecision acquire(TokenBucketRateLimiter limiter, RateLimitKey... keys) {
+        List<RateLimitKey> list = keys.length == 1 ? Collections.singletonList(keys[0]) : Arrays.asList(keys);
+        return limiter.acquire(list).block();
+    }
+
+    private double count(String rule, String result) {
+        return meterRegistry.counter("gateway.rate.limit.requests", "rule", rule, "result", result).count();
+    }
+
+    private static RateLimitRule rule(String id, long capacity, long refillTokens, long refillPeriodSeconds) {
+        GatewayRateLimitProperties.Rule rule = new GatewayRateLimitProperties.Rule();
+        rule.setId(id);
+        rule.setCapacity(capacity);
+        rule.setRefillTokens(refillTokens);
+        rule.setRefillPeriodSeconds(refillPeriodSeconds);
+        return RateLimitRule.compile(rule);
+    }
+
+    private static int findUnusedPort() {
+        try {
+            return findAvailablePort();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static int findAvailablePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        }
+    }
+}
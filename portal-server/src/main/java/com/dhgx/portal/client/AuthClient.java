@@ -1,7 +1,10 @@
 package com.dhgx.portal.client;
 
 import com.dhgx.common.feign.AuthFeignClient;
+import com.dhgx.common.feign.dto.AuthBatchKickRequest;
+import com.dhgx.common.feign.dto.AuthBatchKickResponse;
 import com.dhgx.common.feign.dto.AuthKickRequest;
+import com.dhgx.common.feign.dto.AuthKickResult;
 import com.dhgx.common.feign.dto.AuthLoginRequest;
 import com.dhgx.common.feign.dto.AuthLoginResponse;
 import com.dhgx.common.feign.dto.AuthPasswordResetRequest;
@@ -29,6 +32,7 @@ import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -43,6 +47,8 @@ import java.util.function.Supplier;
 public class AuthClient {
 
     private static final String GENERIC_AUTH_FAILURE_MESSAGE = "调用鉴权服务失败";
+    /** 单次批量踢出的用户数，与认证服务 auth.kick-batch-max-users 默认值一致。 */
+    private static final int KICK_BATCH_SIZE = 500;
 
     private final AuthFeignClient authFeignClient;
     private final AuthClientProperties authClientProperties;
@@ -124,6 +130,38 @@ public class AuthClient {
                 });
     }
 
+    /**
+     * 批量踢出用户，按认证服务单次上限分批调用，返回合并后的逐个用户结果。
+     * 某一批调用失败时，该批用户均记为失败。
+     *
+     * @param userIds 用户 ID 列表
+     * @return 每个用户的踢出结果
+     */
+    public List<AuthKickResult> kickAll(List<String> userIds) {
+        List<AuthKickResult> results = new ArrayList<>(userIds.size());
+        for (int from = 0; from < userIds.size(); from += KICK_BATCH_SIZE) {
+            List<String> chunk = userIds.subList(from, Math.min(userIds.size(), from + KICK_BATCH_SIZE));
+            ApiResponse<AuthBatchKickResponse> response;
+            try {
+                response = parseResponseBody(authFeignClient.kickAll(authClientProperties.getInternalToken(),
+                        new AuthBatchKickRequest(new ArrayList<>(chunk))),
+                        new TypeReference<ApiResponse<AuthBatchKickResponse>>() {
+                        });
+            } catch (FeignException ex) {
+                response = parseErrorResponse(ex.contentUTF8());
+            }
+            if (response.getCode() == 0 && response.getData() != null && response.getData().getResults() != null) {
+                results.addAll(response.getData().getResults());
+                continue;
+            }
+            String message = StringUtils.hasText(response.getMessage()) ? response.getMessage() : GENERIC_AUTH_FAILURE_MESSAGE;
+            for (String userId : chunk) {
+                results.add(AuthKickResult.failure(userId, message));
+            }
+        }
+        return results;
+    }
+
     private <T> ResponseEntity<ApiResponse<T>> exchangeSafely(Supplier<Response> supplier,
                                                               TypeReference<ApiResponse<T>> typeReference) {
         try {
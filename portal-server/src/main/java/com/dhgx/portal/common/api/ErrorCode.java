@@ -13,6 +13,7 @@ public enum ErrorCode {
     AUTH_FAILED(100320, 401, "账号或密码错误"),
     NOT_FOUND(100404, 404, "资源不存在或已被删除"),
     INTERNAL_ERROR(100500, 500, "系统开小差了，请稍后再试"),
+    SERVICE_BUSY(100503, 503, "系统繁忙，请稍后再试"),
 
     ACTION_TICKET_INVALID(200110, 410, "校验票据无效，请重新发起操作"),
     ACTION_TICKET_EXPIRED(200111, 410, "校验票据已过期，请重新发起操作"),
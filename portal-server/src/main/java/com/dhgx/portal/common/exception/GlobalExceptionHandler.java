@@ -1,11 +1,13 @@
 package com.dhgx.portal.common.exception;
 
+import com.dhgx.common.security.PasswordHashRejectedException;
 import com.dhgx.portal.common.api.ApiResponse;
 import com.dhgx.portal.common.api.ErrorCode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.BindException;
@@ -79,6 +81,16 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.failure(ErrorCode.INVALID_RETURN_URL, ex.getMessage()));
     }
 
+    /**
+     * 处理密码哈希线程池繁忙，返回可重试的繁忙响应。
+     */
+    @ExceptionHandler(PasswordHashRejectedException.class)
+    public ResponseEntity<ApiResponse<Void>> handlePasswordHashRejected(PasswordHashRejectedException ex) {
+        return ResponseEntity.status(ErrorCode.SERVICE_BUSY.getHttpStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.failure(ErrorCode.SERVICE_BUSY, ErrorCode.SERVICE_BUSY.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Void>> handleGeneric(Exception ex) {
         log.error("Unhandled exception caught by global handler", ex);
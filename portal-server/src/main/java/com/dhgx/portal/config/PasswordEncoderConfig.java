@@ -1,5 +1,8 @@
 package com.dhgx.portal.config;
 
+import com.dhgx.common.security.BoundedPasswordEncoder;
+import com.dhgx.common.security.PasswordHashProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
@@ -15,7 +18,8 @@ import java.util.Map;
  * <p>
  * 使用 DelegatingPasswordEncoder 统一管理密码哈希算法：
  * 默认采用 Argon2id，兼容 bcrypt，所有哈希都会带上算法前缀（如 {argon2} / {bcrypt}），
- * 杜绝明文或可逆加密存储。
+ * 杜绝明文或可逆加密存储。未带前缀的历史哈希按 bcrypt 校验。
+ * 哈希计算在 {@link BoundedPasswordEncoder} 的独立线程池中执行（{@code portal.security.password-hash.*}）。
  * </p>
  */
 @Configuration
@@ -24,14 +28,19 @@ public class PasswordEncoderConfig {
     /**
      * 提供 DelegatingPasswordEncoder Bean，默认 Argon2id，兼容 bcrypt。
      *
-     * @return PasswordEncoder
+     * @return 在独立线程池中执行哈希的 PasswordEncoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
+    public PasswordEncoder passwordEncoder(PortalProperties portalProperties, MeterRegistry meterRegistry) {
         String defaultId = "argon2";
         Map<String, PasswordEncoder> encoders = new HashMap<>();
         encoders.put(defaultId, new Argon2PasswordEncoder());
         encoders.put("bcrypt", new BCryptPasswordEncoder());
-        return new DelegatingPasswordEncoder(defaultId, encoders);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(defaultId, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        PasswordHashProperties hashProperties = portalProperties.getSecurity().getPasswordHash();
+        return hashProperties.isEnabled()
+                ? new BoundedPasswordEncoder(delegating, hashProperties, meterRegistry)
+                : delegating;
     }
 }
@@ -1,5 +1,6 @@
 package com.dhgx.portal.config;
 
+import com.dhgx.common.security.PasswordHashProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.util.ArrayList;
@@ -60,6 +61,7 @@ public class PortalProperties {
     public static class Security {
         private List<String> allowedHosts = new ArrayList<>();
         private Captcha captcha = new Captcha();
+        private PasswordHashProperties passwordHash = new PasswordHashProperties();
 
         public List<String> getAllowedHosts() {
             return allowedHosts;
@@ -77,6 +79,14 @@ public class PortalProperties {
             this.captcha = captcha;
         }
 
+        public PasswordHashProperties getPasswordHash() {
+            return passwordHash;
+        }
+
+        public void setPasswordHash(PasswordHashProperties passwordHash) {
+            this.passwordHash = passwordHash;
+        }
+
         public static class Captcha {
             private boolean enabled = true;
             private long ttlSeconds = 180;
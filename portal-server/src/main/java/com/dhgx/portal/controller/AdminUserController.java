@@ -11,12 +11,17 @@ import com.dhgx.portal.service.PortalAdminUserService;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 管理端用户控制器，提供用户查询、启用/禁用等接口。
@@ -102,6 +107,27 @@ public class AdminUserController {
         return ApiResponse.success(new ActionResponse(true));
     }
 
+    /**
+     * 批量更新用户启用状态，例如禁用整个部门的用户。
+     *
+     * @param request 请求体，包含用户 ID 列表与目标状态
+     * @return 批量操作结果
+     */
+    @PostMapping("/status/batch")
+    @AdminRequired(scope = "portal")
+    public ApiResponse<BatchStatusResponse> updateUsersStatus(@Valid @RequestBody BatchStatusRequest request) {
+        String operatorId = RequestContext.getUserId();
+        PortalAdminUserService.BatchActionResult result = portalAdminUserService.updateUsersStatus(
+                request.getUserIds(),
+                request.getEnabled(),
+                operatorId);
+        if (!result.isSuccess()) {
+            return ApiResponse.failure(result.getErrorCode());
+        }
+        return ApiResponse.success(new BatchStatusResponse(result.getUpdatedUserIds(), result.getMissingUserIds(),
+                result.getKickFailedUserIds()));
+    }
+
     /**
      * 用户状态更新请求体。
      */
@@ -121,6 +147,75 @@ public class AdminUserController {
         }
     }
 
+    /**
+     * 批量状态更新请求体。
+     */
+    public static class BatchStatusRequest {
+        /**
+         * 用户 ID 列表。
+         */
+        @NotEmpty(message = "userIds 不能为空")
+        private List<String> userIds;
+        /**
+         * 是否启用。
+         */
+        @NotNull(message = "enabled 不能为空")
+        private Boolean enabled;
+
+        public List<String> getUserIds() {
+            return userIds;
+        }
+
+        public void setUserIds(List<String> userIds) {
+            this.userIds = userIds;
+        }
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * 批量状态更新结果。
+     */
+    public static class BatchStatusResponse {
+        /**
+         * 已更新的用户 ID。
+         */
+        private final List<String> updatedUserIds;
+        /**
+         * 不存在的用户 ID。
+         */
+        private final List<String> missingUserIds;
+        /**
+         * 会话踢出失败的用户 ID，这些用户的会话将在 Token 版本号校验或会话过期时失效。
+         */
+        private final List<String> kickFailedUserIds;
+
+        public BatchStatusResponse(List<String> updatedUserIds, List<String> missingUserIds,
+                                   List<String> kickFailedUserIds) {
+            this.updatedUserIds = updatedUserIds;
+            this.missingUserIds = missingUserIds;
+            this.kickFailedUserIds = kickFailedUserIds;
+        }
+
+        public List<String> getUpdatedUserIds() {
+            return updatedUserIds;
+        }
+
+        public List<String> getMissingUserIds() {
+            return missingUserIds;
+        }
+
+        public List<String> getKickFailedUserIds() {
+            return kickFailedUserIds;
+        }
+    }
+
     /**
      * 用户概要信息。
      */
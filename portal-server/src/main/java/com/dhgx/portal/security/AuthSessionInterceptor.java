@@ -5,6 +5,7 @@ import com.dhgx.portal.client.AuthClient;
 import com.dhgx.portal.common.api.ApiResponse;
 import com.dhgx.portal.common.api.ErrorCode;
 import com.dhgx.portal.common.context.RequestContext;
+import com.dhgx.common.gateway.GatewayIdentitySigner;
 import com.dhgx.common.gateway.GatewaySecurityProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +25,10 @@ import java.util.Map;
 @Component
 /**
  * AuthSessionInterceptor。
+ * <p>
+ * 校验门户接口的登录态。经网关转发且携带有效签名身份头的请求直接信任网关校验结果，
+ * 签名须与本次请求的方法、路径及 satoken 一致；其余请求调用认证服务查询会话。
+ * </p>
  */
 public class AuthSessionInterceptor implements HandlerInterceptor {
 
@@ -35,6 +40,7 @@ public class AuthSessionInterceptor implements HandlerInterceptor {
     private final AuthClient authClient;
     private final ObjectMapper objectMapper;
     private final GatewaySecurityProperties gatewaySecurityProperties;
+    private final GatewayIdentitySigner gatewayIdentitySigner;
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
     public AuthSessionInterceptor(@org.springframework.context.annotation.Lazy AuthClient authClient,
@@ -43,6 +49,7 @@ public class AuthSessionInterceptor implements HandlerInterceptor {
         this.authClient = authClient;
         this.objectMapper = objectMapper;
         this.gatewaySecurityProperties = gatewaySecurityProperties;
+        this.gatewayIdentitySigner = new GatewayIdentitySigner(gatewaySecurityProperties.getIdentitySecret());
     }
 
     @Override
@@ -64,6 +71,12 @@ public class AuthSessionInterceptor implements HandlerInterceptor {
             writeUnauthorized(response, "登录凭证缺失，请先登录");
             return false;
         }
+        String trustedUserId = resolveGatewayIdentity(request, findSaTokenCookie(cookie));
+        if (trustedUserId != null) {
+            RequestContext.setUserId(trustedUserId);
+            request.setAttribute("userId", trustedUserId);
+            return true;
+        }
         ResponseEntity<ApiResponse<AuthSessionResponse>> authResponse = authClient.sessionMe(cookie);
         ApiResponse<AuthSessionResponse> body = authResponse == null ? null : authResponse.getBody();
         if (body == null || body.getCode() != 0 || body.getData() == null) {
@@ -85,6 +98,25 @@ public class AuthSessionInterceptor implements HandlerInterceptor {
         RequestContext.clear();
     }
 
+    /**
+     * 解析网关透传的签名身份，签名、时效或所绑定的请求与凭证校验失败时返回 null。
+     */
+    private String resolveGatewayIdentity(HttpServletRequest request, String token) {
+        if (!gatewayIdentitySigner.isEnabled()) {
+            return null;
+        }
+        String userId = parseString(request.getHeader(GatewayIdentitySigner.USER_ID_HEADER));
+        boolean trusted = gatewayIdentitySigner.verify(userId,
+                request.getHeader(GatewayIdentitySigner.AUTH_VERSION_HEADER),
+                request.getHeader(GatewayIdentitySigner.TIMESTAMP_HEADER),
+                request.getHeader(GatewayIdentitySigner.SIGNATURE_HEADER),
+                request.getMethod(),
+                request.getRequestURI(),
+                token,
+                gatewaySecurityProperties.getIdentityMaxAgeSeconds() * 1000);
+        return trusted ? userId : null;
+    }
+
     private boolean isWhitelisted(HttpServletRequest request) {
         String method = request.getMethod();
         String path = request.getRequestURI();
@@ -123,18 +155,22 @@ public class AuthSessionInterceptor implements HandlerInterceptor {
     }
 
     private boolean hasSaTokenCookie(String cookieHeader) {
+        return findSaTokenCookie(cookieHeader) != null;
+    }
+
+    private String findSaTokenCookie(String cookieHeader) {
         if (cookieHeader == null || cookieHeader.trim().isEmpty()) {
-            return false;
+            return null;
         }
         String[] parts = cookieHeader.split(";");
         for (String part : parts) {
             String trimmed = part.trim();
             if (trimmed.startsWith(SATOKEN_COOKIE_NAME + "=")) {
                 String value = trimmed.substring(SATOKEN_COOKIE_NAME.length() + 1).trim();
-                return !value.isEmpty();
+                return value.isEmpty() ? null : value;
             }
         }
-        return false;
+        return null;
     }
 
     private boolean matches(String pattern, String method, String path) {
@@ -3,21 +3,31 @@ package com.dhgx.portal.service;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.dhgx.api.notify.core.EventNotifyPublisher;
+import com.dhgx.common.feign.dto.AuthKickResult;
 import com.dhgx.portal.client.AuthClient;
 import com.dhgx.portal.common.api.ErrorCode;
 import com.dhgx.portal.controller.AdminUserController;
 import com.dhgx.portal.entity.PortalUser;
 import com.dhgx.portal.entity.PortalUserAuthState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Collections;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * PortalAdminUserService。
@@ -28,6 +38,8 @@ import java.util.Collections;
 @Service
 public class PortalAdminUserService {
 
+    private static final Logger log = LoggerFactory.getLogger(PortalAdminUserService.class);
+
     /** 用户启用状态码。 */
     private static final int STATUS_ENABLED = 1;
     /** 用户禁用状态码。 */
@@ -158,15 +170,101 @@ public class PortalAdminUserService {
         portalUserAuthStateService.saveOrUpdate(state);
         userAuthCacheService.updateUserAuthCache(userId, status, nextAuthVersion, state.getProfileVersion());
 
-        authClient.kick(userId);
-        if (enabled) {
-            publishEnabled(userId, nextAuthVersion, operatorId);
-        } else {
-            publishDisabled(userId, nextAuthVersion, operatorId);
-        }
+        afterCommit(() -> {
+            authClient.kick(userId);
+            if (enabled) {
+                publishEnabled(userId, nextAuthVersion, operatorId);
+            } else {
+                publishDisabled(userId, nextAuthVersion, operatorId);
+            }
+        });
         return ActionResult.success();
     }
 
+    /**
+     * 批量更新用户启用状态，批量读写用户与鉴权状态，并通过一次批量踢出接口注销全部用户的会话。
+     * <p>
+     * 鉴权缓存以管道一次写入；踢出会话与发布事件在事务提交后执行，不占用数据库事务，回滚时也不会误踢。
+     * 提交回调在返回调用方之前同步执行，踢出失败的用户仍体现在返回结果中。
+     * </p>
+     *
+     * @param userIds    用户 ID 列表
+     * @param enabled    是否启用
+     * @param operatorId 操作人 ID
+     * @return 批量操作结果，包含不存在的用户与踢出失败的用户
+     */
+    @Transactional
+    public BatchActionResult updateUsersStatus(List<String> userIds, boolean enabled, String operatorId) {
+        if (userIds == null || userIds.isEmpty()) {
+            return BatchActionResult.failure(ErrorCode.INVALID_ARGUMENT);
+        }
+        if (!rolePermissionService.isPortalAdmin(operatorId)) {
+            return BatchActionResult.failure(ErrorCode.FORBIDDEN);
+        }
+        List<String> distinct = new ArrayList<>(userIds.stream()
+                .filter(StringUtils::hasText)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        if (distinct.isEmpty()) {
+            return BatchActionResult.failure(ErrorCode.INVALID_ARGUMENT);
+        }
+        Map<String, PortalUser> users = portalUserService.listByIds(distinct).stream()
+                .collect(Collectors.toMap(PortalUser::getId, Function.identity()));
+        List<String> updatedIds = new ArrayList<>(users.size());
+        List<String> missingIds = new ArrayList<>();
+        for (String userId : distinct) {
+            if (users.containsKey(userId)) {
+                updatedIds.add(userId);
+            } else {
+                missingIds.add(userId);
+            }
+        }
+        if (updatedIds.isEmpty()) {
+            return BatchActionResult.success(updatedIds, missingIds, Collections.emptyList());
+        }
+        int status = enabled ? STATUS_ENABLED : STATUS_DISABLED;
+        for (PortalUser user : users.values()) {
+            user.setStatus(status);
+            user.setRemark(null);
+        }
+        portalUserService.updateBatchById(users.values());
+
+        Map<String, PortalUserAuthState> existingStates = portalUserAuthStateService.listByIds(updatedIds).stream()
+                .collect(Collectors.toMap(PortalUserAuthState::getUserId, Function.identity()));
+        List<PortalUserAuthState> states = new ArrayList<>(updatedIds.size());
+        for (String userId : updatedIds) {
+            PortalUserAuthState state = existingStates.get(userId);
+            if (state == null) {
+                state = new PortalUserAuthState();
+                state.setUserId(userId);
+                state.setAuthVersion(1L);
+                state.setProfileVersion(1L);
+            }
+            state.setAuthVersion(nextVersion(state.getAuthVersion()));
+            if (!enabled) {
+                state.setLastDisableTime(LocalDateTime.now());
+            }
+            states.add(state);
+        }
+        portalUserAuthStateService.saveOrUpdateBatch(states);
+        Map<String, UserAuthCacheService.UserAuthCache> caches = new LinkedHashMap<>();
+        for (PortalUserAuthState state : states) {
+            caches.put(state.getUserId(), new UserAuthCacheService.UserAuthCache(status, state.getAuthVersion(),
+                    state.getProfileVersion()));
+        }
+        userAuthCacheService.updateUserAuthCaches(caches);
+
+        List<String> kickFailedIds = new ArrayList<>();
+        afterCommit(() -> {
+            for (AuthKickResult result : authClient.kickAll(updatedIds)) {
+                if (!result.isSuccess()) {
+                    kickFailedIds.add(result.getUserId());
+                }
+            }
+            publishAll(states, enabled, operatorId);
+        });
+        return BatchActionResult.success(updatedIds, missingIds, kickFailedIds);
+    }
+
     /**
      * 加载或初始化用户鉴权状态。
      */
@@ -189,29 +287,63 @@ public class PortalAdminUserService {
         return base + 1;
     }
 
+    /**
+     * 在当前事务提交后执行；没有事务同步时立即执行。
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     /**
      * 发布用户禁用事件。
      * operatorId 操作人ID
      */
     private void publishDisabled(String userId, Long authVersion, String operatorId) {
-        Map<String, String> message = new HashMap<>();
-        message.put("userId", userId);
-        message.put("authVersion", authVersion.toString());
-        message.put("operatorId", operatorId);
-        message.put("time", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-        eventNotifyPublisher.publish(EVENT_USER_DISABLED, message);
+        eventNotifyPublisher.publish(EVENT_USER_DISABLED, statusMessage(userId, authVersion, operatorId));
     }
 
     /**
      * 发布用户启用事件。
      */
     private void publishEnabled(String userId, Long authVersion, String operatorId) {
+        eventNotifyPublisher.publish(EVENT_USER_ENABLED, statusMessage(userId, authVersion, operatorId));
+    }
+
+    /**
+     * 以管道批量发布状态变更事件。事务已提交，发布失败时只记录日志，不影响本次操作结果。
+     */
+    private void publishAll(List<PortalUserAuthState> states, boolean enabled, String operatorId) {
+        List<Map<String, String>> messages = new ArrayList<>(states.size());
+        for (PortalUserAuthState state : states) {
+            messages.add(statusMessage(state.getUserId(), state.getAuthVersion(), operatorId));
+        }
+        String streamKey = enabled ? EVENT_USER_ENABLED : EVENT_USER_DISABLED;
+        try {
+            eventNotifyPublisher.publishAll(streamKey, messages);
+        } catch (RuntimeException ex) {
+            log.error("批量发布用户状态事件失败, stream={}, count={}", streamKey, messages.size(), ex);
+        }
+    }
+
+    /**
+     * 构建用户状态变更事件内容。
+     */
+    private Map<String, String> statusMessage(String userId, Long authVersion, String operatorId) {
         Map<String, String> message = new HashMap<>();
         message.put("userId", userId);
         message.put("authVersion", authVersion.toString());
         message.put("operatorId", operatorId);
         message.put("time", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-        eventNotifyPublisher.publish(EVENT_USER_ENABLED, message);
+        return message;
     }
 
 
@@ -304,6 +436,68 @@ public class PortalAdminUserService {
         }
     }
 
+    /**
+     * 批量操作结果。
+     */
+    public static class BatchActionResult {
+        /** 是否成功。 */
+        private final boolean success;
+        /** 错误码。 */
+        private final ErrorCode errorCode;
+        /** 已更新的用户 ID。 */
+        private final List<String> updatedUserIds;
+        /** 不存在的用户 ID。 */
+        private final List<String> missingUserIds;
+        /** 会话踢出失败的用户 ID。 */
+        private final List<String> kickFailedUserIds;
+
+        private BatchActionResult(boolean success, ErrorCode errorCode, List<String> updatedUserIds,
+                                  List<String> missingUserIds, List<String> kickFailedUserIds) {
+            this.success = success;
+            this.errorCode = errorCode;
+            this.updatedUserIds = updatedUserIds;
+            this.missingUserIds = missingUserIds;
+            this.kickFailedUserIds = kickFailedUserIds;
+        }
+
+        /** 构建成功结果。 */
+        public static BatchActionResult success(List<String> updatedUserIds, List<String> missingUserIds,
+                                                List<String> kickFailedUserIds) {
+            return new BatchActionResult(true, null, updatedUserIds, missingUserIds, kickFailedUserIds);
+        }
+
+        /** 构建失败结果。 */
+        public static BatchActionResult failure(ErrorCode errorCode) {
+            return new BatchActionResult(false, errorCode, Collections.emptyList(), Collections.emptyList(),
+                    Collections.emptyList());
+        }
+
+        /** 是否成功。 */
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /** 获取错误码。 */
+        public ErrorCode getErrorCode() {
+            return errorCode;
+        }
+
+        /** 获取已更新的用户 ID。 */
+        public List<String> getUpdatedUserIds() {
+            return updatedUserIds;
+        }
+
+        /** 获取不存在的用户 ID。 */
+        public List<String> getMissingUserIds() {
+            return missingUserIds;
+        }
+
+        /** 获取会话踢出失败的用户 ID。 */
+        public List<String> getKickFailedUserIds() {
+            return kickFailedUserIds;
+        }
+    }
+
     /**
      * 通用操作结果。
      */
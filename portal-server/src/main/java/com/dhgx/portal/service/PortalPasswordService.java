@@ -12,7 +12,6 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -136,19 +135,12 @@ public class PortalPasswordService {
     }
 
     /**
-     * 对比原始密码与加密串。
+     * 对比原始密码与加密串，未带算法前缀的历史哈希由编码器按 bcrypt 校验。
      */
     private boolean matchesPassword(String rawPassword, String encoded) {
         if (!StringUtils.hasText(encoded)) {
             return false;
         }
-        if (encoded.startsWith("{")) {
-            return passwordEncoder.matches(rawPassword, encoded);
-        }
-        BCryptPasswordEncoder fallback = new BCryptPasswordEncoder();
-        if (fallback.matches(rawPassword, encoded)) {
-            return true;
-        }
         return passwordEncoder.matches(rawPassword, encoded);
     }
 
@@ -1,11 +1,20 @@
 package com.dhgx.portal.service;
 
+import java.util.Map;
+
 /**
  * UserAuthCacheService。
  */
 public interface UserAuthCacheService {
     void updateUserAuthCache(String userId, Integer status, Long authVersion, Long profileVersion);
 
+    /**
+     * 批量更新鉴权缓存，全部写入在一次管道往返内完成。
+     *
+     * @param caches 用户 ID 到缓存值的映射
+     */
+    void updateUserAuthCaches(Map<String, UserAuthCache> caches);
+
     UserAuthCache getUserAuthCache(String userId);
 
     class UserAuthCache {
@@ -2,6 +2,8 @@ package com.dhgx.portal.service.impl;
 
 import com.dhgx.portal.config.PortalProperties;
 import com.dhgx.portal.service.UserAuthCacheService;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -32,6 +34,43 @@ public class UserAuthCacheServiceImpl implements UserAuthCacheService {
         if (!StringUtils.hasText(userId)) {
             return;
         }
+        Map<String, String> values = toHash(status, authVersion, profileVersion);
+        if (values.isEmpty()) {
+            return;
+        }
+        String key = buildKey(userId);
+        stringRedisTemplate.opsForHash().putAll(key, values);
+        long ttlSeconds = portalProperties.getUserAuth().getCacheTtlSeconds();
+        stringRedisTemplate.expire(key, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void updateUserAuthCaches(Map<String, UserAuthCache> caches) {
+        if (caches == null || caches.isEmpty()) {
+            return;
+        }
+        long ttlSeconds = portalProperties.getUserAuth().getCacheTtlSeconds();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (Map.Entry<String, UserAuthCache> entry : caches.entrySet()) {
+                UserAuthCache cache = entry.getValue();
+                if (!StringUtils.hasText(entry.getKey()) || cache == null) {
+                    continue;
+                }
+                Map<String, String> values = toHash(cache.getStatus(), cache.getAuthVersion(),
+                        cache.getProfileVersion());
+                if (values.isEmpty()) {
+                    continue;
+                }
+                String key = buildKey(entry.getKey());
+                stringConnection.hMSet(key, values);
+                stringConnection.expire(key, ttlSeconds);
+            }
+            return null;
+        });
+    }
+
+    private Map<String, String> toHash(Integer status, Long authVersion, Long profileVersion) {
         Map<String, String> values = new HashMap<>();
         if (status != null) {
             values.put("status", status.toString());
@@ -42,13 +81,7 @@ public class UserAuthCacheServiceImpl implements UserAuthCacheService {
         if (profileVersion != null) {
             values.put("profileVersion", profileVersion.toString());
         }
-        if (values.isEmpty()) {
-            return;
-        }
-        String key = buildKey(userId);
-        stringRedisTemplate.opsForHash().putAll(key, values);
-        long ttlSeconds = portalProperties.getUserAuth().getCacheTtlSeconds();
-        stringRedisTemplate.expire(key, ttlSeconds, TimeUnit.SECONDS);
+        return values;
     }
 
     @Override
@@ -0,0 +1,96 @@
+package com.dhgx.portal.client;
+
+import com.dhgx.common.feign.AuthFeignClient;
+import com.dhgx.common.feign.dto.AuthBatchKickRequest;
+import com.dhgx.common.feign.dto.AuthKickResult;
+import com.dhgx.portal.config.AuthClientProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AuthClientKickAllTest {
+
+    private AuthFeignClient authFeignClient;
+    private AuthClient authClient;
+
+    @BeforeEach
+    void setUp() {
+        authFeignClient = mock(AuthFeignClient.class);
+        AuthClientProperties properties = new AuthClientProperties();
+        properties.setInternalToken("internal-secret");
+        authClient = new AuthClient(authFeignClient, properties, new ObjectMapper());
+    }
+
+    @Test
+    void forwardsUsersToAuthInChunksWithInternalToken() {
+        given(authFeignClient.kickAll(eq("internal-secret"), any(AuthBatchKickRequest.class)))
+                .willAnswer(invocation -> kickResponse(invocation.getArgument(1)));
+        List<String> userIds = userIds(1200);
+
+        List<AuthKickResult> results = authClient.kickAll(userIds);
+
+        ArgumentCaptor<AuthBatchKickRequest> requests = ArgumentCaptor.forClass(AuthBatchKickRequest.class);
+        verify(authFeignClient, times(3)).kickAll(eq("internal-secret"), requests.capture());
+        assertThat(requests.getAllValues()).extracting(request -> request.getUserIds().size())
+                .containsExactly(500, 500, 200);
+        assertThat(results).extracting(AuthKickResult::getUserId).isEqualTo(userIds);
+        assertThat(results).allMatch(AuthKickResult::isSuccess);
+    }
+
+    @Test
+    void failedChunkMarksEveryUserInItAsFailed() {
+        given(authFeignClient.kickAll(eq("internal-secret"), any(AuthBatchKickRequest.class)))
+                .willReturn(response(403, "{\"code\":403,\"message\":\"内部调用未授权\",\"data\":null}"));
+
+        List<AuthKickResult> results = authClient.kickAll(userIds(3));
+
+        assertThat(results).hasSize(3).noneMatch(AuthKickResult::isSuccess);
+        assertThat(results).extracting(AuthKickResult::getMessage).containsOnly("内部调用未授权");
+    }
+
+    private static Response kickResponse(AuthBatchKickRequest request) {
+        StringBuilder body = new StringBuilder("{\"code\":0,\"message\":\"success\",\"data\":{\"results\":[");
+        for (int i = 0; i < request.getUserIds().size(); i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"userId\":\"").append(request.getUserIds().get(i))
+                    .append("\",\"success\":true,\"tokenVersion\":1}");
+        }
+        return response(200, body.append("]}}").toString());
+    }
+
+    private static Response response(int status, String body) {
+        return Response.builder()
+                .status(status)
+                .headers(Collections.emptyMap())
+                .request(Request.create(Request.HttpMethod.POST, "/session/kick/batch", Collections.emptyMap(),
+                        null, StandardCharsets.UTF_8, null))
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+
+    private static List<String> userIds(int count) {
+        List<String> userIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            userIds.add("u" + i);
+        }
+        return userIds;
+    }
+}
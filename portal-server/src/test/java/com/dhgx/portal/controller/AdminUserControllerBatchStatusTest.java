@@ -0,0 +1,84 @@
+package com.dhgx.portal.controller;
+
+import com.dhgx.portal.common.api.ErrorCode;
+import com.dhgx.portal.common.context.RequestContext;
+import com.dhgx.portal.service.PortalAdminUserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AdminUserControllerBatchStatusTest {
+
+    private PortalAdminUserService portalAdminUserService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        portalAdminUserService = mock(PortalAdminUserService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new AdminUserController(portalAdminUserService)).build();
+        RequestContext.setUserId("admin");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContext.clear();
+    }
+
+    @Test
+    void batchStatusUpdateReturnsUpdatedMissingAndKickFailedUsers() throws Exception {
+        given(portalAdminUserService.updateUsersStatus(Arrays.asList("u1", "u2", "missing"), false, "admin"))
+                .willReturn(PortalAdminUserService.BatchActionResult.success(Arrays.asList("u1", "u2"),
+                        Collections.singletonList("missing"), Collections.singletonList("u2")));
+
+        mockMvc.perform(post("/admin/users/status/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[\"u1\",\"u2\",\"missing\"],\"enabled\":false}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(0))
+                .andExpect(jsonPath("$.data.updatedUserIds[0]").value("u1"))
+                .andExpect(jsonPath("$.data.updatedUserIds[1]").value("u2"))
+                .andExpect(jsonPath("$.data.missingUserIds[0]").value("missing"))
+                .andExpect(jsonPath("$.data.kickFailedUserIds[0]").value("u2"));
+
+        verify(portalAdminUserService).updateUsersStatus(Arrays.asList("u1", "u2", "missing"), false, "admin");
+    }
+
+    @Test
+    void serviceFailureIsReturnedAsErrorCode() throws Exception {
+        given(portalAdminUserService.updateUsersStatus(Collections.singletonList("u1"), true, "admin"))
+                .willReturn(PortalAdminUserService.BatchActionResult.failure(ErrorCode.FORBIDDEN));
+
+        mockMvc.perform(post("/admin/users/status/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[\"u1\"],\"enabled\":true}"))
+                .andExpect(jsonPath("$.code").value(ErrorCode.FORBIDDEN.getCode()))
+                .andExpect(jsonPath("$.data").doesNotExist());
+    }
+
+    @Test
+    void invalidRequestIsRejectedBeforeReachingService() throws Exception {
+        mockMvc.perform(post("/admin/users/status/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[],\"enabled\":false}"))
+                .andExpect(status().isBadRequest());
+
+        verify(portalAdminUserService, never()).updateUsersStatus(anyList(), anyBoolean(), anyString());
+    }
+}
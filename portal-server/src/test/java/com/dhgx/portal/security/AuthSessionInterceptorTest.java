@@ -0,0 +1,115 @@
+package com.dhgx.portal.security;
+
+import com.dhgx.common.feign.dto.AuthSessionResponse;
+import com.dhgx.common.gateway.GatewayIdentitySigner;
+import com.dhgx.common.gateway.GatewaySecurityProperties;
+import com.dhgx.portal.client.AuthClient;
+import com.dhgx.portal.common.api.ApiResponse;
+import com.dhgx.portal.common.context.RequestContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AuthSessionInterceptorTest {
+
+    private static final String SECRET = "gateway-identity-secret";
+
+    private AuthClient authClient;
+    private AuthSessionInterceptor interceptor;
+    private HandlerMethod handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        authClient = mock(AuthClient.class);
+        GatewaySecurityProperties properties = new GatewaySecurityProperties();
+        properties.setIdentitySecret(SECRET);
+        interceptor = new AuthSessionInterceptor(authClient, new ObjectMapper(), properties);
+        handler = new HandlerMethod(this, AuthSessionInterceptorTest.class.getDeclaredMethod("setUp"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContext.clear();
+    }
+
+    @Test
+    void trustsSignedGatewayIdentityWithoutCallingAuthServer() throws Exception {
+        MockHttpServletRequest request = portalRequest();
+        sign(request, new GatewayIdentitySigner(SECRET), System.currentTimeMillis());
+
+        boolean passed = interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+
+        assertThat(passed).isTrue();
+        assertThat(RequestContext.getUserId()).isEqualTo("10001");
+        verify(authClient, never()).sessionMe(anyString());
+    }
+
+    @Test
+    void fallsBackToAuthServerWhenSignatureIsInvalidOrStale() throws Exception {
+        given(authClient.sessionMe(anyString()))
+                .willReturn(ResponseEntity.ok(ApiResponse.success(new AuthSessionResponse("20002", 1L))));
+
+        MockHttpServletRequest forged = portalRequest();
+        sign(forged, new GatewayIdentitySigner("another-secret"), System.currentTimeMillis());
+        assertThat(interceptor.preHandle(forged, new MockHttpServletResponse(), handler)).isTrue();
+        assertThat(RequestContext.getUserId()).isEqualTo("20002");
+
+        MockHttpServletRequest stale = portalRequest();
+        sign(stale, new GatewayIdentitySigner(SECRET), System.currentTimeMillis() - 60_000);
+        assertThat(interceptor.preHandle(stale, new MockHttpServletResponse(), handler)).isTrue();
+        assertThat(RequestContext.getUserId()).isEqualTo("20002");
+    }
+
+    @Test
+    void signedIdentityIsNotTrustedWithAnotherCookieMethodOrPath() throws Exception {
+        given(authClient.sessionMe(anyString()))
+                .willReturn(ResponseEntity.ok(ApiResponse.success(new AuthSessionResponse("20002", 1L))));
+        GatewayIdentitySigner signer = new GatewayIdentitySigner(SECRET);
+        long now = System.currentTimeMillis();
+
+        MockHttpServletRequest replayedWithDummyCookie = request("GET", "/portal-server/portal/api/me", "satoken=x");
+        sign(replayedWithDummyCookie, signer, now);
+        MockHttpServletRequest replayedOnAnotherPath = request("GET", "/portal-server/portal/api/users", "satoken=abc");
+        sign(replayedOnAnotherPath, signer, now);
+        MockHttpServletRequest replayedWithAnotherMethod = request("POST", "/portal-server/portal/api/me", "satoken=abc");
+        sign(replayedWithAnotherMethod, signer, now);
+
+        for (MockHttpServletRequest replayed : new MockHttpServletRequest[]{replayedWithDummyCookie,
+                replayedOnAnotherPath, replayedWithAnotherMethod}) {
+            assertThat(interceptor.preHandle(replayed, new MockHttpServletResponse(), handler)).isTrue();
+            assertThat(RequestContext.getUserId()).isEqualTo("20002");
+        }
+        verify(authClient, times(3)).sessionMe(anyString());
+    }
+
+    private static MockHttpServletRequest portalRequest() {
+        return request("GET", "/portal-server/portal/api/me", "satoken=abc");
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String cookie) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.addHeader("Cookie", cookie);
+        return request;
+    }
+
+    private static void sign(MockHttpServletRequest request, GatewayIdentitySigner signer, long timestamp) {
+        request.addHeader(GatewayIdentitySigner.USER_ID_HEADER, "10001");
+        request.addHeader(GatewayIdentitySigner.AUTH_VERSION_HEADER, "3");
+        request.addHeader(GatewayIdentitySigner.TIMESTAMP_HEADER, String.valueOf(timestamp));
+        request.addHeader(GatewayIdentitySigner.SIGNATURE_HEADER,
+                signer.sign("10001", "3", timestamp, "GET", "/portal-server/portal/api/me", "abc"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.dhgx.portal.service;
+
+import com.dhgx.api.notify.core.EventNotifyPublisher;
+import com.dhgx.common.feign.dto.AuthKickResult;
+import com.dhgx.portal.client.AuthClient;
+import com.dhgx.portal.common.api.ErrorCode;
+import com.dhgx.portal.entity.PortalUser;
+import com.dhgx.portal.entity.PortalUserAuthState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PortalAdminUserServiceTest {
+
+    private static final String OPERATOR = "admin";
+
+    private PortalUserService portalUserService;
+    private PortalUserAuthStateService portalUserAuthStateService;
+    private UserAuthCacheService userAuthCacheService;
+    private AuthClient authClient;
+    private EventNotifyPublisher eventNotifyPublisher;
+    private RolePermissionService rolePermissionService;
+    private PortalAdminUserService service;
+
+    @BeforeEach
+    void setUp() {
+        portalUserService = mock(PortalUserService.class);
+        portalUserAuthStateService = mock(PortalUserAuthStateService.class);
+        userAuthCacheService = mock(UserAuthCacheService.class);
+        authClient = mock(AuthClient.class);
+        eventNotifyPublisher = mock(EventNotifyPublisher.class);
+        rolePermissionService = mock(RolePermissionService.class);
+        given(rolePermissionService.isPortalAdmin(OPERATOR)).willReturn(true);
+        service = new PortalAdminUserService(portalUserService, portalUserAuthStateService, userAuthCacheService,
+                authClient, eventNotifyPublisher, rolePermissionService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchDisableUpdatesUsersAndKicksThemInOneCall() {
+        given(portalUserService.listByIds(anyCollection())).willReturn(Arrays.asList(user("u1"), user("u2")));
+        given(portalUserAuthStateService.listByIds(anyCollection()))
+                .willReturn(Collections.singletonList(authState("u1", 5L)));
+        given(authClient.kickAll(anyList())).willReturn(Arrays.asList(
+                AuthKickResult.success("u1", 3L), AuthKickResult.failure("u2", "注销会话失败")));
+
+        PortalAdminUserService.BatchActionResult result = service.updateUsersStatus(
+                Arrays.asList("u1", "u2", "u1", "missing", " "), false, OPERATOR);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getUpdatedUserIds()).containsExactly("u1", "u2");
+        assertThat(result.getMissingUserIds()).containsExactly("missing");
+        assertThat(result.getKickFailedUserIds()).containsExactly("u2");
+
+        ArgumentCaptor<Collection<PortalUser>> users = ArgumentCaptor.forClass(Collection.class);
+        verify(portalUserService).updateBatchById(users.capture());
+        assertThat(users.getValue()).extracting(PortalUser::getStatus).containsOnly(0);
+
+        ArgumentCaptor<Collection<PortalUserAuthState>> states = ArgumentCaptor.forClass(Collection.class);
+        verify(portalUserAuthStateService).saveOrUpdateBatch(states.capture());
+        assertThat(states.getValue()).extracting(PortalUserAuthState::getUserId).containsExactly("u1", "u2");
+        assertThat(states.getValue()).extracting(PortalUserAuthState::getAuthVersion).containsExactly(6L, 2L);
+        assertThat(states.getValue()).allMatch(state -> state.getLastDisableTime() != null);
+
+        verify(authClient, times(1)).kickAll(new ArrayList<>(Arrays.asList("u1", "u2")));
+        ArgumentCaptor<Map<String, UserAuthCacheService.UserAuthCache>> caches = ArgumentCaptor.forClass(Map.class);
+        verify(userAuthCacheService).updateUserAuthCaches(caches.capture());
+        assertThat(caches.getValue()).containsOnlyKeys("u1", "u2");
+        assertThat(caches.getValue().get("u1").getAuthVersion()).isEqualTo(6L);
+        assertThat(caches.getValue().get("u2").getAuthVersion()).isEqualTo(2L);
+        assertThat(caches.getValue().values()).extracting(UserAuthCacheService.UserAuthCache::getStatus).containsOnly(0);
+        ArgumentCaptor<List<Map<String, String>>> messages = ArgumentCaptor.forClass(List.class);
+        verify(eventNotifyPublisher).publishAll(eq("portal:events:USER_DISABLED"), messages.capture());
+        assertThat(messages.getValue()).extracting(message -> message.get("userId")).containsExactly("u1", "u2");
+        verify(eventNotifyPublisher, never()).publish(anyString(), anyMap());
+    }
+
+    @Test
+    void batchEnableDoesNotRecordDisableTime() {
+        given(portalUserService.listByIds(anyCollection())).willReturn(Collections.singletonList(user("u1")));
+        given(portalUserAuthStateService.listByIds(anyCollection())).willReturn(Collections.emptyList());
+        given(authClient.kickAll(anyList())).willReturn(Collections.singletonList(AuthKickResult.success("u1", 1L)));
+
+        PortalAdminUserService.BatchActionResult result = service.updateUsersStatus(
+                Collections.singletonList("u1"), true, OPERATOR);
+
+        assertThat(result.getKickFailedUserIds()).isEmpty();
+        verify(userAuthCacheService).updateUserAuthCaches(anyMap());
+        verify(eventNotifyPublisher).publishAll(eq("portal:events:USER_ENABLED"), anyList());
+    }
+
+    @Test
+    void batchKickAndPublishRunOnlyAfterCommit() {
+        given(portalUserService.listByIds(anyCollection())).willReturn(Collections.singletonList(user("u1")));
+        given(portalUserAuthStateService.listByIds(anyCollection())).willReturn(Collections.emptyList());
+        given(authClient.kickAll(anyList())).willReturn(Collections.singletonList(
+                AuthKickResult.failure("u1", "注销会话失败")));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            PortalAdminUserService.BatchActionResult result = service.updateUsersStatus(
+                    Collections.singletonList("u1"), false, OPERATOR);
+
+            verify(authClient, never()).kickAll(anyList());
+            verify(eventNotifyPublisher, never()).publishAll(anyString(), anyList());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            verify(authClient).kickAll(Collections.singletonList("u1"));
+            verify(eventNotifyPublisher).publishAll(eq("portal:events:USER_DISABLED"), anyList());
+            assertThat(result.getKickFailedUserIds()).containsExactly("u1");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void missingUsersOnlyAreNotKicked() {
+        given(portalUserService.listByIds(anyCollection())).willReturn(Collections.emptyList());
+
+        PortalAdminUserService.BatchActionResult result = service.updateUsersStatus(
+                Collections.singletonList("missing"), false, OPERATOR);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getMissingUserIds()).containsExactly("missing");
+        verify(authClient, never()).kickAll(anyList());
+    }
+
+    @Test
+    void rejectsNonAdminOrEmptyRequest() {
+        assertThat(service.updateUsersStatus(Collections.singletonList("u1"), false, "someone").getErrorCode())
+                .isEqualTo(ErrorCode.FORBIDDEN);
+        assertThat(service.updateUsersStatus(Collections.singletonList(" "), false, OPERATOR).getErrorCode())
+                .isEqualTo(ErrorCode.INVALID_ARGUMENT);
+        verify(portalUserService, never()).updateBatchById(anyCollection());
+        verify(authClient, never()).kickAll(anyList());
+    }
+
+    private static PortalUser user(String id) {
+        PortalUser user = new PortalUser();
+        user.setId(id);
+        user.setStatus(1);
+        return user;
+    }
+
+    private static PortalUserAuthState authState(String userId, long authVersion) {
+        PortalUserAuthState state = new PortalUserAuthState();
+        state.setUserId(userId);
+        state.setAuthVersion(authVersion);
+        state.setProfileVersion(1L);
+        return state;
+    }
+}